@@ -0,0 +1,20 @@
+package compi3.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta la suite con el profiler de GC (tasa de asignación por operación).
+ * Argumento opcional: expresión regular de los benchmarks a correr, por ejemplo "Lexer".
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : "compi3\\.bench\\..*Benchmark")
+            .addProfiler(GCProfiler.class);
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,50 @@
+package compi3.bench;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput de BasicLexerCup.next_token sobre el programa completo, sin registro de tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int lineas;
+
+    String fuente;
+
+    @Setup
+    public void preparar() throws Throwable {
+        Puente.silenciarSalida();
+        fuente = Puente.generarPrograma(lineas);
+    }
+
+    // Retorna la cantidad de tokens para que JMH no elimine el trabajo
+    @Benchmark
+    public int tokens() throws Throwable {
+        Object lexer = Puente.nuevoLexer(new StringReader(fuente));
+        int n = 0;
+        while (Puente.siguienteToken(lexer) != 0) {
+            n++;
+        }
+        return n;
+    }
+}
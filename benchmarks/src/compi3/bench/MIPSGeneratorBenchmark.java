@@ -0,0 +1,45 @@
+package compi3.bench;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MIPSGenerator: recorrido de los cuádruplos (splitter) y emisión del .asm en memoria.
+ * El código intermedio se construye una sola vez en el setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MIPSGeneratorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int lineas;
+
+    Object programa;
+
+    @Setup
+    public void preparar() throws Throwable {
+        Puente.silenciarSalida();
+        programa = Puente.parsear(new StringReader(Puente.generarPrograma(lineas)));
+    }
+
+    @Benchmark
+    public String generarCodigo() throws Throwable {
+        return Puente.generarCodigo(programa);
+    }
+}
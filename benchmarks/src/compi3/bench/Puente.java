@@ -0,0 +1,101 @@
+package compi3.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java_cup.runtime.Symbol;
+
+/**
+ * Acceso a las clases del compilador, que están en el paquete por defecto y no se pueden
+ * importar desde un paquete con nombre (JMH no acepta benchmarks sin paquete).
+ * Los MethodHandle son static final, así que el JIT los resuelve como llamadas directas.
+ */
+final class Puente {
+
+    private static final MethodHandle NUEVO_LEXER;
+    private static final MethodHandle SIGUIENTE_TOKEN;
+    private static final MethodHandle NUEVO_PARSER;
+    private static final MethodHandle PARSEAR;
+    private static final MethodHandle CODIGO_INTERMEDIO;
+    private static final MethodHandle NUEVO_GENERADOR;
+    private static final MethodHandle GENERAR_CODIGO;
+    private static final MethodHandle NUEVO_GENERADOR_PROGRAMAS;
+    private static final MethodHandle GENERAR_PROGRAMA;
+
+    // Semilla fija: todas las corridas miden el mismo programa para cada tamaño
+    private static final long SEMILLA = 42;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> lexer = Class.forName("BasicLexerCup");
+            Class<?> registro = Class.forName("RegistroTokens");
+            Class<?> parser = Class.forName("parser");
+            Class<?> programa = Class.forName("ProgramaIR");
+            Class<?> generador = Class.forName("MIPSGenerator");
+            Class<?> generadorProgramas = Class.forName("GeneradorProgramas");
+
+            // new BasicLexerCup(reader, null): sin registro de tokens
+            NUEVO_LEXER = MethodHandles.insertArguments(
+                    lookup.findConstructor(lexer, MethodType.methodType(void.class, Reader.class, registro)),
+                    1, (Object) null)
+                .asType(MethodType.methodType(Object.class, Reader.class));
+            SIGUIENTE_TOKEN = lookup.findVirtual(lexer, "next_token", MethodType.methodType(Symbol.class))
+                .asType(MethodType.methodType(Symbol.class, Object.class));
+            NUEVO_PARSER = lookup.findConstructor(parser, MethodType.methodType(void.class, lexer))
+                .asType(MethodType.methodType(Object.class, Object.class));
+            PARSEAR = lookup.findVirtual(parser, "parse", MethodType.methodType(Symbol.class))
+                .asType(MethodType.methodType(Symbol.class, Object.class));
+            CODIGO_INTERMEDIO = lookup.findVirtual(parser, "getCodigoIntermedio", MethodType.methodType(programa))
+                .asType(MethodType.methodType(Object.class, Object.class));
+            NUEVO_GENERADOR = lookup.findConstructor(generador, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(Object.class));
+            GENERAR_CODIGO = lookup.findVirtual(generador, "generarCodigo", MethodType.methodType(String.class, programa))
+                .asType(MethodType.methodType(String.class, Object.class, Object.class));
+            NUEVO_GENERADOR_PROGRAMAS = lookup.findConstructor(generadorProgramas, MethodType.methodType(void.class, long.class))
+                .asType(MethodType.methodType(Object.class, long.class));
+            GENERAR_PROGRAMA = lookup.findVirtual(generadorProgramas, "generar", MethodType.methodType(String.class, int.class))
+                .asType(MethodType.methodType(String.class, Object.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Puente() {
+    }
+
+    static Object nuevoLexer(Reader reader) throws Throwable {
+        return (Object) NUEVO_LEXER.invokeExact(reader);
+    }
+
+    static int siguienteToken(Object lexer) throws Throwable {
+        return ((Symbol) SIGUIENTE_TOKEN.invokeExact(lexer)).sym;
+    }
+
+    // Análisis léxico+sintáctico completo, retorna el ProgramaIR
+    static Object parsear(Reader reader) throws Throwable {
+        Object parser = (Object) NUEVO_PARSER.invokeExact(nuevoLexer(reader));
+        Symbol resultado = (Symbol) PARSEAR.invokeExact(parser);
+        return (Object) CODIGO_INTERMEDIO.invokeExact(parser);
+    }
+
+    static String generarCodigo(Object programa) throws Throwable {
+        Object generador = (Object) NUEVO_GENERADOR.invokeExact();
+        return (String) GENERAR_CODIGO.invokeExact(generador, programa);
+    }
+
+    // Programa sintético de GeneradorProgramas con la cantidad de líneas pedida
+    static String generarPrograma(int lineas) throws Throwable {
+        Object generador = (Object) NUEVO_GENERADOR_PROGRAMAS.invokeExact(SEMILLA);
+        return (String) GENERAR_PROGRAMA.invokeExact(generador, lineas);
+    }
+
+    // El lexer y el parser imprimen mensajes de depuración; no deben medirse
+    static void silenciarSalida() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -4,7 +4,6 @@ import java.io.IOException;
 
 public class App {
 
-    private static AppAux app = new AppAux();
     private static final String ERROR_FILE = "src/output/errors.log";
 
     public String getGreeting() {
@@ -12,17 +11,42 @@ public class App {
     }
 
     public static void main(String[] args) {
+        // Cada ejecución usa su propia sesión de compilación
+        AppAux app = new AppAux();
+        // Fase hasta la que se compila: --fase=lex|parse|codegen (por defecto codegen)
+        Compiler.Fase fase = Compiler.Fase.CODIGO;
         try {
-            // Verificar si el archivo de errores existe y eliminarlo si es necesario
-            app.ejecutarLexer();
+            // --codigo3d: guarda el código intermedio en src/output/codigo3D.txt para depuración
+            for (String arg : args) {
+                if (arg.equals("--codigo3d")) {
+                    app.setVolcarCodigo3D(true);
+                } else if (arg.startsWith("--tokens=")) {
+                    // --tokens=apagado|buffer|asincrono
+                    app.setModoTokens(RegistroTokens.Modo.desde(arg.substring("--tokens=".length())));
+                } else if (arg.startsWith("--fase=")) {
+                    fase = Compiler.Fase.desde(arg.substring("--fase=".length()));
+                } else if (arg.startsWith("-O")) {
+                    // -O0, -O1 (por defecto) o -O2
+                    app.setNivelOptimizacion(Integer.parseInt(arg.substring(2)));
+                }
+            }
+
+            if (fase == Compiler.Fase.LEXICO) {
+                // Solo análisis léxico
+                app.ejecutarLexer();
+                System.out.println("Análisis léxico completado");
+                return;
+            }
 
-            // Ejecutar el análisis léxico y sintáctico
-            app.ejecutarLexerParser();
+            // Análisis léxico y sintáctico en un solo pase
+            ProgramaIR codigo3D = app.ejecutarLexerParser();
             System.out.println("Proceso completado exitosamente");
+            if (fase == Compiler.Fase.SINTACTICO) {
+                return;
+            }
 
-            // --- Generar código MIPS ---
-            MIPSGenerator mipsGen = new MIPSGenerator();
-            mipsGen.generateMips();
+            // --- Generar código MIPS directamente desde el código intermedio en memoria ---
+            app.ejecutarGeneradorMips();
             System.out.println("Código MIPS generado en src/output/mipsCode.asm");
             
         } catch (Exception e) {
@@ -1,11 +1,12 @@
-
 import java.nio.file.*;
 
 public class AppAux {
     // Globales - Rutas constantes
     private static final String INPUT_FILE = "src/resources/ejemplo2.txt";
     private static final String OUTPUT_FILE = "src/output/output.txt";
-    private static MainFlexCup mfjc = new MainFlexCup();
+
+    // Cada AppAux tiene su propia compilación
+    private final MainFlexCup mfjc = new MainFlexCup();
 
     /**
     public static void generarLexerParser() throws Exception {
@@ -13,8 +14,23 @@ public class AppAux {
     }
     */
 
+    //Activa el volcado del código intermedio a codigo3D.txt
+    public void setVolcarCodigo3D(boolean volcar) {
+        mfjc.setVolcarCodigo3D(volcar);
+    }
+
+    //Modo de tokens.log: apagado, buffer o asincrono
+    public void setModoTokens(RegistroTokens.Modo modo) {
+        mfjc.setModoTokens(modo);
+    }
+
+    //Nivel de optimización del generador MIPS (-O0, -O1, -O2)
+    public void setNivelOptimizacion(int nivel) {
+        mfjc.setNivelOptimizacion(nivel);
+    }
+
     //Funcion puente que llama a la funcion que hace el analisis lexico en el archivo
-    public static void ejecutarLexer() throws Exception {
+    public void ejecutarLexer() throws Exception {
         String basePath = System.getProperty("user.dir");
         String path = Paths.get(basePath, INPUT_FILE).toString();
         /* 
@@ -25,12 +41,19 @@ public class AppAux {
     }
 
     //Funcion puente que llama a la funcion que hace el analisis sintactico en el archivo
-    public static void ejecutarLexerParser() throws Exception {
-        MainFlexCup.AnalizadorLexicoSintactico();
+    //Retorna el código intermedio generado por el parser
+    public ProgramaIR ejecutarLexerParser() throws Exception {
+        ProgramaIR codigo3D = mfjc.AnalizadorLexicoSintactico();
 
         // 4. Escribir resultados
         FileManager.writeFile(OUTPUT_FILE, "Análisis completado correctamente");
         System.out.println("\nTokens registrados en tokens.log " );
+        return codigo3D;
+    }
+
+    //Funcion puente que genera el código MIPS del último análisis
+    public void ejecutarGeneradorMips() throws Exception {
+        mfjc.GenerarMips();
     }
 
 }
@@ -0,0 +1,397 @@
+import java.util.Arrays;
+
+/**
+ * Asignador de registros por coloreo del grafo de interferencia (Chaitin/Briggs), para el
+ * nivel de optimización 2.
+ *
+ * El grafo sale de la Vivacidad de la función: dos temporales de la misma clase
+ * interfieren si uno se define mientras el otro está vivo, salvo en una copia entre
+ * ellos. Las copias temporal = temporal se fusionan con el criterio conservador de
+ * Briggs, así la copia desaparece sin volver el grafo más difícil de colorear. Al
+ * simplificar, si ningún nodo tiene grado menor que sus registros se elige el de menor
+ * costo/grado como candidato a derrame, con los usos pesados por 10^profundidad del
+ * ciclo, y se deja para la selección por si igual recibe un color (coloreo optimista).
+ *
+ * El grafo es una matriz de bits, así que las funciones con más de MAX_TEMPORALES
+ * temporales (o sin vivacidad porque no cupo) se asignan con el barrido lineal.
+ */
+public class AsignadorColoreo extends AsignadorRegistros {
+
+    static final int MAX_TEMPORALES = 4096;
+    private static final int MAX_PROFUNDIDAD = 6;
+    private static final long FLOTANTES = FLOTANTES_TEMPORALES | FLOTANTES_PRESERVADOS;
+
+    // Por nodo (índice local 0..cantidad-1 en temporales)
+    private int[] local = new int[0];     // índice local de cada temporal del programa
+    private long[] adyacencia = new long[0];
+    private int palabras;
+    private int[] grado = new int[0];
+    private long[] permitidos = new long[0];
+    private long[] costo = new long[0];
+    private int[] alias = new int[0];     // nodo en el que se fusionó, o él mismo
+    private int[] color = new int[0];
+    private boolean[] quitado = new boolean[0];
+
+    // Copias (destino, origen) en índices locales
+    private int[] copias = new int[32];
+    private int cantidadCopias;
+
+    @Override
+    void barrer(ProgramaIR programa) {
+        if (cantidad > MAX_TEMPORALES || !vivacidadCalculada) {
+            super.barrer(programa);
+            return;
+        }
+        preparar(programa);
+        construirInterferencia();
+        calcularCostos();
+        fusionarCopias();
+        int[] pila = simplificar();
+        seleccionar(pila);
+
+        for (int i = 0; i < cantidad; i++) {
+            int raiz = buscar(i);
+            if (color[raiz] >= 0) {
+                asignarRegistro(temporales[i], color[raiz]);
+            }
+        }
+        // Los temporales fusionados comparten la ranura del nodo derramado
+        int[] ranuraNodo = new int[cantidad];
+        Arrays.fill(ranuraNodo, -1);
+        for (int i = 0; i < cantidad; i++) {
+            int raiz = buscar(i);
+            if (color[raiz] < 0) {
+                if (ranuraNodo[raiz] < 0) {
+                    ranuraNodo[raiz] = nuevaRanura();
+                }
+                asignarRanura(temporales[i], ranuraNodo[raiz]);
+            }
+        }
+    }
+
+    private void preparar(ProgramaIR programa) {
+        if (local.length < programa.getCantidadTemporales()) {
+            local = new int[programa.getCantidadTemporales()];
+        }
+        if (grado.length < cantidad) {
+            int n = Math.max(cantidad, 2 * grado.length);
+            grado = new int[n];
+            permitidos = new long[n];
+            costo = new long[n];
+            alias = new int[n];
+            color = new int[n];
+            quitado = new boolean[n];
+        }
+        palabras = (cantidad + 63) >>> 6;
+        if (adyacencia.length < cantidad * palabras) {
+            adyacencia = new long[cantidad * palabras];
+        } else {
+            Arrays.fill(adyacencia, 0, cantidad * palabras, 0L);
+        }
+        for (int i = 0; i < cantidad; i++) {
+            int t = temporales[i];
+            local[t] = i;
+            grado[i] = 0;
+            permitidos[i] = permitidos(programa, t);
+            costo[i] = 0;
+            alias[i] = i;
+            color[i] = -1;
+            quitado[i] = false;
+        }
+        cantidadCopias = 0;
+    }
+
+    // ===================== Grafo =====================
+
+    private boolean interfieren(int a, int b) {
+        return (adyacencia[a * palabras + (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    private void agregarArista(int a, int b) {
+        if (a == b || interfieren(a, b)) {
+            return;
+        }
+        adyacencia[a * palabras + (b >>> 6)] |= 1L << b;
+        adyacencia[b * palabras + (a >>> 6)] |= 1L << a;
+        grado[a]++;
+        grado[b]++;
+    }
+
+    private void quitarArista(int a, int b) {
+        if (!interfieren(a, b)) {
+            return;
+        }
+        adyacencia[a * palabras + (b >>> 6)] &= ~(1L << b);
+        adyacencia[b * palabras + (a >>> 6)] &= ~(1L << a);
+        grado[a]--;
+        grado[b]--;
+    }
+
+    private boolean mismaClase(int a, int b) {
+        return ((permitidos[a] & FLOTANTES) != 0) == ((permitidos[b] & FLOTANTES) != 0);
+    }
+
+    // Registros disponibles para el nodo
+    private int k(int nodo) {
+        return Long.bitCount(permitidos[nodo]);
+    }
+
+    /**
+     * Recorre cada bloque hacia atrás con los temporales vivos: lo que define un cuádruplo
+     * interfiere con lo que sigue vivo después de él, salvo el origen de una copia. También
+     * interfiere con los operandos del mismo cuádruplo, porque algunas traducciones
+     * (potencia, por ejemplo) escriben el destino antes de terminar de leerlos.
+     * De paso registra las copias entre temporales.
+     */
+    private void construirInterferencia() {
+        long[] vivos = new long[vivacidad.getPalabras()];
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            vivacidad.copiarSalida(b, vivos);
+            for (int i = grafo.fin(b) - 1; i >= grafo.inicio(b); i--) {
+                int d = vivacidad.definicion(i);
+                if (d >= 0) {
+                    Cuadruplo c = codigo.get(i);
+                    int origen = c.op == Operacion.COPIA && Operando.esTemporal(c.arg1) ? Operando.valor(c.arg1) : -1;
+                    int nodo = local[d];
+                    for (int w = 0; w < vivos.length; w++) {
+                        for (long x = vivos[w]; x != 0; x &= x - 1) {
+                            int t = vivacidad.temporal(w * 64 + Long.numberOfTrailingZeros(x));
+                            if (t != origen) {
+                                interferir(nodo, local[t]);
+                            }
+                        }
+                    }
+                    int n = vivacidad.cantidadUsos(i);
+                    for (int k = 0; k < n; k++) {
+                        int u = vivacidad.uso(i, k);
+                        if (u >= 0 && u != origen) {
+                            interferir(nodo, local[u]);
+                        }
+                    }
+                    if (origen >= 0) {
+                        agregarCopia(nodo, local[origen]);
+                    }
+                }
+                vivacidad.retroceder(i, vivos);
+            }
+        }
+    }
+
+    private void interferir(int a, int b) {
+        if (mismaClase(a, b)) {
+            agregarArista(a, b);
+        }
+    }
+
+    private void agregarCopia(int d, int o) {
+        if (d == o || !mismaClase(d, o)) {
+            return;
+        }
+        if (2 * cantidadCopias + 1 >= copias.length) {
+            copias = Arrays.copyOf(copias, copias.length * 2);
+        }
+        copias[2 * cantidadCopias] = d;
+        copias[2 * cantidadCopias + 1] = o;
+        cantidadCopias++;
+    }
+
+    /**
+     * Costo de derrame: cada aparición pesa 10^profundidad del ciclo que la contiene.
+     * La profundidad sale de los saltos hacia atrás: cada uno cubre [cabecera, salto].
+     */
+    private void calcularCostos() {
+        int[] profundidad = new int[hasta - desde + 1];
+        for (int s = 0; s < cantidadSaltos; s++) {
+            int origen = saltos[2 * s];
+            int cabecera = posicionEtiqueta[saltos[2 * s + 1]];
+            if (cabecera >= 0 && cabecera <= origen) {
+                profundidad[cabecera - desde]++;
+                profundidad[origen - desde + 1]--;
+            }
+        }
+        int actual = 0;
+        for (int i = desde; i < hasta; i++) {
+            actual += profundidad[i - desde];
+            long peso = 1;
+            for (int p = Math.min(actual, MAX_PROFUNDIDAD); p > 0; p--) {
+                peso *= 10;
+            }
+            Cuadruplo c = codigo.get(i);
+            sumarCosto(c.resultado, peso);
+            sumarCosto(c.arg1, peso);
+            sumarCosto(c.arg2, peso);
+        }
+    }
+
+    private void sumarCosto(long operando, long peso) {
+        if (Operando.esTemporal(operando)) {
+            costo[local[Operando.valor(operando)]] += peso;
+        }
+    }
+
+    // ===================== Fusión de copias =====================
+
+    private int buscar(int nodo) {
+        while (alias[nodo] != nodo) {
+            alias[nodo] = alias[alias[nodo]];
+            nodo = alias[nodo];
+        }
+        return nodo;
+    }
+
+    /**
+     * Fusiona los dos nodos de cada copia si no interfieren y el nodo resultante tiene
+     * menos de K vecinos de grado significativo (criterio de Briggs).
+     */
+    private void fusionarCopias() {
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int m = 0; m < cantidadCopias; m++) {
+                int a = buscar(copias[2 * m]);
+                int b = buscar(copias[2 * m + 1]);
+                if (a == b || interfieren(a, b)) {
+                    continue;
+                }
+                long juntos = permitidos[a] & permitidos[b];
+                if (juntos == 0 || !conservador(a, b, Long.bitCount(juntos))) {
+                    continue;
+                }
+                fusionar(a, b, juntos);
+                cambio = true;
+            }
+        }
+    }
+
+    private boolean conservador(int a, int b, int k) {
+        int significativos = 0;
+        for (int w = 0; w < palabras; w++) {
+            long vecinos = adyacencia[a * palabras + w] | adyacencia[b * palabras + w];
+            while (vecinos != 0) {
+                int x = (w << 6) + Long.numberOfTrailingZeros(vecinos);
+                vecinos &= vecinos - 1;
+                // Un vecino común pierde una arista al fusionar
+                int g = grado[x] - (interfieren(x, a) && interfieren(x, b) ? 1 : 0);
+                if (g >= k(x) && ++significativos >= k) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // b pasa a ser parte de a
+    private void fusionar(int a, int b, long juntos) {
+        for (int w = 0; w < palabras; w++) {
+            long vecinos = adyacencia[b * palabras + w];
+            while (vecinos != 0) {
+                int x = (w << 6) + Long.numberOfTrailingZeros(vecinos);
+                vecinos &= vecinos - 1;
+                quitarArista(b, x);
+                agregarArista(a, x);
+            }
+        }
+        alias[b] = a;
+        permitidos[a] = juntos;
+        costo[a] += costo[b];
+    }
+
+    // ===================== Simplificación y selección =====================
+
+    /**
+     * Quita nodos de grado menor que K mientras haya; si no hay, quita el de menor
+     * costo/grado de forma optimista. Retorna la pila en orden de quitado.
+     */
+    private int[] simplificar() {
+        int[] pila = new int[cantidad];
+        int tope = 0;
+        int quedan = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (buscar(i) == i) {
+                quedan++;
+            } else {
+                quitado[i] = true;
+            }
+        }
+        int[] cola = new int[cantidad];
+        int cabeza = 0;
+        int finCola = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (!quitado[i] && grado[i] < k(i)) {
+                cola[finCola++] = i;
+            }
+        }
+        while (quedan > 0) {
+            int nodo = -1;
+            while (cabeza < finCola) {
+                int candidato = cola[cabeza++];
+                if (!quitado[candidato]) {
+                    nodo = candidato;
+                    break;
+                }
+            }
+            if (nodo < 0) {
+                nodo = candidatoDerrame();
+            }
+            quitado[nodo] = true;
+            pila[tope++] = nodo;
+            quedan--;
+            for (int w = 0; w < palabras; w++) {
+                long vecinos = adyacencia[nodo * palabras + w];
+                while (vecinos != 0) {
+                    int x = (w << 6) + Long.numberOfTrailingZeros(vecinos);
+                    vecinos &= vecinos - 1;
+                    if (!quitado[x] && grado[x]-- == k(x)) {
+                        // Acaba de quedar con grado menor que K
+                        if (finCola == cola.length) {
+                            cola = Arrays.copyOf(cola, cola.length * 2);
+                        }
+                        cola[finCola++] = x;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(pila, tope);
+    }
+
+    private int candidatoDerrame() {
+        int mejor = -1;
+        double mejorRazon = Double.MAX_VALUE;
+        for (int i = 0; i < cantidad; i++) {
+            if (quitado[i]) {
+                continue;
+            }
+            double razon = (double) costo[i] / Math.max(1, grado[i]);
+            if (razon < mejorRazon) {
+                mejorRazon = razon;
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    // Colorea en orden inverso; prefiere registros no preservados como el barrido lineal
+    private void seleccionar(int[] pila) {
+        for (int p = pila.length - 1; p >= 0; p--) {
+            int nodo = pila[p];
+            long ocupados = 0;
+            for (int w = 0; w < palabras; w++) {
+                long vecinos = adyacencia[nodo * palabras + w];
+                while (vecinos != 0) {
+                    int x = (w << 6) + Long.numberOfTrailingZeros(vecinos);
+                    vecinos &= vecinos - 1;
+                    if (color[x] >= 0) {
+                        ocupados |= 1L << color[x];
+                    }
+                }
+            }
+            long libres = permitidos[nodo] & ~ocupados;
+            long preferidos = libres & (ENTEROS_TEMPORALES | FLOTANTES_TEMPORALES);
+            if (preferidos != 0) {
+                color[nodo] = Long.numberOfTrailingZeros(preferidos);
+            } else if (libres != 0) {
+                color[nodo] = Long.numberOfTrailingZeros(libres);
+            }
+        }
+    }
+}
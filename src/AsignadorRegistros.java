@@ -0,0 +1,478 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Asignador de registros por barrido lineal (linear scan) sobre los temporales del
+ * código intermedio, una función a la vez.
+ *
+ * El intervalo de vida de un temporal cubre, en el orden del código, todos los puntos en
+ * los que aparece o está vivo según la Vivacidad sobre el GrafoFlujo de la función; así
+ * un valor que se usa en un ciclo sigue vivo hasta el salto que vuelve a la cabecera, y
+ * los argumentos viven hasta la llamada que los consume. Si la función es demasiado
+ * grande para los conjuntos de bits, el intervalo se extiende hasta cada salto hacia
+ * atrás que empiece dentro de él.
+ *
+ * Los temporales que siguen vivos después de una llamada van en registros que la función
+ * llamada preserva ($s0-$s7, $f20-$f31); el resto prefiere $t0-$t9 y $f4-$f11, $f16-$f19.
+ * Cuando no alcanzan los registros se derrama a la pila el intervalo que termina más
+ * tarde, que puede ser el actual. Un temporal que nace en una copia de otro que muere ahí
+ * toma su registro, así la copia no genera move.
+ *
+ * Es el asignador por defecto; AsignadorColoreo reemplaza el barrido por coloreo de grafos
+ * con la misma vivacidad (ver para).
+ */
+public class AsignadorRegistros {
+
+    // Registros asignables; el índice en la tabla es el bit en las máscaras
+    static final String[] REGISTROS = {
+        "$t0", "$t1", "$t2", "$t3", "$t4", "$t5", "$t6", "$t7", "$t8", "$t9",
+        "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7",
+        "$f4", "$f5", "$f6", "$f7", "$f8", "$f9", "$f10", "$f11", "$f16", "$f17", "$f18", "$f19",
+        "$f20", "$f21", "$f22", "$f23", "$f24", "$f25", "$f26", "$f27", "$f28", "$f29", "$f30", "$f31"
+    };
+    static final long ENTEROS_TEMPORALES = mascara(0, 10);
+    static final long ENTEROS_PRESERVADOS = mascara(10, 18);
+    static final long FLOTANTES_TEMPORALES = mascara(18, 30);
+    static final long FLOTANTES_PRESERVADOS = mascara(30, 42);
+    static final long PRESERVADOS = ENTEROS_PRESERVADOS | FLOTANTES_PRESERVADOS;
+
+    private static long mascara(int desde, int hasta) {
+        return (-1L >>> (64 - (hasta - desde))) << desde;
+    }
+
+    /**
+     * Asignador para el nivel de optimización: desde el nivel 2 se colorea el grafo de
+     * interferencia, que tarda más pero derrama menos en los ciclos
+     */
+    public static AsignadorRegistros para(int nivelOptimizacion) {
+        return nivelOptimizacion >= 2 ? new AsignadorColoreo() : new AsignadorRegistros();
+    }
+
+    // Por temporal (índice = número de temporal); -1 si no aplica
+    int[] inicio = new int[0];
+    int[] fin = new int[0];
+    int[] registro = new int[0];
+    int[] ranura = new int[0];
+    boolean[] cruzaLlamada = new boolean[0];
+
+    // Temporales de la función actual
+    int[] temporales = new int[64];
+    int cantidad;
+
+    // Código de la función actual
+    List<Cuadruplo> codigo;
+    int desde;
+    int hasta;
+
+    // Posición de cada etiqueta de la función actual
+    int[] posicionEtiqueta = new int[0];
+
+    // Grafo de flujo y vivacidad de la función actual; vivacidadCalculada es false si no cupo
+    final GrafoFlujo grafo = new GrafoFlujo();
+    final Vivacidad vivacidad = new Vivacidad();
+    boolean vivacidadCalculada;
+
+    // Saltos (origen, etiqueta), llamadas y argumentos pendientes de la función actual
+    int[] saltos = new int[64];
+    int cantidadSaltos;
+    private int[] llamadas = new int[16];
+    private int cantidadLlamadas;
+    private int[] argumentos = new int[16];
+    private int cantidadArgumentos;
+
+    // Intervalos que ocupan un registro en el punto actual del barrido
+    private final int[] activos = new int[REGISTROS.length];
+    private int cantidadActivos;
+
+    private long preservadosUsados;
+    private int ranuras;
+
+    /**
+     * Asigna registros a los temporales de codigo[desde, hasta), que debe ser una función
+     * completa (o el código fuera de funciones). El resultado se consulta con registro,
+     * ranura, getPreservados y getRanuras hasta la siguiente llamada.
+     */
+    public void asignar(ProgramaIR programa, List<Cuadruplo> codigo, int desde, int hasta) {
+        this.codigo = codigo;
+        this.desde = desde;
+        this.hasta = hasta;
+        reiniciar(programa);
+        calcularIntervalos(programa, codigo, desde, hasta);
+        grafo.construir(programa, codigo, desde, hasta);
+        vivacidadCalculada = vivacidad.calcular(programa, grafo);
+        if (vivacidadCalculada) {
+            extenderVivos();
+            marcarVivosEnLlamadas(programa);
+        } else {
+            extenderCiclos();
+            marcarLlamadas();
+        }
+        barrer(programa);
+    }
+
+    /**
+     * Registro asignado al temporal, o null si quedó en una ranura de la pila
+     */
+    public String registro(int temporal) {
+        int r = registro[temporal];
+        return r >= 0 ? REGISTROS[r] : null;
+    }
+
+    /**
+     * Ranura de la pila del temporal derramado (0, 1, ...), o -1 si está en un registro
+     */
+    public int ranura(int temporal) {
+        return ranura[temporal];
+    }
+
+    public int getRanuras() {
+        return ranuras;
+    }
+
+    /**
+     * Registros preservados ($s y $f20-$f31) que usa la función; debe guardarlos al entrar
+     */
+    public List<String> getPreservados() {
+        ArrayList<String> usados = new ArrayList<>();
+        for (int r = 0; r < REGISTROS.length; r++) {
+            if ((preservadosUsados & (1L << r)) != 0) {
+                usados.add(REGISTROS[r]);
+            }
+        }
+        return usados;
+    }
+
+    // Limpia solo lo que usó la función anterior
+    private void reiniciar(ProgramaIR programa) {
+        int temporalesPrograma = programa.getCantidadTemporales();
+        if (inicio.length < temporalesPrograma) {
+            inicio = nuevoArreglo(temporalesPrograma);
+            fin = nuevoArreglo(temporalesPrograma);
+            registro = nuevoArreglo(temporalesPrograma);
+            ranura = nuevoArreglo(temporalesPrograma);
+            cruzaLlamada = new boolean[temporalesPrograma];
+        } else {
+            for (int i = 0; i < cantidad; i++) {
+                int t = temporales[i];
+                inicio[t] = fin[t] = registro[t] = ranura[t] = -1;
+                cruzaLlamada[t] = false;
+            }
+        }
+        if (posicionEtiqueta.length < programa.getCantidadEtiquetas()) {
+            posicionEtiqueta = nuevoArreglo(programa.getCantidadEtiquetas());
+        } else {
+            for (int i = 0; i < cantidadSaltos; i++) {
+                posicionEtiqueta[saltos[2 * i + 1]] = -1;
+            }
+        }
+        cantidad = 0;
+        cantidadSaltos = 0;
+        cantidadLlamadas = 0;
+        cantidadArgumentos = 0;
+        cantidadActivos = 0;
+        preservadosUsados = 0;
+        ranuras = 0;
+    }
+
+    private static int[] nuevoArreglo(int largo) {
+        int[] a = new int[largo];
+        Arrays.fill(a, -1);
+        return a;
+    }
+
+    // ===================== Intervalos =====================
+
+    private void calcularIntervalos(ProgramaIR programa, List<Cuadruplo> codigo, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            Cuadruplo c = codigo.get(i);
+            switch (c.op) {
+                case ETIQUETA:
+                    posicionEtiqueta[Operando.valor(c.arg1)] = i;
+                    break;
+                case SALTO:
+                    agregarSalto(i, Operando.valor(c.arg1));
+                    break;
+                case SALTO_SI:
+                case SALTO_SI_FALSO:
+                    aparece(c.arg1, i);
+                    agregarSalto(i, Operando.valor(c.arg2));
+                    break;
+                case SALTO_TABLA: {
+                    aparece(c.arg1, i);
+                    ProgramaIR.TablaSaltos tabla = programa.getTabla(Operando.valor(c.arg2));
+                    for (int etiqueta : tabla.etiquetas) {
+                        agregarSalto(i, etiqueta);
+                    }
+                    agregarSalto(i, tabla.porDefecto);
+                    break;
+                }
+                case PARAMETRO:
+                    // El generador carga los argumentos recién en la llamada
+                    aparece(c.arg1, i);
+                    if (cantidadArgumentos == argumentos.length) {
+                        argumentos = Arrays.copyOf(argumentos, argumentos.length * 2);
+                    }
+                    argumentos[cantidadArgumentos++] = Operando.esTemporal(c.arg1) ? Operando.valor(c.arg1) : -1;
+                    break;
+                case LLAMADA:
+                    int n = Math.min(Operando.valor(c.arg2), cantidadArgumentos);
+                    for (int k = 0; k < n; k++) {
+                        int t = argumentos[--cantidadArgumentos];
+                        if (t >= 0) {
+                            fin[t] = i;
+                        }
+                    }
+                    if (esLlamadaReal(programa, c)) {
+                        if (cantidadLlamadas == llamadas.length) {
+                            llamadas = Arrays.copyOf(llamadas, llamadas.length * 2);
+                        }
+                        llamadas[cantidadLlamadas++] = i;
+                    }
+                    aparece(c.resultado, i);
+                    break;
+                default:
+                    aparece(c.resultado, i);
+                    aparece(c.arg1, i);
+                    aparece(c.arg2, i);
+            }
+        }
+    }
+
+    private void aparece(long operando, int posicion) {
+        if (!Operando.esTemporal(operando)) {
+            return;
+        }
+        int t = Operando.valor(operando);
+        if (inicio[t] < 0) {
+            inicio[t] = posicion;
+            if (cantidad == temporales.length) {
+                temporales = Arrays.copyOf(temporales, cantidad * 2);
+            }
+            temporales[cantidad++] = t;
+        }
+        fin[t] = Math.max(fin[t], posicion);
+    }
+
+    private void agregarSalto(int origen, int etiqueta) {
+        if (2 * cantidadSaltos + 1 >= saltos.length) {
+            saltos = Arrays.copyOf(saltos, saltos.length * 2);
+        }
+        saltos[2 * cantidadSaltos] = origen;
+        saltos[2 * cantidadSaltos + 1] = etiqueta;
+        cantidadSaltos++;
+    }
+
+    // Cada intervalo cubre también los bordes de los bloques en los que el temporal está vivo
+    private void extenderVivos() {
+        int palabras = vivacidad.getPalabras();
+        long[] vivos = new long[palabras];
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            vivacidad.copiarEntrada(b, vivos);
+            cubrir(vivos, grafo.inicio(b));
+            vivacidad.copiarSalida(b, vivos);
+            cubrir(vivos, grafo.fin(b) - 1);
+        }
+    }
+
+    private void cubrir(long[] vivos, int posicion) {
+        for (int w = 0; w < vivos.length; w++) {
+            for (long x = vivos[w]; x != 0; x &= x - 1) {
+                int t = vivacidad.temporal(w * 64 + Long.numberOfTrailingZeros(x));
+                inicio[t] = Math.min(inicio[t], posicion);
+                fin[t] = Math.max(fin[t], posicion);
+            }
+        }
+    }
+
+    // Un temporal cruza una llamada si sigue vivo después de ella
+    private void marcarVivosEnLlamadas(ProgramaIR programa) {
+        if (cantidadLlamadas == 0) {
+            return;
+        }
+        long[] vivos = new long[vivacidad.getPalabras()];
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            vivacidad.copiarSalida(b, vivos);
+            for (int i = grafo.fin(b) - 1; i >= grafo.inicio(b); i--) {
+                if (esLlamadaReal(programa, codigo.get(i))) {
+                    int d = vivacidad.definicion(i);
+                    for (int w = 0; w < vivos.length; w++) {
+                        for (long x = vivos[w]; x != 0; x &= x - 1) {
+                            int t = vivacidad.temporal(w * 64 + Long.numberOfTrailingZeros(x));
+                            cruzaLlamada[t] |= t != d;
+                        }
+                    }
+                }
+                vivacidad.retroceder(i, vivos);
+            }
+        }
+    }
+
+    // Llamada a una función del programa (print y las externas no tocan los registros)
+    private static boolean esLlamadaReal(ProgramaIR programa, Cuadruplo c) {
+        if (c.op != Operacion.LLAMADA) {
+            return false;
+        }
+        ProgramaIR.Funcion funcion = programa.getFuncion(Operando.valor(c.arg1));
+        return !funcion.externa && !funcion.nombre.equals("print");
+    }
+
+    /**
+     * Sin vivacidad: un temporal vivo en la cabecera de un ciclo debe seguir vivo hasta el
+     * salto que vuelve a ella. Se repite hasta que no cambie nada por los ciclos anidados.
+     */
+    private void extenderCiclos() {
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int s = 0; s < cantidadSaltos; s++) {
+                int origen = saltos[2 * s];
+                int cabecera = posicionEtiqueta[saltos[2 * s + 1]];
+                if (cabecera < 0 || cabecera > origen) {
+                    continue;
+                }
+                for (int i = 0; i < cantidad; i++) {
+                    int t = temporales[i];
+                    if (inicio[t] < cabecera && fin[t] >= cabecera && fin[t] < origen) {
+                        fin[t] = origen;
+                        cambio = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // Sin vivacidad: un temporal cruza una llamada si su intervalo la contiene
+    private void marcarLlamadas() {
+        for (int i = 0; i < cantidad; i++) {
+            int t = temporales[i];
+            int k = Arrays.binarySearch(llamadas, 0, cantidadLlamadas, inicio[t] + 1);
+            if (k < 0) {
+                k = -k - 1;
+            }
+            cruzaLlamada[t] = k < cantidadLlamadas && llamadas[k] < fin[t];
+        }
+    }
+
+    // Registros que puede ocupar el temporal: si cruza una llamada, solo los preservados
+    long permitidos(ProgramaIR programa, int t) {
+        boolean flotante = programa.tipoTemporal(t).esFlotante();
+        long preservadosClase = flotante ? FLOTANTES_PRESERVADOS : ENTEROS_PRESERVADOS;
+        return cruzaLlamada[t] ? preservadosClase : preservadosClase | (flotante ? FLOTANTES_TEMPORALES : ENTEROS_TEMPORALES);
+    }
+
+    void asignarRegistro(int t, int r) {
+        registro[t] = r;
+        preservadosUsados |= (1L << r) & PRESERVADOS;
+    }
+
+    void asignarRanura(int t, int r) {
+        ranura[t] = r;
+        ranuras = Math.max(ranuras, r + 1);
+    }
+
+    int nuevaRanura() {
+        return ranuras;
+    }
+
+    // ===================== Barrido =====================
+
+    void barrer(ProgramaIR programa) {
+        // Orden por inicio: (inicio << 32 | temporal) en un long primitivo
+        long[] orden = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            int t = temporales[i];
+            orden[i] = ((long) inicio[t] << 32) | t;
+        }
+        Arrays.sort(orden);
+
+        long libres = ENTEROS_TEMPORALES | ENTEROS_PRESERVADOS | FLOTANTES_TEMPORALES | FLOTANTES_PRESERVADOS;
+        for (long o : orden) {
+            int t = (int) o;
+            libres |= expirar(inicio[t]);
+
+            long permitidos = permitidos(programa, t);
+            int copiado = registroDeCopia(t, permitidos);
+            if (copiado >= 0) {
+                ocupar(t, copiado);
+                continue;
+            }
+            long candidatos = libres & permitidos & (ENTEROS_TEMPORALES | FLOTANTES_TEMPORALES);
+            if (candidatos == 0) {
+                candidatos = libres & permitidos;
+            }
+            if (candidatos != 0) {
+                int r = Long.numberOfTrailingZeros(candidatos);
+                libres &= ~(1L << r);
+                ocupar(t, r);
+            } else {
+                derramar(t, permitidos);
+            }
+        }
+    }
+
+    /**
+     * Si t nace en una copia t = s y s muere ahí, t se queda con el registro de s y la copia
+     * no genera move. Retorna ese registro (s deja de estar activo) o -1.
+     */
+    private int registroDeCopia(int t, long permitidos) {
+        Cuadruplo c = codigo.get(inicio[t]);
+        if (c.op != Operacion.COPIA || !Operando.esTemporal(c.arg1) || c.resultado != Operando.temporal(t)) {
+            return -1;
+        }
+        int s = Operando.valor(c.arg1);
+        int r = registro[s];
+        if (fin[s] != inicio[t] || r < 0 || (permitidos & (1L << r)) == 0) {
+            return -1;
+        }
+        for (int i = 0; i < cantidadActivos; i++) {
+            if (activos[i] == s) {
+                activos[i] = activos[--cantidadActivos];
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    // Quita de activos los intervalos que terminaron antes de la posición; retorna sus registros
+    private long expirar(int posicion) {
+        long liberados = 0;
+        int k = 0;
+        for (int i = 0; i < cantidadActivos; i++) {
+            int t = activos[i];
+            if (fin[t] < posicion) {
+                liberados |= 1L << registro[t];
+            } else {
+                activos[k++] = t;
+            }
+        }
+        cantidadActivos = k;
+        return liberados;
+    }
+
+    private void ocupar(int t, int r) {
+        asignarRegistro(t, r);
+        activos[cantidadActivos++] = t;
+    }
+
+    // Derrama el intervalo activo que termina más tarde, o el actual si es el que más dura
+    private void derramar(int t, long permitidos) {
+        int victima = -1;
+        for (int i = 0; i < cantidadActivos; i++) {
+            int a = activos[i];
+            if ((permitidos & (1L << registro[a])) != 0 && (victima < 0 || fin[a] > fin[activos[victima]])) {
+                victima = i;
+            }
+        }
+        if (victima >= 0 && fin[activos[victima]] > fin[t]) {
+            int a = activos[victima];
+            int r = registro[a];
+            registro[a] = -1;
+            asignarRanura(a, nuevaRanura());
+            activos[victima] = activos[--cantidadActivos];
+            ocupar(t, r);
+        } else {
+            asignarRanura(t, nuevaRanura());
+        }
+    }
+}
@@ -4,8 +4,6 @@
 
 
 import java_cup.runtime.*;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -424,35 +422,13 @@ public class BasicLexerCup implements java_cup.runtime.Scanner {
   /* user code: */
     StringBuffer string = new StringBuffer();
 
-    private FileWriter tokenWriter;
-
-    // Método para inicializar el logger de tokens
-    // Entrada: Ninguna
-    // Salida: Archivo "tokens.log"
-    private void initTokenLogger() {
-        try {
-            tokenWriter = new FileWriter("src/output/tokens.log");
-            tokenWriter.write("=== TOKENS ENCONTRADOS ===\n");
-            tokenWriter.write(String.format("%-20s %-20s %-10s %-10s\n", 
-                                "TOKEN", "LEXEMA", "LINEA", "COLUMNA"));
-            tokenWriter.flush();
-        } catch (IOException e) {
-            System.err.println("Error inicializando archivo de tokens: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
+    // Registro de tokens, null cuando está apagado (no se hace nada por token)
+    private RegistroTokens tokenLog;
 
-    private void logToken(String tokenType, String lexeme) {
-        if (tokenWriter != null) {
-            try {
-                tokenWriter.write(String.format("%-20s %-20s %-10d %-10d\n", 
-                    tokenType, lexeme, yyline + 1, yycolumn + 1));
-                tokenWriter.flush();
-            } catch (IOException e) {
-                System.err.println("Error escribiendo token: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
+    // Registra el token actual leyendo el lexema directo del buffer, sin crear Strings
+    private void logToken(int type) {
+        String tokenName = (type >= 0 && type < sym.terminalNames.length) ? sym.terminalNames[type] : "UNKNOWN";
+        tokenLog.registrar(tokenName, zzBuffer, zzStartRead, zzMarkedPos - zzStartRead, yyline + 1, yycolumn + 1);
     }
 
 
@@ -460,29 +436,26 @@ public class BasicLexerCup implements java_cup.runtime.Scanner {
     // Entrada: tipo del token (int)
     // Salida: objeto Symbol con línea y columna actuales
     private Symbol symbol(int type) {
-        String tokenName = (type >= 0 && type < sym.terminalNames.length) ? sym.terminalNames[type] : "UNKNOWN";
-        logToken(tokenName, yytext());
+        if (tokenLog != null) {
+            logToken(type);
+        }
         return new Symbol(type, yyline, yycolumn);
     }
 
     private Symbol symbol(int type, Object value) {
-        String tokenName = (type >= 0 && type < sym.terminalNames.length) ? sym.terminalNames[type] : "UNKNOWN";
-        logToken(tokenName, yytext());
+        if (tokenLog != null) {
+            logToken(type);
+        }
         return new Symbol(type, yyline, yycolumn, value);
     }
 
 
-  // Método para cerrar el logger de tokens y exportar la tabla de símbolos
+  // Método para cerrar el logger de tokens, escribe lo que quede pendiente
   // Entrada: ninguna
-  // Salida: archivo de tokens cerrado y tabla de símbolos exportada
+  // Salida: archivo de tokens cerrado
     public void closeTokenLogger() {
-        if (tokenWriter != null) {
-            try {
-                tokenWriter.close();
-            } catch (IOException e) {
-                System.err.println("Error cerrando archivo de tokens: " + e.getMessage());
-                e.printStackTrace();
-            }
+        if (tokenLog != null) {
+            tokenLog.cerrar();
         }
     }
     
@@ -519,9 +492,9 @@ public class BasicLexerCup implements java_cup.runtime.Scanner {
    *
    * @param   in  the java.io.Reader to read input from.
    */
-  public BasicLexerCup(java.io.Reader in) {
+  public BasicLexerCup(java.io.Reader in, RegistroTokens registroTokens) {
       System.out.println("Inicializando analizador lexico...");
-    initTokenLogger();
+    tokenLog = registroTokens;
     System.out.println("Analizador lexico inicializado correctamente.");
     this.zzReader = in;
   }
@@ -1175,7 +1148,7 @@ public class BasicLexerCup implements java_cup.runtime.Scanner {
           // fall through
           case 119: break;
           case 47:
-            { return new Symbol(sym.CHAR_LITERAL);
+            { return symbol(sym.CHAR_LITERAL, yytext());
             }
           // fall through
           case 120: break;
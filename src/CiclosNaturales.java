@@ -0,0 +1,325 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dominadores y ciclos naturales de una función, sobre un GrafoFlujo ya construido.
+ *
+ * El dominador inmediato de cada bloque sale del algoritmo iterativo de Cooper, Harvey y
+ * Kennedy sobre el orden posterior inverso. Una arista b -> h es de retorno si h domina a
+ * b; el ciclo natural de h son h y los bloques desde los que se llega a alguna de sus
+ * aristas de retorno sin pasar por h. Las aristas de retorno con la misma cabecera forman
+ * un solo ciclo.
+ *
+ * Los ciclos quedan ordenados de mayor a menor cantidad de bloques, así que un ciclo
+ * aparece antes que los que tiene anidados. Los bloques de cada ciclo están en formato
+ * compacto (inicioBloques indexa bloques).
+ *
+ * La precabecera de un ciclo es una etiqueta nueva justo antes de la cabecera: los saltos
+ * desde fuera del ciclo a la cabecera pasan a ella y, si el bloque anterior es del ciclo y
+ * caía en la cabecera, se le agrega un goto para que no pase por la precabecera.
+ */
+public class CiclosNaturales {
+
+    private GrafoFlujo grafo;
+
+    // Por bloque: dominador inmediato (-1 en la entrada y en los inalcanzables) y número
+    // en el orden posterior
+    private int[] dominador = new int[16];
+    private int[] posterior = new int[16];
+    private int[] orden = new int[16];
+
+    // Por ciclo: cabecera y sus bloques
+    private int cantidadCiclos;
+    private int[] cabecera = new int[8];
+    private int[] inicioBloques = new int[9];
+    private int[] bloques = new int[32];
+
+    // Auxiliares del recorrido en profundidad y de la búsqueda de cada ciclo
+    private int[] pila = new int[16];
+    private int[] siguienteSucesor = new int[16];
+    private int[] marca = new int[16];
+
+    // Ciclo de cada bloque según el último ciclo consultado con contiene
+    private int[] cicloDeBloque = new int[16];
+    private int cicloMarcado = -1;
+
+    public void calcular(GrafoFlujo grafo) {
+        this.grafo = grafo;
+        int n = grafo.getCantidadBloques();
+        if (dominador.length < n) {
+            int m = Math.max(n, 2 * dominador.length);
+            dominador = new int[m];
+            posterior = new int[m];
+            orden = new int[m];
+            pila = new int[m];
+            siguienteSucesor = new int[m];
+            marca = new int[m];
+            cicloDeBloque = new int[m];
+        }
+        cantidadCiclos = 0;
+        cicloMarcado = -1;
+        if (n == 0) {
+            return;
+        }
+        int alcanzables = ordenar(n);
+        calcularDominadores(alcanzables);
+        buscarCiclos(n);
+    }
+
+    public int getCantidadCiclos() {
+        return cantidadCiclos;
+    }
+
+    public int cabecera(int ciclo) {
+        return cabecera[ciclo];
+    }
+
+    public int cantidadBloques(int ciclo) {
+        return inicioBloques[ciclo + 1] - inicioBloques[ciclo];
+    }
+
+    public int bloque(int ciclo, int k) {
+        return bloques[inicioBloques[ciclo] + k];
+    }
+
+    /**
+     * Si el bloque b es del ciclo
+     */
+    public boolean contiene(int ciclo, int b) {
+        if (cicloMarcado != ciclo) {
+            Arrays.fill(cicloDeBloque, 0, grafo.getCantidadBloques(), -1);
+            for (int k = 0; k < cantidadBloques(ciclo); k++) {
+                cicloDeBloque[bloque(ciclo, k)] = ciclo;
+            }
+            cicloMarcado = ciclo;
+        }
+        return cicloDeBloque[b] == ciclo;
+    }
+
+    /**
+     * Arma la precabecera del ciclo con el código dado y redirige a ella los saltos desde
+     * fuera del ciclo. Retorna lo que hay que insertar justo antes del inicio de la
+     * cabecera, o null si la cabecera no empieza con una etiqueta.
+     */
+    public ArrayList<Cuadruplo> crearPrecabecera(int ciclo, List<Cuadruplo> contenido) {
+        List<Cuadruplo> codigo = grafo.codigo;
+        ProgramaIR programa = grafo.programa;
+        int h = cabecera[ciclo];
+        int inicio = grafo.inicio(h);
+        if (codigo.get(inicio).op != Operacion.ETIQUETA) {
+            return null;
+        }
+        int etiquetaCabecera = Operando.valor(codigo.get(inicio).arg1);
+        int etiqueta = programa.nuevaEtiqueta("PRECABECERA_");
+        ArrayList<Cuadruplo> insertar = new ArrayList<>(contenido.size() + 2);
+        if (h > 0 && contiene(ciclo, h - 1) && caeAlSiguiente(codigo.get(inicio - 1).op)) {
+            insertar.add(new Cuadruplo(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(etiquetaCabecera), Operando.VACIO));
+        }
+        insertar.add(new Cuadruplo(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiqueta), Operando.VACIO));
+        insertar.addAll(contenido);
+
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            if (contiene(ciclo, b)) {
+                continue;
+            }
+            Cuadruplo q = codigo.get(grafo.fin(b) - 1);
+            switch (q.op) {
+                case SALTO:
+                    q.arg1 = redirigir(q.arg1, etiquetaCabecera, etiqueta);
+                    break;
+                case SALTO_SI:
+                case SALTO_SI_FALSO:
+                    q.arg2 = redirigir(q.arg2, etiquetaCabecera, etiqueta);
+                    break;
+                case SALTO_TABLA: {
+                    ProgramaIR.TablaSaltos tabla = programa.getTabla(Operando.valor(q.arg2));
+                    for (int k = 0; k < tabla.etiquetas.length; k++) {
+                        if (tabla.etiquetas[k] == etiquetaCabecera) {
+                            tabla.etiquetas[k] = etiqueta;
+                        }
+                    }
+                    if (tabla.porDefecto == etiquetaCabecera) {
+                        tabla.porDefecto = etiqueta;
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        return insertar;
+    }
+
+    private static boolean caeAlSiguiente(Operacion op) {
+        return op != Operacion.SALTO && op != Operacion.SALTO_TABLA && op != Operacion.RETORNO
+            && op != Operacion.FIN_FUNCION;
+    }
+
+    private static long redirigir(long destino, int cabecera, int precabecera) {
+        return Operando.valor(destino) == cabecera ? Operando.etiqueta(precabecera) : destino;
+    }
+
+    /**
+     * Dominador inmediato del bloque, o -1 si es la entrada o no se alcanza
+     */
+    public int dominadorInmediato(int b) {
+        return dominador[b];
+    }
+
+    /**
+     * Si a domina a b (todo camino desde la entrada hasta b pasa por a)
+     */
+    public boolean domina(int a, int b) {
+        if (posterior[b] < 0) {
+            return false;
+        }
+        while (b >= 0 && b != a) {
+            b = dominador[b];
+        }
+        return b == a;
+    }
+
+    // Recorrido en profundidad desde la entrada; deja en orden los bloques alcanzables en
+    // orden posterior y retorna cuántos son
+    private int ordenar(int n) {
+        Arrays.fill(posterior, 0, n, -1);
+        Arrays.fill(marca, 0, n, 0);
+        int cantidad = 0;
+        int tope = 0;
+        pila[tope++] = 0;
+        siguienteSucesor[0] = 0;
+        marca[0] = 1;
+        while (tope > 0) {
+            int b = pila[tope - 1];
+            if (siguienteSucesor[b] < grafo.cantidadSucesores(b)) {
+                int s = grafo.sucesor(b, siguienteSucesor[b]++);
+                if (marca[s] == 0) {
+                    marca[s] = 1;
+                    siguienteSucesor[s] = 0;
+                    pila[tope++] = s;
+                }
+            } else {
+                tope--;
+                posterior[b] = cantidad;
+                orden[cantidad++] = b;
+            }
+        }
+        return cantidad;
+    }
+
+    private void calcularDominadores(int alcanzables) {
+        int n = grafo.getCantidadBloques();
+        Arrays.fill(dominador, 0, n, -1);
+        // Mientras se itera la entrada es su propio dominador
+        dominador[0] = 0;
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int i = alcanzables - 2; i >= 0; i--) {
+                int b = orden[i];
+                int nuevo = -1;
+                for (int k = 0; k < grafo.cantidadPredecesores(b); k++) {
+                    int p = grafo.predecesor(b, k);
+                    if (dominador[p] < 0) {
+                        continue;
+                    }
+                    nuevo = nuevo < 0 ? p : interseccion(p, nuevo);
+                }
+                if (nuevo != dominador[b]) {
+                    dominador[b] = nuevo;
+                    cambio = true;
+                }
+            }
+        }
+        dominador[0] = -1;
+    }
+
+    private int interseccion(int a, int b) {
+        while (a != b) {
+            while (posterior[a] < posterior[b]) {
+                a = dominador[a];
+            }
+            while (posterior[b] < posterior[a]) {
+                b = dominador[b];
+            }
+        }
+        return a;
+    }
+
+    private void buscarCiclos(int n) {
+        Arrays.fill(marca, 0, n, -1);
+        int total = 0;
+        inicioBloques[0] = 0;
+        for (int h = 0; h < n; h++) {
+            int tope = 0;
+            for (int k = 0; k < grafo.cantidadPredecesores(h); k++) {
+                int p = grafo.predecesor(h, k);
+                if (domina(h, p) && marca[p] != h) {
+                    marca[p] = h;
+                    pila[tope++] = p;
+                }
+            }
+            if (tope == 0) {
+                continue;
+            }
+            if (cantidadCiclos + 1 == cabecera.length) {
+                cabecera = Arrays.copyOf(cabecera, 2 * cabecera.length);
+                inicioBloques = Arrays.copyOf(inicioBloques, cabecera.length + 1);
+            }
+            // La cabecera va primero; la búsqueda hacia atrás se detiene en ella
+            total = agregarBloque(total, h);
+            marca[h] = h;
+            while (tope > 0) {
+                int b = pila[--tope];
+                if (b == h) {
+                    continue;
+                }
+                total = agregarBloque(total, b);
+                for (int k = 0; k < grafo.cantidadPredecesores(b); k++) {
+                    int p = grafo.predecesor(b, k);
+                    if (marca[p] != h && posterior[p] >= 0) {
+                        marca[p] = h;
+                        pila[tope++] = p;
+                    }
+                }
+            }
+            cabecera[cantidadCiclos++] = h;
+            inicioBloques[cantidadCiclos] = total;
+        }
+        ordenarPorTamano();
+    }
+
+    private int agregarBloque(int total, int b) {
+        if (total == bloques.length) {
+            bloques = Arrays.copyOf(bloques, 2 * total);
+        }
+        bloques[total] = b;
+        return total + 1;
+    }
+
+    // Deja los ciclos de mayor a menor; son pocos, así que basta con ordenar índices
+    private void ordenarPorTamano() {
+        Integer[] indices = new Integer[cantidadCiclos];
+        for (int c = 0; c < cantidadCiclos; c++) {
+            indices[c] = c;
+        }
+        Arrays.sort(indices, (a, b) -> Integer.compare(cantidadBloques(b), cantidadBloques(a)));
+        int[] nuevasCabeceras = new int[cabecera.length];
+        int[] nuevosInicios = new int[inicioBloques.length];
+        int[] nuevosBloques = new int[bloques.length];
+        int total = 0;
+        for (int c = 0; c < cantidadCiclos; c++) {
+            int viejo = indices[c];
+            nuevasCabeceras[c] = cabecera[viejo];
+            nuevosInicios[c] = total;
+            int cantidad = cantidadBloques(viejo);
+            System.arraycopy(bloques, inicioBloques[viejo], nuevosBloques, total, cantidad);
+            total += cantidad;
+        }
+        nuevosInicios[cantidadCiclos] = total;
+        cabecera = nuevasCabeceras;
+        inicioBloques = nuevosInicios;
+        bloques = nuevosBloques;
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compilación por lotes: compila muchos archivos fuente en paralelo dentro de una sola JVM.
+ * Cada unidad genera su propio .asm y su propio log de errores en el directorio de salida,
+ * y al final se imprime un resumen.
+ *
+ * Uso: java -cp "src;src/libs/*" CompiladorLote [-j hilos] [-o directorio] [-f lex|parse|codegen] [-O0|-O1|-O2] archivos|directorios...
+ */
+public class CompiladorLote {
+
+    private static final String EXTENSION_FUENTE = ".txt";
+
+    /**
+     * Resultado de compilar una unidad.
+     */
+    static class Resultado {
+        final String fuente;
+        final String salida;
+        int errores;
+        long milisegundos;
+        String fallo; // mensaje de la excepción si la compilación no terminó
+
+        Resultado(String fuente, String salida) {
+            this.fuente = fuente;
+            this.salida = salida;
+        }
+    }
+
+    private final Path directorioSalida;
+    private final int hilos;
+    private final Compiler.Fase fase;
+    private int nivelOptimizacion = Compiler.NIVEL_OPTIMIZACION_DEFECTO;
+
+    public CompiladorLote(Path directorioSalida, int hilos, Compiler.Fase fase) {
+        this.directorioSalida = directorioSalida;
+        this.hilos = hilos;
+        this.fase = fase;
+    }
+
+    public void setNivelOptimizacion(int nivel) {
+        this.nivelOptimizacion = nivel;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int hilos = Runtime.getRuntime().availableProcessors();
+        String salida = "src/output/lote";
+        Compiler.Fase fase = Compiler.Fase.CODIGO;
+        int nivel = Compiler.NIVEL_OPTIMIZACION_DEFECTO;
+        List<String> entradas = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j") && i + 1 < args.length) {
+                hilos = Math.max(1, Integer.parseInt(args[++i]));
+            } else if (args[i].equals("-o") && i + 1 < args.length) {
+                salida = args[++i];
+            } else if (args[i].equals("-f") && i + 1 < args.length) {
+                fase = Compiler.Fase.desde(args[++i]);
+            } else if (args[i].startsWith("-O")) {
+                nivel = Integer.parseInt(args[i].substring(2));
+            } else {
+                entradas.add(args[i]);
+            }
+        }
+
+        if (entradas.isEmpty()) {
+            System.err.println("Uso: CompiladorLote [-j hilos] [-o directorio] [-f lex|parse|codegen] [-O0|-O1|-O2] archivos|directorios...");
+            System.exit(2);
+        }
+
+        List<Path> fuentes = buscarFuentes(entradas);
+        CompiladorLote lote = new CompiladorLote(Paths.get(salida), hilos, fase);
+        lote.setNivelOptimizacion(nivel);
+        long inicio = System.nanoTime();
+        List<Resultado> resultados = lote.compilar(fuentes);
+        long pared = (System.nanoTime() - inicio) / 1_000_000;
+        System.out.println(resumen(resultados));
+        System.out.println("Tiempo total con " + hilos + " hilo(s): " + pared + " ms");
+
+        for (Resultado r : resultados) {
+            if (r.fallo != null) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // Expande los directorios en los archivos fuente que contienen
+    static List<Path> buscarFuentes(List<String> entradas) throws IOException {
+        List<Path> fuentes = new ArrayList<>();
+        for (String entrada : entradas) {
+            Path p = Paths.get(entrada);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> archivos = Files.walk(p)) {
+                    fuentes.addAll(archivos
+                            .filter(Files::isRegularFile)
+                            .filter(f -> f.toString().endsWith(EXTENSION_FUENTE))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                fuentes.add(p);
+            }
+        }
+        return fuentes;
+    }
+
+    /**
+     * Compila todas las fuentes en el pool de hilos y retorna los resultados en el mismo orden.
+     */
+    public List<Resultado> compilar(List<Path> fuentes) throws Exception {
+        Files.createDirectories(directorioSalida);
+
+        // Nombres de salida únicos aunque dos fuentes se llamen igual. Un repetido toma el
+        // primer nombre_k libre que no sea el de otra fuente (sin distinguir mayúsculas, por
+        // los sistemas de archivos que no las distinguen)
+        Set<String> originales = new HashSet<>();
+        for (Path fuente : fuentes) {
+            originales.add(clave(nombreBase(fuente)));
+        }
+        Set<String> tomados = new HashSet<>();
+        List<Resultado> resultados = new ArrayList<>();
+        for (Path fuente : fuentes) {
+            String nombre = nombreBase(fuente);
+            if (!tomados.add(clave(nombre))) {
+                int k = 2;
+                while (originales.contains(clave(nombre + "_" + k)) || !tomados.add(clave(nombre + "_" + k))) {
+                    k++;
+                }
+                nombre = nombre + "_" + k;
+            }
+            resultados.add(new Resultado(fuente.toString(), nombre));
+        }
+
+        // Los println de depuración del parser de varias unidades se mezclarían en la
+        // consola: en el lote se descartan y cada unidad deja sus errores en su log
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (Resultado r : resultados) {
+                tareas.add(pool.submit(() -> compilarUnidad(r)));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            pool.shutdown();
+            System.setOut(consola);
+        }
+        return resultados;
+    }
+
+    // Nombre del archivo sin la extensión
+    private static String nombreBase(Path fuente) {
+        String nombre = fuente.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0 ? nombre.substring(0, punto) : nombre;
+    }
+
+    private static String clave(String nombre) {
+        return nombre.toLowerCase(Locale.ROOT);
+    }
+
+    // Cada unidad tiene su propia sesión de compilación (lexer, parser, ErrorHandler y generador)
+    private void compilarUnidad(Resultado r) {
+        long inicio = System.nanoTime();
+        String base = directorioSalida.resolve(r.salida).toString();
+        try {
+            Compiler compilador = new Compiler(r.fuente, base + ".asm", base + ".errors.log");
+            compilador.setNivelOptimizacion(nivelOptimizacion);
+            compilador.compilar(fase);
+            r.errores = compilador.getCantidadErrores();
+        } catch (Exception e) {
+            r.fallo = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        r.milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    static String resumen(List<Resultado> resultados) {
+        int correctas = 0;
+        int conErrores = 0;
+        int fallidas = 0;
+        long total = 0;
+        StringBuilder sb = new StringBuilder("\n=== RESUMEN DE COMPILACIÓN POR LOTES ===\n");
+        for (Resultado r : resultados) {
+            total += r.milisegundos;
+            if (r.fallo != null) {
+                fallidas++;
+                sb.append(String.format("FALLO     %-40s %s%n", r.fuente, r.fallo));
+            } else if (r.errores > 0) {
+                conErrores++;
+                sb.append(String.format("ERRORES   %-40s %d error(es), ver %s.errors.log%n", r.fuente, r.errores, r.salida));
+            } else {
+                correctas++;
+            }
+        }
+        sb.append("Unidades: ").append(resultados.size())
+          .append(", correctas: ").append(correctas)
+          .append(", con errores: ").append(conErrores)
+          .append(", fallidas: ").append(fallidas).append("\n");
+        sb.append("Tiempo acumulado de compilación: ").append(total).append(" ms\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import java_cup.runtime.Symbol;
+
+/**
+ * Sesión de compilación de una unidad. Es dueña de todo el estado de la compilación
+ * (lexer, parser, ErrorHandler, generador MIPS y rutas de salida), así que varias
+ * instancias pueden compilar en paralelo en la misma JVM sin compartir nada.
+ * Una instancia no debe usarse desde varios hilos a la vez.
+ */
+public class Compiler {
+
+    /**
+     * Hasta qué fase llega una compilación. SINTACTICO y CODIGO hacen un solo pase
+     * léxico+sintáctico: el parser va pidiendo los tokens al lexer.
+     */
+    public enum Fase {
+        LEXICO, SINTACTICO, CODIGO;
+
+        public static Fase desde(String nombre) {
+            switch (nombre.toLowerCase()) {
+                case "lex":
+                case "lexico":
+                    return LEXICO;
+                case "parse":
+                case "sintactico":
+                    return SINTACTICO;
+                default:
+                    return CODIGO;
+            }
+        }
+    }
+
+    /**
+     * Niveles de optimización: 0 genera el código intermedio tal cual, 1 lo optimiza
+     * (ver Optimizador) y 2 además colorea el grafo de interferencia para asignar
+     * registros (más lento, menos derrames en los ciclos). 0 y 1 usan barrido lineal.
+     */
+    public static final int NIVEL_OPTIMIZACION_DEFECTO = 1;
+    public static final int NIVEL_OPTIMIZACION_MAXIMO = 2;
+
+    // Entrada y salidas de esta sesión
+    private final String rutaFuente;
+    private final String rutaAsm;
+    private final String rutaErrores;
+    private String rutaTokens = null;      // null: no se registran los tokens
+    private RegistroTokens.Modo modoTokens = RegistroTokens.Modo.BUFFER;
+    private String rutaCodigo3D = null;    // null: no se vuelca el código intermedio
+    private String codigoFuente = null;    // si no es null se compila en vez de leer rutaFuente
+    private boolean erroresAsincronos = false; // log de errores escrito desde un hilo aparte
+    private int nivelOptimizacion = NIVEL_OPTIMIZACION_DEFECTO;
+
+    // Estado de la compilación
+    private ErrorHandler errorHandler;
+    private BasicLexerCup lexer;
+    private parser parser;
+    private MIPSGenerator generador;
+    private Optimizador optimizador;
+    private ProgramaIR programa;
+
+    /**
+     * @param rutaFuente archivo fuente a compilar
+     * @param rutaAsm archivo .asm de salida
+     * @param rutaErrores archivo de log de errores de esta compilación
+     */
+    public Compiler(String rutaFuente, String rutaAsm, String rutaErrores) {
+        this.rutaFuente = rutaFuente;
+        this.rutaAsm = rutaAsm;
+        this.rutaErrores = rutaErrores;
+    }
+
+    // Por defecto no se registran los tokens
+    public void setRegistroTokens(String rutaTokens, RegistroTokens.Modo modo) {
+        this.rutaTokens = rutaTokens;
+        this.modoTokens = modo;
+    }
+
+    public void setRutaCodigo3D(String rutaCodigo3D) {
+        this.rutaCodigo3D = rutaCodigo3D;
+    }
+
+    public void setErroresAsincronos(boolean asincronos) {
+        this.erroresAsincronos = asincronos;
+    }
+
+    public void setNivelOptimizacion(int nivel) {
+        this.nivelOptimizacion = Math.max(0, Math.min(nivel, NIVEL_OPTIMIZACION_MAXIMO));
+    }
+
+    // Compila este texto en lugar de leer rutaFuente (rutaFuente queda solo como nombre)
+    public void setCodigoFuente(String codigoFuente) {
+        this.codigoFuente = codigoFuente;
+    }
+
+    private String leerFuente() throws IOException {
+        return (codigoFuente != null) ? codigoFuente : FileManager.readFile(rutaFuente);
+    }
+
+    /**
+     * Solo análisis léxico: recorre los tokens (registrándolos si corresponde) y reporta
+     * los errores léxicos. Retorna la cantidad de tokens.
+     */
+    public int analizarLexico() throws Exception {
+        String fuente = leerFuente();
+
+        errorHandler = new ErrorHandler(rutaErrores, erroresAsincronos);
+        errorHandler.setContinueOnError(true);
+
+        int tokens = 0;
+        try (ErrorHandler log = errorHandler; Reader reader = new StringReader(fuente)) {
+            lexer = new BasicLexerCup(reader, RegistroTokens.abrir(rutaTokens, modoTokens));
+            lexer.setErrorHandler(log);
+            try {
+                while (lexer.next_token().sym != sym.EOF) {
+                    tokens++;
+                }
+            } finally {
+                lexer.closeTokenLogger();
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Análisis léxico, sintáctico y semántico en un solo pase. Retorna el código intermedio.
+     */
+    public ProgramaIR analizar() throws Exception {
+        String fuente = leerFuente();
+
+        errorHandler = new ErrorHandler(rutaErrores, erroresAsincronos);
+        errorHandler.setContinueOnError(true);
+
+        // El log de errores se cierra (y vacía) al terminar el análisis
+        try (ErrorHandler log = errorHandler; Reader reader = new StringReader(fuente)) {
+            lexer = new BasicLexerCup(reader, RegistroTokens.abrir(rutaTokens, modoTokens));
+            lexer.setErrorHandler(log);
+
+            parser = new parser(lexer);
+            parser.setErrorHandler(log);
+            if (rutaCodigo3D != null) {
+                parser.setVolcarCodigoIntermedio(true);
+                parser.setRutaCodigoIntermedio(rutaCodigo3D);
+            }
+
+            try {
+                System.out.println("Iniciando análisis sintáctico...");
+                Symbol parseResult = parser.parse();
+                System.out.println("Análisis sintáctico completado exitosamente.");
+            } catch (Exception e) {
+                System.out.println("Análisis sintáctico completado con errores: " + e.getMessage());
+            } finally {
+                // Si el análisis se abortó antes del EOF el registro sigue abierto
+                lexer.closeTokenLogger();
+            }
+        }
+
+        programa = parser.getCodigoIntermedio();
+        return programa;
+    }
+
+    /**
+     * Optimiza el código intermedio y genera el código MIPS del programa analizado en rutaAsm.
+     */
+    public void generar() throws IOException {
+        if (programa == null) {
+            throw new IllegalStateException("Se debe llamar a analizar() antes de generar()");
+        }
+        optimizador = new Optimizador(nivelOptimizacion);
+        optimizador.optimizar(programa);
+        generador = new MIPSGenerator(rutaAsm);
+        generador.setNivelOptimizacion(nivelOptimizacion);
+        generador.generateMips(programa);
+    }
+
+    /**
+     * Compilación completa. Retorna true si no se reportaron errores.
+     */
+    public boolean compilar() throws Exception {
+        return compilar(Fase.CODIGO);
+    }
+
+    /**
+     * Compila hasta la fase indicada. Retorna true si no se reportaron errores.
+     */
+    public boolean compilar(Fase fase) throws Exception {
+        if (fase == Fase.LEXICO) {
+            analizarLexico();
+        } else {
+            analizar();
+            if (fase == Fase.CODIGO) {
+                generar();
+            }
+        }
+        return getCantidadErrores() == 0;
+    }
+
+    public int getCantidadErrores() {
+        return (errorHandler != null) ? errorHandler.getErrorCount() : 0;
+    }
+
+    public String getRutaFuente() {
+        return rutaFuente;
+    }
+
+    public int getNivelOptimizacion() {
+        return nivelOptimizacion;
+    }
+
+    public String getRutaAsm() {
+        return rutaAsm;
+    }
+
+    public ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    public BasicLexerCup getLexer() {
+        return lexer;
+    }
+
+    public parser getParser() {
+        return parser;
+    }
+
+    public MIPSGenerator getGenerador() {
+        return generador;
+    }
+
+    public Optimizador getOptimizador() {
+        return optimizador;
+    }
+
+    public ProgramaIR getPrograma() {
+        return programa;
+    }
+}
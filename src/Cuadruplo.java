@@ -0,0 +1,45 @@
+import java.util.ArrayList;
+
+/**
+ * Instrucción del código intermedio en forma de cuádruplo: (op, resultado, arg1, arg2).
+ * Los operandos están codificados como long (ver Operando).
+ */
+public class Cuadruplo {
+
+    Operacion op;
+    long resultado;
+    long arg1;
+    long arg2;
+
+    public Cuadruplo(Operacion op, long resultado, long arg1, long arg2) {
+        this.op = op;
+        this.resultado = resultado;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+    }
+
+    public Operacion getOp() {
+        return op;
+    }
+
+    public long getResultado() {
+        return resultado;
+    }
+
+    public long getArg1() {
+        return arg1;
+    }
+
+    public long getArg2() {
+        return arg2;
+    }
+
+    /**
+     * Arreglo de n listas de cuádruplos, todas null; lo usan los pasos que guardan código
+     * para insertar por posición o por función
+     */
+    @SuppressWarnings("unchecked")
+    static ArrayList<Cuadruplo>[] listas(int n) {
+        return (ArrayList<Cuadruplo>[]) new ArrayList<?>[n];
+    }
+}
@@ -0,0 +1,364 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Desenrollado completo de ciclos chicos con cantidad de vueltas constante.
+ *
+ * Se desenrolla un ciclo con la forma que deja el parser para un for:
+ *   i = K0 ... H: tA = i; tc = tA relop K; ifFalse tc goto SALIDA; cuerpo ...; i = tX; goto H
+ * (la cabecera puede tener otros cálculos en medio), donde el código del ciclo es un tramo
+ * seguido que termina en el único goto H, i es una variable simple entera que el tramo
+ * escribe una sola vez (con i = i + c en el último bloque), K0 se asigna antes de la
+ * cabecera sin saltos ni etiquetas en medio y no hay llamadas ni tablas de saltos. Las vueltas salen de simular la condición con K0 y c.
+ *
+ * El tramo se reemplaza por una copia de la cabecera (sin el ifFalse) y del cuerpo por
+ * vuelta, y una última copia de la cabecera antes de seguir en la salida. En cada copia
+ * las lecturas de i pasan a ser la constante de esa vuelta, las etiquetas del cuerpo y los
+ * temporales que define el tramo son nuevos, así que la propagación de constantes puede
+ * plegar cada copia por separado.
+ *
+ * Solo se desenrolla si las vueltas no pasan de VUELTAS_MAXIMAS y el código resultante de
+ * PRESUPUESTO cuádruplos. Los ciclos se recorren de adentro hacia afuera; después de cada
+ * desenrollado se rearma el grafo.
+ */
+public class Desenrollado {
+
+    /** Vueltas máximas de un ciclo desenrollado */
+    public static final int VUELTAS_MAXIMAS = 16;
+    /** Cuádruplos máximos del código que reemplaza a un ciclo */
+    public static final int PRESUPUESTO = 200;
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private final CiclosNaturales ciclos = new CiclosNaturales();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    // Tramo [inicio, fin) del ciclo que se está probando, escritura de i y su forma
+    private int inicio;
+    private int finCabecera;
+    private int fin;
+    private int variable;
+    private int escritura;
+    private int paso;
+
+    // Por etiqueta y por temporal: marca del tramo actual y nombre en la copia actual
+    private int marca;
+    private int[] marcaEtiqueta = new int[0];
+    private int[] etiquetaCopia = new int[0];
+    private int[] marcaTemporal = new int[0];
+    private int[] temporalCopia = new int[0];
+
+    private int desenrollados;
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        boolean cambio = false;
+        boolean otra = true;
+        while (otra) {
+            otra = false;
+            grafo.construir(programa, codigo, 0, codigo.size());
+            ciclos.calcular(grafo);
+            // Los ciclos vienen de mayor a menor: los anidados primero
+            for (int c = ciclos.getCantidadCiclos() - 1; c >= 0 && !otra; c--) {
+                otra = desenrollar(c);
+            }
+            cambio |= otra;
+        }
+        return cambio;
+    }
+
+    /**
+     * Ciclos desenrollados desde que se creó el paso
+     */
+    public int getDesenrollados() {
+        return desenrollados;
+    }
+
+    // ===================== Un ciclo =====================
+
+    private boolean desenrollar(int c) {
+        if (!tieneForma(c)) {
+            return false;
+        }
+        Cuadruplo salto = codigo.get(finCabecera - 1);
+        Cuadruplo condicion = codigo.get(definicionEnBloque(salto.arg1, inicio + 1, finCabecera - 1));
+        int limite = Operando.valor(condicion.arg2);
+        int inicial = valorInicial();
+        if (inicial == Integer.MIN_VALUE) {
+            return false;
+        }
+        int vueltas = 0;
+        for (int v = inicial; cumple(condicion.op, v, limite); v += paso) {
+            if (++vueltas > VUELTAS_MAXIMAS) {
+                return false;
+            }
+        }
+        if ((vueltas + 1) * (fin - inicio) > PRESUPUESTO || !soloDentro()) {
+            return false;
+        }
+
+        ArrayList<Cuadruplo> resultado = new ArrayList<>(codigo.size() + vueltas * (fin - inicio));
+        resultado.addAll(codigo.subList(0, inicio));
+        int valor = inicial;
+        for (int k = 0; k < vueltas; k++) {
+            nuevaCopia();
+            copiar(resultado, inicio + 1, finCabecera - 1, valor, valor);
+            copiar(resultado, finCabecera, fin - 1, valor, valor + paso);
+            valor += paso;
+        }
+        nuevaCopia();
+        copiar(resultado, inicio + 1, finCabecera - 1, valor, valor);
+        Cuadruplo siguiente = fin < codigo.size() ? codigo.get(fin) : null;
+        if (siguiente == null || siguiente.op != Operacion.ETIQUETA || siguiente.arg1 != salto.arg2) {
+            resultado.add(new Cuadruplo(Operacion.SALTO, Operando.VACIO, salto.arg2, Operando.VACIO));
+        }
+        resultado.addAll(codigo.subList(fin, codigo.size()));
+        codigo.clear();
+        codigo.addAll(resultado);
+        desenrollados++;
+        return true;
+    }
+
+    // Revisa la cabecera, que el ciclo sea un tramo seguido terminado en goto H y la
+    // escritura de la variable; deja inicio, finCabecera, fin, variable, escritura y paso
+    private boolean tieneForma(int c) {
+        int h = ciclos.cabecera(c);
+        inicio = grafo.inicio(h);
+        finCabecera = grafo.fin(h);
+        fin = finCabecera;
+        for (int k = 0; k < ciclos.cantidadBloques(c); k++) {
+            fin = Math.max(fin, grafo.fin(ciclos.bloque(c, k)));
+        }
+        Cuadruplo etiqueta = codigo.get(inicio);
+        Cuadruplo salto = codigo.get(finCabecera - 1);
+        Cuadruplo vuelta = codigo.get(fin - 1);
+        if (etiqueta.op != Operacion.ETIQUETA || salto.op != Operacion.SALTO_SI_FALSO
+                || vuelta.op != Operacion.SALTO || vuelta.arg1 != etiqueta.arg1 || fin == finCabecera) {
+            return false;
+        }
+        int posicion = definicionEnBloque(salto.arg1, inicio + 1, finCabecera - 1);
+        Cuadruplo condicion = posicion >= 0 ? codigo.get(posicion) : null;
+        if (condicion == null || !condicion.op.esRelacional() || !Operando.esEntero(condicion.arg2)) {
+            return false;
+        }
+        posicion = definicionEnBloque(condicion.arg1, inicio + 1, posicion);
+        Cuadruplo lectura = posicion >= 0 ? codigo.get(posicion) : null;
+        if (lectura == null || lectura.op != Operacion.COPIA || !Operando.esVariable(lectura.arg1)) {
+            return false;
+        }
+        variable = Operando.valor(lectura.arg1);
+        ProgramaIR.Variable v = programa.getVariable(variable);
+        if (v.esArreglo() || v.tipo != TipoIR.ENTERO) {
+            return false;
+        }
+        // Tramo seguido: todos sus bloques son del ciclo y la cabecera es el primero
+        for (int k = 0; k < ciclos.cantidadBloques(c); k++) {
+            if (ciclos.bloque(c, k) < h) {
+                return false;
+            }
+        }
+        for (int b = h; b < grafo.getCantidadBloques() && grafo.inicio(b) < fin; b++) {
+            if (!ciclos.contiene(c, b)) {
+                return false;
+            }
+        }
+        escritura = -1;
+        for (int i = inicio; i < fin; i++) {
+            Cuadruplo q = codigo.get(i);
+            if (q.op == Operacion.SALTO_TABLA || q.op == Operacion.FUNCION || q.op == Operacion.FIN_FUNCION
+                    || (q.op == Operacion.LLAMADA && !programa.getFuncion(Operando.valor(q.arg1)).externa)) {
+                return false;
+            }
+            if (q.resultado == lectura.arg1) {
+                if (escritura >= 0) {
+                    return false;
+                }
+                escritura = i;
+            }
+        }
+        // La escritura está en el último bloque, así que pasa una vez por vuelta
+        if (escritura < 0 || grafo.bloqueDe(escritura) != grafo.bloqueDe(fin - 1)) {
+            return false;
+        }
+        paso = pasoDe(escritura);
+        return paso != 0;
+    }
+
+    // c de i = tX con tX = tY + c (o c + tY, tY - c) y tY = i en el último bloque; 0 si no
+    private int pasoDe(int escritura) {
+        Cuadruplo w = codigo.get(escritura);
+        int ultimo = grafo.inicio(grafo.bloqueDe(escritura));
+        if (w.op != Operacion.COPIA) {
+            return 0;
+        }
+        int suma = definicionEnBloque(w.arg1, ultimo, escritura);
+        if (suma < 0) {
+            return 0;
+        }
+        Cuadruplo s = codigo.get(suma);
+        long base;
+        int c;
+        if (s.op == Operacion.SUMA && Operando.esEntero(s.arg1)) {
+            base = s.arg2;
+            c = Operando.valor(s.arg1);
+        } else if ((s.op == Operacion.SUMA || s.op == Operacion.RESTA) && Operando.esEntero(s.arg2)) {
+            base = s.arg1;
+            c = s.op == Operacion.SUMA ? Operando.valor(s.arg2) : -Operando.valor(s.arg2);
+        } else {
+            return 0;
+        }
+        int lectura = definicionEnBloque(base, ultimo, suma);
+        if (lectura < 0 || codigo.get(lectura).op != Operacion.COPIA
+                || codigo.get(lectura).arg1 != Operando.variable(variable)) {
+            return 0;
+        }
+        return c;
+    }
+
+    // Última definición del temporal en [desde, hasta), o -1
+    private int definicionEnBloque(long temporal, int desde, int hasta) {
+        if (!Operando.esTemporal(temporal)) {
+            return -1;
+        }
+        for (int i = hasta - 1; i >= desde; i--) {
+            if (codigo.get(i).resultado == temporal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Constante asignada a la variable antes de la cabecera, sin etiquetas, saltos ni
+    // llamadas en medio; Integer.MIN_VALUE si no hay
+    private int valorInicial() {
+        long v = Operando.variable(variable);
+        for (int i = inicio - 1; i >= 0; i--) {
+            Cuadruplo q = codigo.get(i);
+            if (q.resultado == v) {
+                return q.op == Operacion.COPIA && Operando.esEntero(q.arg1) ? Operando.valor(q.arg1) : Integer.MIN_VALUE;
+            }
+            if (q.op == Operacion.ETIQUETA || q.op == Operacion.FUNCION || q.op.esSalto()
+                    || q.op == Operacion.RETORNO || q.op == Operacion.LLAMADA) {
+                return Integer.MIN_VALUE;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    private static boolean cumple(Operacion op, int a, int b) {
+        switch (op) {
+            case MENOR:
+                return a < b;
+            case MAYOR:
+                return a > b;
+            case MENOR_IGUAL:
+                return a <= b;
+            case MAYOR_IGUAL:
+                return a >= b;
+            case IGUAL:
+                return a == b;
+            default:
+                return a != b;
+        }
+    }
+
+    // Las etiquetas del tramo solo se usan dentro de él (la cabecera solo en el goto del
+    // final) y los temporales que define no se usan ni se definen fuera
+    private boolean soloDentro() {
+        marca++;
+        if (marcaEtiqueta.length < programa.getCantidadEtiquetas()) {
+            marcaEtiqueta = Arrays.copyOf(marcaEtiqueta, Math.max(programa.getCantidadEtiquetas(), 2 * marcaEtiqueta.length));
+            etiquetaCopia = new int[marcaEtiqueta.length];
+        }
+        if (marcaTemporal.length < programa.getCantidadTemporales()) {
+            marcaTemporal = Arrays.copyOf(marcaTemporal, Math.max(programa.getCantidadTemporales(), 2 * marcaTemporal.length));
+            temporalCopia = new int[marcaTemporal.length];
+        }
+        for (int i = inicio; i < fin; i++) {
+            Cuadruplo q = codigo.get(i);
+            if (q.op == Operacion.ETIQUETA) {
+                marcaEtiqueta[Operando.valor(q.arg1)] = marca;
+            } else if (Operando.esTemporal(q.resultado)) {
+                marcaTemporal[Operando.valor(q.resultado)] = marca;
+            }
+        }
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo q = codigo.get(i);
+            boolean dentro = i >= inicio && i < fin;
+            if (q.op != Operacion.ETIQUETA && i != fin - 1
+                    && (usaEtiqueta(q.arg1, dentro) || usaEtiqueta(q.arg2, dentro))) {
+                return false;
+            }
+            if (!dentro && (marcado(q.resultado) || marcado(q.arg1) || marcado(q.arg2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean usaEtiqueta(long operando, boolean dentro) {
+        if (Operando.clase(operando) != Operando.ETIQUETA || marcaEtiqueta[Operando.valor(operando)] != marca) {
+            return false;
+        }
+        return !dentro || operando == codigo.get(inicio).arg1;
+    }
+
+    private boolean marcado(long operando) {
+        return Operando.esTemporal(operando) && marcaTemporal[Operando.valor(operando)] == marca;
+    }
+
+    // Empieza una copia: etiquetas y temporales del tramo se vuelven a crear al usarlos
+    private void nuevaCopia() {
+        marca++;
+    }
+
+    // Copia codigo[desde, hasta) con las lecturas de la variable cambiadas por su valor:
+    // antes hasta la escritura y despues desde ella
+    private void copiar(ArrayList<Cuadruplo> resultado, int desde, int hasta, int antes, int despues) {
+        for (int i = desde; i < hasta; i++) {
+            Cuadruplo q = codigo.get(i);
+            int valor = i > escritura ? despues : antes;
+            resultado.add(new Cuadruplo(q.op, renombrar(q.resultado, valor, false), renombrar(q.arg1, valor, true),
+                renombrar(q.arg2, valor, true)));
+        }
+    }
+
+    private long renombrar(long operando, int valor, boolean lectura) {
+        switch (Operando.clase(operando)) {
+            case Operando.VARIABLE:
+                return lectura && Operando.valor(operando) == variable ? Operando.entero(valor) : operando;
+            case Operando.ETIQUETA: {
+                int e = Operando.valor(operando);
+                if (marcaEtiqueta[e] < marca - 1) {
+                    return operando;
+                }
+                if (marcaEtiqueta[e] != marca) {
+                    marcaEtiqueta[e] = marca;
+                    etiquetaCopia[e] = programa.nuevaEtiqueta("DESENROLLADO_");
+                }
+                return Operando.etiqueta(etiquetaCopia[e]);
+            }
+            case Operando.TEMPORAL: {
+                int t = Operando.valor(operando);
+                if (t >= marcaTemporal.length || marcaTemporal[t] < marca - 1) {
+                    return operando;
+                }
+                if (marcaTemporal[t] != marca) {
+                    marcaTemporal[t] = marca;
+                    temporalCopia[t] = programa.nuevoTemporal(programa.tipoTemporal(t));
+                }
+                return Operando.temporal(temporalCopia[t]);
+            }
+            default:
+                return operando;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Eliminación de código muerto en una función del código intermedio.
+ *
+ * Primero los saltos a un goto se redirigen a su destino final. Luego quita, en este orden:
+ *   - los bloques a los que no se llega desde la entrada (código después de un return o
+ *     de un goto, ramas de un if constante), dejando siempre funcion y fin_funcion;
+ *   - los saltos a la etiqueta que viene justo después;
+ *   - las etiquetas a las que nadie salta, así los bloques vecinos se unen;
+ *   - los cálculos puros cuyo temporal no se lee después, según la Vivacidad, repitiendo
+ *     mientras aparezcan nuevos (quitar un uso puede matar la definición anterior).
+ * De una llamada con resultado sin usar se conserva la llamada y se descarta el resultado.
+ * Como quitar cálculos puede dejar bloques que solo tienen un goto, se repite todo unas
+ * pocas rondas.
+ */
+public class EliminacionCodigoMuerto {
+
+    private static final int MAX_RONDAS = 4;
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private final Vivacidad vivacidad = new Vivacidad();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    private boolean[] alcanzable = new boolean[16];
+    private int[] pendientes = new int[16];
+    private int[] referencias = new int[0];
+    private int[] posicion = new int[0];
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        boolean cambio = false;
+        for (int ronda = 0; ronda < MAX_RONDAS; ronda++) {
+            boolean cambioRonda = redirigirSaltos();
+            cambioRonda |= quitarInalcanzables();
+            cambioRonda |= quitarSaltosAlSiguiente();
+            cambioRonda |= quitarEtiquetasSinUso();
+            while (quitarCalculosMuertos()) {
+                cambioRonda = true;
+            }
+            if (!cambioRonda) {
+                break;
+            }
+            cambio = true;
+        }
+        return cambio;
+    }
+
+    // ===================== Saltos =====================
+
+    // Un salto a una etiqueta seguida de goto L2 puede ir directo a L2
+    private boolean redirigirSaltos() {
+        if (posicion.length < programa.getCantidadEtiquetas()) {
+            posicion = new int[programa.getCantidadEtiquetas()];
+        }
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo c = codigo.get(i);
+            if (c.op == Operacion.ETIQUETA) {
+                posicion[Operando.valor(c.arg1)] = i;
+            }
+        }
+        boolean cambio = false;
+        for (Cuadruplo c : codigo) {
+            if (c.op == Operacion.SALTO) {
+                long destino = destinoFinal(c.arg1);
+                cambio |= destino != c.arg1;
+                c.arg1 = destino;
+            } else if (c.op == Operacion.SALTO_SI || c.op == Operacion.SALTO_SI_FALSO) {
+                long destino = destinoFinal(c.arg2);
+                cambio |= destino != c.arg2;
+                c.arg2 = destino;
+            } else if (c.op == Operacion.SALTO_TABLA) {
+                ProgramaIR.TablaSaltos tabla = programa.getTabla(Operando.valor(c.arg2));
+                for (int k = 0; k < tabla.etiquetas.length; k++) {
+                    int destino = Operando.valor(destinoFinal(Operando.etiqueta(tabla.etiquetas[k])));
+                    cambio |= destino != tabla.etiquetas[k];
+                    tabla.etiquetas[k] = destino;
+                }
+                int destino = Operando.valor(destinoFinal(Operando.etiqueta(tabla.porDefecto)));
+                cambio |= destino != tabla.porDefecto;
+                tabla.porDefecto = destino;
+            }
+        }
+        return cambio;
+    }
+
+    // Sigue la cadena de goto desde la etiqueta; el límite corta los ciclos de goto
+    private long destinoFinal(long etiqueta) {
+        for (int paso = 0; paso < 8; paso++) {
+            int i = posicion[Operando.valor(etiqueta)] + 1;
+            while (i < codigo.size() && codigo.get(i).op == Operacion.ETIQUETA) {
+                i++;
+            }
+            if (i == codigo.size() || codigo.get(i).op != Operacion.SALTO) {
+                break;
+            }
+            etiqueta = codigo.get(i).arg1;
+        }
+        return etiqueta;
+    }
+
+    // ===================== Bloques inalcanzables =====================
+
+    private boolean quitarInalcanzables() {
+        grafo.construir(programa, codigo, 0, codigo.size());
+        int bloques = grafo.getCantidadBloques();
+        if (alcanzable.length < bloques) {
+            alcanzable = new boolean[Math.max(bloques, 2 * alcanzable.length)];
+            pendientes = new int[alcanzable.length];
+        }
+        Arrays.fill(alcanzable, 0, bloques, false);
+        int cantidadPendientes = 0;
+        alcanzable[0] = true;
+        pendientes[cantidadPendientes++] = 0;
+        while (cantidadPendientes > 0) {
+            int b = pendientes[--cantidadPendientes];
+            for (int k = 0; k < grafo.cantidadSucesores(b); k++) {
+                int s = grafo.sucesor(b, k);
+                if (!alcanzable[s]) {
+                    alcanzable[s] = true;
+                    pendientes[cantidadPendientes++] = s;
+                }
+            }
+        }
+
+        boolean cambio = false;
+        for (int b = 0; b < bloques; b++) {
+            if (alcanzable[b]) {
+                continue;
+            }
+            for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+                Operacion op = codigo.get(i).op;
+                if (op != Operacion.FUNCION && op != Operacion.FIN_FUNCION) {
+                    codigo.set(i, null);
+                    cambio = true;
+                }
+            }
+        }
+        if (cambio) {
+            codigo.removeIf(Objects::isNull);
+        }
+        return cambio;
+    }
+
+    // goto L o if x goto L seguidos (solo con etiquetas en medio) de L:
+    private boolean quitarSaltosAlSiguiente() {
+        boolean cambio = false;
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo c = codigo.get(i);
+            long etiqueta;
+            if (c.op == Operacion.SALTO) {
+                etiqueta = c.arg1;
+            } else if (c.op == Operacion.SALTO_SI || c.op == Operacion.SALTO_SI_FALSO) {
+                etiqueta = c.arg2;
+            } else {
+                continue;
+            }
+            for (int j = i + 1; j < codigo.size() && codigo.get(j).op == Operacion.ETIQUETA; j++) {
+                if (codigo.get(j).arg1 == etiqueta) {
+                    codigo.set(i, null);
+                    cambio = true;
+                    break;
+                }
+            }
+        }
+        if (cambio) {
+            codigo.removeIf(Objects::isNull);
+        }
+        return cambio;
+    }
+
+    private boolean quitarEtiquetasSinUso() {
+        if (referencias.length < programa.getCantidadEtiquetas()) {
+            referencias = new int[programa.getCantidadEtiquetas()];
+        }
+        for (Cuadruplo c : codigo) {
+            if (c.op == Operacion.ETIQUETA) {
+                referencias[Operando.valor(c.arg1)] = 0;
+            }
+        }
+        for (Cuadruplo c : codigo) {
+            if (c.op == Operacion.SALTO) {
+                referencias[Operando.valor(c.arg1)]++;
+            } else if (c.op == Operacion.SALTO_SI || c.op == Operacion.SALTO_SI_FALSO) {
+                referencias[Operando.valor(c.arg2)]++;
+            } else if (c.op == Operacion.SALTO_TABLA) {
+                ProgramaIR.TablaSaltos tabla = programa.getTabla(Operando.valor(c.arg2));
+                for (int etiqueta : tabla.etiquetas) {
+                    referencias[etiqueta]++;
+                }
+                referencias[tabla.porDefecto]++;
+            }
+        }
+        return codigo.removeIf(c -> c.op == Operacion.ETIQUETA && referencias[Operando.valor(c.arg1)] == 0);
+    }
+
+    // ===================== Cálculos muertos =====================
+
+    private boolean quitarCalculosMuertos() {
+        grafo.construir(programa, codigo, 0, codigo.size());
+        if (!vivacidad.calcular(programa, grafo)) {
+            return false;
+        }
+        boolean cambio = false;
+        long[] vivos = new long[vivacidad.getPalabras()];
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            vivacidad.copiarSalida(b, vivos);
+            for (int i = grafo.fin(b) - 1; i >= grafo.inicio(b); i--) {
+                int d = vivacidad.definicion(i);
+                if (d >= 0 && !vivo(vivos, d)) {
+                    Cuadruplo c = codigo.get(i);
+                    if (c.op == Operacion.LLAMADA) {
+                        c.resultado = Operando.VACIO;
+                        cambio = true;
+                    } else if (esPuro(c.op)) {
+                        // Sin el cuádruplo sus operandos no se leen aquí
+                        codigo.set(i, null);
+                        cambio = true;
+                        continue;
+                    }
+                }
+                vivacidad.retroceder(i, vivos);
+            }
+        }
+        if (cambio) {
+            codigo.removeIf(Objects::isNull);
+        }
+        return cambio;
+    }
+
+    private boolean vivo(long[] vivos, int temporal) {
+        int i = vivacidad.indice(temporal);
+        return (vivos[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Operaciones que solo calculan su resultado. La división del generador (div/mflo) no
+     * atrapa la división entre cero, así que también es pura.
+     */
+    static boolean esPuro(Operacion op) {
+        return op.esBinaria() || op == Operacion.COPIA || op == Operacion.NOT
+            || op == Operacion.NEGATIVO || op == Operacion.CARGAR_ARREGLO;
+    }
+}
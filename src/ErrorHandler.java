@@ -1,37 +1,75 @@
-
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class ErrorHandler implements AutoCloseable {
+    // Líneas pendientes antes de forzar un flush del log
+    private static final int UMBRAL_FLUSH = 64;
+    // Marca de fin para el hilo escritor (se compara por identidad)
+    private static final Object FIN = new Object();
 
-public class ErrorHandler {
     private final String errorLogPath;
     private final List<String> errors = new ArrayList<>();
     private boolean panicMode = false;
     private boolean continueOnError = false;
+
+    // Un solo writer abierto durante toda la sesión
+    private BufferedWriter writer;
+    private int pendientes = 0;
+    private volatile boolean cerrado = false;
+
+    // Escritura en segundo plano (opcional). finEncolado se lee y se cambia con el lock de
+    // la cola: después de FIN ninguna línea entra a la cola
+    private final LinkedBlockingQueue<Object> cola;
+    private final Thread escritor;
+    private boolean finEncolado = false;
+
+    // Vacía el log si la JVM termina sin llamar a close()
+    private final Thread hookCierre = new Thread(this::close, "cierre-errores");
     
     public ErrorHandler(String logPath) {
+        this(logPath, false);
+    }
+
+    /**
+     * @param logPath archivo de log de errores
+     * @param asincrono si es true, las líneas se escriben desde un hilo en segundo plano
+     */
+    public ErrorHandler(String logPath, boolean asincrono) {
         this.errorLogPath = logPath;
         initializeLogFile();
+        if (asincrono && writer != null) {
+            cola = new LinkedBlockingQueue<>();
+            escritor = new Thread(this::escribirCola, "registro-errores");
+            escritor.setDaemon(true);
+            escritor.start();
+        } else {
+            cola = null;
+            escritor = null;
+        }
+        Runtime.getRuntime().addShutdownHook(hookCierre);
     }
     
     private void initializeLogFile() {
         try {
             // Crear directorios si no existen
-            Paths.get(errorLogPath).getParent().toFile().mkdirs();
+            Paths.get(errorLogPath).toAbsolutePath().getParent().toFile().mkdirs();
             
             // Limpiar archivo existente o crear nuevo
             Files.deleteIfExists(Paths.get(errorLogPath));
             Files.createFile(Paths.get(errorLogPath));
             
-            // Escribir encabezado en el archivo
-            try (FileWriter fw = new FileWriter(errorLogPath)) {
-                fw.write("=== REGISTRO DE ERRORES ===\n");
-                fw.write(String.format("%-10s %-5s %-5s %s\n", "TIPO", "LÍNEA", "COL", "MENSAJE"));
-                fw.write("-----------------------------------------------------\n");
-            }
+            // Escribir encabezado en el archivo; el writer queda abierto para toda la sesión
+            writer = new BufferedWriter(new FileWriter(errorLogPath));
+            writer.write("=== REGISTRO DE ERRORES ===\n");
+            writer.write(String.format("%-10s %-5s %-5s %s\n", "TIPO", "LÍNEA", "COL", "MENSAJE"));
+            writer.write("-----------------------------------------------------\n");
+            writer.flush();
             
             System.out.println("Archivo de errores inicializado en: " + 
                 Paths.get(errorLogPath).toAbsolutePath());
@@ -54,21 +92,114 @@ public class ErrorHandler {
         String logMsg = String.format("%-10s %-5d %-5d %s", 
                            errorType, line, column, message);
         
-        // Escribir en archivo con verificación explícita
+        if (cola != null) {
+            synchronized (cola) {
+                if (!finEncolado) {
+                    cola.add(logMsg);
+                    return;
+                }
+            }
+        }
+        escribirLinea(logMsg);
+        
+        //System.err.println(errorMsg);
+    }
+
+    // Escribe una línea en el writer de la sesión y hace flush cada UMBRAL_FLUSH líneas
+    private synchronized void escribirLinea(String logMsg) {
         try {
-            FileWriter fw = new FileWriter(errorLogPath, true);
-            fw.write(logMsg + "\n");
-            fw.flush(); // Forzar escritura inmediata
-            fw.close();
-            
-            //System.out.println("Error registrado: " + errorMsg);
+            if (cerrado || writer == null) {
+                // Sesión cerrada: se agrega directo al archivo
+                try (FileWriter fw = new FileWriter(errorLogPath, true)) {
+                    fw.write(logMsg + "\n");
+                }
+                return;
+            }
+            writer.write(logMsg);
+            writer.write('\n');
+            if (++pendientes >= UMBRAL_FLUSH) {
+                flush();
+            }
         } catch (IOException e) {
             System.err.println("Error crítico escribiendo en log:");
             System.err.println("Ruta intentada: " + Paths.get(errorLogPath).toAbsolutePath());
             e.printStackTrace();
         }
-        
-        //System.err.println(errorMsg);
+    }
+
+    // Cuerpo del hilo escritor: escribe hasta recibir FIN, con flush cuando la cola queda vacía
+    private void escribirCola() {
+        try {
+            while (true) {
+                Object linea = cola.take();
+                if (linea == FIN) {
+                    return;
+                }
+                escribirLinea((String) linea);
+                if (cola.isEmpty()) {
+                    flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fuerza la escritura de las líneas pendientes.
+     */
+    public synchronized void flush() {
+        if (writer == null || cerrado) {
+            return;
+        }
+        try {
+            writer.flush();
+            pendientes = 0;
+        } catch (IOException e) {
+            System.err.println("Error vaciando el log de errores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el log. Se puede llamar más de una vez.
+     */
+    @Override
+    public void close() {
+        if (escritor != null) {
+            synchronized (cola) {
+                if (!finEncolado) {
+                    finEncolado = true;
+                    cola.add(FIN);
+                }
+            }
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            flush();
+            cerrado = true;
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    System.err.println("Error cerrando el log de errores: " + e.getMessage());
+                }
+            }
+        }
+        // Desde el propio hook no se puede quitar el hook
+        if (Thread.currentThread() != hookCierre) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hookCierre);
+            } catch (IllegalStateException e) {
+                // La JVM ya se está cerrando
+            }
+        }
     }
 
     public boolean checkFileAccess() {
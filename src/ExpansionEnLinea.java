@@ -0,0 +1,340 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Expansión en línea (inlining) de funciones chicas sobre todo el programa.
+ *
+ * Con el grafo de llamadas se marcan las funciones recursivas (las que se alcanzan a sí
+ * mismas) y se recorren las funciones de las llamadas hacia las que llaman, así cada
+ * cuerpo se copia ya con sus propias expansiones. Una llamada a g se expande si g tiene
+ * cuerpo, no es recursiva, no usa tablas de saltos, tiene a lo sumo TAMANO_MAXIMO
+ * cuádruplos y todavía queda presupuesto: en total el programa crece como mucho
+ * CRECIMIENTO_MAXIMO por ciento.
+ *
+ * La expansión reemplaza los param y el call: en el lugar del call se copian los
+ * argumentos a las variables de los parámetros (el generador también los lee recién en el
+ * call) y sigue el cuerpo de g con temporales y etiquetas nuevos, donde cada return x pasa
+ * a ser resultado = x y un goto a una etiqueta al final. El cuerpo copiado sigue usando
+ * las variables de g: el generador las ubica como variables de la función donde quedó el
+ * código (en su marco o en .data), y como g no es recursiva no se mezclan con las de otra
+ * activación. Las funciones que se expandieron en todas sus llamadas se quitan del
+ * programa.
+ */
+public class ExpansionEnLinea {
+
+    /** Cuádruplos máximos del cuerpo de una función que se expande */
+    public static final int TAMANO_MAXIMO = 24;
+    /** Crecimiento máximo del programa, en por ciento de su tamaño */
+    public static final int CRECIMIENTO_MAXIMO = 50;
+
+    private ProgramaIR programa;
+
+    // Código por función (null si no tiene cuerpo) y tramos en el orden del programa
+    private ArrayList<Cuadruplo>[] cuerpos;
+    private final ArrayList<ArrayList<Cuadruplo>> tramos = new ArrayList<>();
+
+    // Grafo de llamadas en formato compacto (inicioLlamadas indexa llamadas)
+    private int[] inicioLlamadas;
+    private int[] llamadas;
+    private boolean[] recursiva;
+
+    // Por función: veces que se expandió una llamada a ella
+    private int[] expandidas = new int[0];
+    private int presupuesto;
+
+    // Marcas para renombrar temporales y etiquetas en cada copia
+    private int marca;
+    private int[] marcaTemporal = new int[0];
+    private int[] temporalCopia = new int[0];
+    private int[] marcaEtiqueta = new int[0];
+    private int[] etiquetaCopia = new int[0];
+
+    /**
+     * Expande las llamadas del programa en su lugar.
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa) {
+        this.programa = programa;
+        int n = programa.getFunciones().size();
+        if (expandidas.length < n) {
+            expandidas = Arrays.copyOf(expandidas, n);
+        }
+        separar();
+        armarGrafo();
+        presupuesto = programa.getCuadruplos().size() * CRECIMIENTO_MAXIMO / 100;
+        boolean cambio = false;
+        for (int f : ordenLlamados()) {
+            cambio |= expandirEn(f);
+        }
+        if (cambio) {
+            boolean[] llamada = llamadasRestantes();
+            ArrayList<Cuadruplo> resultado = new ArrayList<>();
+            for (ArrayList<Cuadruplo> tramo : tramos) {
+                // Una función que ya no se llama porque se expandió en todos lados sobra
+                int f = tramo.get(0).op == Operacion.FUNCION ? Operando.valor(tramo.get(0).arg1) : -1;
+                if (f < 0 || llamada[f] || expandidas[f] == 0) {
+                    resultado.addAll(tramo);
+                }
+            }
+            programa.setCuadruplos(resultado);
+        }
+        tramos.clear();
+        return cambio;
+    }
+
+    /**
+     * Veces que se expandió una llamada a la función, desde que se creó el paso
+     */
+    public int getExpandidas(int funcion) {
+        return funcion < expandidas.length ? expandidas[funcion] : 0;
+    }
+
+    /**
+     * Llamadas expandidas por función, una por línea (solo las que se expandieron)
+     */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        for (int f = 0; f < expandidas.length && f < programa.getFunciones().size(); f++) {
+            if (expandidas[f] > 0) {
+                sb.append(programa.getFuncion(f).nombre).append(": ").append(expandidas[f]).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // ===================== Grafo de llamadas =====================
+
+    // Separa el código en tramos; cada función queda en su propia lista
+    private void separar() {
+        ArrayList<Cuadruplo> codigo = programa.getCuadruplos();
+        cuerpos = Cuadruplo.listas(programa.getFunciones().size());
+        tramos.clear();
+        int inicio = 0;
+        while (inicio < codigo.size()) {
+            int fin = programa.finDeFuncion(inicio);
+            ArrayList<Cuadruplo> tramo = new ArrayList<>(codigo.subList(inicio, fin));
+            if (tramo.get(0).op == Operacion.FUNCION) {
+                cuerpos[Operando.valor(tramo.get(0).arg1)] = tramo;
+            }
+            tramos.add(tramo);
+            inicio = fin;
+        }
+    }
+
+    private void armarGrafo() {
+        int n = cuerpos.length;
+        inicioLlamadas = new int[n + 1];
+        ArrayList<Integer> lista = new ArrayList<>();
+        for (int f = 0; f < n; f++) {
+            inicioLlamadas[f] = lista.size();
+            if (cuerpos[f] == null) {
+                continue;
+            }
+            for (Cuadruplo q : cuerpos[f]) {
+                if (q.op == Operacion.LLAMADA && cuerpos[Operando.valor(q.arg1)] != null) {
+                    lista.add(Operando.valor(q.arg1));
+                }
+            }
+        }
+        inicioLlamadas[n] = lista.size();
+        llamadas = new int[lista.size()];
+        for (int i = 0; i < llamadas.length; i++) {
+            llamadas[i] = lista.get(i);
+        }
+        // f es recursiva si alguna de las funciones que llama la alcanza
+        recursiva = new boolean[n];
+        int[] visita = new int[n];
+        Arrays.fill(visita, -1);
+        int[] pila = new int[Math.max(1, llamadas.length)];
+        for (int f = 0; f < n; f++) {
+            int tope = 0;
+            for (int k = inicioLlamadas[f]; k < inicioLlamadas[f + 1]; k++) {
+                if (visita[llamadas[k]] != f) {
+                    visita[llamadas[k]] = f;
+                    pila[tope++] = llamadas[k];
+                }
+            }
+            while (tope > 0 && !recursiva[f]) {
+                int g = pila[--tope];
+                recursiva[f] = g == f;
+                for (int k = inicioLlamadas[g]; k < inicioLlamadas[g + 1]; k++) {
+                    if (visita[llamadas[k]] != f) {
+                        visita[llamadas[k]] = f;
+                        pila[tope++] = llamadas[k];
+                    }
+                }
+            }
+        }
+    }
+
+    // Funciones con cuerpo en orden posterior del grafo de llamadas: cada una después de
+    // las que llama (salvo en los ciclos de recursión)
+    private int[] ordenLlamados() {
+        int n = cuerpos.length;
+        int[] orden = new int[n];
+        int cantidad = 0;
+        boolean[] visto = new boolean[n];
+        int[] pila = new int[n];
+        int[] siguiente = new int[n];
+        for (int raiz = 0; raiz < n; raiz++) {
+            if (cuerpos[raiz] == null || visto[raiz]) {
+                continue;
+            }
+            int tope = 0;
+            pila[tope++] = raiz;
+            visto[raiz] = true;
+            siguiente[raiz] = inicioLlamadas[raiz];
+            while (tope > 0) {
+                int f = pila[tope - 1];
+                if (siguiente[f] < inicioLlamadas[f + 1]) {
+                    int g = llamadas[siguiente[f]++];
+                    if (!visto[g]) {
+                        visto[g] = true;
+                        siguiente[g] = inicioLlamadas[g];
+                        pila[tope++] = g;
+                    }
+                } else {
+                    tope--;
+                    orden[cantidad++] = f;
+                }
+            }
+        }
+        return Arrays.copyOf(orden, cantidad);
+    }
+
+    private boolean[] llamadasRestantes() {
+        boolean[] llamada = new boolean[cuerpos.length];
+        for (ArrayList<Cuadruplo> tramo : tramos) {
+            for (Cuadruplo q : tramo) {
+                if (q.op == Operacion.LLAMADA) {
+                    llamada[Operando.valor(q.arg1)] = true;
+                }
+            }
+        }
+        return llamada;
+    }
+
+    // ===================== Expansión =====================
+
+    private boolean sePuedeExpandir(int g, int argumentos) {
+        ArrayList<Cuadruplo> cuerpo = cuerpos[g];
+        ProgramaIR.Funcion funcion = programa.getFuncion(g);
+        if (cuerpo == null || recursiva[g] || funcion.etiqueta.equals("main")
+                || funcion.parametros.size() != argumentos) {
+            return false;
+        }
+        int tamano = cuerpo.size() - 2;
+        if (tamano > TAMANO_MAXIMO || tamano > presupuesto) {
+            return false;
+        }
+        for (Cuadruplo q : cuerpo) {
+            if (q.op == Operacion.SALTO_TABLA) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Expande las llamadas de la función f; los param de cada call son los últimos que
+    // quedan pendientes, igual que en el generador
+    private boolean expandirEn(int f) {
+        ArrayList<Cuadruplo> codigo = cuerpos[f];
+        boolean[] quitar = new boolean[codigo.size()];
+        long[][] argumentos = new long[codigo.size()][];
+        int[] pendientes = new int[codigo.size()];
+        int cantidadPendientes = 0;
+        boolean cambio = false;
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo q = codigo.get(i);
+            if (q.op == Operacion.PARAMETRO) {
+                pendientes[cantidadPendientes++] = i;
+            } else if (q.op == Operacion.LLAMADA) {
+                int g = Operando.valor(q.arg1);
+                int cantidad = Math.min(Operando.valor(q.arg2), cantidadPendientes);
+                cantidadPendientes -= cantidad;
+                if (g != f && sePuedeExpandir(g, cantidad)) {
+                    argumentos[i] = new long[cantidad];
+                    for (int k = 0; k < cantidad; k++) {
+                        int parametro = pendientes[cantidadPendientes + k];
+                        quitar[parametro] = true;
+                        argumentos[i][k] = codigo.get(parametro).arg1;
+                    }
+                    presupuesto -= cuerpos[g].size() - 2;
+                    cambio = true;
+                }
+            }
+        }
+        if (!cambio) {
+            return false;
+        }
+        ArrayList<Cuadruplo> resultado = new ArrayList<>(codigo.size() + 32);
+        for (int i = 0; i < codigo.size(); i++) {
+            if (argumentos[i] != null) {
+                expandir(resultado, codigo.get(i), argumentos[i]);
+            } else if (!quitar[i]) {
+                resultado.add(codigo.get(i));
+            }
+        }
+        codigo.clear();
+        codigo.addAll(resultado);
+        return true;
+    }
+
+    // Copia el cuerpo de la función llamada en lugar del call
+    private void expandir(ArrayList<Cuadruplo> resultado, Cuadruplo llamada, long[] argumentos) {
+        int g = Operando.valor(llamada.arg1);
+        ProgramaIR.Funcion funcion = programa.getFuncion(g);
+        expandidas[g]++;
+        nuevaCopia();
+        for (int k = 0; k < argumentos.length; k++) {
+            resultado.add(new Cuadruplo(Operacion.COPIA, Operando.variable(funcion.parametros.get(k)),
+                argumentos[k], Operando.VACIO));
+        }
+        int fin = programa.nuevaEtiqueta("FIN_EXPANSION_");
+        ArrayList<Cuadruplo> cuerpo = cuerpos[g];
+        for (int i = 1; i < cuerpo.size() - 1; i++) {
+            Cuadruplo q = cuerpo.get(i);
+            if (q.op == Operacion.RETORNO) {
+                if (!Operando.esVacio(llamada.resultado) && !Operando.esVacio(q.arg1)) {
+                    resultado.add(new Cuadruplo(Operacion.COPIA, llamada.resultado, renombrar(q.arg1), Operando.VACIO));
+                }
+                resultado.add(new Cuadruplo(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(fin), Operando.VACIO));
+            } else {
+                resultado.add(new Cuadruplo(q.op, renombrar(q.resultado), renombrar(q.arg1), renombrar(q.arg2)));
+            }
+        }
+        resultado.add(new Cuadruplo(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(fin), Operando.VACIO));
+    }
+
+    private void nuevaCopia() {
+        marca++;
+        if (marcaTemporal.length < programa.getCantidadTemporales()) {
+            marcaTemporal = Arrays.copyOf(marcaTemporal, Math.max(programa.getCantidadTemporales(), 2 * marcaTemporal.length));
+            temporalCopia = new int[marcaTemporal.length];
+        }
+        if (marcaEtiqueta.length < programa.getCantidadEtiquetas()) {
+            marcaEtiqueta = Arrays.copyOf(marcaEtiqueta, Math.max(programa.getCantidadEtiquetas(), 2 * marcaEtiqueta.length));
+            etiquetaCopia = new int[marcaEtiqueta.length];
+        }
+    }
+
+    private long renombrar(long operando) {
+        int v = Operando.valor(operando);
+        switch (Operando.clase(operando)) {
+            case Operando.TEMPORAL:
+                if (marcaTemporal[v] != marca) {
+                    marcaTemporal[v] = marca;
+                    temporalCopia[v] = programa.nuevoTemporal(programa.tipoTemporal(v));
+                }
+                return Operando.temporal(temporalCopia[v]);
+            case Operando.ETIQUETA:
+                if (marcaEtiqueta[v] != marca) {
+                    marcaEtiqueta[v] = marca;
+                    etiquetaCopia[v] = programa.nuevaEtiqueta(programa.nombreEtiqueta(v) + "_");
+                }
+                return Operando.etiqueta(etiquetaCopia[v]);
+            default:
+                return operando;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generador de programas sintéticos para los benchmarks y las pruebas de estrés.
+ *
+ * Con la misma semilla produce siempre el mismo programa: variables globales, funciones
+ * con if/elif/else, for, do-while, Switch (con casos densos y dispersos), arreglos y
+ * expresiones de la profundidad indicada, y un main que llama a varias funciones e
+ * imprime los resultados. Los programas siempre terminan: los ciclos tienen contadores
+ * que el cuerpo no modifica, una función solo llama a funciones anteriores (sin
+ * recursión) y nunca desde dentro de un ciclo, y las divisiones son por constantes.
+ *
+ * Uso: java -cp "src;src/libs/*" GeneradorProgramas [-s semilla] [-p profundidad] [-n cantidad] [-o archivo|directorio] lineas
+ */
+public class GeneradorProgramas {
+
+    private static final int TAMANO_ARREGLO = 8;
+    private static final int MAX_ANIDAMIENTO = 3;
+    private static final int MAX_LLAMADAS_MAIN = 16;
+    private static final String[] RELACIONALES = {">", "<", ">=", "<=", "==", "!="};
+
+    private final long semilla;
+    private int profundidad = 3;
+
+    // Estado de la generación en curso
+    private SplittableRandom azar;
+    private Appendable salida;
+    private final StringBuilder linea = new StringBuilder(128);
+    private int lineas;
+    private int sangria;
+    private int funciones;
+
+    // Estado de la función actual
+    private final List<String> legibles = new ArrayList<>();
+    private final List<String> asignables = new ArrayList<>();
+    private final List<String> indices = new ArrayList<>();
+    private int anidamiento;
+    private int ciclos;
+    private int finFuncion; // línea en la que debería terminar la función
+    private boolean conLlamada;
+
+    public GeneradorProgramas(long semilla) {
+        this.semilla = semilla;
+    }
+
+    // Profundidad máxima de los árboles de expresiones (por defecto 3)
+    public void setProfundidad(int profundidad) {
+        this.profundidad = Math.max(0, profundidad);
+    }
+
+    /**
+     * Genera un programa de aproximadamente la cantidad de líneas indicada.
+     */
+    public String generar(int lineasObjetivo) {
+        StringBuilder sb = new StringBuilder(lineasObjetivo * 24);
+        try {
+            generar(lineasObjetivo, sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder no lanza IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe el programa en la salida indicada sin armarlo completo en memoria.
+     * @return la cantidad de líneas escritas
+     */
+    public int generar(int lineasObjetivo, Appendable salida) throws IOException {
+        this.azar = new SplittableRandom(semilla);
+        this.salida = salida;
+        lineas = 0;
+        sangria = 0;
+        funciones = 0;
+
+        emitir("@ programa generado, semilla " + semilla + ", profundidad " + profundidad);
+        int globales = Math.min(64, Math.max(4, lineasObjetivo / 2000));
+        for (int i = 0; i < globales; i++) {
+            emitir("global int g" + i + " = " + azar.nextInt(100) + " ?");
+        }
+
+        do {
+            generarFuncion(globales, lineasObjetivo - lineas - lineasMain(funciones + 1));
+        } while (lineas + lineasMain(funciones) < lineasObjetivo);
+
+        generarMain();
+        return lineas;
+    }
+
+    private static int lineasMain(int funciones) {
+        return 6 + 2 * Math.min(funciones, MAX_LLAMADAS_MAIN);
+    }
+
+    // ===================== Funciones =====================
+
+    private void generarFuncion(int globales, int restantes) throws IOException {
+        int objetivo = Math.max(12, Math.min(20 + azar.nextInt(40), restantes));
+        finFuncion = lineas + objetivo - 2; // sin contar return y el cierre
+        int locales = 2 + azar.nextInt(3);
+
+        legibles.clear();
+        asignables.clear();
+        indices.clear();
+        anidamiento = 0;
+        ciclos = 0;
+        conLlamada = false;
+
+        emitir("function int f" + funciones + " ʃ int a , int b ʅ");
+        abrirBloque();
+        emitir("int r = a ?");
+        for (int i = 0; i < locales; i++) {
+            emitir("int v" + i + " = " + (i % 2 == 0 ? "b" : String.valueOf(azar.nextInt(10))) + " ?");
+        }
+        for (int i = 0; i < MAX_ANIDAMIENTO; i++) {
+            emitir("int i" + i + " = 0 ?");
+            emitir("int c" + i + " = 0 ?");
+        }
+        emitir("int arr | " + TAMANO_ARREGLO + " | ?");
+
+        asignables.add("r");
+        asignables.add("a");
+        asignables.add("b");
+        for (int i = 0; i < locales; i++) {
+            asignables.add("v" + i);
+        }
+        for (int i = 0; i < Math.min(globales, 4); i++) {
+            asignables.add("g" + azar.nextInt(globales));
+        }
+        legibles.addAll(asignables);
+
+        while (lineas < finFuncion) {
+            sentencia();
+        }
+        emitir("return r ?");
+        cerrarBloque();
+        funciones++;
+    }
+
+    private void generarMain() throws IOException {
+        emitir("main ʃʅ");
+        abrirBloque();
+        emitir("int x = " + azar.nextInt(10) + " ?");
+        emitir("int y = " + azar.nextInt(10) + " ?");
+        // Llamadas repartidas entre todas las funciones
+        int llamadas = Math.min(funciones, MAX_LLAMADAS_MAIN);
+        for (int i = 0; i < llamadas; i++) {
+            int f = (int) ((long) funciones * (i + 1) / llamadas) - 1;
+            emitir("x = f" + f + " ʃ x , y ʅ ?");
+            emitir("imprimir ʃ x ʅ ?");
+        }
+        emitir("imprimir ʃ y ʅ ?");
+        cerrarBloque();
+    }
+
+    // ===================== Sentencias =====================
+
+    private void sentencia() throws IOException {
+        int r = azar.nextInt(100);
+        // Las sentencias compuestas solo si queda espacio en la función
+        boolean compuesta = anidamiento < MAX_ANIDAMIENTO && lineas + 8 < finFuncion;
+        if (compuesta && r < 12) {
+            sentenciaIf();
+        } else if (compuesta && r < 20) {
+            sentenciaFor();
+        } else if (compuesta && r < 26) {
+            sentenciaDoWhile();
+        } else if (compuesta && r < 32) {
+            sentenciaSwitch();
+        } else if (r < 38 && funciones > 0 && ciclos == 0 && !conLlamada) {
+            sentenciaLlamada();
+        } else if (r < 50) {
+            emitir("arr [ " + indice() + " ] = " + expresion(profundidad) + " ?");
+        } else {
+            emitir(elegir(asignables) + " = " + expresion(profundidad) + " ?");
+        }
+    }
+
+    // Entre 1 y 3 sentencias dentro de un bloque (( ... /
+    private void cuerpo() throws IOException {
+        anidamiento++;
+        int cantidad = 1 + azar.nextInt(3);
+        for (int i = 0; i < cantidad; i++) {
+            sentencia();
+        }
+        anidamiento--;
+    }
+
+    private void sentenciaIf() throws IOException {
+        emitir("if ʃ " + condicion() + " ʅ");
+        abrirBloque();
+        cuerpo();
+        cerrarBloque();
+        int elifs = azar.nextInt(3);
+        for (int i = 0; i < elifs; i++) {
+            emitir("elif ʃ " + condicion() + " ʅ");
+            abrirBloque();
+            cuerpo();
+            cerrarBloque();
+        }
+        if (azar.nextBoolean()) {
+            emitir("else");
+            abrirBloque();
+            cuerpo();
+            cerrarBloque();
+        }
+    }
+
+    // El contador del nivel no se asigna en el cuerpo y nunca pasa del tamaño del arreglo
+    private void sentenciaFor() throws IOException {
+        String i = "i" + ciclos;
+        emitir("for ʃ " + i + " = 0 ? " + i + " < " + (1 + azar.nextInt(TAMANO_ARREGLO)) + " ? " + i + " = " + i + " + 1 ʅ");
+        abrirBloque();
+        ciclos++;
+        legibles.add(i);
+        indices.add(i);
+        cuerpo();
+        indices.remove(indices.size() - 1);
+        legibles.remove(legibles.size() - 1);
+        ciclos--;
+        cerrarBloque();
+    }
+
+    private void sentenciaDoWhile() throws IOException {
+        String c = "c" + ciclos;
+        emitir(c + " = " + (1 + azar.nextInt(5)) + " ?");
+        emitir("do");
+        abrirBloque();
+        ciclos++;
+        legibles.add(c);
+        cuerpo();
+        emitir(c + " = " + c + " - 1 ?");
+        legibles.remove(legibles.size() - 1);
+        ciclos--;
+        sangria--;
+        emitir("/ while ʃ " + c + " > 0 ʅ ?");
+    }
+
+    // Casos consecutivos (densos) o con saltos grandes entre valores (dispersos)
+    private void sentenciaSwitch() throws IOException {
+        emitir("Switch ʃ " + elegir(legibles) + " ʅ");
+        abrirBloque();
+        int casos = 2 + azar.nextInt(7);
+        boolean denso = azar.nextBoolean();
+        int valor = azar.nextInt(4);
+        anidamiento++;
+        for (int i = 0; i < casos; i++) {
+            emitir("case " + valor + " :");
+            sangria++;
+            cuerpo();
+            emitir("break ?");
+            sangria--;
+            valor += denso ? 1 : 1 + azar.nextInt(50);
+        }
+        if (azar.nextInt(10) < 7) {
+            emitir("default :");
+            sangria++;
+            cuerpo();
+            sangria--;
+        }
+        anidamiento--;
+        cerrarBloque();
+    }
+
+    // Solo a funciones anteriores, así no hay recursión
+    private void sentenciaLlamada() throws IOException {
+        int f = funciones - 1 - azar.nextInt(Math.min(funciones, 8));
+        emitir(elegir(asignables) + " = f" + f + " ʃ " + expresion(1) + " , " + expresion(1) + " ʅ ?");
+        conLlamada = true;
+    }
+
+    // ===================== Expresiones =====================
+
+    private String condicion() {
+        return expresion(1) + " " + RELACIONALES[azar.nextInt(RELACIONALES.length)] + " " + expresion(1);
+    }
+
+    private String expresion(int prof) {
+        StringBuilder sb = new StringBuilder();
+        expresion(sb, prof, true);
+        return sb.toString();
+    }
+
+    /**
+     * Árbol de operaciones de a lo sumo prof niveles. Los operandos compuestos van entre
+     * paréntesis; los divisores y exponentes son constantes positivas.
+     */
+    private void expresion(StringBuilder sb, int prof, boolean raiz) {
+        if (prof == 0 || (!raiz && azar.nextInt(4) == 0)) {
+            atomo(sb);
+            return;
+        }
+        if (!raiz) {
+            sb.append("ʃ ");
+        }
+        expresion(sb, prof - 1, false);
+        int op = azar.nextInt(20);
+        if (op < 7) {
+            sb.append(" + ");
+            expresion(sb, prof - 1, false);
+        } else if (op < 11) {
+            sb.append(" - ");
+            expresion(sb, prof - 1, false);
+        } else if (op < 15) {
+            sb.append(" * ");
+            expresion(sb, prof - 1, false);
+        } else if (op < 17) {
+            sb.append(" // ").append(1 + azar.nextInt(16));
+        } else if (op < 19) {
+            sb.append(" ~ ").append(1 + azar.nextInt(16));
+        } else {
+            sb.append(" ** ").append(azar.nextInt(4));
+        }
+        if (!raiz) {
+            sb.append(" ʅ");
+        }
+    }
+
+    private void atomo(StringBuilder sb) {
+        int r = azar.nextInt(20);
+        if (r < 6) {
+            sb.append(azar.nextInt(100));
+        } else if (r < 16) {
+            sb.append(elegir(legibles));
+        } else if (r < 19) {
+            sb.append("arr [ ").append(indice()).append(" ]");
+        } else {
+            sb.append("ʃ - ").append(elegir(legibles)).append(" ʅ");
+        }
+    }
+
+    // Contador de un for que lo encierra o una constante dentro del arreglo
+    private String indice() {
+        if (!indices.isEmpty() && azar.nextBoolean()) {
+            return elegir(indices);
+        }
+        return String.valueOf(azar.nextInt(TAMANO_ARREGLO));
+    }
+
+    private String elegir(List<String> opciones) {
+        return opciones.get(azar.nextInt(opciones.size()));
+    }
+
+    // ===================== Salida =====================
+
+    private void abrirBloque() throws IOException {
+        emitir("((");
+        sangria++;
+    }
+
+    private void cerrarBloque() throws IOException {
+        sangria--;
+        emitir("/");
+    }
+
+    private void emitir(String texto) throws IOException {
+        linea.setLength(0);
+        for (int i = 0; i < sangria; i++) {
+            linea.append("    ");
+        }
+        linea.append(texto).append('\n');
+        salida.append(linea);
+        lineas++;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long semilla = 42;
+        int profundidad = 3;
+        int cantidad = 1;
+        String destino = null;
+        Integer lineas = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-s") && i + 1 < args.length) {
+                semilla = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-p") && i + 1 < args.length) {
+                profundidad = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-n") && i + 1 < args.length) {
+                cantidad = Math.max(1, Integer.parseInt(args[++i]));
+            } else if (args[i].equals("-o") && i + 1 < args.length) {
+                destino = args[++i];
+            } else {
+                lineas = Integer.parseInt(args[i]);
+            }
+        }
+
+        if (lineas == null || (cantidad > 1 && destino == null)) {
+            System.err.println("Uso: GeneradorProgramas [-s semilla] [-p profundidad] [-n cantidad] [-o archivo|directorio] lineas");
+            System.exit(2);
+        }
+
+        // La salida estándar va en UTF-8 sin importar el charset de la plataforma, igual que los archivos
+        PrintStream salida = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        if (destino == null) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            nuevo(semilla, profundidad).generar(lineas, out);
+            out.flush();
+            return;
+        }
+
+        // Con -n se escriben varios programas con semillas consecutivas, listos para CompiladorLote
+        for (int k = 0; k < cantidad; k++) {
+            Path archivo = Paths.get(destino);
+            if (cantidad > 1) {
+                Files.createDirectories(archivo);
+                archivo = archivo.resolve("programa" + k + ".txt");
+            }
+            try (Writer out = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+                int escritas = nuevo(semilla + k, profundidad).generar(lineas, out);
+                salida.println(archivo + ": " + escritas + " líneas");
+            }
+        }
+    }
+
+    private static GeneradorProgramas nuevo(long semilla, int profundidad) {
+        GeneradorProgramas g = new GeneradorProgramas(semilla);
+        g.setProfundidad(profundidad);
+        return g;
+    }
+}
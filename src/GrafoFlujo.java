@@ -0,0 +1,229 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grafo de flujo de control de una función del código intermedio: bloques básicos con sus
+ * sucesores y predecesores.
+ *
+ * Un bloque empieza en el inicio de la función, en cada etiqueta y después de cada salto
+ * o retorno. Sus sucesores salen del último cuádruplo: goto va a la etiqueta, if/ifFalse
+ * a la etiqueta y al bloque siguiente, goto_tabla a cada etiqueta distinta de su tabla y
+ * a la de defecto, return al bloque de fin_funcion y el resto cae al bloque siguiente.
+ *
+ * Todo se guarda en arreglos primitivos que se reutilizan de una función a la siguiente;
+ * sucesores y predecesores están en formato compacto (inicioSucesores indexa sucesores e
+ * inicioPredecesores indexa predecesores).
+ */
+public class GrafoFlujo {
+
+    // Código de la función actual
+    ProgramaIR programa;
+    List<Cuadruplo> codigo;
+    int desde;
+    int hasta;
+
+    // Por bloque: [inicio, fin) en el código, sucesores y predecesores
+    int cantidadBloques;
+    int[] inicioBloque = new int[16];
+    int[] finBloque = new int[16];
+    int[] inicioSucesores = new int[17];
+    int[] sucesores = new int[32];
+    int[] inicioPredecesores = new int[17];
+    int[] predecesores = new int[32];
+
+    // Bloque de cada posición (índice posición - desde) y de cada etiqueta de la función
+    private int[] bloque = new int[0];
+    private int[] bloqueEtiqueta = new int[0];
+    private int[] etiquetasUsadas = new int[16];
+    private int cantidadEtiquetas;
+    // Último bloque que agregó cada bloque como sucesor, para no repetirlo desde una tabla
+    private int[] marcaSucesor = new int[16];
+
+    /**
+     * Construye el grafo de codigo[desde, hasta), que debe ser una función completa
+     * (o el código fuera de funciones)
+     */
+    public void construir(ProgramaIR programa, List<Cuadruplo> codigo, int desde, int hasta) {
+        this.programa = programa;
+        this.codigo = codigo;
+        this.desde = desde;
+        this.hasta = hasta;
+        reiniciar(programa);
+        dividirBloques();
+        enlazar();
+        calcularPredecesores();
+    }
+
+    public int getCantidadBloques() {
+        return cantidadBloques;
+    }
+
+    public int inicio(int b) {
+        return inicioBloque[b];
+    }
+
+    public int fin(int b) {
+        return finBloque[b];
+    }
+
+    public int cantidadSucesores(int b) {
+        return inicioSucesores[b + 1] - inicioSucesores[b];
+    }
+
+    /**
+     * Sucesor k del bloque, o -1 si tiene menos de k + 1
+     */
+    public int sucesor(int b, int k) {
+        return k < cantidadSucesores(b) ? sucesores[inicioSucesores[b] + k] : -1;
+    }
+
+    public int cantidadPredecesores(int b) {
+        return inicioPredecesores[b + 1] - inicioPredecesores[b];
+    }
+
+    public int predecesor(int b, int k) {
+        return predecesores[inicioPredecesores[b] + k];
+    }
+
+    /**
+     * Bloque que contiene la posición del código
+     */
+    public int bloqueDe(int posicion) {
+        return bloque[posicion - desde];
+    }
+
+    /**
+     * Bloque que empieza con la etiqueta, o -1 si no está en esta función
+     */
+    public int bloqueDeEtiqueta(int etiqueta) {
+        return bloqueEtiqueta[etiqueta];
+    }
+
+    private void reiniciar(ProgramaIR programa) {
+        if (bloqueEtiqueta.length < programa.getCantidadEtiquetas()) {
+            bloqueEtiqueta = new int[programa.getCantidadEtiquetas()];
+            Arrays.fill(bloqueEtiqueta, -1);
+        } else {
+            for (int i = 0; i < cantidadEtiquetas; i++) {
+                bloqueEtiqueta[etiquetasUsadas[i]] = -1;
+            }
+        }
+        if (bloque.length < hasta - desde) {
+            bloque = new int[hasta - desde];
+        }
+        cantidadEtiquetas = 0;
+        cantidadBloques = 0;
+    }
+
+    private void dividirBloques() {
+        boolean lider = true;
+        for (int i = desde; i < hasta; i++) {
+            Cuadruplo c = codigo.get(i);
+            if (lider || c.op == Operacion.ETIQUETA || c.op == Operacion.FUNCION) {
+                nuevoBloque(i);
+            }
+            if (c.op == Operacion.ETIQUETA) {
+                int etiqueta = Operando.valor(c.arg1);
+                bloqueEtiqueta[etiqueta] = cantidadBloques - 1;
+                if (cantidadEtiquetas == etiquetasUsadas.length) {
+                    etiquetasUsadas = Arrays.copyOf(etiquetasUsadas, cantidadEtiquetas * 2);
+                }
+                etiquetasUsadas[cantidadEtiquetas++] = etiqueta;
+            }
+            bloque[i - desde] = cantidadBloques - 1;
+            finBloque[cantidadBloques - 1] = i + 1;
+            lider = c.op.esSalto() || c.op == Operacion.FIN_FUNCION;
+        }
+    }
+
+    private void nuevoBloque(int posicion) {
+        if (cantidadBloques == inicioBloque.length) {
+            int n = cantidadBloques * 2;
+            inicioBloque = Arrays.copyOf(inicioBloque, n);
+            finBloque = Arrays.copyOf(finBloque, n);
+            inicioSucesores = Arrays.copyOf(inicioSucesores, n + 1);
+            inicioPredecesores = Arrays.copyOf(inicioPredecesores, n + 1);
+        }
+        inicioBloque[cantidadBloques] = posicion;
+        finBloque[cantidadBloques] = posicion;
+        cantidadBloques++;
+    }
+
+    private void enlazar() {
+        // return salta al epílogo, que está en el bloque de fin_funcion
+        int bloqueFin = -1;
+        if (cantidadBloques > 0 && codigo.get(hasta - 1).op == Operacion.FIN_FUNCION) {
+            bloqueFin = cantidadBloques - 1;
+        }
+        if (marcaSucesor.length < cantidadBloques) {
+            marcaSucesor = new int[Math.max(cantidadBloques, 2 * marcaSucesor.length)];
+        }
+        Arrays.fill(marcaSucesor, 0, cantidadBloques, -1);
+        int total = 0;
+        for (int b = 0; b < cantidadBloques; b++) {
+            inicioSucesores[b] = total;
+            Cuadruplo ultimo = codigo.get(finBloque[b] - 1);
+            int siguiente = b + 1 < cantidadBloques ? b + 1 : -1;
+            switch (ultimo.op) {
+                case SALTO:
+                    total = agregarSucesor(b, total, bloqueDeEtiqueta(Operando.valor(ultimo.arg1)));
+                    break;
+                case SALTO_SI:
+                case SALTO_SI_FALSO:
+                    total = agregarSucesor(b, total, bloqueDeEtiqueta(Operando.valor(ultimo.arg2)));
+                    total = agregarSucesor(b, total, siguiente);
+                    break;
+                case SALTO_TABLA: {
+                    ProgramaIR.TablaSaltos tabla = programa.getTabla(Operando.valor(ultimo.arg2));
+                    for (int etiqueta : tabla.etiquetas) {
+                        total = agregarSucesor(b, total, bloqueDeEtiqueta(etiqueta));
+                    }
+                    total = agregarSucesor(b, total, bloqueDeEtiqueta(tabla.porDefecto));
+                    break;
+                }
+                case RETORNO:
+                    total = agregarSucesor(b, total, bloqueFin);
+                    break;
+                case FIN_FUNCION:
+                    break;
+                default:
+                    total = agregarSucesor(b, total, siguiente);
+            }
+        }
+        inicioSucesores[cantidadBloques] = total;
+    }
+
+    // Agrega s a los sucesores de b si existe y no estaba; retorna el nuevo total
+    private int agregarSucesor(int b, int total, int s) {
+        if (s < 0 || marcaSucesor[s] == b) {
+            return total;
+        }
+        marcaSucesor[s] = b;
+        if (total == sucesores.length) {
+            sucesores = Arrays.copyOf(sucesores, 2 * total);
+        }
+        sucesores[total] = s;
+        return total + 1;
+    }
+
+    // Cuenta los predecesores de cada bloque y los ubica en un solo arreglo
+    private void calcularPredecesores() {
+        Arrays.fill(inicioPredecesores, 0, cantidadBloques + 1, 0);
+        int total = inicioSucesores[cantidadBloques];
+        for (int i = 0; i < total; i++) {
+            inicioPredecesores[sucesores[i] + 1]++;
+        }
+        for (int b = 0; b < cantidadBloques; b++) {
+            inicioPredecesores[b + 1] += inicioPredecesores[b];
+        }
+        if (predecesores.length < total) {
+            predecesores = new int[Math.max(total, 2 * predecesores.length)];
+        }
+        int[] siguiente = Arrays.copyOf(inicioPredecesores, cantidadBloques);
+        for (int b = 0; b < cantidadBloques; b++) {
+            for (int i = inicioSucesores[b]; i < inicioSucesores[b + 1]; i++) {
+                predecesores[siguiente[sucesores[i]]++] = b;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+/**
+ * Una línea de la sección .text ya separada en sus partes, para que el optimizador de
+ * mirilla pueda comparar instrucciones sin volver a analizar el texto.
+ *
+ * Las instrucciones tienen operación y operandos ("add", ["$t0", "$t1", "$v1"]); las
+ * etiquetas, directivas, comentarios y líneas en blanco se guardan tal cual en texto.
+ */
+public final class InstruccionMIPS {
+
+    private final String operacion;
+    private final String[] operandos;
+    private final String texto;
+
+    private InstruccionMIPS(String operacion, String[] operandos, String texto) {
+        this.operacion = operacion;
+        this.operandos = operandos;
+        this.texto = texto;
+    }
+
+    /**
+     * Crea una instrucción con su operación y sus operandos
+     */
+    public static InstruccionMIPS instruccion(String operacion, String... operandos) {
+        return new InstruccionMIPS(operacion, operandos, null);
+    }
+
+    /**
+     * Separa una línea del código generado (sin el salto de línea)
+     */
+    public static InstruccionMIPS desdeLinea(String linea) {
+        String limpia = linea.trim();
+        if (limpia.isEmpty() || limpia.endsWith(":") || limpia.startsWith(".") || limpia.startsWith("#")) {
+            return new InstruccionMIPS(null, null, linea);
+        }
+        int espacio = limpia.indexOf(' ');
+        if (espacio < 0) {
+            return new InstruccionMIPS(limpia, new String[0], null);
+        }
+        String[] operandos = limpia.substring(espacio + 1).split(",");
+        for (int i = 0; i < operandos.length; i++) {
+            operandos[i] = operandos[i].trim();
+        }
+        return new InstruccionMIPS(limpia.substring(0, espacio), operandos, null);
+    }
+
+    public boolean esInstruccion() {
+        return operacion != null;
+    }
+
+    public boolean esEtiqueta() {
+        return texto != null && texto.trim().endsWith(":");
+    }
+
+    /**
+     * Etiquetas, comentarios y líneas en blanco: no ejecutan nada
+     */
+    public boolean esIgnorable() {
+        return operacion == null && !texto.trim().startsWith(".");
+    }
+
+    /**
+     * Nombre de la etiqueta sin los dos puntos, o null si no es etiqueta
+     */
+    public String getEtiqueta() {
+        if (!esEtiqueta()) {
+            return null;
+        }
+        String limpia = texto.trim();
+        return limpia.substring(0, limpia.length() - 1);
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public boolean es(String op) {
+        return op.equals(operacion);
+    }
+
+    public int getCantidadOperandos() {
+        return operandos == null ? 0 : operandos.length;
+    }
+
+    public String operando(int i) {
+        return operandos[i];
+    }
+
+    @Override
+    public String toString() {
+        if (operacion == null) {
+            return texto;
+        }
+        if (operandos.length == 0) {
+            return operacion;
+        }
+        return operacion + " " + String.join(", ", Arrays.asList(operandos));
+    }
+}
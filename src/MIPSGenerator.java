@@ -1,909 +1,1449 @@
 import java.util.ArrayList;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 /**
- * MIPSGenerator es una clase que se encarga de generar código MIPS a partir de un código en 3D.
- * Esta clase procesa el código 3D, identifica las instrucciones y genera el código MIPS correspondiente.
- * Utiliza un archivo de texto para leer el código 3D y otro para escribir el código MIPS generado.
+ * MIPSGenerator es una clase que se encarga de generar código MIPS a partir del código intermedio.
+ * Recibe el programa en cuádruplos (ProgramaIR) directamente desde el parser, recorre cada
+ * instrucción según su código de operación y genera el código MIPS correspondiente.
  */
 public class MIPSGenerator {
 
     /**
-     * Clase encargada de generar el código MIPS a partir del código 3D.
-     * Esta clase lee el código 3D desde un archivo, lo procesa y genera el código MIPS correspondiente.
+     * Archivo donde se escribe el código MIPS generado.
      */
-    private static FileWriter writer;
+    private FileWriter writer;
+    private final String rutaSalida;
     private StringBuilder code;
-    String dataSection = ".data\n";
-
-    //Contadores de registros temporales
-    int numTemporalesReg = 0;
-    int numFlotantes = 0;
-    int numFlotantesAux = 0;
-    
-
-    //Mensajes de la seccion de datos
-    Map<String, String> dataSectionStrings = new HashMap<String, String>();
-
-    //Listas de valores temporales
-    Map<String, String> valoresTemporales = new HashMap<String, String>();
-    Map<String, String> temps3DMap = new HashMap<String, String>();
-    boolean[] tempRegistros = new boolean[10];
-
-    //Diccionario de tipos de datos
-    Map<String, String> tiposDatos = new HashMap<String, String>();
-    Map<String, String> listaTiposDatosMap = new HashMap<String, String>();
-    
-    //Instrucciones de carga y almacenamiento
-    String[] listaFunciones = new String[100];
-    ArrayList<String> funcArgs = new ArrayList<String>();
-    String tipoDatoActual = "";
-
-    /**
-     * Constructor de la clase MIPSGenerator.
-     * Inicializa el StringBuilder para almacenar el código MIPS.
-     */
-    public void generateMips() throws IOException {
-        code = new StringBuilder();
-        initTiposDatos();
-
-        String cod3Direcciones = get3DCode();
-        Translate(cod3Direcciones);
-    }
-    
-    /**
-     * Obtiene el código 3D desde un archivo de texto.
-     * @return el código 3D como una cadena
-     * @throws IOException si ocurre un error al leer el archivo
-     */
-    private static String get3DCode() throws IOException {
-        String code = leerArchivoTexto("src/output/codigo3D.txt");
-        return code; // Return the code as a string
+    StringBuilder dataSection;
+
+    //Registros auxiliares para constantes, variables y temporales derramados.
+    //Solo viven dentro de la traducción de un cuádruplo y el asignador no los usa.
+    static final String[] AUXILIARES = {"$v1", "$a1", "$a2", "$a3"};
+    static final String[] AUXILIARES_FLOTANTES = {"$f1", "$f2", "$f3"};
+    //Registros de los primeros argumentos de una llamada; el resto va en la pila
+    static final String[] ARGUMENTOS = {"$a0", "$a1", "$a2", "$a3"};
+    int auxiliaresUsados = 0;
+    int auxiliaresFlotantesUsados = 0;
+
+    //Registros de los temporales de la función que se está traduciendo
+    AsignadorRegistros asignador;
+    //0 y 1: barrido lineal, 2: coloreo de grafos
+    int nivelOptimizacion = 1;
+    //Desplazamiento en la pila de la primera ranura de derrame
+    int baseRanuras = 0;
+    //Ranura en el marco de cada variable (-1 si usa su etiqueta en .data), desde baseVariables
+    int[] ranurasVariables = new int[0];
+    int variablesEnMarco = 0;
+    int baseVariables = 0;
+    //Bytes al fondo del marco para los argumentos que van en la pila (después del cuarto)
+    int salientes = 0;
+    //Si la función actual no llama a otras: no guarda $ra y puede no tener marco
+    boolean hoja = true;
+    //Optimizador de mirilla sobre el .text generado, desde el nivel 1
+    OptimizadorMirilla mirilla = OptimizadorMirilla.conReglasPorDefecto();
+
+    //Instrucciones de carga y almacenamiento por tipo de dato
+    Map<TipoIR, String> tiposDatos = new EnumMap<>(TipoIR.class);
+    Map<TipoIR, String> listaTiposDatosMap = new EnumMap<>(TipoIR.class);
+
+    //Tablas de saltos ya declaradas en .data (una función puede usar una tabla más de una vez)
+    boolean[] tablasDeclaradas = new boolean[0];
+
+    //Argumentos pendientes de la siguiente llamada
+    ArrayList<Long> funcArgs = new ArrayList<Long>();
+
+    ProgramaIR programa;
+    ProgramaIR.Funcion funcionActual;
+    int contadorEtiquetas = 0;
+
+    public MIPSGenerator() {
+        this("src/output/mipsCode.asm");
     }
 
     /**
-     * Inicializa la sección de código MIPS.
-     * Esta función se encarga de establecer el encabezado y las directivas necesarias      
-     * @throws IOException
-     */
-    private void mipsInit() throws IOException {
-        code.append(".text\n");
-        code.append(".globl main\n");
-    }
-
-    /**
-     * Divide el código 3D en instrucciones individuales y las procesa.
-     * @param code el código 3D a procesar
+     * @param rutaSalida archivo .asm donde se escribe el código generado
      */
-    public boolean asignacionTemp(String instruction){
-        Pattern pattern = Pattern.compile("= t\\d+");
-        Matcher matcher = pattern.matcher(instruction);
-        return matcher.find();
+    public MIPSGenerator(String rutaSalida) {
+        this.rutaSalida = rutaSalida;
     }
 
-    private void Translate(String code) {
-        try {
-            writer = new FileWriter("src/output/mipsCode.asm");
-            mipsInit();
-            splitter(code);
-            writer.write(dataSection);
-            writer.write(this.code.toString());
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public void setNivelOptimizacion(int nivel) {
+        this.nivelOptimizacion = nivel;
     }
 
     /**
-     * Verifica si una cadena representa un número entero válido.
-     * @param str la cadena a verificar
-     * @return true si es un número entero válido, false en caso contrario
+     * Optimizador de mirilla, con las veces que se aplicó cada regla
      */
-    public static boolean verifTipoEntero(String str) {
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+    public OptimizadorMirilla getMirilla() {
+        return mirilla;
     }
 
     /**
-     * Verifica si una cadena representa un número flotante válido.
-     * @param str la cadena a verificar
-     * @return true si es un número flotante válido, false en caso contrario
+     * Genera el código MIPS a partir del código intermedio entregado en memoria por el parser.
+     * @param programa el código intermedio en cuádruplos
      */
-    public static boolean verifTipoFlotante(String str) {
+    public void generateMips(ProgramaIR programa) throws IOException {
+        String asm = generarCodigo(programa);
+        writer = new FileWriter(rutaSalida);
         try {
-            Float.parseFloat(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+            writer.write(asm);
+        } finally {
+            writer.close();
         }
     }
 
     /**
-     * Lee el contenido de un archivo de texto y lo devuelve como una cadena.
-     * @param fileName el nombre del archivo a leer
-     * @return una cadena con el contenido del archivo
-     * @throws IOException si ocurre un error al leer el archivo
+     * Genera el código MIPS en memoria, sin escribir ningún archivo.
+     * @param programa el código intermedio en cuádruplos
+     * @return el programa .asm completo (.data y .text)
      */
-    public static String leerArchivoTexto(String fileName) throws IOException {
-    byte[] bytes = leerBytesArchivo(fileName);
-    return new String(bytes);
+    public String generarCodigo(ProgramaIR programa) {
+        this.programa = programa;
+        code = new StringBuilder();
+        dataSection = new StringBuilder(".data\n");
+        contadorEtiquetas = 0;
+        funcArgs.clear();
+        tablasDeclaradas = new boolean[programa.getTablas().size()];
+        ranurasVariables = new int[programa.getVariables().size()];
+        asignador = AsignadorRegistros.para(nivelOptimizacion);
+        initTiposDatos();
+
+        mipsInit();
+        declararDatos();
+        splitter();
+        String texto = nivelOptimizacion >= 1 ? mirilla.optimizar(code.toString()) : code.toString();
+        return dataSection.append(texto).toString();
     }
 
     /**
-     * Lee el contenido de un archivo y lo devuelve como un arreglo de bytes.
-     * @param fileName el nombre del archivo a leer
-     * @return un arreglo de bytes con el contenido del archivo
-     * @throws IOException si ocurre un error al leer el archivo
+     * Inicializa la sección de código MIPS.
+     * Esta función se encarga de establecer el encabezado y las directivas necesarias
      */
-    public static byte[] leerBytesArchivo(String fileName) throws IOException {
-        return Files.readAllBytes(Paths.get(fileName));
+    private void mipsInit() {
+        code.append(".text\n");
+        code.append(".globl main\n");
     }
 
     /**
-     * Inicializa los tipos de datos y sus instrucciones asociadas
-     * así como los registros temporales.
+     * Inicializa los tipos de datos y sus instrucciones asociadas.
      * Esta función se llama al inicio del proceso de generación de MIPS.
-     * @param none
-     * @return void
      */
     public void initTiposDatos() {
         inicializarInstruccionesCarga();
         inicializarInstruccionesAlmacenamiento();
-        inicializarRegistrosTemporales();
     }
 
     /**
      * Inicializa el mapa de instrucciones de carga (load) para cada tipo de dato
      */
     private void inicializarInstruccionesCarga() {
-        configurarTipoDatoCarga("int", "lw");
-        configurarTipoDatoCarga("float", "lwci");
-        configurarTipoDatoCarga("char", "lb");
-        configurarTipoDatoCarga("String", "la");
+        tiposDatos.put(TipoIR.ENTERO, "lw");
+        tiposDatos.put(TipoIR.FLOTANTE, "l.s");
+        tiposDatos.put(TipoIR.CARACTER, "lw");
+        tiposDatos.put(TipoIR.CADENA, "lw");
+        tiposDatos.put(TipoIR.BOOLEANO, "lw");
     }
 
     /**
      * Inicializa el mapa de instrucciones de almacenamiento (store) para cada tipo de dato
      */
     private void inicializarInstruccionesAlmacenamiento() {
-        configurarTipoDatoAlmacenamiento("int", "sw");
-        configurarTipoDatoAlmacenamiento("float", "swci");
-        configurarTipoDatoAlmacenamiento("char", "sb");
-        configurarTipoDatoAlmacenamiento("String", "la");
+        listaTiposDatosMap.put(TipoIR.ENTERO, "sw");
+        listaTiposDatosMap.put(TipoIR.FLOTANTE, "s.s");
+        listaTiposDatosMap.put(TipoIR.CARACTER, "sw");
+        listaTiposDatosMap.put(TipoIR.CADENA, "sw");
+        listaTiposDatosMap.put(TipoIR.BOOLEANO, "sw");
     }
 
+    // ===================== Sección de datos =====================
+
     /**
-     * Inicializa los registros temporales vacíos
+     * Declara en la sección .data las variables y las cadenas literales del programa
      */
-    private void inicializarRegistrosTemporales() {
-        int numRegistros = 11;
-        for (int i = 0; i < numRegistros; i++) {
-            configurarRegistroTemporal(i);
+    private void declararDatos() {
+        for (ProgramaIR.Variable v : programa.getVariables()) {
+            if (v.esArreglo()) {
+                dataSection.append(v.etiqueta).append(": .space ").append(v.elementos * 4).append("\n");
+            } else if (v.tipo.esFlotante()) {
+                dataSection.append(v.etiqueta).append(": .float 0.0\n");
+            } else {
+                dataSection.append(v.etiqueta).append(": .word 0\n");
+            }
         }
+        for (int i = 0; i < programa.getCadenas().size(); i++) {
+            dataSection.append(etiquetaCadena(i)).append(": .asciiz \"")
+                       .append(escaparCadena(programa.getCadenas().get(i))).append("\"\n");
+        }
+    }
+
+    private String etiquetaCadena(int indice) {
+        return "str_" + indice;
     }
 
     /**
-     * Configura una instrucción de carga para un tipo de dato específico
+     * Escapa los caracteres especiales de una cadena para .asciiz
      */
-    private void configurarTipoDatoCarga(String tipoDato, String instruccion) {
-        tiposDatos.put(tipoDato, instruccion);
+    private String escaparCadena(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\t", "\\t").replace("\r", "\\r");
     }
 
+    // ===================== Registros =====================
+
     /**
-     * Configura una instrucción de almacenamiento para un tipo de dato específico
+     * Obtiene el siguiente registro auxiliar libre según el tipo de dato
+     * @param tipo el tipo de dato del siguiente registro
+     * @return el registro auxiliar entero o flotante ($f) correspondiente
      */
-    private void configurarTipoDatoAlmacenamiento(String tipoDato, String instruccion) {
-        listaTiposDatosMap.put(tipoDato, instruccion);
+    public String obtenerTipoSiguienteDato(TipoIR tipo) {
+        if (tipo != null && tipo.esFlotante()) {
+            return obtenerRegistroFlotante();
+        }
+        return obtenerRegistroTemporal();
     }
 
     /**
-     * Configura un registro temporal individual
+     * Obtiene un registro auxiliar entero
      */
-    private void configurarRegistroTemporal(int indice) {
-        String nombreRegistro = crearNombreRegistroTemporal(indice);
-        valoresTemporales.put(nombreRegistro, "");
+    private String obtenerRegistroTemporal() {
+        if (auxiliaresUsados == AUXILIARES.length) {
+            throw new IllegalStateException("Sin registros auxiliares enteros");
+        }
+        return AUXILIARES[auxiliaresUsados++];
     }
 
     /**
-     * Crea el nombre de un registro temporal basado en su índice
+     * Obtiene un registro auxiliar flotante
      */
-    private String crearNombreRegistroTemporal(int indice) {
-        return "t" + indice;
+    private String obtenerRegistroFlotante() {
+        if (auxiliaresFlotantesUsados == AUXILIARES_FLOTANTES.length) {
+            throw new IllegalStateException("Sin registros auxiliares flotantes");
+        }
+        return AUXILIARES_FLOTANTES[auxiliaresFlotantesUsados++];
     }
 
     /**
-     * Maneja la asignación de registros temporales y flotantes
-     * dependiendo del tipo de dato que se necesite.
-     * @param nextTipoDato el tipo de dato del siguiente registro
-     * @return el registro temporal o flotante correspondiente
+     * Los auxiliares se pueden reutilizar una vez que su valor ya se usó o se guardó
      */
-    public String obtenerTipoSiguienteDato(String nextTipoDato) {
-    if (nextTipoDato == null) {
-        System.err.println("Advertencia: nextTipoDato es null, usando 'int' por defecto.");
-        nextTipoDato = "int";
+    private void liberarAuxiliares() {
+        auxiliaresUsados = 0;
+        auxiliaresFlotantesUsados = 0;
     }
-    if (esIntegerType(nextTipoDato)) {
-        return obtenerRegistroTemporal(false); // no incrementar antes
+
+    /**
+     * Desplazamiento en la pila de un temporal derramado, o -1 si está en un registro
+     */
+    private int desplazamientoDe(long temporal) {
+        int ranura = asignador.ranura(Operando.valor(temporal));
+        return ranura < 0 ? -1 : baseRanuras + 4 * ranura;
     }
-    else if (esFloatType(nextTipoDato)) {
-        return obtenerRegistroFlotante(false); // no incrementar antes
+
+    private boolean esRegistroFlotante(String registro) {
+        return registro.startsWith("$f");
     }
-    else if (esCharType(nextTipoDato)) {
-        return obtenerRegistroTemporal(true); // incrementar antes
+
+    /**
+     * Retorna un registro con el valor del operando, cargándolo si es una constante o variable
+     */
+    private String cargarOperando(long operando) {
+        if (Operando.esTemporal(operando)) {
+            String registro = asignador.registro(Operando.valor(operando));
+            if (registro == null) {
+                TipoIR tipo = programa.tipoDe(operando);
+                registro = obtenerTipoSiguienteDato(tipo);
+                code.append(tiposDatos.get(tipo) + " " + registro + ", " + desplazamientoDe(operando) + "($sp)\n");
+            }
+            return registro;
+        }
+        if (Operando.esEntero(operando) && Operando.valor(operando) == 0) {
+            return "$zero";
+        }
+        String registro = obtenerTipoSiguienteDato(programa.tipoDe(operando));
+        cargarEn(registro, operando);
+        return registro;
     }
-    else if (esStringType(nextTipoDato)) {
-        return obtenerRegistroTemporal(true); // incrementar antes
+
+    /**
+     * Carga el valor de un operando en el registro indicado
+     */
+    private void cargarEn(String registro, long operando) {
+        int valor = Operando.valor(operando);
+        switch (Operando.clase(operando)) {
+            case Operando.ENTERO:
+                if (esRegistroFlotante(registro)) {
+                    code.append("li.s " + registro + ", " + (float) valor + "\n");
+                } else {
+                    code.append("li " + registro + ", " + valor + "\n");
+                }
+                break;
+            case Operando.FLOTANTE:
+                code.append("li.s " + registro + ", " + Operando.valorFlotante(operando) + "\n");
+                break;
+            case Operando.CADENA:
+                code.append("la " + registro + ", " + etiquetaCadena(valor) + "\n");
+                break;
+            case Operando.VARIABLE:
+                cargarVariable(registro, valor);
+                break;
+            case Operando.TEMPORAL:
+                moverRegistro(registro, cargarOperando(operando));
+                break;
+            default:
+                code.append("move " + registro + ", $zero\n");
+        }
     }
-    // Si no se reconoce el tipo, retorna un registro temporal por defecto
-    System.err.println("Advertencia: tipo de dato desconocido (" + nextTipoDato + "), usando $t0 por defecto.");
-    return " $t0";
+
+    /**
+     * Carga una variable de memoria en un registro (la dirección si es arreglo)
+     */
+    private void cargarVariable(String registro, int id) {
+        ProgramaIR.Variable v = programa.getVariable(id);
+        if (v.esArreglo()) {
+            code.append("la " + registro + ", " + v.etiqueta + "\n");
+        } else if (v.tipo.esFlotante() != esRegistroFlotante(registro)) {
+            String auxiliar = obtenerTipoSiguienteDato(v.tipo);
+            code.append(tiposDatos.get(v.tipo) + " " + auxiliar + ", " + direccionVariable(id) + "\n");
+            moverRegistro(registro, auxiliar);
+        } else {
+            code.append(tiposDatos.get(v.tipo) + " " + registro + ", " + direccionVariable(id) + "\n");
+        }
     }
 
     /**
-     * Verifica si el tipo de dato es entero
+     * Guarda un registro en una variable de memoria
      */
-    private boolean esIntegerType(String tipo) {
-    return "int".equals(tipo); // Protege contra null
+    private void almacenarVariable(long variable, String registro) {
+        ProgramaIR.Variable v = programa.getVariable(Operando.valor(variable));
+        if (v.tipo.esFlotante() != esRegistroFlotante(registro)) {
+            String auxiliar = obtenerTipoSiguienteDato(v.tipo);
+            moverRegistro(auxiliar, registro);
+            registro = auxiliar;
+        }
+        code.append(listaTiposDatosMap.get(v.tipo) + " " + registro + ", " + direccionVariable(Operando.valor(variable)) + "\n");
     }
 
     /**
-     * Verifica si el tipo de dato es flotante
+     * Dirección de una variable simple: su ranura en el marco o su etiqueta en .data
      */
-    private boolean esFloatType(String tipo) {
-    return "float".equals(tipo); // Protege contra null
+    private String direccionVariable(int id) {
+        int ranura = ranurasVariables[id];
+        return ranura < 0 ? programa.getVariable(id).etiqueta : (baseVariables + 4 * ranura) + "($sp)";
     }
 
     /**
-     * Verifica si el tipo de dato es caracter
+     * Copia un registro en otro, convirtiendo entre entero y flotante si hace falta
      */
-    private boolean esCharType(String tipoDato) {
-        return "char".equals(tipoDato); // Protege contra null
+    private void moverRegistro(String destino, String origen) {
+        if (destino.equals(origen)) {
+            return;
+        }
+        boolean destinoFlotante = esRegistroFlotante(destino);
+        boolean origenFlotante = esRegistroFlotante(origen);
+        if (destinoFlotante && origenFlotante) {
+            code.append("mov.s " + destino + ", " + origen + "\n");
+        } else if (destinoFlotante) {
+            code.append("mtc1 " + origen + ", " + destino + "\n");
+            code.append("cvt.s.w " + destino + ", " + destino + "\n");
+        } else if (origenFlotante) {
+            // Se convierte en un auxiliar: el origen puede seguir vivo
+            String auxiliar = obtenerRegistroFlotante();
+            code.append("cvt.w.s " + auxiliar + ", " + origen + "\n");
+            code.append("mfc1 " + destino + ", " + auxiliar + "\n");
+        } else {
+            code.append("move " + destino + ", " + origen + "\n");
+        }
     }
 
     /**
-     * Verifica si el tipo de dato es String
+     * Registro donde se calcula el resultado de una instrucción.
+     * Si el destino es una variable o un temporal derramado se usa un auxiliar que luego se almacena.
      */
-    private boolean esStringType(String tipoDato) {
-        return "String".equals(tipoDato); // Protege contra null
+    private String registroDestino(long destino) {
+        if (Operando.esTemporal(destino)) {
+            String registro = asignador.registro(Operando.valor(destino));
+            if (registro != null) {
+                return registro;
+            }
+        }
+        return obtenerTipoSiguienteDato(programa.tipoDe(destino));
     }
 
     /**
-     * Obtiene un registro temporal ($t)
-     * @param incrementarAntes si debe incrementar el contador antes de usarlo
+     * Si el destino es una variable o un temporal derramado, guarda el registro calculado en memoria
      */
-    private String obtenerRegistroTemporal(boolean incrementarAntes) {
-        if (incrementarAntes) {
-            numTemporalesReg++;
-            return " $t" + numTemporalesReg;
-        } else {
-            numTemporalesReg++;
-            return " $t" + (numTemporalesReg - 1);
+    private void escribirDestino(long destino, String registro) {
+        if (Operando.esVariable(destino)) {
+            almacenarVariable(destino, registro);
+        } else if (Operando.esTemporal(destino) && desplazamientoDe(destino) >= 0) {
+            TipoIR tipo = programa.tipoDe(destino);
+            if (tipo.esFlotante() != esRegistroFlotante(registro)) {
+                String auxiliar = obtenerTipoSiguienteDato(tipo);
+                moverRegistro(auxiliar, registro);
+                registro = auxiliar;
+            }
+            code.append(listaTiposDatosMap.get(tipo) + " " + registro + ", " + desplazamientoDe(destino) + "($sp)\n");
         }
     }
 
+    // ===================== Traducción =====================
+
     /**
-     * Obtiene un registro flotante ($f)
-     * @param incrementarAntes si debe incrementar el contador antes de usarlo
+     * Recorre el código intermedio y traduce cada cuádruplo. Los registros se asignan
+     * una función a la vez, antes de traducirla, así el prólogo ya conoce el tamaño del marco.
      */
-    private String obtenerRegistroFlotante(boolean incrementarAntes) {
-        if (incrementarAntes) {
-            numFlotantesAux++;
-            return " $f" + numFlotantesAux;
-        } else {
-            numFlotantesAux++;
-            return " $f" + (numFlotantesAux - 1);
+    private void splitter() {
+        ArrayList<Cuadruplo> codigo = programa.getCuadruplos();
+        int inicio = 0;
+        while (inicio < codigo.size()) {
+            int fin = programa.finDeFuncion(inicio);
+            asignador.asignar(programa, codigo, inicio, fin);
+            revisarLlamadas(codigo, inicio, fin);
+            ubicarVariables(codigo, inicio, fin);
+            if (codigo.get(inicio).op != Operacion.FUNCION) {
+                // Código fuera de funciones: solo necesita los argumentos salientes y las ranuras
+                baseRanuras = salientes;
+                reservarPila(tamanoMarco());
+            }
+            for (int i = inicio; i < fin; i++) {
+                manejadorDeBloques(codigo.get(i));
+            }
+            inicio = fin;
         }
     }
 
     /**
-     * Divide el código en líneas y procesa cada línea
-     * @param code el código fuente en 3 direcciones
-     * @throws IOException si ocurre un error al escribir en el archivo
+     * Calcula hoja y salientes para el tramo: si hay llamadas que hacen jal y cuántos
+     * argumentos de más de cuatro necesita la llamada más grande
      */
-    private void splitter(String code) throws IOException {
-        String[] lines = dividirEnLineas(code);
-        
-        for (String line : lines) {
-            procesarLinea(line);
+    private void revisarLlamadas(List<Cuadruplo> codigo, int inicio, int fin) {
+        hoja = true;
+        int argumentos = 0;
+        for (int i = inicio; i < fin; i++) {
+            Cuadruplo c = codigo.get(i);
+            if (c.op == Operacion.LLAMADA && !programa.getFuncion(Operando.valor(c.arg1)).externa) {
+                hoja = false;
+                argumentos = Math.max(argumentos, Operando.valor(c.arg2));
+            }
         }
+        salientes = 4 * Math.max(0, argumentos - ARGUMENTOS.length);
     }
 
     /**
-     * Divide el código en líneas individuales
+     * Si el tramo es una función que llama a otras (menos main), da una ranura del marco a
+     * sus parámetros y a cada variable simple no global que usa, así cada activación de
+     * una función recursiva tiene las suyas. Las hojas y main no se reentran y siguen
+     * usando su etiqueta en .data, igual que los arreglos y las globales.
      */
-    private String[] dividirEnLineas(String code) {
-        return code.split("\n");
+    private void ubicarVariables(List<Cuadruplo> codigo, int inicio, int fin) {
+        Arrays.fill(ranurasVariables, -1);
+        variablesEnMarco = 0;
+        if (hoja || codigo.get(inicio).op != Operacion.FUNCION) {
+            return;
+        }
+        ProgramaIR.Funcion funcion = programa.getFuncion(Operando.valor(codigo.get(inicio).arg1));
+        if (funcion.etiqueta.equals("main")) {
+            return;
+        }
+        for (int parametro : funcion.parametros) {
+            ubicarVariable(Operando.variable(parametro));
+        }
+        for (int i = inicio; i < fin; i++) {
+            Cuadruplo c = codigo.get(i);
+            ubicarVariable(c.resultado);
+            ubicarVariable(c.arg1);
+            ubicarVariable(c.arg2);
+        }
+    }
+
+    private void ubicarVariable(long operando) {
+        if (!Operando.esVariable(operando)) {
+            return;
+        }
+        int id = Operando.valor(operando);
+        ProgramaIR.Variable v = programa.getVariable(id);
+        if (!v.esGlobal() && !v.esArreglo() && ranurasVariables[id] < 0) {
+            ranurasVariables[id] = variablesEnMarco++;
+        }
+    }
+
+    private void reservarPila(int bytes) {
+        if (bytes > 0) {
+            code.append("addi $sp, $sp, -" + bytes + "\n");
+        }
     }
 
     /**
-     * Procesa una línea individual del código
+     * Función principal que despacha cada cuádruplo según su código de operación
      */
-    private void procesarLinea(String line) throws IOException {
-        String lineaLimpia = limpiarLinea(line);
-        
-        if (debeIgnorarLinea(lineaLimpia)) {
+    private void manejadorDeBloques(Cuadruplo c) {
+        liberarAuxiliares();
+        if (c.op.esBinaria()) {
+            manejarOperacionBinaria(c);
             return;
         }
-        
-        if (esEtiqueta(lineaLimpia)) {
-            etiquetado(lineaLimpia);
-        } else if (esInstruccion(lineaLimpia)) {
-            manejadorDeBloques(lineaLimpia);
+        switch (c.op) {
+            case COPIA:
+                manejarCopia(c);
+                break;
+            case NOT:
+                manejarNegacion(c);
+                break;
+            case NEGATIVO:
+                manejarNegativo(c);
+                break;
+            case CARGAR_ARREGLO:
+                manejarCargaArreglo(c);
+                break;
+            case GUARDAR_ARREGLO:
+                manejarGuardadoArreglo(c);
+                break;
+            case ETIQUETA:
+                etiquetado(programa.nombreEtiqueta(Operando.valor(c.arg1)));
+                break;
+            case SALTO:
+                manejarGoto(c);
+                break;
+            case SALTO_SI:
+            case SALTO_SI_FALSO:
+                manejarIf(c);
+                break;
+            case SALTO_TABLA:
+                manejarTabla(c);
+                break;
+            case PARAMETRO:
+                manejarParametro(c);
+                break;
+            case LLAMADA:
+                manejarLlamadaFuncion(c);
+                break;
+            case RETORNO:
+                manejarReturn(c);
+                break;
+            case FUNCION:
+                manejarInicioFuncion(c);
+                break;
+            case FIN_FUNCION:
+                manejarFinFuncion(c);
+                break;
+            case LEER:
+                manejarLectura(c);
+                break;
+            case IMPRIMIR:
+                imprimirValor(c.arg1);
+                break;
+            default:
+                break;
         }
     }
 
     /**
-     * Limpia una línea removiendo espacios en blanco al inicio y final
+     * Agrega una etiqueta al código MIPS
      */
-    private String limpiarLinea(String line) {
-        return line.trim();
+    private void etiquetado(String label) {
+        code.append(label + ":\n");
     }
 
     /**
-     * Verifica si una línea debe ser ignorada (vacía o comentario)
+     * Maneja la copia resultado = arg1
      */
-    private boolean debeIgnorarLinea(String line) {
-        return esLineaVacia(line) || esComentario(line);
+    private void manejarCopia(Cuadruplo c) {
+        if (Operando.esVariable(c.resultado)) {
+            almacenarVariable(c.resultado, cargarOperando(c.arg1));
+        } else {
+            String destino = registroDestino(c.resultado);
+            cargarEn(destino, c.arg1);
+            escribirDestino(c.resultado, destino);
+        }
     }
 
     /**
-     * Verifica si una línea está vacía
+     * Maneja la negación lógica resultado = !arg1
      */
-    private boolean esLineaVacia(String line) {
-        return line.isEmpty();
+    private void manejarNegacion(Cuadruplo c) {
+        String origen = cargarOperando(c.arg1);
+        String destino = registroDestino(c.resultado);
+        code.append("seq " + destino + ", " + origen + ", $zero\n");
+        escribirDestino(c.resultado, destino);
     }
 
     /**
-     * Verifica si una línea es un comentario
+     * Maneja el negativo aritmético resultado = -arg1
      */
-    private boolean esComentario(String line) {
-        return line.startsWith("#");
+    private void manejarNegativo(Cuadruplo c) {
+        String origen = cargarOperando(c.arg1);
+        String destino = registroDestino(c.resultado);
+        if (esRegistroFlotante(destino)) {
+            code.append("neg.s " + destino + ", " + origen + "\n");
+        } else {
+            code.append("neg " + destino + ", " + origen + "\n");
+        }
+        escribirDestino(c.resultado, destino);
     }
 
     /**
-     * Verifica si una línea es una etiqueta
+     * Maneja resultado = arreglo[desplazamiento]
      */
-    private boolean esEtiqueta(String line) {
-        return line.endsWith(":");
+    private void manejarCargaArreglo(Cuadruplo c) {
+        ProgramaIR.Variable arreglo = programa.getVariable(Operando.valor(c.arg1));
+        String destino = registroDestino(c.resultado);
+        code.append(tiposDatos.get(arreglo.tipo) + " " + destino + ", " + direccionElemento(arreglo, c.arg2) + "\n");
+        escribirDestino(c.resultado, destino);
     }
 
     /**
-     * Verifica si una línea es una instrucción
+     * Maneja arreglo[desplazamiento] = valor
      */
-    private boolean esInstruccion(String line) {
-        // Nota: La condición original line.startsWith("") siempre es true
-        // Asumo que debería verificar si no es etiqueta y no está vacía
-        return !esEtiqueta(line) && !esLineaVacia(line);
+    private void manejarGuardadoArreglo(Cuadruplo c) {
+        ProgramaIR.Variable arreglo = programa.getVariable(Operando.valor(c.resultado));
+        String valor = cargarOperando(c.arg2);
+        if (arreglo.tipo.esFlotante() != esRegistroFlotante(valor)) {
+            String auxiliar = obtenerTipoSiguienteDato(arreglo.tipo);
+            moverRegistro(auxiliar, valor);
+            valor = auxiliar;
+        }
+        code.append(listaTiposDatosMap.get(arreglo.tipo) + " " + valor + ", " + direccionElemento(arreglo, c.arg1) + "\n");
     }
 
     /**
-     * Procesa una etiqueta y la agrega al código MIPS
-     * @param label la etiqueta a procesar
-     * @throws IOException si ocurre un error al escribir en el archivo
+     * Dirección de un elemento: etiqueta+constante o etiqueta(registro)
      */
-    private void etiquetado(String label) throws IOException {
-        code.append(label + "\n");
+    private String direccionElemento(ProgramaIR.Variable arreglo, long desplazamiento) {
+        if (Operando.esEntero(desplazamiento)) {
+            return arreglo.etiqueta + "+" + Operando.valor(desplazamiento);
+        }
+        return arreglo.etiqueta + "(" + cargarOperando(desplazamiento) + ")";
     }
 
     /**
- * Función principal que maneja las instrucciones de bloques
- */
-private void manejadorDeBloques(String instruction) throws IOException {
-    String[] data = dividirInstruccion(instruction);
-    int largo = data.length;
-    
-    if (esDeclaracionVariable(instruction)) {
-        manejarDeclaracionVariable(instruction, data);
-    } else if (esInstruccionControl(instruction)) {
-        manejarInstruccionControl(instruction, data);
-    } else if (esInstruccionFuncion(instruction)) {
-        manejarInstruccionFuncion(instruction, data);
-    } else if (esInstruccionTemporal(instruction)) {
-        manejarInstruccionTemporal(instruction, data, largo);
-    } else if (esAsignacionTemporal(instruction, largo)) {
-        manejarAsignacionTemporal(instruction, data);
-    } else {
-        manejarInstruccionGenerica(instruction);
+     * Maneja instrucción goto
+     */
+    private void manejarGoto(Cuadruplo c) {
+        code.append("j " + programa.nombreEtiqueta(Operando.valor(c.arg1)) + "\n");
     }
-}
 
-/**
- * Divide la instrucción en sus componentes
- */
-private String[] dividirInstruccion(String instruction) {
-    return instruction.split(" ");
-}
+    /**
+     * Maneja los saltos condicionales if / ifFalse
+     */
+    private void manejarIf(Cuadruplo c) {
+        String condicion = cargarOperando(c.arg1);
+        String instruccion = c.op == Operacion.SALTO_SI ? "bnez " : "beqz ";
+        code.append(instruccion + condicion + ", " + programa.nombreEtiqueta(Operando.valor(c.arg2)) + "\n");
+    }
 
-/**
- * Verifica si es una declaración de variable
- */
-private boolean esDeclaracionVariable(String instruction) {
-    return instruction.startsWith("dataArray") || 
-           instruction.startsWith("dataChar") || 
-           instruction.startsWith("dataInt") || 
-           instruction.startsWith("dataFloat");
-}
+    /**
+     * Maneja goto_tabla: revisa que el índice esté en la tabla (si no, va a la etiqueta por
+     * defecto) y salta con jr a la dirección guardada en .data
+     */
+    private void manejarTabla(Cuadruplo c) {
+        int id = Operando.valor(c.arg2);
+        ProgramaIR.TablaSaltos tabla = programa.getTabla(id);
+        if (!tablasDeclaradas[id]) {
+            tablasDeclaradas[id] = true;
+            dataSection.append(etiquetaTabla(id)).append(": .word ");
+            for (int i = 0; i < tabla.etiquetas.length; i++) {
+                dataSection.append(i > 0 ? ", " : "").append(programa.nombreEtiqueta(tabla.etiquetas[i]));
+            }
+            dataSection.append("\n");
+        }
+        String valor = cargarOperando(c.arg1);
+        String indice = obtenerRegistroTemporal();
+        String base = valor;
+        if (tabla.minimo != 0) {
+            base = indice;
+            if (tabla.minimo != Integer.MIN_VALUE && cabeInmediato(-tabla.minimo)) {
+                code.append("addi " + indice + ", " + valor + ", " + (-tabla.minimo) + "\n");
+            } else {
+                code.append("li " + indice + ", " + tabla.minimo + "\n");
+                code.append("sub " + indice + ", " + valor + ", " + indice + "\n");
+            }
+        }
+        // Sin signo, un índice negativo queda mayor que el tamaño
+        String dentro = obtenerRegistroTemporal();
+        code.append("sltiu " + dentro + ", " + base + ", " + tabla.etiquetas.length + "\n");
+        code.append("beqz " + dentro + ", " + programa.nombreEtiqueta(tabla.porDefecto) + "\n");
+        code.append("sll " + indice + ", " + base + ", 2\n");
+        code.append("lw " + indice + ", " + etiquetaTabla(id) + "(" + indice + ")\n");
+        code.append("jr " + indice + "\n");
+    }
 
-/**
- * Verifica si es una instrucción de control de flujo
- */
-private boolean esInstruccionControl(String instruction) {
-    return instruction.startsWith("if") || 
-           instruction.startsWith("goto") || 
-           instruction.startsWith("return");
-}
+    private String etiquetaTabla(int id) {
+        return "tabla_" + id;
+    }
 
-/**
- * Verifica si es una instrucción de función
- */
-private boolean esInstruccionFuncion(String instruction) {
-    return instruction.startsWith("param") || 
-           instruction.startsWith("call");
-}
+    /**
+     * Maneja instrucción return: deja el valor convertido al tipo de retorno de la función
+     * en $v0 ($f0 si es float) y salta al final de la función
+     */
+    private void manejarReturn(Cuadruplo c) {
+        if (!Operando.esVacio(c.arg1)) {
+            moverRegistro(registroRetorno(funcionActual), cargarOperando(c.arg1));
+        }
+        code.append("j fin_" + funcionActual.etiqueta + "\n");
+    }
 
-/**
- * Verifica si es una instrucción temporal
- */
-private boolean esInstruccionTemporal(String instruction) {
-    return instruction.startsWith("t");
-}
+    /**
+     * Maneja el inicio de una función: su etiqueta, el marco y los parámetros.
+     * El marco tiene, desde $sp: los argumentos salientes que van en la pila, $ra, los
+     * registros preservados que usa, las variables (si no es hoja, ver ubicarVariables) y
+     * las ranuras de los temporales derramados. Una hoja no guarda $ra ni tiene variables
+     * en el marco, así que si tampoco usa preservados ni derrama no tiene marco.
+     * main no guarda $ra ni los preservados porque termina el programa.
+     */
+    private void manejarInicioFuncion(Cuadruplo c) {
+        funcionActual = programa.getFuncion(Operando.valor(c.arg1));
+        code.append("\n");
+        etiquetado(funcionActual.etiqueta);
+        if (esMain()) {
+            baseRanuras = salientes;
+            reservarPila(tamanoMarco());
+            return;
+        }
+        List<String> preservados = asignador.getPreservados();
+        baseVariables = inicioPreservados() + 4 * preservados.size();
+        baseRanuras = baseVariables + 4 * variablesEnMarco;
+        reservarPila(tamanoMarco());
+        if (!hoja) {
+            code.append("sw $ra, " + salientes + "($sp)\n");
+        }
+        for (int i = 0; i < preservados.size(); i++) {
+            String r = preservados.get(i);
+            code.append((esRegistroFlotante(r) ? "s.s " : "sw ") + r + ", " + (inicioPreservados() + 4 * i) + "($sp)\n");
+        }
+        recibirParametros();
+    }
 
-/**
- * Verifica si es una asignación temporal
- */
-private boolean esAsignacionTemporal(String instruction, int largo) {
-    return asignacionTemp(instruction) && largo == 3;
-}
+    /**
+     * Guarda los argumentos recibidos en las variables de los parámetros: los primeros de
+     * $a0-$a3 y el resto de la pila del que llama, justo encima del marco
+     */
+    private void recibirParametros() {
+        List<Integer> parametros = funcionActual.parametros;
+        for (int k = 0; k < parametros.size(); k++) {
+            String registro;
+            if (k < ARGUMENTOS.length) {
+                registro = ARGUMENTOS[k];
+            } else {
+                registro = AUXILIARES[0];
+                code.append("lw " + registro + ", " + (tamanoMarco() + 4 * (k - ARGUMENTOS.length)) + "($sp)\n");
+            }
+            // Los flotantes llegan como bits en un registro entero
+            code.append("sw " + registro + ", " + direccionVariable(parametros.get(k)) + "\n");
+        }
+    }
 
-/**
- * Maneja todas las declaraciones de variables
- */
-private void manejarDeclaracionVariable(String instruction, String[] data) {
-    if (instruction.startsWith("dataArray")) {
-        manejarDeclaracionArray(data);
-    } else if (instruction.startsWith("dataChar")) {
-        manejarDeclaracionChar(data);
-    } else if (instruction.startsWith("dataInt")) {
-        manejarDeclaracionInt(data);
-    } else if (instruction.startsWith("dataFloat")) {
-        manejarDeclaracionFloat(data);
+    /**
+     * Registro donde la función deja su valor de retorno, según el tipo declarado
+     */
+    private String registroRetorno(ProgramaIR.Funcion funcion) {
+        return funcion.tipoRetorno != null && funcion.tipoRetorno.esFlotante() ? "$f0" : "$v0";
     }
-}
 
-/**
- * Maneja declaración de array
- */
-private void manejarDeclaracionArray(String[] data) {
-    code.append("#declaracion de array\n");
-    String nombreArray = extraerNombreArray(data[1]);
-    String size = extraerTamanoArray(data[1]);
-    int espacioTotal = Integer.parseInt(size) * 4;
-    dataSection += nombreArray + ": .space " + espacioTotal + "\n";
-}
+    private int inicioPreservados() {
+        return salientes + (hoja ? 0 : 4);
+    }
 
-/**
- * Extrae el nombre del array de la declaración
- */
-private String extraerNombreArray(String declaracion) {
-    return declaracion.substring(0, declaracion.indexOf("["));
-}
+    private int tamanoMarco() {
+        return baseRanuras + 4 * asignador.getRanuras();
+    }
 
-/**
- * Extrae el tamaño del array de la declaración
- */
-private String extraerTamanoArray(String declaracion) {
-    return declaracion.substring(declaracion.indexOf("[") + 1, declaracion.indexOf("]"));
-}
+    /**
+     * Maneja el fin de una función: restaura el marco y retorna, o termina el programa si es main
+     */
+    private void manejarFinFuncion(Cuadruplo c) {
+        etiquetado("fin_" + funcionActual.etiqueta);
+        if (esMain()) {
+            generarSalidaPrograma();
+        } else {
+            List<String> preservados = asignador.getPreservados();
+            for (int i = 0; i < preservados.size(); i++) {
+                String r = preservados.get(i);
+                code.append((esRegistroFlotante(r) ? "l.s " : "lw ") + r + ", " + (inicioPreservados() + 4 * i) + "($sp)\n");
+            }
+            if (!hoja) {
+                code.append("lw $ra, " + salientes + "($sp)\n");
+            }
+            if (tamanoMarco() > 0) {
+                code.append("addi $sp, $sp, " + tamanoMarco() + "\n");
+            }
+            code.append("jr $ra\n");
+        }
+        funcionActual = null;
+    }
 
-/**
- * Maneja declaración de char
- */
-private void manejarDeclaracionChar(String[] data) {
-    code.append("#declaracion de char\n");
-    String nombreChar = data[1];
-    dataSection += nombreChar + ": .space 1\n";
-}
+    private boolean esMain() {
+        return funcionActual != null && funcionActual.etiqueta.equals("main");
+    }
 
-/**
- * Maneja declaración de int
- */
-private void manejarDeclaracionInt(String[] data) {
-    code.append("#declaracion de int\n");
-    String nombreInt = data[1];
-    dataSection += nombreInt + ": .word 0\n";
-    dataSectionStrings.put(nombreInt, "int");
-    tipoDatoActual = "int";
-}
+    /**
+     * Genera código para salir del programa
+     */
+    private void generarSalidaPrograma() {
+        code.append("li $v0, 10\n");
+        code.append("syscall\n");
+    }
 
-/**
- * Maneja declaración de float
- */
-private void manejarDeclaracionFloat(String[] data) {
-    code.append("#declaracion de float\n");
-    String nombreFloat = data[1];
-    dataSection += nombreFloat + ": .float 0.0\n";
-    dataSectionStrings.put(nombreFloat, "float");
-    tipoDatoActual = "float";
-}
+    /**
+     * Maneja parámetros de función
+     */
+    private void manejarParametro(Cuadruplo c) {
+        funcArgs.add(c.arg1);
+    }
 
-/**
- * Maneja instrucciones de control de flujo
- */
-private void manejarInstruccionControl(String instruction, String[] data) {
-    if (instruction.startsWith("if")) {
-        manejarIf(data);
-    } else if (instruction.startsWith("goto")) {
-        manejarGoto(data);
-    } else if (instruction.startsWith("return")) {
-        manejarReturn();
+    /**
+     * Maneja llamadas a función. Los cuatro primeros argumentos van en $a0-$a3 y el resto
+     * en el fondo del marco, donde la función llamada los encuentra; el valor de retorno
+     * queda en $v0 (o $f0 si la función es float) y se convierte al tipo del destino.
+     */
+    private void manejarLlamadaFuncion(Cuadruplo c) {
+        ProgramaIR.Funcion funcion = programa.getFuncion(Operando.valor(c.arg1));
+        int cantidad = Operando.valor(c.arg2);
+        ArrayList<Long> argumentos = new ArrayList<>(funcArgs.subList(funcArgs.size() - cantidad, funcArgs.size()));
+        funcArgs.subList(funcArgs.size() - cantidad, funcArgs.size()).clear();
+
+        if (funcion.nombre.equals("print")) {
+            manejarLlamadaPrint(argumentos);
+            return;
+        }
+        if (funcion.externa) {
+            code.append("# llamada a funcion no definida: " + funcion.nombre + "\n");
+            return;
+        }
+        for (int i = ARGUMENTOS.length; i < argumentos.size() && i < funcion.parametros.size(); i++) {
+            String valor = valorArgumento(argumentos.get(i), funcion.parametros.get(i), AUXILIARES[0]);
+            code.append("sw " + valor + ", " + 4 * (i - ARGUMENTOS.length) + "($sp)\n");
+        }
+        for (int i = 0; i < ARGUMENTOS.length && i < argumentos.size() && i < funcion.parametros.size(); i++) {
+            moverRegistro(ARGUMENTOS[i], valorArgumento(argumentos.get(i), funcion.parametros.get(i), ARGUMENTOS[i]));
+        }
+        code.append("jal " + funcion.etiqueta + "\n");
+        if (!Operando.esVacio(c.resultado)) {
+            String destino = registroDestino(c.resultado);
+            moverRegistro(destino, registroRetorno(funcion));
+            escribirDestino(c.resultado, destino);
+        }
     }
-}
 
-/**
- * Maneja instrucción if
- */
-private void manejarIf(String[] data) {
-    code.append("#if\n");
-    code.append("beqz $t" + (numTemporalesReg - 1) + ", " + data[3] + "\n");
-}
+    /**
+     * Registro entero con el argumento convertido al tipo del parámetro (un flotante va
+     * con sus bits): el del temporal si ya está en uno o el registro dado. Cada argumento
+     * usa un solo auxiliar de cada tipo, así no pisa los $a ya cargados.
+     */
+    private String valorArgumento(long argumento, int parametro, String registro) {
+        liberarAuxiliares();
+        boolean flotante = programa.getVariable(parametro).tipo.esFlotante();
+        if (!flotante && !Operando.esTemporal(argumento) && !programa.tipoDe(argumento).esFlotante()) {
+            cargarEn(registro, argumento);
+            return registro;
+        }
+        String valor = cargarOperando(argumento);
+        if (flotante) {
+            if (!esRegistroFlotante(valor)) {
+                String auxiliar = obtenerRegistroFlotante();
+                moverRegistro(auxiliar, valor);
+                valor = auxiliar;
+            }
+            code.append("mfc1 " + registro + ", " + valor + "\n");
+            return registro;
+        }
+        if (esRegistroFlotante(valor)) {
+            moverRegistro(registro, valor);
+            return registro;
+        }
+        return valor;
+    }
 
-/**
- * Maneja instrucción goto
- */
-private void manejarGoto(String[] data) {
-    code.append("#goto\n");
-    code.append("j " + data[1] + "\n");
-}
+    /**
+     * Maneja llamada a función print
+     */
+    private void manejarLlamadaPrint(ArrayList<Long> argumentos) {
+        for (long argumento : argumentos) {
+            liberarAuxiliares();
+            imprimirValor(argumento);
+        }
+    }
 
-/**
- * Maneja instrucción return
- */
-private void manejarReturn() {
-    code.append("#return\n");
-    if (tieneUltimaFuncion()) {
-        code.append("j " + listaFunciones[listaFunciones.length - 1] + "\n");
-    } else {
-        generarSalidaPrograma();
+    /**
+     * Imprime un valor con el syscall que corresponde a su tipo
+     */
+    private void imprimirValor(long operando) {
+        code.append("#print\n");
+        TipoIR tipo = programa.tipoDe(operando);
+        String registro = cargarOperando(operando);
+        if (tipo.esFlotante()) {
+            moverRegistro("$f12", registro);
+            code.append("li $v0, 2\n");
+        } else {
+            moverRegistro("$a0", registro);
+            if (tipo == TipoIR.CADENA) {
+                code.append("li $v0, 4\n");
+            } else if (tipo == TipoIR.CARACTER) {
+                code.append("li $v0, 11\n");
+            } else {
+                code.append("li $v0, 1\n");
+            }
+        }
+        code.append("syscall\n");
     }
-}
 
-/**
- * Verifica si hay una última función disponible
- */
-private boolean tieneUltimaFuncion() {
-    return listaFunciones[listaFunciones.length - 1] != null;
-}
+    /**
+     * Lee un valor de la entrada estándar y lo guarda en la variable
+     */
+    private void manejarLectura(Cuadruplo c) {
+        ProgramaIR.Variable v = programa.getVariable(Operando.valor(c.resultado));
+        switch (v.tipo) {
+            case FLOTANTE:
+                code.append("li $v0, 6\n");
+                code.append("syscall\n");
+                code.append("s.s $f0, " + direccionVariable(Operando.valor(c.resultado)) + "\n");
+                break;
+            case CADENA:
+                String buffer = "buffer_" + v.etiqueta;
+                dataSection.append(buffer).append(": .space 64\n");
+                code.append("la $a0, " + buffer + "\n");
+                code.append("li $a1, 64\n");
+                code.append("li $v0, 8\n");
+                code.append("syscall\n");
+                code.append("sw $a0, " + direccionVariable(Operando.valor(c.resultado)) + "\n");
+                break;
+            case CARACTER:
+                code.append("li $v0, 12\n");
+                code.append("syscall\n");
+                code.append("sw $v0, " + direccionVariable(Operando.valor(c.resultado)) + "\n");
+                break;
+            default:
+                code.append("li $v0, 5\n");
+                code.append("syscall\n");
+                code.append("sw $v0, " + direccionVariable(Operando.valor(c.resultado)) + "\n");
+        }
+    }
 
-/**
- * Genera código para salir del programa
- */
-private void generarSalidaPrograma() {
-    code.append("li $v0, 10\n");
-    code.append("syscall\n");
-}
+    /**
+     * Maneja operaciones binarias resultado = arg1 op arg2
+     */
+    private void manejarOperacionBinaria(Cuadruplo c) {
+        code.append("#op = " + c.op.getSimbolo() + "\n");
+        if (manejarOperacionInmediata(c)) {
+            return;
+        }
+        String izq = cargarOperando(c.arg1);
+        String der = cargarOperando(c.arg2);
+        String destino = registroDestino(c.resultado);
 
-/**
- * Maneja instrucciones de función
- */
-private void manejarInstruccionFuncion(String instruction, String[] data) {
-    if (instruction.startsWith("param")) {
-        manejarParametro(data);
-    } else if (instruction.startsWith("call")) {
-        manejarLlamadaFuncion(data);
-    }
-}
+        if (esRegistroFlotante(destino)) {
+            manejarOperacionFlotante(c.op, destino, aFlotante(izq), aFlotante(der));
+            escribirDestino(c.resultado, destino);
+            return;
+        }
 
-/**
- * Maneja parámetros de función
- */
-private void manejarParametro(String[] data) {
-    funcArgs.add(data[1]);
-}
+        if (c.op.esRelacional() && (esRegistroFlotante(izq) || esRegistroFlotante(der))) {
+            manejarComparacionFlotante(c.op, destino, aFlotante(izq), aFlotante(der));
+            escribirDestino(c.resultado, destino);
+            return;
+        }
 
-/**
- * Maneja llamadas a función
- */
-private void manejarLlamadaFuncion(String[] data) {
-    if (data[1].equals("print,")) {
-        manejarLlamadaPrint();
+        switch (c.op) {
+            case SUMA:
+                manejarSuma(destino, izq, der);
+                break;
+            case RESTA:
+                manejarResta(destino, izq, der);
+                break;
+            case MAYOR:
+                manejarComparacion("sgt", destino, izq, der);
+                break;
+            case MENOR:
+                manejarComparacion("slt", destino, izq, der);
+                break;
+            case MAYOR_IGUAL:
+                manejarComparacion("sge", destino, izq, der);
+                break;
+            case MENOR_IGUAL:
+                manejarComparacion("sle", destino, izq, der);
+                break;
+            case IGUAL:
+                manejarComparacion("seq", destino, izq, der);
+                break;
+            case DISTINTO:
+                manejarComparacion("sne", destino, izq, der);
+                break;
+            case AND:
+                manejarOperacionAnd(destino, izq, der);
+                break;
+            case OR:
+                manejarOperacionOr(destino, izq, der);
+                break;
+            case MULTIPLICACION:
+                manejarMultiplicacion(destino, izq, der);
+                break;
+            case DIVISION:
+                manejarDivision(destino, izq, der);
+                break;
+            case MODULO:
+                manejarModulo(destino, izq, der);
+                break;
+            case POTENCIA:
+                manejarPotencia(destino, izq, der);
+                break;
+            default:
+                break;
+        }
+        escribirDestino(c.resultado, destino);
     }
-}
 
-/**
- * Maneja llamada a función print
- */
-private void manejarLlamadaPrint() {
-    code.append("#print\n");
-    String param = funcArgs.remove(funcArgs.size() - 1);
-    String registroParam = temps3DMap.get(param);
-    
-    System.out.println(registroParam);
-    System.out.println(valoresTemporales.get(registroParam));
-    
-    code.append("move $a0, $" + param + "\n");
-    code.append("li $v0, 1\n");
-    code.append("syscall\n");
-}
+    /**
+     * Operación entera con una constante: si cabe en el inmediato de 16 bits usa addi, slti,
+     * andi, ori o xori, sin cargar la constante con li. Multiplicar, dividir y sacar módulo
+     * por una constante se reducen a corrimientos, sumas y multiplicaciones por un número
+     * mágico (ver multiplicarConstante y dividirConstante). Retorna false si la operación
+     * no tiene esa forma.
+     */
+    private boolean manejarOperacionInmediata(Cuadruplo c) {
+        Operacion op = c.op;
+        long otro;
+        int k;
+        if (Operando.esEntero(c.arg2)) {
+            otro = c.arg1;
+            k = Operando.valor(c.arg2);
+        } else if (Operando.esEntero(c.arg1) && operacionInvertida(op) != null) {
+            // k < x es x > k
+            op = operacionInvertida(op);
+            otro = c.arg2;
+            k = Operando.valor(c.arg1);
+        } else {
+            return false;
+        }
+        if (programa.tipoDe(otro).esFlotante() || programa.tipoDe(c.resultado).esFlotante()) {
+            return false;
+        }
+        switch (op) {
+            case SUMA:
+            case MENOR:
+            case MAYOR_IGUAL:
+                if (!cabeInmediato(k)) {
+                    return false;
+                }
+                break;
+            case RESTA:
+                if (k == Integer.MIN_VALUE || !cabeInmediato(-k)) {
+                    return false;
+                }
+                break;
+            case MENOR_IGUAL:
+            case MAYOR:
+                if (k == Integer.MAX_VALUE || !cabeInmediato(k + 1)) {
+                    return false;
+                }
+                break;
+            case IGUAL:
+            case DISTINTO:
+            case AND:
+            case OR:
+                // Estos inmediatos se extienden con ceros
+                if (k < 0 || k > 0xFFFF) {
+                    return false;
+                }
+                break;
+            case MULTIPLICACION:
+                if (k == Integer.MIN_VALUE || !esMultiplicacionCorta(Math.abs(k))) {
+                    return false;
+                }
+                break;
+            case DIVISION:
+            case MODULO:
+                // Entre cero queda la forma con div, que no atrapa
+                if (k == 0 || k == Integer.MIN_VALUE) {
+                    return false;
+                }
+                break;
+            default:
+                return false;
+        }
 
-/**
- * Maneja instrucciones temporales
- */
-private void manejarInstruccionTemporal(String instruction, String[] data, int largo) {
-    if (largo == 3) {
-        manejarAsignacionSimple(instruction, data);
-    } else if (largo == 5) {
-        manejarOperacionBinaria(data);
+        String registro = cargarOperando(otro);
+        String destino = registroDestino(c.resultado);
+        switch (op) {
+            case SUMA:
+                code.append("addi " + destino + ", " + registro + ", " + k + "\n");
+                break;
+            case RESTA:
+                code.append("addi " + destino + ", " + registro + ", " + (-k) + "\n");
+                break;
+            case MENOR:
+                code.append("slti " + destino + ", " + registro + ", " + k + "\n");
+                break;
+            case MENOR_IGUAL:
+                code.append("slti " + destino + ", " + registro + ", " + (k + 1) + "\n");
+                break;
+            case MAYOR_IGUAL:
+                // x >= k es !(x < k)
+                code.append("slti " + destino + ", " + registro + ", " + k + "\n");
+                code.append("xori " + destino + ", " + destino + ", 1\n");
+                break;
+            case MAYOR:
+                code.append("slti " + destino + ", " + registro + ", " + (k + 1) + "\n");
+                code.append("xori " + destino + ", " + destino + ", 1\n");
+                break;
+            case IGUAL:
+                code.append("xori " + destino + ", " + registro + ", " + k + "\n");
+                code.append("sltiu " + destino + ", " + destino + ", 1\n");
+                break;
+            case DISTINTO:
+                code.append("xori " + destino + ", " + registro + ", " + k + "\n");
+                code.append("sltu " + destino + ", $zero, " + destino + "\n");
+                break;
+            case AND:
+                code.append("andi " + destino + ", " + registro + ", " + k + "\n");
+                break;
+            case OR:
+                code.append("ori " + destino + ", " + registro + ", " + k + "\n");
+                break;
+            case MULTIPLICACION:
+                multiplicarConstante(destino, registro, k, obtenerRegistroTemporal());
+                break;
+            case DIVISION:
+                dividirConstante(destino, registro, k, obtenerRegistroTemporal());
+                break;
+            default:
+                moduloConstante(destino, registro, k, obtenerRegistroTemporal(), obtenerRegistroTemporal());
+        }
+        escribirDestino(c.resultado, destino);
+        return true;
     }
-}
 
-/**
- * Maneja asignaciones simples a temporales
- */
-private void manejarAsignacionSimple(String instruction, String[] data) {
-    if (data[2].startsWith("++")) {
-        manejarIncremento(data);
-    } else if (esLiteralCaracterOEntero(data[2])) {
-        manejarAsignacionLiteral(data);
-    } else if (verifTipoFlotante(data[2])) {
-        manejarAsignacionFlotante(data);
-    } else if (instruction.contains("= t")) {
-        manejarAsignacionTemporal(data);
-    } else {
-        manejarCargaVariable(data);
+    /**
+     * Las multiplicaciones por 0, 2^a, 2^a + 2^b o 2^a - 2^b (y sus negativos) salen con a
+     * lo más tres instrucciones de corrimiento y suma, más baratas que mult y mflo
+     */
+    private static boolean esMultiplicacionCorta(int m) {
+        if (m == 0 || esPotenciaDeDos(m)) {
+            return true;
+        }
+        long bajo = m & -m;
+        return esPotenciaDeDos(m - bajo) || esPotenciaDeDos(m + bajo);
     }
-}
-
-/**
- * Verifica si es un literal de carácter o entero
- * @param valor el valor a verificar
- * @return true si es un literal de carácter (entre comillas simples) o un entero
- */
-private boolean esLiteralCaracterOEntero(String valor) {
-    // Verifica si el valor es un literal de carácter (entre comillas simples) o un entero
-    // También verifica si es un entero válido
-    return valor.startsWith("'") || verifTipoEntero(valor);
-}
-
-/**
- * Maneja operación de incremento
- * Esta función se encarga de manejar el incremento de una variable.
- * Carga el valor de la variable en un registro temporal, incrementa su valor
- */
-private void manejarIncremento(String[] data) {
-    String variable = data[2].substring(2);
-    code.append("lw $t" + numTemporalesReg + ", " + variable + "\n");
-    numTemporalesReg++;
-    code.append("addi $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 1) + ", 1\n");
-    code.append("sw $t" + numTemporalesReg + ", " + variable + "\n");
-}
 
-/**
- * Maneja asignación de literal
- * Esta función se encarga de manejar la asignación de un valor literal a un registro temporal.
- * Si es la primera asignación de un literal, se inicia la sección de datos.
- */
-private void manejarAsignacionLiteral(String[] data) {
-    if (numTemporalesReg == 0) {
-        code.append(".data\n");
+    private static boolean esPotenciaDeDos(long m) {
+        return m > 0 && m <= Integer.MAX_VALUE && (m & (m - 1)) == 0;
     }
-    code.append("li $t" + numTemporalesReg + ", " + data[2] + "\n");
-    numTemporalesReg++;
-}
 
-/**
- * Maneja asignación de flotante
- * Esta función se encarga de manejar la asignación de un valor flotante a un registro flotante.
- * Si es la primera asignación de flotante, se inicia la sección de datos.
- */
-private void manejarAsignacionFlotante(String[] data) {
-    if (numFlotantesAux == 0) {
-        code.append(".data\n");
+    /**
+     * destino = registro * k con corrimientos y sumas; auxiliar no puede ser ninguno de los
+     * otros dos. Si k no tiene forma corta usa li, mult y mflo.
+     */
+    private void multiplicarConstante(String destino, String registro, int k, String auxiliar) {
+        int m = Math.abs(k);
+        if (!esMultiplicacionCorta(m)) {
+            code.append("li " + auxiliar + ", " + k + "\n");
+            code.append("mult " + registro + ", " + auxiliar + "\n");
+            code.append("mflo " + destino + "\n");
+            return;
+        }
+        if (m == 0) {
+            code.append("move " + destino + ", $zero\n");
+            return;
+        }
+        if (esPotenciaDeDos(m)) {
+            int corrimiento = Integer.numberOfTrailingZeros(m);
+            if (corrimiento == 0) {
+                moverRegistro(destino, registro);
+            } else {
+                code.append("sll " + destino + ", " + registro + ", " + corrimiento + "\n");
+            }
+        } else {
+            // m = 2^a + 2^b o m = 2^a - 2^b, con 2^b el bit más bajo de m
+            long bajo = m & -m;
+            boolean suma = esPotenciaDeDos(m - bajo);
+            int a = Long.numberOfTrailingZeros(suma ? m - bajo : m + bajo);
+            int b = Integer.numberOfTrailingZeros(m);
+            String instruccion = suma ? "add " : "sub ";
+            code.append("sll " + auxiliar + ", " + registro + ", " + a + "\n");
+            if (b == 0) {
+                code.append(instruccion + destino + ", " + auxiliar + ", " + registro + "\n");
+            } else {
+                code.append("sll " + destino + ", " + registro + ", " + b + "\n");
+                code.append(instruccion + destino + ", " + auxiliar + ", " + destino + "\n");
+            }
+        }
+        if (k < 0) {
+            code.append("sub " + destino + ", $zero, " + destino + "\n");
+        }
     }
-    code.append("li.s $f" + numFlotantesAux + ", " + data[2] + "\n");
-    numFlotantesAux++;
-}
-
-/**
- * Maneja asignación temporal
- * Esta función se encarga de manejar la asignación de un valor temporal a un registro temporal.
- * Si el registro temporal ya tiene un valor asignado, se mueve ese valor al nuevo registro temporal.
- * Si no, se carga el valor de la variable en el registro temporal.
- */
-private void manejarAsignacionTemporal(String[] data) {
-    // Verifica si el registro temporal ya tiene un valor asignado
-    if (valoresTemporales.containsKey(data[2])) {
-        String registroTemporal = valoresTemporales.get(data[2]);
-        code.append("move $t" + numTemporalesReg + ", " + registroTemporal + "\n");
-    } else {
-        // Si no, carga el valor de la variable en el registro temporal
-        manejarCargaVariable(data);
-    }
-    code.append("sb $t" + numTemporalesReg + ", " + data[2] + "\n");
-}
 
-/**
- * Maneja carga de variable
- * Esta función se encarga de cargar el valor de una variable en un registro temporal.
- * Si el tipo de dato no está definido, se asigna un tipo por defecto (int).
- * @param data un arreglo de cadenas que contiene la información de la variable
- * @return void
- * @throws IOException si ocurre un error al escribir en el archivo
- */
-private void manejarCargaVariable(String[] data) {
-    String tipoDato = dataSectionStrings.get(data[2]);
-    if (tipoDato == null) {
-        System.err.println("Advertencia: tipoDato null para variable: " + data[2]);
-        tipoDato = "int";
+    /**
+     * destino = registro / k truncando hacia cero como div, con k distinto de 0 y de
+     * Integer.MIN_VALUE; auxiliar no puede ser ninguno de los otros dos.
+     * Entre 2^s: a un negativo se le suma 2^s - 1 y se corre s a la derecha. Entre otra
+     * constante: la parte alta de registro * M (mfhi), corrida y corregida en uno para los
+     * negativos, con el número mágico M de numeroMagico.
+     */
+    private void dividirConstante(String destino, String registro, int k, String auxiliar) {
+        int m = Math.abs(k);
+        if (m == 1) {
+            if (k < 0) {
+                code.append("sub " + destino + ", $zero, " + registro + "\n");
+            } else {
+                moverRegistro(destino, registro);
+            }
+            return;
+        }
+        if (esPotenciaDeDos(m)) {
+            int corrimiento = Integer.numberOfTrailingZeros(m);
+            code.append("sra " + auxiliar + ", " + registro + ", 31\n");
+            code.append("srl " + auxiliar + ", " + auxiliar + ", " + (32 - corrimiento) + "\n");
+            code.append("add " + auxiliar + ", " + registro + ", " + auxiliar + "\n");
+            code.append("sra " + destino + ", " + auxiliar + ", " + corrimiento + "\n");
+        } else {
+            long magico = numeroMagico(m);
+            int multiplicador = (int) (magico >> 32);
+            int corrimiento = (int) magico;
+            code.append("li " + auxiliar + ", " + multiplicador + "\n");
+            code.append("mult " + registro + ", " + auxiliar + "\n");
+            code.append("mfhi " + auxiliar + "\n");
+            if (multiplicador < 0) {
+                code.append("add " + auxiliar + ", " + auxiliar + ", " + registro + "\n");
+            }
+            if (corrimiento > 0) {
+                code.append("sra " + auxiliar + ", " + auxiliar + ", " + corrimiento + "\n");
+            }
+            // El cociente estimado es el piso; si es negativo se le suma uno
+            code.append("srl " + destino + ", " + auxiliar + ", 31\n");
+            code.append("add " + destino + ", " + auxiliar + ", " + destino + "\n");
+        }
+        if (k < 0) {
+            code.append("sub " + destino + ", $zero, " + destino + "\n");
+        }
     }
-    String register = obtenerTipoSiguienteDato(tipoDato).substring(1);
 
-    code.append(tiposDatos.get(tipoDato) + " " + register + ", " + data[2] + "\n");
+    /**
+     * destino = registro % k con el signo del dividendo, como mfhi después de div:
+     * registro - (registro / |k|) * |k|. Usa dos auxiliares distintos de los otros registros.
+     */
+    private void moduloConstante(String destino, String registro, int k, String cociente, String auxiliar) {
+        int m = Math.abs(k);
+        if (m == 1) {
+            code.append("move " + destino + ", $zero\n");
+            return;
+        }
+        if (esPotenciaDeDos(m)) {
+            // Se redondea hacia cero igual que en la división y se borran los bits bajos
+            int corrimiento = Integer.numberOfTrailingZeros(m);
+            code.append("sra " + cociente + ", " + registro + ", 31\n");
+            code.append("srl " + cociente + ", " + cociente + ", " + (32 - corrimiento) + "\n");
+            code.append("add " + cociente + ", " + registro + ", " + cociente + "\n");
+            code.append("sra " + cociente + ", " + cociente + ", " + corrimiento + "\n");
+            code.append("sll " + cociente + ", " + cociente + ", " + corrimiento + "\n");
+        } else {
+            dividirConstante(cociente, registro, m, auxiliar);
+            multiplicarConstante(cociente, cociente, m, auxiliar);
+        }
+        code.append("sub " + destino + ", " + registro + ", " + cociente + "\n");
+    }
 
-    System.out.println("inter:" + data[0] + " register:" + register + ",  data[2] = " + data[2]);
-    valoresTemporales.put(register, data[2]);
-    temps3DMap.put(data[0], register);
-}
+    /**
+     * Número mágico para dividir entre d (2 <= d, no potencia de dos) con la parte alta de
+     * una multiplicación de 32 bits (Warren, Hacker's Delight, 10-1). Retorna el
+     * multiplicador en los 32 bits altos y el corrimiento en los bajos.
+     */
+    static long numeroMagico(int d) {
+        final long dos31 = 0x80000000L;
+        final long mascara = 0xFFFFFFFFL;
+        long anc = dos31 - 1 - dos31 % d;
+        int p = 31;
+        long q1 = dos31 / anc;
+        long r1 = dos31 - q1 * anc;
+        long q2 = dos31 / d;
+        long r2 = dos31 - q2 * d;
+        long delta;
+        do {
+            p++;
+            q1 = (2 * q1) & mascara;
+            r1 = (2 * r1) & mascara;
+            if (r1 >= anc) {
+                q1 = (q1 + 1) & mascara;
+                r1 = (r1 - anc) & mascara;
+            }
+            q2 = (2 * q2) & mascara;
+            r2 = (2 * r2) & mascara;
+            if (r2 >= d) {
+                q2 = (q2 + 1) & mascara;
+                r2 = (r2 - d) & mascara;
+            }
+            delta = d - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+        long multiplicador = (q2 + 1) & mascara;
+        return (multiplicador << 32) | (p - 32);
+    }
 
-/**
- * Maneja operaciones binarias
- */
-private void manejarOperacionBinaria(String[] data) {
-    String operador = data[3];
-    code.append("#op = " + operador + "\n");
-    
-    switch (operador) {
-        case "+":
-            manejarSuma();
-            break;
-        case "-":
-            manejarResta();
-            break;
-        case ">":
-            manejarComparacionMayor();
-            break;
-        case "<":
-            manejarComparacionMenor();
-            break;
-        case "==":
-            manejarComparacionIgual();
-            break;
-        case "!=":
-            manejarComparacionDistinto();
-            break;
-        case "^":
-            manejarOperacionAnd();
-            break;
-        case "#":
-            manejarOperacionOr();
-            break;
-        case "*":
-            manejarMultiplicacion();
-            break;
-        case "/":
-            manejarDivision();
-            break;
+    private static boolean cabeInmediato(int k) {
+        return k >= Short.MIN_VALUE && k <= Short.MAX_VALUE;
     }
-}
 
-/**
- * Maneja operación de suma
- */
-private void manejarSuma() {
-    if (tipoDatoActual.equals("int")) {
-        code.append("add $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-        numTemporalesReg++;
-    } else if (tipoDatoActual.equals("float")) {
-        code.append("add.s $f" + numFlotantesAux + ", $f" + (numFlotantesAux - 2) + ", $f" + (numFlotantesAux - 1) + "\n");
-        numFlotantesAux++;
+    /**
+     * Operación equivalente con los operandos intercambiados, o null si no se puede
+     * (resta, división, potencia)
+     */
+    private static Operacion operacionInvertida(Operacion op) {
+        switch (op) {
+            case SUMA:
+            case MULTIPLICACION:
+            case IGUAL:
+            case DISTINTO:
+            case AND:
+            case OR:
+                return op;
+            case MENOR:
+                return Operacion.MAYOR;
+            case MAYOR:
+                return Operacion.MENOR;
+            case MENOR_IGUAL:
+                return Operacion.MAYOR_IGUAL;
+            case MAYOR_IGUAL:
+                return Operacion.MENOR_IGUAL;
+            default:
+                return null;
+        }
     }
-}
 
-/**
- * Maneja operación de resta
- */
-private void manejarResta() {
-    code.append("sub $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-    code.append("move $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 1) + "\n");
-}
+    /**
+     * Si el registro es entero, convierte su valor a un registro flotante
+     */
+    private String aFlotante(String registro) {
+        if (esRegistroFlotante(registro)) {
+            return registro;
+        }
+        String flotante = obtenerRegistroFlotante();
+        moverRegistro(flotante, registro);
+        return flotante;
+    }
 
-/**
- * Maneja comparación mayor que
- */
-private void manejarComparacionMayor() {
-    code.append("sgt $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja operaciones aritméticas entre flotantes
+     */
+    private void manejarOperacionFlotante(Operacion op, String destino, String izq, String der) {
+        switch (op) {
+            case SUMA:
+                code.append("add.s " + destino + ", " + izq + ", " + der + "\n");
+                break;
+            case RESTA:
+                code.append("sub.s " + destino + ", " + izq + ", " + der + "\n");
+                break;
+            case MULTIPLICACION:
+                code.append("mul.s " + destino + ", " + izq + ", " + der + "\n");
+                break;
+            case DIVISION:
+                code.append("div.s " + destino + ", " + izq + ", " + der + "\n");
+                break;
+            default:
+                break;
+        }
+    }
 
-/**
- * Maneja comparación menor que
- */
-private void manejarComparacionMenor() {
-    code.append("slt $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja operación de suma
+     */
+    private void manejarSuma(String destino, String izq, String der) {
+        code.append("add " + destino + ", " + izq + ", " + der + "\n");
+    }
 
-/**
- * Maneja comparación igual
- */
-private void manejarComparacionIgual() {
-    code.append("seq $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja operación de resta
+     */
+    private void manejarResta(String destino, String izq, String der) {
+        code.append("sub " + destino + ", " + izq + ", " + der + "\n");
+    }
 
-/**
- * Maneja comparación distinto
- * Esta instrucción verifica si dos valores son diferentes
- * y almacena el resultado en un registro temporal.
- * @param none
- * @return void
- * sne = set not equal
- */
-private void manejarComparacionDistinto() {
-    code.append("sne $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja las comparaciones (sgt, slt, sge, sle, seq, sne).
+     * Guardan 1 en el destino si se cumple la condición y 0 si no.
+     */
+    private void manejarComparacion(String instruccion, String destino, String izq, String der) {
+        code.append(instruccion + " " + destino + ", " + izq + ", " + der + "\n");
+    }
 
-/**
- * Maneja operación AND lógico
- */
-private void manejarOperacionAnd() {
-    code.append("and $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Compara dos flotantes con c.lt.s, c.le.s o c.eq.s (x > y y x >= y van al revés) y deja
+     * 1 o 0 en el destino entero: carga 1 y movf lo cambia por 0 si no se cumple (movt en
+     * el distinto).
+     */
+    private void manejarComparacionFlotante(Operacion op, String destino, String izq, String der) {
+        switch (op) {
+            case MENOR:
+                code.append("c.lt.s " + izq + ", " + der + "\n");
+                break;
+            case MENOR_IGUAL:
+                code.append("c.le.s " + izq + ", " + der + "\n");
+                break;
+            case MAYOR:
+                code.append("c.lt.s " + der + ", " + izq + "\n");
+                break;
+            case MAYOR_IGUAL:
+                code.append("c.le.s " + der + ", " + izq + "\n");
+                break;
+            default:
+                code.append("c.eq.s " + izq + ", " + der + "\n");
+                break;
+        }
+        code.append("li " + destino + ", 1\n");
+        code.append((op == Operacion.DISTINTO ? "movt " : "movf ") + destino + ", $zero\n");
+    }
 
-/**
- * Maneja operación OR lógico
- */
-private void manejarOperacionOr() {
-    code.append("or $t" + numTemporalesReg + ", $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja operación AND lógico
+     */
+    private void manejarOperacionAnd(String destino, String izq, String der) {
+        code.append("and " + destino + ", " + izq + ", " + der + "\n");
+    }
 
-/**
- * Maneja operación de multiplicación
- */
-private void manejarMultiplicacion() {
-    code.append("mult $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    code.append("mflo $t" + numTemporalesReg + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja operación OR lógico
+     */
+    private void manejarOperacionOr(String destino, String izq, String der) {
+        code.append("or " + destino + ", " + izq + ", " + der + "\n");
+    }
 
-/**
- * Maneja operación de división
- */
-private void manejarDivision() {
-    code.append("div $t" + (numTemporalesReg - 2) + ", $t" + (numTemporalesReg - 1) + "\n");
-    code.append("mflo $t" + numTemporalesReg + "\n");
-    numTemporalesReg++;
-}
+    /**
+     * Maneja operación de multiplicación
+     */
+    private void manejarMultiplicacion(String destino, String izq, String der) {
+        code.append("mult " + izq + ", " + der + "\n");
+        code.append("mflo " + destino + "\n");
+    }
 
-/**
- * Maneja asignación temporal final
- */
-private void manejarAsignacionTemporal(String instruction, String[] data) {
-    if (tipoDatoActual.equals("int")) {
-        code.append(listaTiposDatosMap.get(tipoDatoActual) + " $t" + (numTemporalesReg - 1) + ", " + data[0] + "\n");
-    } else if (tipoDatoActual.equals("float")) {
-        code.append(listaTiposDatosMap.get(tipoDatoActual) + " $f" + (numFlotantesAux - 1) + ", " + data[0] + "\n");
+    /**
+     * Maneja operación de división
+     */
+    private void manejarDivision(String destino, String izq, String der) {
+        code.append("div " + izq + ", " + der + "\n");
+        code.append("mflo " + destino + "\n");
     }
-}
 
-/**
- * Maneja instrucciones genéricas que no tienen tratamiento especial
- */
-private void manejarInstruccionGenerica(String instruction) {
-    code.append(instruction + "\n");
-}
+    /**
+     * Maneja el módulo: div deja el resto en hi, con el signo del dividendo
+     */
+    private void manejarModulo(String destino, String izq, String der) {
+        code.append("div " + izq + ", " + der + "\n");
+        code.append("mfhi " + destino + "\n");
+    }
 
+    /**
+     * Maneja la potencia con un ciclo de multiplicaciones (exponente entero no negativo)
+     */
+    private void manejarPotencia(String destino, String base, String exponente) {
+        String contador = obtenerRegistroTemporal();
+        String inicio = "potencia_" + contadorEtiquetas;
+        String fin = "fin_potencia_" + contadorEtiquetas;
+        contadorEtiquetas++;
+        code.append("li " + destino + ", 1\n");
+        code.append("move " + contador + ", " + exponente + "\n");
+        etiquetado(inicio);
+        code.append("blez " + contador + ", " + fin + "\n");
+        code.append("mul " + destino + ", " + destino + ", " + base + "\n");
+        code.append("addi " + contador + ", " + contador + ", -1\n");
+        code.append("j " + inicio + "\n");
+        etiquetado(fin);
+    }
 }
@@ -1,65 +1,88 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
 import java.nio.file.*;
 
-import java_cup.runtime.Symbol;
-
 public class MainFlexCup {
 
     private static final String INPUT_FILE = "src/resources/ejemplo2.txt";
     private static final String ERROR_FILE = "src/output/errors.log";
-    private static String basePath = System.getProperty("user.dir");
-    private static final String path = Paths.get(basePath, INPUT_FILE).toString();
+    private static final String TOKENS_FILE = "src/output/tokens.log";
+    private static final String ASM_FILE = "src/output/mipsCode.asm";
+    private static final String CODIGO3D_FILE = "src/output/codigo3D.txt";
+
+    // Rutas de esta compilación
+    private final String path;
+    private final String errorPath;
+    private final String tokensPath;
+
+    // Si es true se escribe codigo3D.txt como artefacto de depuración
+    private boolean volcarCodigo3D = false;
+
+    // Cómo se escribe tokens.log
+    private RegistroTokens.Modo modoTokens = RegistroTokens.Modo.BUFFER;
+
+    // Nivel de optimización del generador MIPS
+    private int nivelOptimizacion = Compiler.NIVEL_OPTIMIZACION_DEFECTO;
+
+    // Sesión de la última compilación
+    private Compiler compilador;
+
+    // Compila src/resources/ejemplo2.txt con las salidas en src/output
+    public MainFlexCup() {
+        this(Paths.get(System.getProperty("user.dir"), INPUT_FILE).toString(), ERROR_FILE, TOKENS_FILE);
+    }
+
+    // tokensPath puede ser null para no registrar los tokens
+    public MainFlexCup(String path, String errorPath, String tokensPath) {
+        this.path = path;
+        this.errorPath = errorPath;
+        this.tokensPath = tokensPath;
+    }
+
+    public void setVolcarCodigo3D(boolean volcar) {
+        volcarCodigo3D = volcar;
+    }
+
+    public void setModoTokens(RegistroTokens.Modo modo) {
+        modoTokens = modo;
+    }
+
+    public void setNivelOptimizacion(int nivel) {
+        nivelOptimizacion = nivel;
+    }
+
+    public Compiler getCompilador() {
+        return compilador;
+    }
 
     // Analizador léxico: solo tokens
-    public void AnalizadorLexico() throws IOException {
-        Reader reader = new BufferedReader(new FileReader(path));
-        BasicLexerCup lex = new BasicLexerCup(reader);
-        int i = 0;
-        Symbol token;
-        while (true) {
-            token = lex.next_token();
-            if (token.sym != 0) {
-                // Puedes imprimir o procesar tokens aquí si lo deseas
-            } else {
-                // Fin de archivo
-                return;
-            }
-            i++;
-        }
+    public void AnalizadorLexico() throws Exception {
+        compilador = nuevaCompilacion();
+        compilador.analizarLexico();
     }
 
     // Analizador léxico y sintáctico
-    public static void AnalizadorLexicoSintactico() throws Exception {
-        // Leer el código fuente
-        String sourceCode = FileManager.readFile(INPUT_FILE);
-
-        // Crear el ErrorHandler compartido
-        ErrorHandler errorHandler = new ErrorHandler(ERROR_FILE);
-        errorHandler.setContinueOnError(true);
-
-        try (Reader reader = new StringReader(sourceCode)) {
-            // Crear el lexer
-            BasicLexerCup lexer = new BasicLexerCup(reader);
-            lexer.setErrorHandler(errorHandler);
-
-            // Crear el parser y conectarlo con el lexer
-            parser p = new parser(lexer);
-            p.setErrorHandler(errorHandler);
-
-            try {
-                System.out.println("Iniciando análisis sintáctico...");
-                Symbol parseResult = p.parse();
-                System.out.println("Análisis sintáctico completado exitosamente.");
-            } catch (Exception e) {
-                System.out.println("Análisis sintáctico completado con errores: " + e.getMessage());
-            }
-
-            // Puedes mostrar estadísticas de errores aquí si lo deseas
-            // System.out.println(errorHandler.getErrorSummary());
+    // Retorna el código intermedio en memoria para pasarlo directamente al generador MIPS
+    public ProgramaIR AnalizadorLexicoSintactico() throws Exception {
+        compilador = nuevaCompilacion();
+        return compilador.analizar();
+    }
+
+    private Compiler nuevaCompilacion() {
+        Compiler c = new Compiler(path, ASM_FILE, errorPath);
+        c.setRegistroTokens(tokensPath, modoTokens);
+        c.setNivelOptimizacion(nivelOptimizacion);
+        if (volcarCodigo3D) {
+            c.setRutaCodigo3D(CODIGO3D_FILE);
+        }
+        return c;
+    }
+
+    // Genera src/output/mipsCode.asm a partir del último análisis
+    public void GenerarMips() throws IOException {
+        compilador.generar();
+        String expandidas = compilador.getOptimizador().getExpansion().resumen();
+        if (!expandidas.isEmpty()) {
+            System.out.print("Llamadas expandidas en línea por función:\n" + expandidas);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Movimiento de código invariante fuera de los ciclos (LICM) en una función del código
+ * intermedio.
+ *
+ * Los ciclos salen de CiclosNaturales y se recorren del más grande al más chico, así que
+ * lo que es invariante en un ciclo y en el que lo contiene sale de los dos de una vez.
+ * Un cálculo t = a op b del ciclo se mueve a la precabecera si:
+ *   - es puro y no puede fallar (división y módulo solo entre constantes distintas de 0,
+ *     lecturas de arreglo solo con desplazamiento constante dentro del arreglo);
+ *   - t se define solo ahí en toda la función y no está vivo al entrar a la cabecera;
+ *   - sus operandos son constantes, temporales definidos fuera del ciclo o ya movidos, o
+ *     variables (y arreglos) que el ciclo no escribe y sin llamadas en el ciclo.
+ * Como el parser lee cada variable con t = x, esto también saca del ciclo las cargas de
+ * las variables (globales incluidas) que el ciclo no cambia.
+ *
+ * Lo movido queda en la precabecera que arma CiclosNaturales.crearPrecabecera.
+ */
+public class MovimientoInvariantes {
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private final Vivacidad vivacidad = new Vivacidad();
+    private final CiclosNaturales ciclos = new CiclosNaturales();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    // Por temporal: definiciones en la función y posición de la última
+    private int[] definiciones = new int[0];
+    private int[] posicionDefinicion = new int[0];
+    // Último ciclo que define cada temporal y que escribe cada variable; así no hay que
+    // limpiar los arreglos entre ciclos
+    private int[] cicloDefinicion = new int[0];
+    private int[] cicloEscritura = new int[0];
+
+    // Por posición: si ya se movió a alguna precabecera
+    private boolean[] movido = new boolean[0];
+    // Código a insertar antes de cada posición de cabecera (null si nada)
+    private ArrayList<Cuadruplo>[] precabeceras;
+
+    private final ArrayList<Integer> posiciones = new ArrayList<>();
+
+    private int movidos;
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        grafo.construir(programa, codigo, 0, codigo.size());
+        ciclos.calcular(grafo);
+        if (ciclos.getCantidadCiclos() == 0 || !vivacidad.calcular(programa, grafo)) {
+            return false;
+        }
+        preparar();
+        precabeceras = Cuadruplo.listas(codigo.size());
+        boolean cambio = false;
+        for (int c = 0; c < ciclos.getCantidadCiclos(); c++) {
+            cambio |= moverCiclo(c);
+        }
+        if (cambio) {
+            reconstruir();
+        }
+        return cambio;
+    }
+
+    /**
+     * Cálculos movidos fuera de un ciclo desde que se creó el paso
+     */
+    public int getMovidos() {
+        return movidos;
+    }
+
+    private void preparar() {
+        int temporales = programa.getCantidadTemporales();
+        if (definiciones.length < temporales) {
+            int n = Math.max(temporales, 2 * definiciones.length);
+            definiciones = new int[n];
+            posicionDefinicion = new int[n];
+            cicloDefinicion = new int[n];
+        }
+        Arrays.fill(definiciones, 0, temporales, 0);
+        Arrays.fill(cicloDefinicion, 0, temporales, -1);
+        int variables = programa.getVariables().size();
+        if (cicloEscritura.length < variables) {
+            int n = Math.max(variables, 2 * cicloEscritura.length);
+            cicloEscritura = new int[n];
+        }
+        Arrays.fill(cicloEscritura, 0, variables, -1);
+        if (movido.length < codigo.size()) {
+            movido = new boolean[Math.max(codigo.size(), 2 * movido.length)];
+        }
+        Arrays.fill(movido, 0, codigo.size(), false);
+        for (int i = 0; i < codigo.size(); i++) {
+            int t = vivacidad.definicion(i);
+            if (t >= 0) {
+                definiciones[t]++;
+                posicionDefinicion[t] = i;
+            }
+        }
+    }
+
+    // ===================== Un ciclo =====================
+
+    private boolean moverCiclo(int c) {
+        int cabecera = ciclos.cabecera(c);
+        int inicio = grafo.inicio(cabecera);
+        if (codigo.get(inicio).op != Operacion.ETIQUETA) {
+            return false;
+        }
+        boolean llamada = recorrer(c);
+        ArrayList<Cuadruplo> precabecera = new ArrayList<>();
+        // Cada pasada mueve lo que depende de lo movido en la anterior
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int i : posiciones) {
+                if (!movido[i] && esInvariante(c, cabecera, codigo.get(i), llamada)) {
+                    movido[i] = true;
+                    precabecera.add(codigo.get(i));
+                    movidos++;
+                    cambio = true;
+                }
+            }
+        }
+        if (precabecera.isEmpty()) {
+            return false;
+        }
+        precabeceras[inicio] = ciclos.crearPrecabecera(c, precabecera);
+        return true;
+    }
+
+    // Junta las posiciones del ciclo y anota definiciones y escrituras;
+    // retorna true si el ciclo tiene alguna llamada
+    private boolean recorrer(int c) {
+        posiciones.clear();
+        boolean llamada = false;
+        for (int k = 0; k < ciclos.cantidadBloques(c); k++) {
+            int b = ciclos.bloque(c, k);
+            for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+                posiciones.add(i);
+                Cuadruplo q = codigo.get(i);
+                // Las externas (print) no escriben variables
+                llamada |= q.op == Operacion.LLAMADA && !programa.getFuncion(Operando.valor(q.arg1)).externa;
+                int t = vivacidad.definicion(i);
+                if (t >= 0) {
+                    cicloDefinicion[t] = c;
+                }
+                if (Operando.esVariable(q.resultado) && escribe(q.op)) {
+                    cicloEscritura[Operando.valor(q.resultado)] = c;
+                }
+            }
+        }
+        posiciones.sort(null);
+        return llamada;
+    }
+
+    private static boolean escribe(Operacion op) {
+        return op != Operacion.SALTO_SI && op != Operacion.SALTO_SI_FALSO && op != Operacion.SALTO_TABLA
+            && op != Operacion.PARAMETRO && op != Operacion.RETORNO && op != Operacion.IMPRIMIR;
+    }
+
+    private boolean esInvariante(int c, int cabecera, Cuadruplo q, boolean llamada) {
+        if (!EliminacionCodigoMuerto.esPuro(q.op) || !Operando.esTemporal(q.resultado)) {
+            return false;
+        }
+        int t = Operando.valor(q.resultado);
+        if (definiciones[t] != 1 || vivacidad.vivoAlEntrar(cabecera, t)) {
+            return false;
+        }
+        switch (q.op) {
+            case DIVISION:
+            case MODULO:
+                if (!(Operando.esEntero(q.arg2) || Operando.clase(q.arg2) == Operando.FLOTANTE)
+                        || Operando.valor(q.arg2) == 0) {
+                    return false;
+                }
+                break;
+            case CARGAR_ARREGLO: {
+                int arreglo = Operando.valor(q.arg1);
+                if (llamada || cicloEscritura[arreglo] == c || !Operando.esEntero(q.arg2)) {
+                    return false;
+                }
+                int desplazamiento = Operando.valor(q.arg2);
+                return desplazamiento >= 0 && desplazamiento < programa.getVariable(arreglo).elementos * 4;
+            }
+            default:
+                break;
+        }
+        return operandoInvariante(c, q.arg1, llamada)
+            && (!q.op.esBinaria() || operandoInvariante(c, q.arg2, llamada));
+    }
+
+    private boolean operandoInvariante(int c, long operando, boolean llamada) {
+        switch (Operando.clase(operando)) {
+            case Operando.TEMPORAL: {
+                int t = Operando.valor(operando);
+                // Definido fuera del ciclo o en un cálculo que ya salió de él
+                return cicloDefinicion[t] != c
+                    || (definiciones[t] == 1 && movido[posicionDefinicion[t]]);
+            }
+            case Operando.VARIABLE: {
+                int v = Operando.valor(operando);
+                return !llamada && cicloEscritura[v] != c && !programa.getVariable(v).esArreglo();
+            }
+            default:
+                return Operando.esConstante(operando);
+        }
+    }
+
+    // Arma el código con las precabeceras y sin los cálculos movidos
+    private void reconstruir() {
+        ArrayList<Cuadruplo> resultado = new ArrayList<>(codigo.size() + 16);
+        for (int i = 0; i < codigo.size(); i++) {
+            if (precabeceras[i] != null) {
+                resultado.addAll(precabeceras[i]);
+            }
+            if (!movido[i]) {
+                resultado.add(codigo.get(i));
+            }
+        }
+        codigo.clear();
+        codigo.addAll(resultado);
+    }
+}
@@ -0,0 +1,307 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Numeración de valores local (LVN): elimina subexpresiones comunes dentro de cada
+ * bloque básico de una función.
+ *
+ * Cada valor que aparece en el bloque recibe un número. Una operación se identifica por
+ * (operación, números de sus operandos) empacado en un long, y se busca en una tabla hash
+ * de direccionamiento abierto con claves long primitivas, sin crear objetos. Si el valor
+ * ya está en un temporal que todavía lo tiene, la operación se cambia por una copia de
+ * ese temporal (la propagación de copias la quita después).
+ *
+ * Las variables viven en memoria: guardar en una variable le da el número de lo guardado
+ * (así el t = x siguiente reutiliza el valor) y una llamada invalida todas, porque puede
+ * cambiar cualquier global o, por recursión, cualquier local. Un arreglo tiene un número
+ * por estado de su memoria que cambia con cada escritura, así una lectura arr[i] se
+ * reutiliza hasta el siguiente arr[j] = v, y después de arr[i] = v leer arr[i] da v.
+ */
+public class NumeracionValores {
+
+    // Los números de valor deben caber en 29 bits para empacar dos en una clave
+    private static final int MAX_VALORES = 1 << 29;
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    private int siguienteValor;
+    // Marca del bloque actual: los valores de temporales y la tabla de otros bloques no valen
+    private int bloqueActual;
+
+    // Por temporal del programa: valor y bloque en que se asignó
+    private int[] valorTemporal = new int[0];
+    private int[] bloqueTemporal = new int[0];
+
+    // Por variable: valor y época en que se asignó; una llamada cambia la época
+    private int[] valorVariable = new int[0];
+    private int[] epocaVariable = new int[0];
+    private int epoca;
+
+    // Temporal que guarda cada valor (índice = valor), o 0
+    private int[] temporalDeValor = new int[64];
+
+    // Tabla hash: clave -> valor, válida si su marca es el bloque actual
+    private long[] claves = new long[256];
+    private int[] valores = new int[256];
+    private int[] marcas = new int[256];
+    private int ocupadas;
+
+    private int eliminadas;
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        preparar();
+        grafo.construir(programa, codigo, 0, codigo.size());
+        int antes = eliminadas;
+        for (int b = 0; b < grafo.getCantidadBloques() && siguienteValor < MAX_VALORES - codigo.size() * 3; b++) {
+            numerarBloque(grafo.inicio(b), grafo.fin(b));
+        }
+        return eliminadas != antes;
+    }
+
+    /**
+     * Subexpresiones reemplazadas por copias desde que se creó el paso
+     */
+    public int getEliminadas() {
+        return eliminadas;
+    }
+
+    private void preparar() {
+        int temporales = programa.getCantidadTemporales();
+        if (valorTemporal.length < temporales) {
+            valorTemporal = new int[Math.max(temporales, 2 * valorTemporal.length)];
+            bloqueTemporal = new int[valorTemporal.length];
+            Arrays.fill(bloqueTemporal, -1);
+        }
+        int variables = programa.getVariables().size();
+        if (valorVariable.length < variables) {
+            valorVariable = new int[Math.max(variables, 2 * valorVariable.length)];
+            epocaVariable = new int[valorVariable.length];
+            Arrays.fill(epocaVariable, -1);
+        }
+        // El valor 0 queda libre para "ninguno"
+        siguienteValor = 1;
+    }
+
+    // ===================== Bloque =====================
+
+    private void numerarBloque(int inicio, int fin) {
+        bloqueActual++;
+        epoca++;
+        ocupadas = 0;
+        for (int i = inicio; i < fin; i++) {
+            Cuadruplo c = codigo.get(i);
+            switch (c.op) {
+                case LLAMADA:
+                case LEER:
+                    // La llamada puede escribir cualquier variable y arreglo
+                    if (c.op == Operacion.LLAMADA) {
+                        epoca++;
+                    }
+                    definir(c.resultado, nuevoValor());
+                    break;
+                case GUARDAR_ARREGLO: {
+                    int arreglo = Operando.valor(c.resultado);
+                    int desplazamiento = valorDe(c.arg1);
+                    int guardado = valorDe(c.arg2);
+                    if (convierte(c.resultado, c.arg2)) {
+                        guardado = nuevoValor();
+                    }
+                    int estado = nuevoValor();
+                    asignarVariable(arreglo, estado);
+                    boolean flotante = programa.getVariable(arreglo).tipo.esFlotante();
+                    insertar(clave(Operacion.CARGAR_ARREGLO, flotante, estado, desplazamiento), guardado);
+                    break;
+                }
+                case COPIA:
+                    definir(c.resultado, convierte(c.resultado, c.arg1) ? nuevoValor() : valorDe(c.arg1));
+                    break;
+                default:
+                    if (EliminacionCodigoMuerto.esPuro(c.op)) {
+                        numerarOperacion(c);
+                    }
+            }
+        }
+    }
+
+    private void numerarOperacion(Cuadruplo c) {
+        boolean flotante = programa.tipoDe(c.resultado).esFlotante();
+        int a;
+        int b;
+        if (c.op == Operacion.CARGAR_ARREGLO) {
+            a = valorDe(c.arg1);
+            b = valorDe(c.arg2);
+        } else {
+            a = valorDe(c.arg1);
+            b = c.op.esBinaria() ? valorDe(c.arg2) : 0;
+            if (esConmutativa(c.op) && a > b) {
+                int x = a;
+                a = b;
+                b = x;
+            }
+        }
+        long clave = clave(c.op, flotante, a, b);
+        int valor = buscar(clave);
+        if (valor != 0 && Operando.esTemporal(c.resultado)) {
+            int t = temporalDeValor[valor];
+            if (t != 0 && t != Operando.valor(c.resultado) && valorDeTemporal(t) == valor) {
+                c.op = Operacion.COPIA;
+                c.arg1 = Operando.temporal(t);
+                c.arg2 = Operando.VACIO;
+                eliminadas++;
+                definir(c.resultado, valor);
+                return;
+            }
+        }
+        if (valor == 0) {
+            valor = nuevoValor();
+            insertar(clave, valor);
+        }
+        definir(c.resultado, valor);
+    }
+
+    // Copiar entre entero y flotante convierte el valor, así que es otro valor
+    private boolean convierte(long destino, long origen) {
+        return programa.tipoDe(destino).esFlotante() != programa.tipoDe(origen).esFlotante();
+    }
+
+    private static boolean esConmutativa(Operacion op) {
+        return op == Operacion.SUMA || op == Operacion.MULTIPLICACION || op == Operacion.IGUAL
+            || op == Operacion.DISTINTO || op == Operacion.AND || op == Operacion.OR;
+    }
+
+    // ===================== Valores de operandos =====================
+
+    private int nuevoValor() {
+        return siguienteValor++;
+    }
+
+    private int valorDe(long operando) {
+        switch (Operando.clase(operando)) {
+            case Operando.TEMPORAL: {
+                int t = Operando.valor(operando);
+                int valor = valorDeTemporal(t);
+                if (valor == 0) {
+                    // Viene de otro bloque
+                    valor = nuevoValor();
+                    asignarTemporal(t, valor);
+                }
+                return valor;
+            }
+            case Operando.VARIABLE: {
+                int v = Operando.valor(operando);
+                if (epocaVariable[v] != epoca) {
+                    asignarVariable(v, nuevoValor());
+                }
+                return valorVariable[v];
+            }
+            case Operando.NINGUNO:
+                return 0;
+            default: {
+                // Constantes: la clave es el operando mismo (clase y valor caben en 35 bits)
+                int valor = buscar(operando);
+                if (valor == 0) {
+                    valor = nuevoValor();
+                    insertar(operando, valor);
+                }
+                return valor;
+            }
+        }
+    }
+
+    private int valorDeTemporal(int t) {
+        return bloqueTemporal[t] == bloqueActual ? valorTemporal[t] : 0;
+    }
+
+    private void asignarTemporal(int t, int valor) {
+        valorTemporal[t] = valor;
+        bloqueTemporal[t] = bloqueActual;
+        if (valor >= temporalDeValor.length) {
+            temporalDeValor = Arrays.copyOf(temporalDeValor, Math.max(valor + 1, 2 * temporalDeValor.length));
+        }
+        if (temporalDeValor[valor] == 0 || valorDeTemporal(temporalDeValor[valor]) != valor) {
+            temporalDeValor[valor] = t;
+        }
+    }
+
+    private void asignarVariable(int v, int valor) {
+        valorVariable[v] = valor;
+        epocaVariable[v] = epoca;
+    }
+
+    // Escribir una variable entera le da el valor escrito; un arreglo pasa a un estado nuevo
+    private void definir(long destino, int valor) {
+        if (Operando.esTemporal(destino)) {
+            int t = Operando.valor(destino);
+            asignarTemporal(t, valor);
+        } else if (Operando.esVariable(destino)) {
+            int v = Operando.valor(destino);
+            asignarVariable(v, programa.getVariable(v).esArreglo() ? nuevoValor() : valor);
+        }
+    }
+
+    // ===================== Tabla hash =====================
+
+    // Las operaciones llevan op + 1 en los bits altos; las constantes los tienen en 0
+    private static long clave(Operacion op, boolean flotante, int a, int b) {
+        long codigoOp = 2L * op.ordinal() + (flotante ? 1 : 0) + 1;
+        return (codigoOp << 58) | ((long) a << 29) | b;
+    }
+
+    private int buscar(long clave) {
+        int mascara = claves.length - 1;
+        for (int i = dispersar(clave) & mascara; marcas[i] == bloqueActual; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                return valores[i];
+            }
+        }
+        return 0;
+    }
+
+    private void insertar(long clave, int valor) {
+        if (2 * (ocupadas + 1) > claves.length) {
+            crecer();
+        }
+        int mascara = claves.length - 1;
+        int i = dispersar(clave) & mascara;
+        while (marcas[i] == bloqueActual && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        if (marcas[i] != bloqueActual) {
+            ocupadas++;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        marcas[i] = bloqueActual;
+    }
+
+    private void crecer() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        int[] marcasAnteriores = marcas;
+        claves = new long[2 * clavesAnteriores.length];
+        valores = new int[claves.length];
+        marcas = new int[claves.length];
+        ocupadas = 0;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (marcasAnteriores[i] == bloqueActual) {
+                insertar(clavesAnteriores[i], valoresAnteriores[i]);
+            }
+        }
+    }
+
+    private static int dispersar(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Códigos de operación de los cuádruplos del código intermedio.
+ * Cada operación guarda su símbolo para el volcado de texto (codigo3D.txt)
+ * y si es una operación binaria pura, que es lo que necesitan los optimizadores.
+ */
+public enum Operacion {
+    // resultado = arg1
+    COPIA("=", false),
+
+    // resultado = arg1 op arg2
+    SUMA("+", true),
+    RESTA("-", true),
+    MULTIPLICACION("*", true),
+    DIVISION("/", true),
+    MODULO("%", true),
+    POTENCIA("**", true),
+    MENOR("<", true),
+    MAYOR(">", true),
+    MENOR_IGUAL("<=", true),
+    MAYOR_IGUAL(">=", true),
+    IGUAL("==", true),
+    DISTINTO("!=", true),
+    AND("&&", true),
+    OR("||", true),
+
+    // resultado = op arg1
+    NOT("!", false),
+    NEGATIVO("-", false),
+
+    // resultado = arg1[arg2], arg2 es el desplazamiento en bytes
+    CARGAR_ARREGLO("[]", false),
+    // resultado[arg1] = arg2, arg1 es el desplazamiento en bytes
+    GUARDAR_ARREGLO("[]=", false),
+
+    // Control de flujo, arg1 es la etiqueta (o la condición en los saltos condicionales)
+    ETIQUETA(":", false),
+    SALTO("goto", false),
+    SALTO_SI("if", false),
+    SALTO_SI_FALSO("ifFalse", false),
+    // goto tabla[arg1], arg2 es el número de la tabla de saltos (ver ProgramaIR.TablaSaltos)
+    SALTO_TABLA("goto_tabla", false),
+
+    // Funciones: param arg1 / resultado = call arg1, arg2(cantidad de argumentos)
+    PARAMETRO("param", false),
+    LLAMADA("call", false),
+    RETORNO("return", false),
+    // Inicio y fin de función, arg1 es la función
+    FUNCION("funcion", false),
+    FIN_FUNCION("fin_funcion", false),
+
+    // Entrada y salida
+    LEER("leer", false),
+    IMPRIMIR("imprimir", false);
+
+    private final String simbolo;
+    private final boolean binaria;
+
+    Operacion(String simbolo, boolean binaria) {
+        this.simbolo = simbolo;
+        this.binaria = binaria;
+    }
+
+    public String getSimbolo() {
+        return simbolo;
+    }
+
+    /**
+     * Verifica si la operación es de la forma resultado = arg1 op arg2
+     */
+    public boolean esBinaria() {
+        return binaria;
+    }
+
+    /**
+     * Verifica si la operación compara dos valores y produce 0 o 1
+     */
+    public boolean esRelacional() {
+        return this == MENOR || this == MAYOR || this == MENOR_IGUAL
+            || this == MAYOR_IGUAL || this == IGUAL || this == DISTINTO;
+    }
+
+    /**
+     * Verifica si la operación termina un bloque básico (salto o retorno)
+     */
+    public boolean esSalto() {
+        return this == SALTO || this == SALTO_SI || this == SALTO_SI_FALSO || this == SALTO_TABLA
+            || this == RETORNO;
+    }
+
+    /**
+     * Convierte el operador textual del parser en una operación
+     */
+    public static Operacion desdeOperador(String operador) {
+        switch (operador) {
+            case "+": return SUMA;
+            case "-": return RESTA;
+            case "*": return MULTIPLICACION;
+            case "/": return DIVISION;
+            case "%": return MODULO;
+            case "^": return POTENCIA;
+            case "<": return MENOR;
+            case ">": return MAYOR;
+            case "<=": return MENOR_IGUAL;
+            case ">=": return MAYOR_IGUAL;
+            case "==": return IGUAL;
+            case "!=": return DISTINTO;
+            case "&&": return AND;
+            case "||": return OR;
+            default: throw new IllegalArgumentException("Operador desconocido: " + operador);
+        }
+    }
+}
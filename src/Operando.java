@@ -0,0 +1,101 @@
+/**
+ * Operando codifica los operandos de un cuádruplo en un long primitivo.
+ * Los 32 bits altos indican la clase del operando y los 32 bits bajos su valor
+ * (número de temporal, id de variable, constante entera, bits de un float, etc.).
+ * Así los cuádruplos no crean objetos por cada operando.
+ */
+public final class Operando {
+
+    // Clases de operando
+    public static final int NINGUNO = 0;
+    public static final int TEMPORAL = 1;
+    public static final int VARIABLE = 2;
+    public static final int ENTERO = 3;
+    public static final int FLOTANTE = 4;
+    public static final int CADENA = 5;
+    public static final int ETIQUETA = 6;
+    public static final int FUNCION = 7;
+
+    // Operando vacío
+    public static final long VACIO = 0L;
+
+    private Operando() {
+    }
+
+    /**
+     * Construye un operando a partir de su clase y su valor
+     */
+    public static long crear(int clase, int valor) {
+        return ((long) clase << 32) | (valor & 0xFFFFFFFFL);
+    }
+
+    public static long temporal(int numero) {
+        return crear(TEMPORAL, numero);
+    }
+
+    public static long variable(int id) {
+        return crear(VARIABLE, id);
+    }
+
+    public static long entero(int valor) {
+        return crear(ENTERO, valor);
+    }
+
+    public static long flotante(float valor) {
+        return crear(FLOTANTE, Float.floatToIntBits(valor));
+    }
+
+    public static long cadena(int indice) {
+        return crear(CADENA, indice);
+    }
+
+    public static long etiqueta(int id) {
+        return crear(ETIQUETA, id);
+    }
+
+    public static long funcion(int id) {
+        return crear(FUNCION, id);
+    }
+
+    /**
+     * Obtiene la clase del operando
+     */
+    public static int clase(long operando) {
+        return (int) (operando >>> 32);
+    }
+
+    /**
+     * Obtiene el valor (índice o constante) del operando
+     */
+    public static int valor(long operando) {
+        return (int) operando;
+    }
+
+    public static float valorFlotante(long operando) {
+        return Float.intBitsToFloat((int) operando);
+    }
+
+    public static boolean esVacio(long operando) {
+        return clase(operando) == NINGUNO;
+    }
+
+    public static boolean esTemporal(long operando) {
+        return clase(operando) == TEMPORAL;
+    }
+
+    public static boolean esVariable(long operando) {
+        return clase(operando) == VARIABLE;
+    }
+
+    public static boolean esEntero(long operando) {
+        return clase(operando) == ENTERO;
+    }
+
+    /**
+     * Verifica si el operando es una constante (entera, flotante o cadena)
+     */
+    public static boolean esConstante(long operando) {
+        int clase = clase(operando);
+        return clase == ENTERO || clase == FLOTANTE || clase == CADENA;
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+
+/**
+ * Optimizaciones del código intermedio, entre el parser y el generador MIPS.
+ *
+ * Cada función se copia a una lista propia, se optimiza ahí (los pasos pueden quitar y
+ * agregar cuádruplos sin mover el resto del programa) y al final se arma el código
+ * nuevo de una vez. El código fuera de funciones se deja como está.
+ *
+ * Pasos por nivel:
+ *   0: ninguno
+ *   1: propagación de constantes, numeración de valores local, propagación de copias
+ *      (y otra vez constantes, que las copias dejan a la vista), movimiento de
+ *      invariantes fuera de los ciclos, reducción de fuerza de las variables de
+ *      inducción y eliminación de código muerto
+ *   2: antes que nada la expansión en línea de las funciones chicas sobre todo el
+ *      programa; después lo mismo que en 1, y antes de mover invariantes el
+ *      desenrollado completo de los ciclos chicos, con otra pasada de constantes,
+ *      valores y copias sobre las copias
+ */
+public class Optimizador {
+
+    private final int nivel;
+    private final PropagacionConstantes constantes = new PropagacionConstantes();
+    private final NumeracionValores valores = new NumeracionValores();
+    private final PropagacionCopias copias = new PropagacionCopias();
+    private final MovimientoInvariantes invariantes = new MovimientoInvariantes();
+    private final Desenrollado desenrollado = new Desenrollado();
+    private final ReduccionInduccion induccion = new ReduccionInduccion();
+    private final EliminacionCodigoMuerto codigoMuerto = new EliminacionCodigoMuerto();
+    private final ExpansionEnLinea expansion = new ExpansionEnLinea();
+
+    public Optimizador(int nivel) {
+        this.nivel = nivel;
+    }
+
+    /**
+     * Expansión en línea del nivel 2, con las llamadas expandidas por función
+     */
+    public ExpansionEnLinea getExpansion() {
+        return expansion;
+    }
+
+    /**
+     * Optimiza el programa en su lugar
+     */
+    public void optimizar(ProgramaIR programa) {
+        if (nivel <= 0) {
+            return;
+        }
+        if (nivel >= 2) {
+            expansion.optimizar(programa);
+        }
+        ArrayList<Cuadruplo> codigo = programa.getCuadruplos();
+        ArrayList<Cuadruplo> resultado = new ArrayList<>(codigo.size());
+        ArrayList<Cuadruplo> funcion = new ArrayList<>();
+        int inicio = 0;
+        while (inicio < codigo.size()) {
+            int fin = programa.finDeFuncion(inicio);
+            if (codigo.get(inicio).op == Operacion.FUNCION) {
+                funcion.clear();
+                funcion.addAll(codigo.subList(inicio, fin));
+                optimizarFuncion(programa, funcion);
+                resultado.addAll(funcion);
+            } else {
+                resultado.addAll(codigo.subList(inicio, fin));
+            }
+            inicio = fin;
+        }
+        programa.setCuadruplos(resultado);
+    }
+
+    private void optimizarFuncion(ProgramaIR programa, ArrayList<Cuadruplo> funcion) {
+        constantes.optimizar(programa, funcion);
+        valores.optimizar(programa, funcion);
+        if (copias.optimizar(programa, funcion)) {
+            constantes.optimizar(programa, funcion);
+        }
+        if (nivel >= 2 && desenrollado.optimizar(programa, funcion)) {
+            constantes.optimizar(programa, funcion);
+            valores.optimizar(programa, funcion);
+            if (copias.optimizar(programa, funcion)) {
+                constantes.optimizar(programa, funcion);
+            }
+        }
+        invariantes.optimizar(programa, funcion);
+        if (induccion.optimizar(programa, funcion)) {
+            copias.optimizar(programa, funcion);
+            constantes.optimizar(programa, funcion);
+        }
+        codigoMuerto.optimizar(programa, funcion);
+    }
+}
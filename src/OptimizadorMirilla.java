@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Optimizador de mirilla (peephole) sobre la sección .text ya generada.
+ *
+ * El texto se separa en InstruccionMIPS y las instrucciones se pasan una a una a la
+ * salida. Después de agregar cada una se prueban las reglas sobre el final de la salida;
+ * cuando una se aplica se vuelven a probar todas, porque un reemplazo puede dejar a la
+ * vista otro patrón. Así cada instrucción se mira unas pocas veces y el costo es lineal.
+ *
+ * Reglas por defecto:
+ *   - guardar y cargar: sw $r, x seguido de lw $q, x se vuelve move $q, $r
+ *   - salto al siguiente: j L (o un branch a L) justo antes de L: se quita
+ *   - move al mismo registro: move $r, $r se quita
+ *   - suma inmediata: li $v1, k seguido de add $d, $b, $v1 se vuelve addi $d, $b, k
+ */
+public class OptimizadorMirilla {
+
+    private final List<ReglaMirilla> reglas = new ArrayList<>();
+
+    /**
+     * Optimizador con las reglas por defecto
+     */
+    public static OptimizadorMirilla conReglasPorDefecto() {
+        OptimizadorMirilla mirilla = new OptimizadorMirilla();
+        mirilla.agregarRegla(new GuardarYCargar());
+        mirilla.agregarRegla(new SaltoAlSiguiente());
+        mirilla.agregarRegla(new MoverAlMismo());
+        mirilla.agregarRegla(new SumaInmediata());
+        return mirilla;
+    }
+
+    public void agregarRegla(ReglaMirilla regla) {
+        reglas.add(regla);
+    }
+
+    public List<ReglaMirilla> getReglas() {
+        return reglas;
+    }
+
+    /**
+     * Optimiza el texto de la sección .text (una instrucción por línea)
+     */
+    public String optimizar(String codigo) {
+        String[] lineas = codigo.split("\n", -1);
+        List<InstruccionMIPS> entrada = new ArrayList<>(lineas.length);
+        // El último elemento es lo que sigue al último salto de línea
+        for (int i = 0; i < lineas.length - 1; i++) {
+            entrada.add(InstruccionMIPS.desdeLinea(lineas[i]));
+        }
+        StringBuilder sb = new StringBuilder(codigo.length());
+        for (InstruccionMIPS instruccion : optimizar(entrada)) {
+            sb.append(instruccion).append('\n');
+        }
+        sb.append(lineas[lineas.length - 1]);
+        return sb.toString();
+    }
+
+    /**
+     * Optimiza una lista de instrucciones y retorna la lista nueva
+     */
+    public List<InstruccionMIPS> optimizar(List<InstruccionMIPS> entrada) {
+        List<InstruccionMIPS> salida = new ArrayList<>(entrada.size());
+        for (InstruccionMIPS instruccion : entrada) {
+            salida.add(instruccion);
+            boolean cambio = true;
+            while (cambio && !salida.isEmpty()) {
+                cambio = false;
+                for (ReglaMirilla regla : reglas) {
+                    if (regla.aplicar(salida)) {
+                        regla.contarAplicacion();
+                        cambio = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return salida;
+    }
+
+    /**
+     * Veces que se aplicó cada regla, una por línea
+     */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        for (ReglaMirilla regla : reglas) {
+            sb.append(regla.getNombre()).append(": ").append(regla.getAplicaciones()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // ===================== Reglas =====================
+
+    private static final List<String> SALTOS = Arrays.asList("j", "b", "beqz", "bnez", "blez", "bgtz", "bltz", "bgez", "beq", "bne");
+
+    /**
+     * sw $r, x seguido de lw $q, x: el valor ya está en $r. También s.s y l.s.
+     */
+    static class GuardarYCargar extends ReglaMirilla {
+        GuardarYCargar() {
+            super("guardar y cargar");
+        }
+
+        @Override
+        public boolean aplicar(List<InstruccionMIPS> salida) {
+            int n = salida.size();
+            if (n < 2) {
+                return false;
+            }
+            InstruccionMIPS carga = salida.get(n - 1);
+            InstruccionMIPS guardado = salida.get(n - 2);
+            boolean entero = carga.es("lw") && guardado.es("sw");
+            boolean flotante = carga.es("l.s") && guardado.es("s.s");
+            if (!(entero || flotante) || !carga.operando(1).equals(guardado.operando(1))) {
+                return false;
+            }
+            String destino = carga.operando(0);
+            String origen = guardado.operando(0);
+            if (destino.equals(origen)) {
+                salida.remove(n - 1);
+            } else {
+                salida.set(n - 1, InstruccionMIPS.instruccion(entero ? "move" : "mov.s", destino, origen));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Un salto a la etiqueta que viene justo después (solo con etiquetas o comentarios en
+     * medio) no hace nada; el branch condicional tampoco, porque comparar no tiene efectos.
+     */
+    static class SaltoAlSiguiente extends ReglaMirilla {
+        SaltoAlSiguiente() {
+            super("salto al siguiente");
+        }
+
+        @Override
+        public boolean aplicar(List<InstruccionMIPS> salida) {
+            int n = salida.size();
+            String etiqueta = salida.get(n - 1).getEtiqueta();
+            if (etiqueta == null) {
+                return false;
+            }
+            int i = anterior(salida, n);
+            if (i < 0) {
+                return false;
+            }
+            InstruccionMIPS salto = salida.get(i);
+            if (!SALTOS.contains(salto.getOperacion())
+                    || !salto.operando(salto.getCantidadOperandos() - 1).equals(etiqueta)) {
+                return false;
+            }
+            salida.remove(i);
+            return true;
+        }
+    }
+
+    /**
+     * move $r, $r y mov.s $f, $f
+     */
+    static class MoverAlMismo extends ReglaMirilla {
+        MoverAlMismo() {
+            super("move al mismo registro");
+        }
+
+        @Override
+        public boolean aplicar(List<InstruccionMIPS> salida) {
+            int n = salida.size();
+            InstruccionMIPS mov = salida.get(n - 1);
+            if ((mov.es("move") || mov.es("mov.s")) && mov.operando(0).equals(mov.operando(1))) {
+                salida.remove(n - 1);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * li $v1, k seguido de add $d, $b, $v1 con k de 16 bits. Solo con $v1, el auxiliar del
+     * generador que vive dentro de la traducción de un cuádruplo: después de la suma nadie
+     * lee el valor cargado. Los otros auxiliares ($a1-$a3) también llevan argumentos a las
+     * llamadas, así que su valor puede leerse más adelante.
+     */
+    static class SumaInmediata extends ReglaMirilla {
+        SumaInmediata() {
+            super("suma inmediata");
+        }
+
+        @Override
+        public boolean aplicar(List<InstruccionMIPS> salida) {
+            int n = salida.size();
+            if (n < 2) {
+                return false;
+            }
+            InstruccionMIPS suma = salida.get(n - 1);
+            InstruccionMIPS carga = salida.get(n - 2);
+            if (!suma.es("add") || !carga.es("li")) {
+                return false;
+            }
+            String auxiliar = carga.operando(0);
+            if (!auxiliar.equals("$v1")) {
+                return false;
+            }
+            String otro;
+            if (suma.operando(2).equals(auxiliar) && !suma.operando(1).equals(auxiliar)) {
+                otro = suma.operando(1);
+            } else if (suma.operando(1).equals(auxiliar) && !suma.operando(2).equals(auxiliar)) {
+                otro = suma.operando(2);
+            } else {
+                return false;
+            }
+            int k;
+            try {
+                k = Integer.parseInt(carga.operando(1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (k < Short.MIN_VALUE || k > Short.MAX_VALUE) {
+                return false;
+            }
+            salida.remove(n - 1);
+            salida.set(n - 2, InstruccionMIPS.instruccion("addi", suma.operando(0), otro, Integer.toString(k)));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,482 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * ProgramaIR contiene el código intermedio de un programa en forma de cuádruplos,
+ * junto con las tablas de temporales, variables, funciones, etiquetas y cadenas.
+ * El parser lo construye directamente y el generador MIPS lo consume sin tener que
+ * volver a interpretar texto.
+ */
+public class ProgramaIR {
+
+    /**
+     * Variable del programa (global, local o parámetro)
+     */
+    static class Variable {
+        String nombre;
+        String etiqueta;     // Nombre en la sección .data
+        TipoIR tipo;
+        int funcion;         // -1 si es global
+        int elementos;       // 0 si no es arreglo
+        int columnas;        // 0 si no es matriz
+        boolean parametro;
+
+        boolean esGlobal() {
+            return funcion < 0;
+        }
+
+        boolean esArreglo() {
+            return elementos > 0;
+        }
+    }
+
+    /**
+     * Función del programa. Las funciones externas (como print) no tienen cuerpo.
+     */
+    static class Funcion {
+        String nombre;
+        String etiqueta;
+        TipoIR tipoRetorno;
+        ArrayList<Integer> parametros = new ArrayList<>();
+        boolean externa;
+    }
+
+    /**
+     * Tabla de saltos de un switch denso: el valor v salta a etiquetas[v - minimo] si está
+     * en el rango y a porDefecto si no. Los huecos del rango apuntan a porDefecto.
+     */
+    static class TablaSaltos {
+        int minimo;
+        int[] etiquetas;
+        int porDefecto;
+
+        /**
+         * Etiqueta a la que salta el valor
+         */
+        int destino(int valor) {
+            long i = (long) valor - minimo;
+            return i >= 0 && i < etiquetas.length ? etiquetas[(int) i] : porDefecto;
+        }
+    }
+
+    private final ArrayList<Cuadruplo> cuadruplos = new ArrayList<>();
+    // Código de las declaraciones globales, se mueve al inicio de main al cerrar el programa
+    private final ArrayList<Cuadruplo> inicializacionGlobal = new ArrayList<>();
+    private ArrayList<Cuadruplo> destino = inicializacionGlobal;
+
+    // Tipo de cada temporal, el índice es el número del temporal (t1, t2, ...)
+    private final ArrayList<TipoIR> tiposTemporales = new ArrayList<>();
+
+    private final ArrayList<Variable> variables = new ArrayList<>();
+    private final HashMap<String, Integer> indiceVariables = new HashMap<>();
+
+    private final ArrayList<Funcion> funciones = new ArrayList<>();
+    private final HashMap<String, Integer> indiceFunciones = new HashMap<>();
+
+    private final ArrayList<String> etiquetas = new ArrayList<>();
+    private final ArrayList<TablaSaltos> tablas = new ArrayList<>();
+
+    private final ArrayList<String> cadenas = new ArrayList<>();
+    private final HashMap<String, Integer> indiceCadenas = new HashMap<>();
+
+    private int funcionActual = -1;
+
+    public ProgramaIR() {
+        tiposTemporales.add(null); // t0 no se usa
+    }
+
+    // ===================== Emisión =====================
+
+    /**
+     * Agrega un cuádruplo al final del código actual
+     */
+    public Cuadruplo emitir(Operacion op, long resultado, long arg1, long arg2) {
+        Cuadruplo c = new Cuadruplo(op, resultado, arg1, arg2);
+        destino.add(c);
+        return c;
+    }
+
+    /**
+     * Posición actual en el código, para poder extraer lo emitido a partir de ella
+     */
+    public int marca() {
+        return destino.size();
+    }
+
+    /**
+     * Quita del código los cuádruplos emitidos desde la marca dada y los retorna.
+     * Se usa para reubicar código, por ejemplo el incremento de un for después del cuerpo.
+     */
+    public ArrayList<Cuadruplo> extraer(int desde) {
+        List<Cuadruplo> rango = destino.subList(desde, destino.size());
+        ArrayList<Cuadruplo> extraidos = new ArrayList<>(rango);
+        rango.clear();
+        return extraidos;
+    }
+
+    /**
+     * Agrega al código actual cuádruplos extraídos previamente
+     */
+    public void agregar(List<Cuadruplo> codigo) {
+        destino.addAll(codigo);
+    }
+
+    /**
+     * Termina la construcción del programa: el código de las declaraciones globales
+     * se coloca al inicio de main para que se ejecute antes que el resto.
+     */
+    public void cerrar() {
+        if (inicializacionGlobal.isEmpty()) {
+            return;
+        }
+        int posicion = 0;
+        Integer main = indiceFunciones.get("main");
+        if (main != null) {
+            for (int i = 0; i < cuadruplos.size(); i++) {
+                Cuadruplo c = cuadruplos.get(i);
+                if (c.op == Operacion.FUNCION && Operando.valor(c.arg1) == main) {
+                    posicion = i + 1;
+                    break;
+                }
+            }
+        }
+        cuadruplos.addAll(posicion, inicializacionGlobal);
+        inicializacionGlobal.clear();
+    }
+
+    public ArrayList<Cuadruplo> getCuadruplos() {
+        return cuadruplos;
+    }
+
+    /**
+     * Reemplaza todo el código, por ejemplo con el resultado de las optimizaciones
+     */
+    public void setCuadruplos(List<Cuadruplo> codigo) {
+        if (codigo != cuadruplos) {
+            cuadruplos.clear();
+            cuadruplos.addAll(codigo);
+        }
+    }
+
+    /**
+     * Fin (exclusivo) de la función que empieza en inicio, o del tramo de código fuera de
+     * funciones que empieza ahí
+     */
+    public int finDeFuncion(int inicio) {
+        boolean esFuncion = cuadruplos.get(inicio).op == Operacion.FUNCION;
+        for (int i = inicio + 1; i < cuadruplos.size(); i++) {
+            Operacion op = cuadruplos.get(i).op;
+            if (esFuncion && op == Operacion.FIN_FUNCION) {
+                return i + 1;
+            }
+            if (!esFuncion && op == Operacion.FUNCION) {
+                return i;
+            }
+        }
+        return cuadruplos.size();
+    }
+
+    // ===================== Temporales =====================
+
+    /**
+     * Crea un temporal nuevo del tipo dado y retorna su número
+     */
+    public int nuevoTemporal(TipoIR tipo) {
+        tiposTemporales.add(tipo);
+        return tiposTemporales.size() - 1;
+    }
+
+    public TipoIR tipoTemporal(int numero) {
+        TipoIR tipo = tiposTemporales.get(numero);
+        return tipo != null ? tipo : TipoIR.ENTERO;
+    }
+
+    /**
+     * Cantidad de temporales, incluido el t0 que no se usa
+     */
+    public int getCantidadTemporales() {
+        return tiposTemporales.size();
+    }
+
+    /**
+     * Obtiene el tipo de cualquier operando
+     */
+    public TipoIR tipoDe(long operando) {
+        switch (Operando.clase(operando)) {
+            case Operando.TEMPORAL:
+                return tipoTemporal(Operando.valor(operando));
+            case Operando.VARIABLE:
+                return variables.get(Operando.valor(operando)).tipo;
+            case Operando.FLOTANTE:
+                return TipoIR.FLOTANTE;
+            case Operando.CADENA:
+                return TipoIR.CADENA;
+            default:
+                return TipoIR.ENTERO;
+        }
+    }
+
+    // ===================== Variables =====================
+
+    /**
+     * Declara una variable en la función actual (o global si no hay función abierta).
+     * Si ya existe una variable con ese nombre en el mismo ámbito se reutiliza.
+     * @param elementos cantidad de elementos si es arreglo, 0 si no lo es
+     * @param columnas cantidad de columnas si es matriz, 0 si no lo es
+     */
+    public int declararVariable(String nombre, TipoIR tipo, int elementos, int columnas) {
+        String clave = funcionActual + ":" + nombre;
+        Integer existente = indiceVariables.get(clave);
+        if (existente != null) {
+            return existente;
+        }
+        Variable v = new Variable();
+        v.nombre = nombre;
+        v.tipo = tipo;
+        v.funcion = funcionActual;
+        v.elementos = elementos;
+        v.columnas = columnas;
+        v.etiqueta = (funcionActual < 0 ? "g" : funciones.get(funcionActual).etiqueta) + "_" + nombre;
+        variables.add(v);
+        indiceVariables.put(clave, variables.size() - 1);
+        return variables.size() - 1;
+    }
+
+    /**
+     * Declara un parámetro de la función actual
+     */
+    public int declararParametro(String nombre, TipoIR tipo) {
+        int id = declararVariable(nombre, tipo, 0, 0);
+        variables.get(id).parametro = true;
+        if (funcionActual >= 0) {
+            funciones.get(funcionActual).parametros.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Busca una variable por nombre, primero en la función actual y luego en las globales.
+     * @return el id de la variable o -1 si no existe
+     */
+    public int buscarVariable(String nombre) {
+        Integer id = indiceVariables.get(funcionActual + ":" + nombre);
+        if (id == null) {
+            id = indiceVariables.get("-1:" + nombre);
+        }
+        return id != null ? id : -1;
+    }
+
+    public Variable getVariable(int id) {
+        return variables.get(id);
+    }
+
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    // ===================== Funciones =====================
+
+    /**
+     * Abre una función nueva: a partir de aquí el código emitido y las variables
+     * declaradas le pertenecen.
+     */
+    public int abrirFuncion(String nombre, TipoIR tipoRetorno) {
+        Funcion f = new Funcion();
+        f.nombre = nombre;
+        f.tipoRetorno = tipoRetorno;
+        f.etiqueta = nombre.equals("main") ? "main" : "fn_" + nombre;
+        if (indiceFunciones.containsKey(nombre) && !funciones.get(indiceFunciones.get(nombre)).externa) {
+            // Función duplicada (ya reportada por el parser), se le da una etiqueta distinta
+            f.etiqueta = f.etiqueta + "_" + funciones.size();
+        } else {
+            indiceFunciones.put(nombre, funciones.size());
+        }
+        funciones.add(f);
+        funcionActual = funciones.size() - 1;
+        destino = cuadruplos;
+        return funcionActual;
+    }
+
+    /**
+     * Cierra la función actual, lo que se emita después es código global
+     */
+    public void cerrarFuncion() {
+        funcionActual = -1;
+        destino = inicializacionGlobal;
+    }
+
+    /**
+     * Busca una función por nombre. Si no existe se registra como externa
+     * (por ejemplo print, o una función que se declara más adelante).
+     */
+    public int buscarFuncion(String nombre) {
+        Integer id = indiceFunciones.get(nombre);
+        if (id != null) {
+            return id;
+        }
+        Funcion f = new Funcion();
+        f.nombre = nombre;
+        f.etiqueta = "fn_" + nombre;
+        f.tipoRetorno = TipoIR.ENTERO;
+        f.externa = true;
+        funciones.add(f);
+        indiceFunciones.put(nombre, funciones.size() - 1);
+        return funciones.size() - 1;
+    }
+
+    public Funcion getFuncion(int id) {
+        return funciones.get(id);
+    }
+
+    public List<Funcion> getFunciones() {
+        return funciones;
+    }
+
+    public int getFuncionActual() {
+        return funcionActual;
+    }
+
+    // ===================== Etiquetas y cadenas =====================
+
+    /**
+     * Crea una etiqueta nueva cuyo nombre es el prefijo seguido de su id
+     */
+    public int nuevaEtiqueta(String prefijo) {
+        etiquetas.add(prefijo + etiquetas.size());
+        return etiquetas.size() - 1;
+    }
+
+    public String nombreEtiqueta(int id) {
+        return etiquetas.get(id);
+    }
+
+    public int getCantidadEtiquetas() {
+        return etiquetas.size();
+    }
+
+    /**
+     * Registra una tabla de saltos y retorna su número, que va en arg2 de SALTO_TABLA
+     */
+    public int agregarTabla(TablaSaltos tabla) {
+        tablas.add(tabla);
+        return tablas.size() - 1;
+    }
+
+    public TablaSaltos getTabla(int id) {
+        return tablas.get(id);
+    }
+
+    public List<TablaSaltos> getTablas() {
+        return tablas;
+    }
+
+    /**
+     * Agrega una cadena literal a la tabla de cadenas y retorna su índice
+     */
+    public int agregarCadena(String valor) {
+        Integer indice = indiceCadenas.get(valor);
+        if (indice != null) {
+            return indice;
+        }
+        cadenas.add(valor);
+        indiceCadenas.put(valor, cadenas.size() - 1);
+        return cadenas.size() - 1;
+    }
+
+    public List<String> getCadenas() {
+        return cadenas;
+    }
+
+    // ===================== Volcado de texto =====================
+
+    /**
+     * Texto de un operando para el volcado del código intermedio
+     */
+    public String formatearOperando(long operando) {
+        int valor = Operando.valor(operando);
+        switch (Operando.clase(operando)) {
+            case Operando.TEMPORAL:
+                return "t" + valor;
+            case Operando.VARIABLE:
+                return variables.get(valor).nombre;
+            case Operando.ENTERO:
+                return String.valueOf(valor);
+            case Operando.FLOTANTE:
+                return String.valueOf(Operando.valorFlotante(operando));
+            case Operando.CADENA:
+                return "\"" + cadenas.get(valor) + "\"";
+            case Operando.ETIQUETA:
+                return etiquetas.get(valor);
+            case Operando.FUNCION:
+                return funciones.get(valor).nombre;
+            default:
+                return "_";
+        }
+    }
+
+    /**
+     * Texto de un cuádruplo en formato de código de 3 direcciones
+     */
+    public String formatear(Cuadruplo c) {
+        String res = formatearOperando(c.resultado);
+        String a1 = formatearOperando(c.arg1);
+        String a2 = formatearOperando(c.arg2);
+        if (c.op.esBinaria()) {
+            return res + " = " + a1 + " " + c.op.getSimbolo() + " " + a2 + ";";
+        }
+        switch (c.op) {
+            case COPIA:
+                return res + " = " + a1 + ";";
+            case NOT:
+            case NEGATIVO:
+                return res + " = " + c.op.getSimbolo() + a1 + ";";
+            case CARGAR_ARREGLO:
+                return res + " = " + a1 + "[" + a2 + "];";
+            case GUARDAR_ARREGLO:
+                return res + "[" + a1 + "] = " + a2 + ";";
+            case ETIQUETA:
+                return a1 + ":";
+            case SALTO:
+                return "goto " + a1 + ";";
+            case SALTO_SI:
+            case SALTO_SI_FALSO:
+                return c.op.getSimbolo() + " " + a1 + " goto " + a2 + ";";
+            case SALTO_TABLA:
+                return formatearTabla(a1, Operando.valor(c.arg2));
+            case LLAMADA:
+                return (Operando.esVacio(c.resultado) ? "" : res + " = ") + "call " + a1 + ", " + a2 + ";";
+            case RETORNO:
+                return Operando.esVacio(c.arg1) ? "return;" : "return " + a1 + ";";
+            case FUNCION:
+                return "funcion " + a1 + ":";
+            case FIN_FUNCION:
+                return "fin_funcion " + a1 + ";";
+            case LEER:
+                return "leer " + res + ";";
+            default:
+                return c.op.getSimbolo() + " " + a1 + ";";
+        }
+    }
+
+    // goto tabla[x - minimo] {L1, L2, ...} else Ldefecto;
+    private String formatearTabla(String valor, int id) {
+        TablaSaltos tabla = tablas.get(id);
+        StringBuilder sb = new StringBuilder("goto tabla" + id + "[" + valor + " - " + tabla.minimo + "] {");
+        for (int i = 0; i < tabla.etiquetas.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(etiquetas.get(tabla.etiquetas[i]));
+        }
+        return sb.append("} else ").append(etiquetas.get(tabla.porDefecto)).append(";").toString();
+    }
+
+    /**
+     * Retorna el código intermedio como líneas de texto (para depuración)
+     */
+    public List<String> getLineas() {
+        List<String> lineas = new ArrayList<>(cuadruplos.size());
+        for (Cuadruplo c : cuadruplos) {
+            lineas.add(c.op == Operacion.ETIQUETA || c.op == Operacion.FUNCION ? formatear(c) : "    " + formatear(c));
+        }
+        return lineas;
+    }
+}
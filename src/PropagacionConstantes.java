@@ -0,0 +1,455 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Propagación de constantes condicional dispersa (SCCP, Wegman-Zadeck) sobre los
+ * temporales de una función.
+ *
+ * Cada temporal empieza indefinido y solo puede bajar a una constante y luego a "varía".
+ * Como el código intermedio no está en SSA, el valor de un temporal es el encuentro de
+ * todas sus definiciones en bloques ejecutables. Un bloque es ejecutable si se llega a él
+ * desde la entrada por saltos que pueden tomarse: un if con condición constante solo
+ * habilita uno de sus dos sucesores y un goto_tabla con índice constante solo su destino. Dos listas de trabajo (bloques nuevos y usos de los
+ * temporales que bajaron) llevan el análisis hasta el punto fijo.
+ *
+ * Después se reescribe: las operaciones con resultado constante pasan a ser t = constante,
+ * los usos de temporales constantes se reemplazan por la constante y los if con condición
+ * constante se vuelven goto o desaparecen. Lo que queda sin usar o sin alcanzar lo quita
+ * EliminacionCodigoMuerto.
+ *
+ * Solo se pliegan enteros (también char y bool): los flotantes, cadenas, variables,
+ * llamadas y arreglos varían. La división o el módulo entre cero se dejan para la ejecución.
+ */
+public class PropagacionConstantes {
+
+    private static final byte INDEFINIDO = 0;
+    private static final byte CONSTANTE = 1;
+    private static final byte VARIA = 2;
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    // Por temporal del programa: índice local o -1
+    private int[] local = new int[0];
+    private int[] temporales = new int[64];
+    private int cantidad;
+
+    // Por índice local: estado en el retículo y valor si es constante
+    private byte[] estado = new byte[64];
+    private int[] valor = new int[64];
+
+    // Posiciones que leen cada temporal (formato compacto por índice local)
+    private int[] inicioUsos = new int[65];
+    private int[] usos = new int[128];
+
+    private boolean[] ejecutable = new boolean[16];
+    private int[] bloquesPendientes = new int[16];
+    private int cantidadBloquesPendientes;
+    private int[] usosPendientes = new int[64];
+    private int cantidadUsosPendientes;
+
+    // Resultado de plegar
+    private int plegado;
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        grafo.construir(programa, codigo, 0, codigo.size());
+        numerar();
+        propagar();
+        return reescribir();
+    }
+
+    // ===================== Numeración y usos =====================
+
+    private void numerar() {
+        if (local.length < programa.getCantidadTemporales()) {
+            local = new int[Math.max(programa.getCantidadTemporales(), 2 * local.length)];
+            Arrays.fill(local, -1);
+        } else {
+            for (int i = 0; i < cantidad; i++) {
+                local[temporales[i]] = -1;
+            }
+        }
+        cantidad = 0;
+        int leidos = 0;
+        for (Cuadruplo c : codigo) {
+            numerarOperando(c.resultado);
+            numerarOperando(c.arg1);
+            numerarOperando(c.arg2);
+            leidos += (Operando.esTemporal(c.arg1) ? 1 : 0) + (Operando.esTemporal(c.arg2) ? 1 : 0);
+        }
+        if (estado.length < cantidad) {
+            estado = new byte[Math.max(cantidad, 2 * estado.length)];
+            valor = new int[estado.length];
+            inicioUsos = new int[estado.length + 1];
+        }
+        Arrays.fill(estado, 0, cantidad, INDEFINIDO);
+
+        // Cuenta, acumula y ubica los usos de cada temporal
+        Arrays.fill(inicioUsos, 0, cantidad + 1, 0);
+        for (Cuadruplo c : codigo) {
+            contarUso(c.arg1);
+            contarUso(c.arg2);
+        }
+        for (int t = 0; t < cantidad; t++) {
+            inicioUsos[t + 1] += inicioUsos[t];
+        }
+        if (usos.length < leidos) {
+            usos = new int[Math.max(leidos, 2 * usos.length)];
+        }
+        int[] siguiente = Arrays.copyOf(inicioUsos, cantidad);
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo c = codigo.get(i);
+            if (Operando.esTemporal(c.arg1)) {
+                usos[siguiente[local[Operando.valor(c.arg1)]]++] = i;
+            }
+            if (Operando.esTemporal(c.arg2)) {
+                usos[siguiente[local[Operando.valor(c.arg2)]]++] = i;
+            }
+        }
+    }
+
+    private void numerarOperando(long operando) {
+        if (!Operando.esTemporal(operando)) {
+            return;
+        }
+        int t = Operando.valor(operando);
+        if (local[t] < 0) {
+            local[t] = cantidad;
+            if (cantidad == temporales.length) {
+                temporales = Arrays.copyOf(temporales, cantidad * 2);
+            }
+            temporales[cantidad++] = t;
+        }
+    }
+
+    private void contarUso(long operando) {
+        if (Operando.esTemporal(operando)) {
+            inicioUsos[local[Operando.valor(operando)] + 1]++;
+        }
+    }
+
+    // ===================== Propagación =====================
+
+    private void propagar() {
+        int bloques = grafo.getCantidadBloques();
+        if (ejecutable.length < bloques) {
+            ejecutable = new boolean[Math.max(bloques, 2 * ejecutable.length)];
+        }
+        Arrays.fill(ejecutable, 0, bloques, false);
+        cantidadBloquesPendientes = 0;
+        cantidadUsosPendientes = 0;
+        habilitar(0);
+        while (true) {
+            while (cantidadBloquesPendientes > 0 || cantidadUsosPendientes > 0) {
+                if (cantidadBloquesPendientes > 0) {
+                    visitarBloque(bloquesPendientes[--cantidadBloquesPendientes]);
+                } else {
+                    int i = usosPendientes[--cantidadUsosPendientes];
+                    if (ejecutable[grafo.bloqueDe(i)]) {
+                        evaluar(i);
+                    }
+                }
+            }
+            // Una condición que sigue indefinida lee un temporal sin definir: puede ir a
+            // cualquier lado
+            if (!liberarCondicionesIndefinidas()) {
+                return;
+            }
+        }
+    }
+
+    private boolean liberarCondicionesIndefinidas() {
+        boolean cambio = false;
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            Cuadruplo c = codigo.get(grafo.fin(b) - 1);
+            if (ejecutable[b] && esCondicional(c) && Operando.esTemporal(c.arg1)
+                    && estado[local[Operando.valor(c.arg1)]] == INDEFINIDO) {
+                bajar(local[Operando.valor(c.arg1)], VARIA, 0);
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    private void habilitar(int bloque) {
+        if (bloque < 0 || ejecutable[bloque]) {
+            return;
+        }
+        ejecutable[bloque] = true;
+        if (cantidadBloquesPendientes == bloquesPendientes.length) {
+            bloquesPendientes = Arrays.copyOf(bloquesPendientes, cantidadBloquesPendientes * 2);
+        }
+        bloquesPendientes[cantidadBloquesPendientes++] = bloque;
+    }
+
+    private void visitarBloque(int b) {
+        for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+            evaluar(i);
+        }
+        if (!esCondicional(codigo.get(grafo.fin(b) - 1))) {
+            habilitarSucesores(b);
+        }
+    }
+
+    private void habilitarSucesores(int b) {
+        for (int k = 0; k < grafo.cantidadSucesores(b); k++) {
+            habilitar(grafo.sucesor(b, k));
+        }
+    }
+
+    // Saltos que dependen del valor de arg1
+    private static boolean esCondicional(Cuadruplo c) {
+        return c.op == Operacion.SALTO_SI || c.op == Operacion.SALTO_SI_FALSO || c.op == Operacion.SALTO_TABLA;
+    }
+
+    private void evaluar(int i) {
+        Cuadruplo c = codigo.get(i);
+        if (esCondicional(c)) {
+            evaluarSalto(i, c);
+            return;
+        }
+        if (!Operando.esTemporal(c.resultado) || !defineResultado(c.op)) {
+            return;
+        }
+        int d = local[Operando.valor(c.resultado)];
+        if (!esEntero(programa.tipoTemporal(Operando.valor(c.resultado)))) {
+            bajar(d, VARIA, 0);
+            return;
+        }
+        byte e1 = estadoDe(c.arg1);
+        byte e2 = estadoDe(c.arg2);
+        int v1 = valorDe(c.arg1);
+        int v2 = valorDe(c.arg2);
+        switch (c.op) {
+            case COPIA:
+                bajar(d, e1, v1);
+                return;
+            case NOT:
+                bajar(d, e1, v1 == 0 ? 1 : 0);
+                return;
+            case NEGATIVO:
+                bajar(d, e1, -v1);
+                return;
+            default:
+                break;
+        }
+        if (!c.op.esBinaria()) {
+            // Llamadas, lecturas y cargas de arreglos
+            bajar(d, VARIA, 0);
+            return;
+        }
+        // x * 0 y x && 0 son 0 aunque x varíe
+        if ((c.op == Operacion.MULTIPLICACION || c.op == Operacion.AND)
+                && ((e1 == CONSTANTE && v1 == 0) || (e2 == CONSTANTE && v2 == 0))) {
+            bajar(d, CONSTANTE, 0);
+        } else if (e1 == VARIA || e2 == VARIA) {
+            bajar(d, VARIA, 0);
+        } else if (e1 == CONSTANTE && e2 == CONSTANTE) {
+            if (plegar(c.op, v1, v2)) {
+                bajar(d, CONSTANTE, plegado);
+            } else {
+                bajar(d, VARIA, 0);
+            }
+        }
+    }
+
+    private void evaluarSalto(int i, Cuadruplo c) {
+        byte e = estadoDe(c.arg1);
+        if (e == INDEFINIDO) {
+            return;
+        }
+        int b = grafo.bloqueDe(i);
+        if (c.op == Operacion.SALTO_TABLA) {
+            if (e == VARIA) {
+                habilitarSucesores(b);
+            } else {
+                habilitar(grafo.bloqueDeEtiqueta(destinoTabla(c)));
+            }
+            return;
+        }
+        int destino = grafo.bloqueDeEtiqueta(Operando.valor(c.arg2));
+        int siguiente = b + 1 < grafo.getCantidadBloques() ? b + 1 : -1;
+        if (e == VARIA) {
+            habilitar(destino);
+            habilitar(siguiente);
+        } else if ((valorDe(c.arg1) != 0) == (c.op == Operacion.SALTO_SI)) {
+            habilitar(destino);
+        } else {
+            habilitar(siguiente);
+        }
+    }
+
+    // Etiqueta a la que salta un goto_tabla con índice constante
+    private int destinoTabla(Cuadruplo c) {
+        return programa.getTabla(Operando.valor(c.arg2)).destino(valorDe(c.arg1));
+    }
+
+    // Encuentro del valor actual del temporal con el nuevo; si baja, se revisan sus usos
+    private void bajar(int t, byte nuevoEstado, int nuevoValor) {
+        byte actual = estado[t];
+        if (nuevoEstado == INDEFINIDO || actual == VARIA) {
+            return;
+        }
+        if (actual == CONSTANTE && (nuevoEstado == VARIA || valor[t] != nuevoValor)) {
+            estado[t] = VARIA;
+        } else if (actual == INDEFINIDO) {
+            estado[t] = nuevoEstado;
+            valor[t] = nuevoValor;
+        } else {
+            return;
+        }
+        for (int k = inicioUsos[t]; k < inicioUsos[t + 1]; k++) {
+            if (cantidadUsosPendientes == usosPendientes.length) {
+                usosPendientes = Arrays.copyOf(usosPendientes, cantidadUsosPendientes * 2);
+            }
+            usosPendientes[cantidadUsosPendientes++] = usos[k];
+        }
+    }
+
+    private byte estadoDe(long operando) {
+        switch (Operando.clase(operando)) {
+            case Operando.ENTERO:
+                return CONSTANTE;
+            case Operando.TEMPORAL:
+                return estado[local[Operando.valor(operando)]];
+            default:
+                return VARIA;
+        }
+    }
+
+    private int valorDe(long operando) {
+        if (Operando.esTemporal(operando)) {
+            return valor[local[Operando.valor(operando)]];
+        }
+        return Operando.valor(operando);
+    }
+
+    private static boolean defineResultado(Operacion op) {
+        switch (op) {
+            case GUARDAR_ARREGLO:
+            case PARAMETRO:
+            case RETORNO:
+            case IMPRIMIR:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // Tipos que el generador guarda en registros enteros como números
+    private static boolean esEntero(TipoIR tipo) {
+        return tipo == TipoIR.ENTERO || tipo == TipoIR.BOOLEANO || tipo == TipoIR.CARACTER;
+    }
+
+    /**
+     * Calcula a op b como lo haría el código MIPS generado; deja el resultado en plegado.
+     * Retorna false si no se puede calcular en compilación.
+     */
+    private boolean plegar(Operacion op, int a, int b) {
+        switch (op) {
+            case SUMA: plegado = a + b; return true;
+            case RESTA: plegado = a - b; return true;
+            case MULTIPLICACION: plegado = a * b; return true;
+            case DIVISION:
+                if (b == 0) {
+                    return false;
+                }
+                plegado = a / b;
+                return true;
+            case MODULO:
+                if (b == 0) {
+                    return false;
+                }
+                plegado = a % b;
+                return true;
+            case POTENCIA:
+                // Igual que el ciclo de manejarPotencia: exponente <= 0 da 1
+                int resultado = 1;
+                for (int base = a, e = b; e > 0; e >>>= 1, base *= base) {
+                    if ((e & 1) != 0) {
+                        resultado *= base;
+                    }
+                }
+                plegado = resultado;
+                return true;
+            case MENOR: plegado = a < b ? 1 : 0; return true;
+            case MAYOR: plegado = a > b ? 1 : 0; return true;
+            case MENOR_IGUAL: plegado = a <= b ? 1 : 0; return true;
+            case MAYOR_IGUAL: plegado = a >= b ? 1 : 0; return true;
+            case IGUAL: plegado = a == b ? 1 : 0; return true;
+            case DISTINTO: plegado = a != b ? 1 : 0; return true;
+            // El generador traduce && y || con and/or de bits
+            case AND: plegado = a & b; return true;
+            case OR: plegado = a | b; return true;
+            default: return false;
+        }
+    }
+
+    // ===================== Reescritura =====================
+
+    private boolean reescribir() {
+        boolean cambio = false;
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            if (!ejecutable[b]) {
+                continue;
+            }
+            for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+                Cuadruplo c = codigo.get(i);
+                if (c.op == Operacion.SALTO_TABLA && estadoDe(c.arg1) == CONSTANTE) {
+                    codigo.set(i, new Cuadruplo(Operacion.SALTO, Operando.VACIO,
+                        Operando.etiqueta(destinoTabla(c)), Operando.VACIO));
+                    cambio = true;
+                    continue;
+                }
+                if (esCondicional(c) && estadoDe(c.arg1) == CONSTANTE) {
+                    boolean salta = (valorDe(c.arg1) != 0) == (c.op == Operacion.SALTO_SI);
+                    codigo.set(i, salta ? new Cuadruplo(Operacion.SALTO, Operando.VACIO, c.arg2, Operando.VACIO) : null);
+                    cambio = true;
+                    continue;
+                }
+                if (Operando.esTemporal(c.resultado) && defineResultado(c.op) && c.op != Operacion.LLAMADA
+                        && estado[local[Operando.valor(c.resultado)]] == CONSTANTE
+                        && !(c.op == Operacion.COPIA && Operando.esEntero(c.arg1))) {
+                    c.op = Operacion.COPIA;
+                    c.arg1 = Operando.entero(valor[local[Operando.valor(c.resultado)]]);
+                    c.arg2 = Operando.VACIO;
+                    cambio = true;
+                    continue;
+                }
+                long arg1 = sustituir(c, c.arg1);
+                long arg2 = sustituir(c, c.arg2);
+                if (arg1 != c.arg1 || arg2 != c.arg2) {
+                    c.arg1 = arg1;
+                    c.arg2 = arg2;
+                    cambio = true;
+                }
+            }
+        }
+        codigo.removeIf(Objects::isNull);
+        return cambio;
+    }
+
+    // La constante del temporal, si la tiene y el tipo no importa en ese lugar
+    private long sustituir(Cuadruplo c, long operando) {
+        if (!Operando.esTemporal(operando) || estadoDe(operando) != CONSTANTE) {
+            return operando;
+        }
+        // print escoge el syscall por el tipo del operando: un char debe seguir siendo char
+        if ((c.op == Operacion.PARAMETRO || c.op == Operacion.IMPRIMIR)
+                && programa.tipoTemporal(Operando.valor(operando)) == TipoIR.CARACTER) {
+            return operando;
+        }
+        return Operando.entero(valorDe(operando));
+    }
+}
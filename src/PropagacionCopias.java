@@ -0,0 +1,405 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Propagación de copias en una función del código intermedio.
+ *
+ * Una copia d = s, con d temporal o variable simple y s temporal o constante del mismo
+ * tipo, permite leer s donde se lee d mientras ninguna de las dos cambie. Las copias
+ * disponibles se calculan con un análisis hacia adelante sobre el GrafoFlujo, con
+ * conjuntos de bits (una copia por bit) que se intersectan en las uniones:
+ *   entrada[b] = intersección de salida[p] de los predecesores (vacía en la entrada)
+ *   salida[b] = generadas[b] | (entrada[b] & ~matadas[b])
+ * Escribir un nombre mata las copias que lo mencionan y una llamada mata las que escriben
+ * variables, porque puede cambiar cualquiera. Los argumentos (param) se reemplazan con
+ * las copias disponibles en la llamada, que es donde el generador los lee.
+ *
+ * Las cadenas como t2 = t1; x = t2; t3 = x quedan leyendo t1, y las copias que sobran las
+ * quita la eliminación de código muerto. Una copia que quedó como d = d se quita aquí.
+ * No se propagan variables como origen: leerlas es ir a memoria.
+ */
+public class PropagacionCopias {
+
+    // Largo máximo de una cadena de copias que se sigue al reemplazar un operando
+    private static final int MAX_CADENA = 8;
+    private static final int MAX_RONDAS = 3;
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    // Nombres: los temporales del programa y después las variables
+    private int temporales;
+
+    // Copias de la función: destino y origen originales, y copia de cada posición (o -1)
+    private long[] destinos = new long[64];
+    private long[] origenes = new long[64];
+    private int cantidad;
+    private int[] copiaEn = new int[0];
+
+    // Copias que menciona cada nombre, en formato compacto (inicioMenciones indexa menciones)
+    private int[] inicioMenciones = new int[0];
+    private int[] menciones = new int[128];
+
+    // Copias que escriben una variable; una llamada las mata todas
+    private long[] copiasDeVariables = new long[1];
+    private int palabras;
+
+    // Conjuntos por bloque, palabras longs cada uno
+    private long[] generadas = new long[0];
+    private long[] matadas = new long[0];
+    private long[] salida = new long[0];
+
+    // Posiciones de los param que esperan su llamada
+    private int[] pendientes = new int[16];
+
+    private int reemplazadas;
+    private boolean nuevasCopias;
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        int antes = reemplazadas;
+        boolean quitadas = false;
+        // Una copia t = x que pasó a leer un temporal es una copia nueva para la ronda siguiente
+        for (int ronda = 0; ronda < MAX_RONDAS; ronda++) {
+            nuevasCopias = false;
+            numerarCopias();
+            if (cantidad == 0) {
+                break;
+            }
+            grafo.construir(programa, codigo, 0, codigo.size());
+            // Si los conjuntos no caben, cada bloque empieza sin copias disponibles
+            long total = (long) grafo.getCantidadBloques() * palabras;
+            boolean global = total <= Vivacidad.MAX_PALABRAS;
+            if (global) {
+                preparar((int) total);
+                calcularBloques();
+                iterar();
+            }
+            if (reemplazar(global)) {
+                codigo.removeIf(Objects::isNull);
+                quitadas = true;
+            }
+            if (!nuevasCopias) {
+                break;
+            }
+        }
+        return quitadas || reemplazadas != antes;
+    }
+
+    /**
+     * Operandos reemplazados desde que se creó el paso
+     */
+    public int getReemplazadas() {
+        return reemplazadas;
+    }
+
+    // ===================== Copias =====================
+
+    private void numerarCopias() {
+        temporales = programa.getCantidadTemporales();
+        int nombres = temporales + programa.getVariables().size();
+        if (inicioMenciones.length < nombres + 1) {
+            inicioMenciones = new int[nombres + 1];
+        } else {
+            Arrays.fill(inicioMenciones, 0, nombres + 1, 0);
+        }
+        if (copiaEn.length < codigo.size()) {
+            copiaEn = new int[Math.max(codigo.size(), 2 * copiaEn.length)];
+        }
+
+        cantidad = 0;
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo c = codigo.get(i);
+            copiaEn[i] = -1;
+            if (!esCopiaPropagable(c)) {
+                continue;
+            }
+            if (cantidad == destinos.length) {
+                destinos = Arrays.copyOf(destinos, 2 * cantidad);
+                origenes = Arrays.copyOf(origenes, 2 * cantidad);
+            }
+            destinos[cantidad] = c.resultado;
+            origenes[cantidad] = c.arg1;
+            copiaEn[i] = cantidad++;
+            inicioMenciones[nombre(c.resultado) + 1]++;
+            if (Operando.esTemporal(c.arg1)) {
+                inicioMenciones[nombre(c.arg1) + 1]++;
+            }
+        }
+
+        for (int n = 0; n < nombres; n++) {
+            inicioMenciones[n + 1] += inicioMenciones[n];
+        }
+        if (menciones.length < inicioMenciones[nombres]) {
+            menciones = new int[Math.max(inicioMenciones[nombres], 2 * menciones.length)];
+        }
+        palabras = (cantidad + 63) >>> 6;
+        if (copiasDeVariables.length < palabras) {
+            copiasDeVariables = new long[Math.max(palabras, 2 * copiasDeVariables.length)];
+        } else {
+            Arrays.fill(copiasDeVariables, 0, palabras, 0L);
+        }
+        // inicioMenciones[n] sirve de cursor y al final queda en el inicio de n + 1
+        for (int k = 0; k < cantidad; k++) {
+            menciones[inicioMenciones[nombre(destinos[k])]++] = k;
+            if (Operando.esTemporal(origenes[k])) {
+                menciones[inicioMenciones[nombre(origenes[k])]++] = k;
+            }
+            if (Operando.esVariable(destinos[k])) {
+                copiasDeVariables[k >>> 6] |= 1L << k;
+            }
+        }
+        if (nombres > 1) {
+            System.arraycopy(inicioMenciones, 0, inicioMenciones, 1, nombres - 1);
+        }
+        inicioMenciones[0] = 0;
+    }
+
+    private boolean esCopiaPropagable(Cuadruplo c) {
+        if (c.op != Operacion.COPIA || c.resultado == c.arg1) {
+            return false;
+        }
+        long destino = c.resultado;
+        if (Operando.esVariable(destino)) {
+            if (programa.getVariable(Operando.valor(destino)).esArreglo()) {
+                return false;
+            }
+        } else if (!Operando.esTemporal(destino)) {
+            return false;
+        }
+        long origen = c.arg1;
+        int clase = Operando.clase(origen);
+        if (clase != Operando.TEMPORAL && clase != Operando.ENTERO && clase != Operando.FLOTANTE) {
+            return false;
+        }
+        // El tipo decide la instrucción (flotante o entera) y el syscall de imprimir
+        TipoIR tipoDestino = programa.tipoDe(destino);
+        TipoIR tipoOrigen = programa.tipoDe(origen);
+        return tipoDestino == tipoOrigen || (clase == Operando.ENTERO && tipoDestino == TipoIR.BOOLEANO);
+    }
+
+    private int nombre(long operando) {
+        return Operando.esTemporal(operando) ? Operando.valor(operando) : temporales + Operando.valor(operando);
+    }
+
+    // Nombre que escribe el cuádruplo, o -1
+    private int definicion(Cuadruplo c) {
+        switch (c.op) {
+            case GUARDAR_ARREGLO:
+            case SALTO_SI:
+            case SALTO_SI_FALSO:
+            case SALTO_TABLA:
+            case PARAMETRO:
+            case RETORNO:
+            case IMPRIMIR:
+                return -1;
+            default:
+                if (Operando.esTemporal(c.resultado) || Operando.esVariable(c.resultado)) {
+                    return nombre(c.resultado);
+                }
+                return -1;
+        }
+    }
+
+    // ===================== Flujo de datos =====================
+
+    private void preparar(int total) {
+        if (generadas.length < total) {
+            int n = Math.max(total, 2 * generadas.length);
+            generadas = new long[n];
+            matadas = new long[n];
+            salida = new long[n];
+        } else {
+            Arrays.fill(generadas, 0, total, 0L);
+            Arrays.fill(matadas, 0, total, 0L);
+        }
+    }
+
+    // Copias generadas y matadas por cada bloque
+    private void calcularBloques() {
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            int base = b * palabras;
+            for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+                Cuadruplo c = codigo.get(i);
+                int d = definicion(c);
+                if (d >= 0) {
+                    for (int m = inicioMenciones[d]; m < inicioMenciones[d + 1]; m++) {
+                        int k = menciones[m];
+                        generadas[base + (k >>> 6)] &= ~(1L << k);
+                        matadas[base + (k >>> 6)] |= 1L << k;
+                    }
+                }
+                if (c.op == Operacion.LLAMADA) {
+                    for (int w = 0; w < palabras; w++) {
+                        generadas[base + w] &= ~copiasDeVariables[w];
+                        matadas[base + w] |= copiasDeVariables[w];
+                    }
+                }
+                int k = copiaEn[i];
+                if (k >= 0) {
+                    generadas[base + (k >>> 6)] |= 1L << k;
+                }
+            }
+        }
+    }
+
+    // Punto fijo desde "todas disponibles" salvo en la entrada; hacia adelante en orden
+    private void iterar() {
+        int bloques = grafo.getCantidadBloques();
+        Arrays.fill(salida, 0, bloques * palabras, -1L);
+        long[] entra = new long[palabras];
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int b = 0; b < bloques; b++) {
+                calcularEntrada(b, entra);
+                int base = b * palabras;
+                for (int w = 0; w < palabras; w++) {
+                    long sale = generadas[base + w] | (entra[w] & ~matadas[base + w]);
+                    if (sale != salida[base + w]) {
+                        salida[base + w] = sale;
+                        cambio = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private void calcularEntrada(int b, long[] entra) {
+        int n = grafo.cantidadPredecesores(b);
+        if (b == 0 || n == 0) {
+            Arrays.fill(entra, 0L);
+            return;
+        }
+        Arrays.fill(entra, -1L);
+        for (int k = 0; k < n; k++) {
+            int base = grafo.predecesor(b, k) * palabras;
+            for (int w = 0; w < palabras; w++) {
+                entra[w] &= salida[base + w];
+            }
+        }
+    }
+
+    // ===================== Reemplazo =====================
+
+    private boolean reemplazar(boolean global) {
+        long[] disponibles = new long[palabras];
+        boolean quitadas = false;
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            if (global) {
+                calcularEntrada(b, disponibles);
+            } else {
+                Arrays.fill(disponibles, 0L);
+            }
+            int cantidadPendientes = 0;
+            for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+                Cuadruplo c = codigo.get(i);
+                switch (c.op) {
+                    case PARAMETRO:
+                        if (cantidadPendientes == pendientes.length) {
+                            pendientes = Arrays.copyOf(pendientes, 2 * cantidadPendientes);
+                        }
+                        pendientes[cantidadPendientes++] = i;
+                        break;
+                    case LLAMADA: {
+                        int n = Math.min(Operando.valor(c.arg2), cantidadPendientes);
+                        for (int k = cantidadPendientes - n; k < cantidadPendientes; k++) {
+                            Cuadruplo parametro = codigo.get(pendientes[k]);
+                            parametro.arg1 = reemplazo(parametro.arg1, disponibles);
+                        }
+                        cantidadPendientes -= n;
+                        break;
+                    }
+                    case CARGAR_ARREGLO:
+                        c.arg2 = reemplazo(c.arg2, disponibles);
+                        break;
+                    case GUARDAR_ARREGLO:
+                        c.arg1 = reemplazo(c.arg1, disponibles);
+                        c.arg2 = reemplazo(c.arg2, disponibles);
+                        break;
+                    case COPIA:
+                        c.arg1 = reemplazo(c.arg1, disponibles);
+                        nuevasCopias |= copiaEn[i] < 0 && esCopiaPropagable(c);
+                        break;
+                    case NOT:
+                    case NEGATIVO:
+                    case SALTO_SI:
+                    case SALTO_SI_FALSO:
+                    case SALTO_TABLA:
+                    case RETORNO:
+                    case IMPRIMIR:
+                        c.arg1 = reemplazo(c.arg1, disponibles);
+                        break;
+                    default:
+                        if (c.op.esBinaria()) {
+                            c.arg1 = reemplazo(c.arg1, disponibles);
+                            c.arg2 = reemplazo(c.arg2, disponibles);
+                        }
+                }
+                transferir(i, c, disponibles);
+                if (c.op == Operacion.COPIA && c.resultado == c.arg1) {
+                    codigo.set(i, null);
+                    quitadas = true;
+                }
+            }
+        }
+        return quitadas;
+    }
+
+    // Aplica el cuádruplo (con sus nombres originales) al conjunto de copias disponibles
+    private void transferir(int posicion, Cuadruplo c, long[] disponibles) {
+        int d = definicion(c);
+        if (d >= 0) {
+            for (int m = inicioMenciones[d]; m < inicioMenciones[d + 1]; m++) {
+                int k = menciones[m];
+                disponibles[k >>> 6] &= ~(1L << k);
+            }
+        }
+        if (c.op == Operacion.LLAMADA) {
+            for (int w = 0; w < palabras; w++) {
+                disponibles[w] &= ~copiasDeVariables[w];
+            }
+        }
+        int k = copiaEn[posicion];
+        if (k >= 0) {
+            disponibles[k >>> 6] |= 1L << k;
+        }
+    }
+
+    // Sigue las copias disponibles desde el operando hasta un temporal o constante final
+    private long reemplazo(long operando, long[] disponibles) {
+        long original = operando;
+        for (int paso = 0; paso < MAX_CADENA; paso++) {
+            if (!Operando.esTemporal(operando) && !Operando.esVariable(operando)) {
+                break;
+            }
+            int n = nombre(operando);
+            int encontrada = -1;
+            for (int m = inicioMenciones[n]; m < inicioMenciones[n + 1]; m++) {
+                int k = menciones[m];
+                if (destinos[k] == operando && (disponibles[k >>> 6] & (1L << k)) != 0) {
+                    encontrada = k;
+                    break;
+                }
+            }
+            if (encontrada < 0) {
+                break;
+            }
+            operando = origenes[encontrada];
+        }
+        if (operando != original) {
+            reemplazadas++;
+        }
+        return operando;
+    }
+}
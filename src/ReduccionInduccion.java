@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Reducción de fuerza de las variables de inducción en los ciclos de una función.
+ *
+ * Una variable de inducción básica es una variable simple entera que el ciclo escribe una
+ * sola vez, con la forma que deja el parser para i = i + c:
+ *   tY = i;  tX = tY + c;  i = tX        (o tY - c, o c + tY, con c constante)
+ * los tres en el mismo bloque y sin llamadas en el ciclo. Cada producto t = u * k del
+ * ciclo, con u = i leído en el mismo bloque antes del producto (sin escribir i entre medio)
+ * y k constante o invariante, pasa a ser t = p, donde p es un temporal nuevo que vale
+ * siempre i * k: se calcula en la precabecera y se le suma c * k justo después de escribir
+ * i. Los productos con la misma variable y el mismo k comparten p.
+ *
+ * Así el desplazamiento i * 4 de un recorrido de arreglo deja de leer i de memoria y de
+ * multiplicar en cada vuelta: queda un puntero que avanza de a 4. Las copias t = p que
+ * sobran las quita la propagación de copias.
+ */
+public class ReduccionInduccion {
+
+    private final GrafoFlujo grafo = new GrafoFlujo();
+    private final CiclosNaturales ciclos = new CiclosNaturales();
+    private ProgramaIR programa;
+    private ArrayList<Cuadruplo> codigo;
+
+    // Por temporal: definiciones en la función, posición de la última y último ciclo que
+    // lo define
+    private int[] definiciones = new int[0];
+    private int[] posicionDefinicion = new int[0];
+    private int[] cicloDefinicion = new int[0];
+
+    // Por variable: escrituras en el ciclo cicloEscritura y posición de la última
+    private int[] cicloEscritura = new int[0];
+    private int[] escrituras = new int[0];
+    private int[] posicionEscritura = new int[0];
+
+    // Código a insertar antes y después de cada posición (null si nada)
+    private ArrayList<Cuadruplo>[] antes;
+    private ArrayList<Cuadruplo>[] despues;
+
+    private final ArrayList<Integer> posiciones = new ArrayList<>();
+    // Temporales p del ciclo actual: {variable, k, p}
+    private final ArrayList<long[]> punteros = new ArrayList<>();
+
+    private int reducidas;
+
+    /**
+     * Optimiza el código de una función (lista de cuádruplos desde FUNCION hasta FIN_FUNCION).
+     * @return true si cambió algo
+     */
+    public boolean optimizar(ProgramaIR programa, ArrayList<Cuadruplo> codigo) {
+        if (codigo.isEmpty()) {
+            return false;
+        }
+        this.programa = programa;
+        this.codigo = codigo;
+        grafo.construir(programa, codigo, 0, codigo.size());
+        ciclos.calcular(grafo);
+        if (ciclos.getCantidadCiclos() == 0) {
+            return false;
+        }
+        preparar();
+        antes = Cuadruplo.listas(codigo.size());
+        despues = Cuadruplo.listas(codigo.size());
+        boolean cambio = false;
+        for (int c = 0; c < ciclos.getCantidadCiclos(); c++) {
+            cambio |= reducirCiclo(c);
+        }
+        if (cambio) {
+            reconstruir();
+        }
+        return cambio;
+    }
+
+    /**
+     * Productos cambiados por un temporal que avanza, desde que se creó el paso
+     */
+    public int getReducidas() {
+        return reducidas;
+    }
+
+    private void preparar() {
+        int temporales = programa.getCantidadTemporales();
+        if (definiciones.length < temporales) {
+            int n = Math.max(temporales, 2 * definiciones.length);
+            definiciones = new int[n];
+            posicionDefinicion = new int[n];
+            cicloDefinicion = new int[n];
+        }
+        Arrays.fill(definiciones, 0, temporales, 0);
+        Arrays.fill(cicloDefinicion, 0, temporales, -1);
+        int variables = programa.getVariables().size();
+        if (cicloEscritura.length < variables) {
+            int n = Math.max(variables, 2 * cicloEscritura.length);
+            cicloEscritura = new int[n];
+            escrituras = new int[n];
+            posicionEscritura = new int[n];
+        }
+        Arrays.fill(cicloEscritura, 0, variables, -1);
+        for (int i = 0; i < codigo.size(); i++) {
+            Cuadruplo q = codigo.get(i);
+            if (Operando.esTemporal(q.resultado)) {
+                definiciones[Operando.valor(q.resultado)]++;
+                posicionDefinicion[Operando.valor(q.resultado)] = i;
+            }
+        }
+    }
+
+    // ===================== Un ciclo =====================
+
+    private boolean reducirCiclo(int c) {
+        if (codigo.get(grafo.inicio(ciclos.cabecera(c))).op != Operacion.ETIQUETA || recorrer(c)) {
+            return false;
+        }
+        punteros.clear();
+        ArrayList<Cuadruplo> precabecera = new ArrayList<>();
+        for (int i : posiciones) {
+            Cuadruplo q = codigo.get(i);
+            if (q.op != Operacion.MULTIPLICACION || programa.tipoDe(q.resultado) != TipoIR.ENTERO) {
+                continue;
+            }
+            if (reducir(c, i, q, q.arg1, q.arg2, precabecera) || reducir(c, i, q, q.arg2, q.arg1, precabecera)) {
+                reducidas++;
+            }
+        }
+        if (precabecera.isEmpty()) {
+            return false;
+        }
+        antes[grafo.inicio(ciclos.cabecera(c))] = ciclos.crearPrecabecera(c, precabecera);
+        return true;
+    }
+
+    // Junta las posiciones del ciclo y anota definiciones y escrituras; retorna true si el
+    // ciclo tiene alguna llamada
+    private boolean recorrer(int c) {
+        posiciones.clear();
+        boolean llamada = false;
+        for (int k = 0; k < ciclos.cantidadBloques(c); k++) {
+            int b = ciclos.bloque(c, k);
+            for (int i = grafo.inicio(b); i < grafo.fin(b); i++) {
+                posiciones.add(i);
+                Cuadruplo q = codigo.get(i);
+                // Las externas (print) no escriben variables
+                llamada |= q.op == Operacion.LLAMADA && !programa.getFuncion(Operando.valor(q.arg1)).externa;
+                if (Operando.esTemporal(q.resultado)) {
+                    cicloDefinicion[Operando.valor(q.resultado)] = c;
+                } else if (Operando.esVariable(q.resultado)) {
+                    int v = Operando.valor(q.resultado);
+                    if (cicloEscritura[v] != c) {
+                        cicloEscritura[v] = c;
+                        escrituras[v] = 0;
+                    }
+                    escrituras[v]++;
+                    posicionEscritura[v] = i;
+                }
+            }
+        }
+        posiciones.sort(null);
+        return llamada;
+    }
+
+    // Cambia q = u * k por una copia del puntero de u si u es una lectura de una variable
+    // de inducción y k no cambia en el ciclo
+    private boolean reducir(int c, int i, Cuadruplo q, long u, long k, ArrayList<Cuadruplo> precabecera) {
+        if (!Operando.esTemporal(u) || !(Operando.esEntero(k) || (Operando.esTemporal(k)
+                && cicloDefinicion[Operando.valor(k)] != c && programa.tipoDe(k) == TipoIR.ENTERO))) {
+            return false;
+        }
+        int lectura = definicionUnica(u);
+        if (lectura < 0 || codigo.get(lectura).op != Operacion.COPIA || !Operando.esVariable(codigo.get(lectura).arg1)
+                || grafo.bloqueDe(lectura) != grafo.bloqueDe(i) || lectura > i) {
+            return false;
+        }
+        int v = Operando.valor(codigo.get(lectura).arg1);
+        int escritura = posicionEscritura[v];
+        if (cicloEscritura[v] != c || escrituras[v] != 1 || (lectura < escritura && escritura < i)) {
+            return false;
+        }
+        long paso = pasoDe(v, escritura);
+        if (paso == Long.MIN_VALUE) {
+            return false;
+        }
+        long p = puntero(v, k, (int) paso, escritura, precabecera);
+        q.op = Operacion.COPIA;
+        q.arg1 = p;
+        q.arg2 = Operando.VACIO;
+        return true;
+    }
+
+    // Constante c de la escritura i = tX con tX = tY + c y tY = i en el mismo bloque, o
+    // Long.MIN_VALUE si la escritura no tiene esa forma
+    private long pasoDe(int v, int escritura) {
+        Cuadruplo w = codigo.get(escritura);
+        ProgramaIR.Variable variable = programa.getVariable(v);
+        if (w.op != Operacion.COPIA || variable.esArreglo() || variable.tipo != TipoIR.ENTERO) {
+            return Long.MIN_VALUE;
+        }
+        int suma = definicionUnica(w.arg1);
+        if (suma < 0 || suma > escritura || grafo.bloqueDe(suma) != grafo.bloqueDe(escritura)) {
+            return Long.MIN_VALUE;
+        }
+        Cuadruplo s = codigo.get(suma);
+        long base;
+        long paso;
+        if (s.op == Operacion.SUMA && Operando.esEntero(s.arg1)) {
+            base = s.arg2;
+            paso = Operando.valor(s.arg1);
+        } else if ((s.op == Operacion.SUMA || s.op == Operacion.RESTA) && Operando.esEntero(s.arg2)) {
+            base = s.arg1;
+            paso = s.op == Operacion.SUMA ? Operando.valor(s.arg2) : -(long) Operando.valor(s.arg2);
+        } else {
+            return Long.MIN_VALUE;
+        }
+        int lectura = definicionUnica(base);
+        if (lectura < 0 || lectura > suma || grafo.bloqueDe(lectura) != grafo.bloqueDe(suma)
+                || codigo.get(lectura).op != Operacion.COPIA || codigo.get(lectura).arg1 != Operando.variable(v)) {
+            return Long.MIN_VALUE;
+        }
+        return (int) paso;
+    }
+
+    // Posición de la única definición del temporal, o -1
+    private int definicionUnica(long operando) {
+        if (!Operando.esTemporal(operando) || definiciones[Operando.valor(operando)] != 1) {
+            return -1;
+        }
+        return posicionDefinicion[Operando.valor(operando)];
+    }
+
+    // Temporal que vale v * k en todo el ciclo; lo crea la primera vez
+    private long puntero(int v, long k, int paso, int escritura, ArrayList<Cuadruplo> precabecera) {
+        for (long[] puntero : punteros) {
+            if (puntero[0] == v && puntero[1] == k) {
+                return puntero[2];
+            }
+        }
+        long p = Operando.temporal(programa.nuevoTemporal(TipoIR.ENTERO));
+        long inicial = Operando.temporal(programa.nuevoTemporal(TipoIR.ENTERO));
+        precabecera.add(new Cuadruplo(Operacion.COPIA, inicial, Operando.variable(v), Operando.VACIO));
+        precabecera.add(new Cuadruplo(Operacion.MULTIPLICACION, p, inicial, k));
+        long incremento;
+        if (Operando.esEntero(k)) {
+            incremento = Operando.entero(paso * Operando.valor(k));
+        } else if (paso == 1) {
+            incremento = k;
+        } else {
+            incremento = Operando.temporal(programa.nuevoTemporal(TipoIR.ENTERO));
+            precabecera.add(new Cuadruplo(Operacion.MULTIPLICACION, incremento, k, Operando.entero(paso)));
+        }
+        if (despues[escritura] == null) {
+            despues[escritura] = new ArrayList<>();
+        }
+        despues[escritura].add(new Cuadruplo(Operacion.SUMA, p, p, incremento));
+        punteros.add(new long[] {v, k, p});
+        return p;
+    }
+
+    // Arma el código con las precabeceras y los incrementos
+    private void reconstruir() {
+        ArrayList<Cuadruplo> resultado = new ArrayList<>(codigo.size() + 16);
+        for (int i = 0; i < codigo.size(); i++) {
+            if (antes[i] != null) {
+                resultado.addAll(antes[i]);
+            }
+            resultado.add(codigo.get(i));
+            if (despues[i] != null) {
+                resultado.addAll(despues[i]);
+            }
+        }
+        codigo.clear();
+        codigo.addAll(resultado);
+    }
+}
@@ -0,0 +1,238 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Registro de tokens del lexer (tokens.log).
+ *
+ * Las líneas se formatean a mano dentro de bloques de caracteres reutilizables, sin
+ * String.format ni flush por token. En modo BUFFER el bloque lleno se escribe en el
+ * mismo hilo; en modo ASINCRONO se entrega por una cola acotada a un hilo escritor y
+ * el lexer sigue con otro bloque libre. Si el escritor se atrasa, la cola llena frena
+ * al lexer en vez de crecer sin límite.
+ */
+public class RegistroTokens {
+
+    public enum Modo {
+        APAGADO, BUFFER, ASINCRONO;
+
+        public static Modo desde(String nombre) {
+            switch (nombre.toLowerCase()) {
+                case "apagado":
+                case "off":
+                    return APAGADO;
+                case "asincrono":
+                case "async":
+                    return ASINCRONO;
+                default:
+                    return BUFFER;
+            }
+        }
+    }
+
+    private static final int TAMANO_BLOQUE = 16 * 1024;
+    private static final int BLOQUES_EN_COLA = 8;
+
+    // Bloque de texto formateado pendiente de escribir
+    private static final class Bloque {
+        final char[] datos = new char[TAMANO_BLOQUE];
+        int largo;
+    }
+
+    // Marca de fin para el hilo escritor
+    private static final Bloque FIN = new Bloque();
+
+    private final Writer writer;
+    private Bloque actual = new Bloque();
+    private final char[] digitos = new char[11];
+
+    // Solo en modo ASINCRONO
+    private final ArrayBlockingQueue<Bloque> pendientes;
+    private final ArrayBlockingQueue<Bloque> libres;
+    private final Thread escritor;
+    private volatile IOException errorEscritor;
+
+    private boolean cerrado = false;
+
+    /**
+     * Abre el registro en la ruta dada. Retorna null si el modo es APAGADO o no hay ruta,
+     * así el lexer no paga nada por token.
+     */
+    public static RegistroTokens abrir(String ruta, Modo modo) {
+        if (ruta == null || modo == Modo.APAGADO) {
+            return null;
+        }
+        try {
+            return new RegistroTokens(ruta, modo);
+        } catch (IOException e) {
+            System.err.println("Error inicializando archivo de tokens: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private RegistroTokens(String ruta, Modo modo) throws IOException {
+        writer = new OutputStreamWriter(new FileOutputStream(ruta), StandardCharsets.UTF_8);
+        if (modo == Modo.ASINCRONO) {
+            pendientes = new ArrayBlockingQueue<>(BLOQUES_EN_COLA);
+            libres = new ArrayBlockingQueue<>(BLOQUES_EN_COLA + 1);
+            for (int i = 0; i < BLOQUES_EN_COLA; i++) {
+                libres.add(new Bloque());
+            }
+            escritor = new Thread(this::escribirPendientes, "registro-tokens");
+            escritor.setDaemon(true);
+            escritor.start();
+        } else {
+            pendientes = null;
+            libres = null;
+            escritor = null;
+        }
+
+        texto("=== TOKENS ENCONTRADOS ===\n");
+        columna("TOKEN", 20);
+        texto(" ");
+        columna("LEXEMA", 20);
+        texto(" ");
+        columna("LINEA", 10);
+        texto(" ");
+        columna("COLUMNA", 10);
+        texto("\n");
+    }
+
+    /**
+     * Registra un token. El lexema se copia desde el buffer del lexer sin crear un String.
+     * Formato: %-20s %-20s %-10d %-10d
+     */
+    public void registrar(String tipo, char[] buffer, int inicio, int largo, int linea, int col) {
+        if (cerrado) {
+            return;
+        }
+        columna(tipo, 20);
+        caracter(' ');
+        for (int i = 0; i < largo; i++) {
+            caracter(buffer[inicio + i]);
+        }
+        relleno(largo, 20);
+        caracter(' ');
+        numero(linea, 10);
+        caracter(' ');
+        numero(col, 10);
+        caracter('\n');
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el archivo. Se puede llamar más de una vez.
+     */
+    public void cerrar() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            entregar();
+            if (escritor != null) {
+                pendientes.put(FIN);
+                escritor.join();
+                if (errorEscritor != null) {
+                    throw errorEscritor;
+                }
+            }
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error cerrando archivo de tokens: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void texto(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            caracter(s.charAt(i));
+        }
+    }
+
+    private void columna(String s, int ancho) {
+        texto(s);
+        relleno(s.length(), ancho);
+    }
+
+    private void relleno(int escritos, int ancho) {
+        for (int i = escritos; i < ancho; i++) {
+            caracter(' ');
+        }
+    }
+
+    // Entero en decimal sin crear Strings
+    private void numero(int valor, int ancho) {
+        long v = Math.abs((long) valor);
+        int n = 0;
+        do {
+            digitos[n++] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v > 0);
+        int escritos = n;
+        if (valor < 0) {
+            caracter('-');
+            escritos++;
+        }
+        while (n > 0) {
+            caracter(digitos[--n]);
+        }
+        relleno(escritos, ancho);
+    }
+
+    private void caracter(char c) {
+        if (actual.largo == TAMANO_BLOQUE) {
+            entregar();
+        }
+        actual.datos[actual.largo++] = c;
+    }
+
+    // Manda el bloque actual al archivo (BUFFER) o al hilo escritor (ASINCRONO)
+    private void entregar() {
+        if (actual.largo == 0) {
+            return;
+        }
+        try {
+            if (escritor == null) {
+                writer.write(actual.datos, 0, actual.largo);
+                actual.largo = 0;
+            } else {
+                pendientes.put(actual);
+                actual = libres.take();
+                actual.largo = 0;
+            }
+        } catch (IOException e) {
+            System.err.println("Error escribiendo token: " + e.getMessage());
+            actual.largo = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            actual.largo = 0;
+        }
+    }
+
+    // Cuerpo del hilo escritor: escribe bloques hasta recibir FIN y los devuelve a libres
+    private void escribirPendientes() {
+        try {
+            while (true) {
+                Bloque bloque = pendientes.take();
+                if (bloque == FIN) {
+                    return;
+                }
+                if (errorEscritor == null) {
+                    try {
+                        writer.write(bloque.datos, 0, bloque.largo);
+                    } catch (IOException e) {
+                        // Se siguen consumiendo bloques para no bloquear al lexer
+                        errorEscritor = e;
+                    }
+                }
+                libres.put(bloque);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
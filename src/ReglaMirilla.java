@@ -0,0 +1,52 @@
+import java.util.List;
+
+/**
+ * Regla del optimizador de mirilla. Cada vez que se agrega una instrucción a la salida,
+ * la regla mira las últimas y, si reconoce su patrón, las reemplaza.
+ *
+ * Las reglas nuevas extienden esta clase y se agregan con OptimizadorMirilla.agregarRegla;
+ * el optimizador cuenta cuántas veces se aplicó cada una.
+ */
+public abstract class ReglaMirilla {
+
+    private final String nombre;
+    private int aplicaciones;
+
+    protected ReglaMirilla(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Revisa el final de salida justo después de agregar una instrucción y lo reescribe si
+     * corresponde.
+     * @return true si cambió algo
+     */
+    public abstract boolean aplicar(List<InstruccionMIPS> salida);
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Veces que se aplicó la regla
+     */
+    public int getAplicaciones() {
+        return aplicaciones;
+    }
+
+    void contarAplicacion() {
+        aplicaciones++;
+    }
+
+    /**
+     * Índice de la última instrucción de salida antes de la posición, saltando etiquetas,
+     * comentarios y líneas en blanco, o -1
+     */
+    protected static int anterior(List<InstruccionMIPS> salida, int posicion) {
+        int i = posicion - 1;
+        while (i >= 0 && salida.get(i).esIgnorable()) {
+            i--;
+        }
+        return i >= 0 && salida.get(i).esInstruccion() ? i : -1;
+    }
+}
@@ -0,0 +1,666 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulador del subconjunto de MIPS que emite MIPSGenerator (enteros, coprocesador 1 en
+ * precisión simple y los syscalls de E/S). Sirve para correr el .asm sin SPIM ni MARS y
+ * comparar la salida entre niveles de optimización (ver VerificadorNiveles).
+ *
+ * Las direcciones de código son índices de instrucción: jal guarda el índice de la
+ * siguiente y las tablas de saltos (.word etiqueta) guardan el índice de la etiqueta.
+ */
+public class SimuladorMIPS {
+
+    private static final int INICIO_DATOS = 0x10010000;
+    private static final int TAMANO_MEMORIA = 1 << 20;
+    public static final long MAX_PASOS_DEFECTO = 50_000_000L;
+
+    private static final Map<String, Integer> NOMBRES_REGISTROS = new HashMap<>();
+
+    static {
+        String[] nombres = {"zero", "at", "v0", "v1", "a0", "a1", "a2", "a3"};
+        for (int i = 0; i < nombres.length; i++) {
+            NOMBRES_REGISTROS.put(nombres[i], i);
+        }
+        for (int i = 0; i < 8; i++) {
+            NOMBRES_REGISTROS.put("t" + i, 8 + i);
+            NOMBRES_REGISTROS.put("s" + i, 16 + i);
+        }
+        NOMBRES_REGISTROS.put("t8", 24);
+        NOMBRES_REGISTROS.put("t9", 25);
+        NOMBRES_REGISTROS.put("k0", 26);
+        NOMBRES_REGISTROS.put("k1", 27);
+        NOMBRES_REGISTROS.put("gp", 28);
+        NOMBRES_REGISTROS.put("sp", 29);
+        NOMBRES_REGISTROS.put("fp", 30);
+        NOMBRES_REGISTROS.put("ra", 31);
+    }
+
+    /**
+     * Instrucción ensamblada: mnemónico, operandos y la línea original para los errores.
+     */
+    private static class Instruccion {
+        final String op;
+        final String[] args;
+        final String linea;
+
+        Instruccion(String op, String[] args, String linea) {
+            this.op = op;
+            this.args = args;
+            this.linea = linea;
+        }
+    }
+
+    private final List<Instruccion> texto = new ArrayList<>();
+    private final Map<String, Integer> etiquetasTexto = new HashMap<>();
+    private final Map<String, Integer> etiquetasDatos = new HashMap<>();
+    private final ByteBuffer memoria = ByteBuffer.allocate(TAMANO_MEMORIA).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final int[] r = new int[32];
+    private final float[] f = new float[32];
+    private int hi, lo;
+    private boolean condicion; // bandera del coprocesador 1 (c.xx.s, movt/movf, bc1t/bc1f)
+
+    private List<String> entrada = new ArrayList<>();
+    private int siguienteEntrada = 0;
+    private long maxPasos = MAX_PASOS_DEFECTO;
+    private long pasos = 0;
+
+    /**
+     * Ensambla el programa. Lanza IllegalArgumentException ante directivas desconocidas.
+     */
+    public SimuladorMIPS(String asm) {
+        ensamblar(asm);
+    }
+
+    // Cada syscall de lectura consume una línea de la entrada
+    public void setEntrada(List<String> lineas) {
+        this.entrada = lineas;
+        this.siguienteEntrada = 0;
+    }
+
+    public void setMaxPasos(long maxPasos) {
+        this.maxPasos = maxPasos;
+    }
+
+    public long getPasos() {
+        return pasos;
+    }
+
+    private void ensamblar(String asm) {
+        boolean enDatos = false;
+        int dp = 0;
+        List<int[]> pendientes = new ArrayList<>();   // {posición, índice en nombresPendientes}
+        List<String> nombresPendientes = new ArrayList<>();
+
+        for (String cruda : asm.split("\n")) {
+            String linea = quitarComentario(cruda).trim();
+            if (linea.isEmpty() || linea.startsWith(".globl")) {
+                continue;
+            }
+            if (linea.equals(".data")) {
+                enDatos = true;
+                continue;
+            }
+            if (linea.equals(".text")) {
+                enDatos = false;
+                continue;
+            }
+            int dosPuntos = finDeEtiqueta(linea);
+            if (dosPuntos > 0) {
+                String etiqueta = linea.substring(0, dosPuntos);
+                linea = linea.substring(dosPuntos + 1).trim();
+                if (enDatos) {
+                    if (!linea.startsWith(".asciiz")) {
+                        dp = (dp + 3) & ~3;
+                    }
+                    etiquetasDatos.put(etiqueta, INICIO_DATOS + dp);
+                } else {
+                    etiquetasTexto.put(etiqueta, texto.size());
+                }
+                if (linea.isEmpty()) {
+                    continue;
+                }
+            }
+
+            int espacio = linea.indexOf(' ');
+            String op = (espacio < 0) ? linea : linea.substring(0, espacio);
+            String resto = (espacio < 0) ? "" : linea.substring(espacio + 1).trim();
+
+            if (!enDatos) {
+                texto.add(new Instruccion(op, separarOperandos(resto), cruda.trim()));
+                continue;
+            }
+            switch (op) {
+                case ".word":
+                    for (String v : resto.split(",")) {
+                        v = v.trim();
+                        if (Character.isDigit(v.charAt(0)) || v.charAt(0) == '-') {
+                            memoria.putInt(dp, (int) (long) Long.decode(v));
+                        } else {
+                            pendientes.add(new int[]{dp, nombresPendientes.size()});
+                            nombresPendientes.add(v);
+                        }
+                        dp += 4;
+                    }
+                    break;
+                case ".float":
+                    for (String v : resto.split(",")) {
+                        memoria.putFloat(dp, Float.parseFloat(v.trim()));
+                        dp += 4;
+                    }
+                    break;
+                case ".space":
+                    dp += Integer.parseInt(resto);
+                    break;
+                case ".asciiz":
+                    byte[] bytes = desescapar(resto.substring(1, resto.length() - 1));
+                    for (byte b : bytes) {
+                        memoria.put(dp++, b);
+                    }
+                    memoria.put(dp++, (byte) 0);
+                    break;
+                case ".align":
+                    int alineacion = 1 << Integer.parseInt(resto);
+                    dp = (dp + alineacion - 1) & -alineacion;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Directiva desconocida: " + cruda.trim());
+            }
+        }
+
+        for (int[] p : pendientes) {
+            memoria.putInt(p[0], direccionEtiqueta(nombresPendientes.get(p[1])));
+        }
+    }
+
+    /**
+     * Corre el programa desde main hasta el syscall 10 o el final del código y retorna lo
+     * que imprimió. Lanza IllegalStateException si se pasa de maxPasos o se agota la entrada.
+     */
+    public String ejecutar() {
+        StringBuilder salida = new StringBuilder();
+        r[29] = INICIO_DATOS + TAMANO_MEMORIA - 16;
+        Integer inicio = etiquetasTexto.get("main");
+        int pc = (inicio != null) ? inicio : 0;
+        pasos = 0;
+
+        while (pc >= 0 && pc < texto.size()) {
+            if (++pasos > maxPasos) {
+                throw new IllegalStateException("Se superó el límite de " + maxPasos + " pasos");
+            }
+            Instruccion in = texto.get(pc++);
+            String[] a = in.args;
+            switch (in.op) {
+                case "nop":
+                    break;
+                case "li":
+                    escribir(a[0], (int) (long) Long.decode(a[1]));
+                    break;
+                case "la":
+                    escribir(a[0], direccion(a[1]));
+                    break;
+                case "lw":
+                    escribir(a[0], memoria.getInt(desplazamiento(direccion(a[1]))));
+                    break;
+                case "sw":
+                    memoria.putInt(desplazamiento(direccion(a[1])), r[registro(a[0])]);
+                    break;
+                case "lb":
+                    escribir(a[0], memoria.get(desplazamiento(direccion(a[1]))));
+                    break;
+                case "sb":
+                    memoria.put(desplazamiento(direccion(a[1])), (byte) r[registro(a[0])]);
+                    break;
+                case "l.s":
+                    f[flotante(a[0])] = memoria.getFloat(desplazamiento(direccion(a[1])));
+                    break;
+                case "s.s":
+                    memoria.putFloat(desplazamiento(direccion(a[1])), f[flotante(a[0])]);
+                    break;
+                case "li.s":
+                    f[flotante(a[0])] = Float.parseFloat(a[1]);
+                    break;
+                case "mov.s":
+                    f[flotante(a[0])] = f[flotante(a[1])];
+                    break;
+                case "neg.s":
+                    f[flotante(a[0])] = -f[flotante(a[1])];
+                    break;
+                case "add.s":
+                    f[flotante(a[0])] = f[flotante(a[1])] + f[flotante(a[2])];
+                    break;
+                case "sub.s":
+                    f[flotante(a[0])] = f[flotante(a[1])] - f[flotante(a[2])];
+                    break;
+                case "mul.s":
+                    f[flotante(a[0])] = f[flotante(a[1])] * f[flotante(a[2])];
+                    break;
+                case "div.s":
+                    f[flotante(a[0])] = f[flotante(a[1])] / f[flotante(a[2])];
+                    break;
+                case "mtc1":
+                    f[flotante(a[1])] = Float.intBitsToFloat(r[registro(a[0])]);
+                    break;
+                case "mfc1":
+                    escribir(a[0], Float.floatToRawIntBits(f[flotante(a[1])]));
+                    break;
+                case "cvt.s.w":
+                    f[flotante(a[0])] = Float.floatToRawIntBits(f[flotante(a[1])]);
+                    break;
+                case "cvt.w.s":
+                    f[flotante(a[0])] = Float.intBitsToFloat((int) f[flotante(a[1])]);
+                    break;
+                case "c.lt.s":
+                    condicion = f[flotante(a[0])] < f[flotante(a[1])];
+                    break;
+                case "c.le.s":
+                    condicion = f[flotante(a[0])] <= f[flotante(a[1])];
+                    break;
+                case "c.eq.s":
+                    condicion = f[flotante(a[0])] == f[flotante(a[1])];
+                    break;
+                case "movt":
+                    if (condicion) {
+                        escribir(a[0], r[registro(a[1])]);
+                    }
+                    break;
+                case "movf":
+                    if (!condicion) {
+                        escribir(a[0], r[registro(a[1])]);
+                    }
+                    break;
+                case "bc1t":
+                    if (condicion) {
+                        pc = destino(a[0]);
+                    }
+                    break;
+                case "bc1f":
+                    if (!condicion) {
+                        pc = destino(a[0]);
+                    }
+                    break;
+                case "move":
+                    escribir(a[0], r[registro(a[1])]);
+                    break;
+                case "add":
+                case "addu":
+                case "addi":
+                case "addiu":
+                    escribir(a[0], r[registro(a[1])] + valor(a[2]));
+                    break;
+                case "sub":
+                case "subu":
+                    escribir(a[0], r[registro(a[1])] - valor(a[2]));
+                    break;
+                case "neg":
+                    escribir(a[0], -r[registro(a[1])]);
+                    break;
+                case "mul":
+                    escribir(a[0], r[registro(a[1])] * valor(a[2]));
+                    break;
+                case "mult": {
+                    long producto = (long) r[registro(a[0])] * r[registro(a[1])];
+                    lo = (int) producto;
+                    hi = (int) (producto >> 32);
+                    break;
+                }
+                case "div":
+                    if (a.length == 3) {
+                        int divisor = valor(a[2]);
+                        escribir(a[0], divisor != 0 ? r[registro(a[1])] / divisor : 0);
+                    } else {
+                        int dividendo = r[registro(a[0])];
+                        int divisor = r[registro(a[1])];
+                        if (divisor != 0) {
+                            lo = dividendo / divisor;
+                            hi = dividendo % divisor;
+                        }
+                    }
+                    break;
+                case "rem": {
+                    int divisor = valor(a[2]);
+                    escribir(a[0], divisor != 0 ? r[registro(a[1])] % divisor : 0);
+                    break;
+                }
+                case "mflo":
+                    escribir(a[0], lo);
+                    break;
+                case "mfhi":
+                    escribir(a[0], hi);
+                    break;
+                case "slt":
+                case "slti":
+                    escribir(a[0], r[registro(a[1])] < valor(a[2]) ? 1 : 0);
+                    break;
+                case "sltu":
+                case "sltiu":
+                    escribir(a[0], Integer.compareUnsigned(r[registro(a[1])], valor(a[2])) < 0 ? 1 : 0);
+                    break;
+                case "sgt":
+                    escribir(a[0], r[registro(a[1])] > valor(a[2]) ? 1 : 0);
+                    break;
+                case "sge":
+                    escribir(a[0], r[registro(a[1])] >= valor(a[2]) ? 1 : 0);
+                    break;
+                case "sle":
+                    escribir(a[0], r[registro(a[1])] <= valor(a[2]) ? 1 : 0);
+                    break;
+                case "seq":
+                    escribir(a[0], r[registro(a[1])] == valor(a[2]) ? 1 : 0);
+                    break;
+                case "sne":
+                    escribir(a[0], r[registro(a[1])] != valor(a[2]) ? 1 : 0);
+                    break;
+                case "and":
+                case "andi":
+                    escribir(a[0], r[registro(a[1])] & valor(a[2]));
+                    break;
+                case "or":
+                case "ori":
+                    escribir(a[0], r[registro(a[1])] | valor(a[2]));
+                    break;
+                case "xor":
+                case "xori":
+                    escribir(a[0], r[registro(a[1])] ^ valor(a[2]));
+                    break;
+                case "sll":
+                case "sllv":
+                    escribir(a[0], r[registro(a[1])] << (valor(a[2]) & 31));
+                    break;
+                case "sra":
+                case "srav":
+                    escribir(a[0], r[registro(a[1])] >> (valor(a[2]) & 31));
+                    break;
+                case "srl":
+                case "srlv":
+                    escribir(a[0], r[registro(a[1])] >>> (valor(a[2]) & 31));
+                    break;
+                case "j":
+                case "b":
+                    pc = destino(a[0]);
+                    break;
+                case "jal":
+                    r[31] = pc;
+                    pc = destino(a[0]);
+                    break;
+                case "jr":
+                    pc = r[registro(a[0])];
+                    break;
+                case "beqz":
+                    if (r[registro(a[0])] == 0) {
+                        pc = destino(a[1]);
+                    }
+                    break;
+                case "bnez":
+                    if (r[registro(a[0])] != 0) {
+                        pc = destino(a[1]);
+                    }
+                    break;
+                case "blez":
+                    if (r[registro(a[0])] <= 0) {
+                        pc = destino(a[1]);
+                    }
+                    break;
+                case "bgtz":
+                    if (r[registro(a[0])] > 0) {
+                        pc = destino(a[1]);
+                    }
+                    break;
+                case "bltz":
+                    if (r[registro(a[0])] < 0) {
+                        pc = destino(a[1]);
+                    }
+                    break;
+                case "bgez":
+                    if (r[registro(a[0])] >= 0) {
+                        pc = destino(a[1]);
+                    }
+                    break;
+                case "beq":
+                case "bne":
+                case "blt":
+                case "bgt":
+                case "ble":
+                case "bge":
+                    if (comparar(in.op, r[registro(a[0])], valor(a[1]))) {
+                        pc = destino(a[2]);
+                    }
+                    break;
+                case "syscall":
+                    if (!syscall(salida)) {
+                        return salida.toString();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Instrucción no soportada: " + in.linea);
+            }
+        }
+        return salida.toString();
+    }
+
+    // Retorna false si el syscall termina el programa
+    private boolean syscall(StringBuilder salida) {
+        switch (r[2]) {
+            case 1:
+                salida.append(r[4]);
+                break;
+            case 2:
+                salida.append(f[12]);
+                break;
+            case 4:
+                salida.append(leerCadena(r[4]));
+                break;
+            case 11:
+                salida.append((char) (r[4] & 0xff));
+                break;
+            case 5:
+                r[2] = Integer.parseInt(leerEntrada().trim());
+                break;
+            case 6:
+                f[0] = Float.parseFloat(leerEntrada().trim());
+                break;
+            case 12: {
+                String linea = leerEntrada();
+                r[2] = linea.isEmpty() ? '\n' : linea.charAt(0);
+                break;
+            }
+            case 8: {
+                // Como SPIM: hasta a1 - 1 bytes con el salto de línea incluido
+                byte[] bytes = (leerEntrada() + "\n").getBytes(StandardCharsets.ISO_8859_1);
+                int n = Math.min(bytes.length, r[5] - 1);
+                int base = desplazamiento(r[4]);
+                for (int i = 0; i < n; i++) {
+                    memoria.put(base + i, bytes[i]);
+                }
+                memoria.put(base + Math.max(n, 0), (byte) 0);
+                break;
+            }
+            case 10:
+                return false;
+            default:
+                throw new IllegalArgumentException("Syscall no soportado: " + r[2]);
+        }
+        return true;
+    }
+
+    private String leerEntrada() {
+        if (siguienteEntrada >= entrada.size()) {
+            throw new IllegalStateException("Se agotó la entrada");
+        }
+        return entrada.get(siguienteEntrada++);
+    }
+
+    private String leerCadena(int direccion) {
+        StringBuilder cadena = new StringBuilder();
+        for (int p = desplazamiento(direccion); memoria.get(p) != 0; p++) {
+            cadena.append((char) (memoria.get(p) & 0xff));
+        }
+        return cadena.toString();
+    }
+
+    private static boolean comparar(String op, int x, int y) {
+        switch (op) {
+            case "beq":
+                return x == y;
+            case "bne":
+                return x != y;
+            case "blt":
+                return x < y;
+            case "bgt":
+                return x > y;
+            case "ble":
+                return x <= y;
+            default:
+                return x >= y;
+        }
+    }
+
+    private void escribir(String registro, int valor) {
+        int i = registro(registro);
+        if (i != 0) {
+            r[i] = valor;
+        }
+    }
+
+    private int valor(String operando) {
+        return operando.startsWith("$") ? r[registro(operando)] : (int) (long) Long.decode(operando);
+    }
+
+    private int destino(String etiqueta) {
+        Integer indice = etiquetasTexto.get(etiqueta);
+        if (indice == null) {
+            throw new IllegalArgumentException("Etiqueta desconocida: " + etiqueta);
+        }
+        return indice;
+    }
+
+    private int direccionEtiqueta(String etiqueta) {
+        Integer d = etiquetasDatos.get(etiqueta);
+        return (d != null) ? d : destino(etiqueta);
+    }
+
+    /**
+     * Dirección de un operando de memoria: etiqueta, etiqueta+K, K($r), etiqueta($r)...
+     */
+    private int direccion(String operando) {
+        int base = 0;
+        int parentesis = operando.indexOf('(');
+        if (parentesis >= 0) {
+            base = r[registro(operando.substring(parentesis + 1, operando.indexOf(')')))];
+            operando = operando.substring(0, parentesis);
+        }
+        int total = 0;
+        int inicio = 0;
+        for (int i = 1; i <= operando.length(); i++) {
+            if (i == operando.length() || operando.charAt(i) == '+' || operando.charAt(i) == '-') {
+                String parte = operando.substring(inicio, i);
+                int signo = 1;
+                if (parte.startsWith("-") || parte.startsWith("+")) {
+                    signo = parte.startsWith("-") ? -1 : 1;
+                    parte = parte.substring(1);
+                }
+                if (!parte.isEmpty()) {
+                    total += signo * (Character.isDigit(parte.charAt(0))
+                            ? (int) (long) Long.decode(parte) : direccionEtiqueta(parte));
+                }
+                inicio = i;
+            }
+        }
+        return base + total;
+    }
+
+    private static int desplazamiento(int direccion) {
+        int d = direccion - INICIO_DATOS;
+        if (d < 0 || d + 4 > TAMANO_MEMORIA) {
+            throw new IllegalStateException("Acceso fuera de memoria: 0x" + Integer.toHexString(direccion));
+        }
+        return d;
+    }
+
+    private static int registro(String nombre) {
+        String n = nombre.trim().substring(1);
+        Integer i = NOMBRES_REGISTROS.get(n);
+        if (i != null) {
+            return i;
+        }
+        return Integer.parseInt(n);
+    }
+
+    private static int flotante(String nombre) {
+        return Integer.parseInt(nombre.trim().substring(2));
+    }
+
+    // Separa por comas fuera de paréntesis
+    private static String[] separarOperandos(String resto) {
+        if (resto.isEmpty()) {
+            return new String[0];
+        }
+        String[] partes = resto.split(",");
+        for (int i = 0; i < partes.length; i++) {
+            partes[i] = partes[i].trim();
+        }
+        return partes;
+    }
+
+    private static String quitarComentario(String linea) {
+        boolean enCadena = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"' && (i == 0 || linea.charAt(i - 1) != '\\')) {
+                enCadena = !enCadena;
+            } else if (c == '#' && !enCadena) {
+                return linea.substring(0, i);
+            }
+        }
+        return linea;
+    }
+
+    // Posición del ':' de una etiqueta al inicio de la línea, o -1
+    private static int finDeEtiqueta(String linea) {
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == ':') {
+                return i;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] desescapar(String texto) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\\' && i + 1 < texto.length()) {
+                char e = texto.charAt(++i);
+                switch (e) {
+                    case 'n':
+                        s.append('\n');
+                        break;
+                    case 't':
+                        s.append('\t');
+                        break;
+                    case 'r':
+                        s.append('\r');
+                        break;
+                    case '0':
+                        s.append('\0');
+                        break;
+                    default:
+                        s.append(e);
+                }
+            } else {
+                s.append(c);
+            }
+        }
+        return s.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
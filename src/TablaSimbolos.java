@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Tabla de símbolos con ámbitos encadenados. Cada ámbito guarda sus símbolos en un
+ * hash y apunta a su ámbito padre, así que declarar y buscar es O(1) por ámbito.
+ */
+public class TablaSimbolos {
+
+    public enum Clase { VARIABLE, PARAMETRO, FUNCION }
+
+    /**
+     * Entrada de la tabla: variable, parámetro o función.
+     */
+    public static class Simbolo {
+        final String nombre;
+        final Clase clase;
+        final String tipo;                 // tipo de la variable o tipo de retorno de la función
+        final List<String> tiposParametros; // solo funciones
+
+        Simbolo(String nombre, Clase clase, String tipo, List<String> tiposParametros) {
+            this.nombre = nombre;
+            this.clase = clase;
+            this.tipo = tipo;
+            this.tiposParametros = tiposParametros;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public Clase getClase() {
+            return clase;
+        }
+
+        public String getTipo() {
+            return tipo;
+        }
+
+        public List<String> getTiposParametros() {
+            return tiposParametros;
+        }
+
+        public boolean esFuncion() {
+            return clase == Clase.FUNCION;
+        }
+
+        @Override
+        public String toString() {
+            if (clase == Clase.FUNCION) {
+                return nombre + ":function(" + String.join(",", tiposParametros) + ")->" + tipo;
+            }
+            return nombre + ":" + tipo;
+        }
+    }
+
+    /**
+     * Ámbito: símbolos declarados en él y ámbito que lo contiene (null para el global).
+     */
+    public static class Ambito {
+        final String nombre;
+        final Ambito padre;
+        // LinkedHashMap para conservar el orden de declaración (parámetros e impresión)
+        final LinkedHashMap<String, Simbolo> simbolos = new LinkedHashMap<>();
+
+        Ambito(String nombre, Ambito padre) {
+            this.nombre = nombre;
+            this.padre = padre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public Iterable<Simbolo> getSimbolos() {
+            return simbolos.values();
+        }
+    }
+
+    private final Ambito global = new Ambito("global", null);
+    private Ambito actual = global;
+
+    // Todos los ámbitos creados, solo para imprimir la tabla
+    private final ArrayList<Ambito> ambitos = new ArrayList<>();
+
+    public TablaSimbolos() {
+        ambitos.add(global);
+    }
+
+    public void abrirAmbito(String nombre) {
+        actual = new Ambito(nombre, actual);
+        ambitos.add(actual);
+    }
+
+    // El ámbito global nunca se cierra
+    public void cerrarAmbito() {
+        if (actual.padre != null) {
+            actual = actual.padre;
+        }
+    }
+
+    public String getAmbitoActual() {
+        return actual.nombre;
+    }
+
+    public boolean enGlobal() {
+        return actual == global;
+    }
+
+    public Simbolo declararVariable(String nombre, String tipo) {
+        return agregar(actual, new Simbolo(nombre, Clase.VARIABLE, tipo, null));
+    }
+
+    public Simbolo declararParametro(String nombre, String tipo) {
+        return agregar(actual, new Simbolo(nombre, Clase.PARAMETRO, tipo, null));
+    }
+
+    public Simbolo declararGlobal(String nombre, String tipo) {
+        return agregar(global, new Simbolo(nombre, Clase.VARIABLE, tipo, null));
+    }
+
+    // Las funciones siempre van en el ámbito global
+    public Simbolo declararFuncion(String nombre, String tipoRetorno, List<String> tiposParametros) {
+        return agregar(global, new Simbolo(nombre, Clase.FUNCION, tipoRetorno, tiposParametros));
+    }
+
+    private Simbolo agregar(Ambito ambito, Simbolo simbolo) {
+        ambito.simbolos.put(simbolo.nombre, simbolo);
+        return simbolo;
+    }
+
+    // Busca desde el ámbito actual hacia afuera hasta el global
+    public Simbolo buscar(String nombre) {
+        for (Ambito a = actual; a != null; a = a.padre) {
+            Simbolo s = a.simbolos.get(nombre);
+            if (s != null) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    public Simbolo buscarEnActual(String nombre) {
+        return actual.simbolos.get(nombre);
+    }
+
+    public Simbolo buscarGlobal(String nombre) {
+        return global.simbolos.get(nombre);
+    }
+
+    public Simbolo buscarFuncion(String nombre) {
+        Simbolo s = global.simbolos.get(nombre);
+        return (s != null && s.clase == Clase.FUNCION) ? s : null;
+    }
+
+    // Tipos de los parámetros declarados en el ámbito actual, en orden
+    public List<String> tiposParametrosActuales() {
+        ArrayList<String> tipos = new ArrayList<>();
+        for (Simbolo s : actual.simbolos.values()) {
+            if (s.clase == Clase.PARAMETRO) {
+                tipos.add(s.tipo);
+            }
+        }
+        return tipos;
+    }
+
+    public List<Ambito> getAmbitos() {
+        return ambitos;
+    }
+}
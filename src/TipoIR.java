@@ -0,0 +1,38 @@
+/**
+ * Tipos de dato que maneja el código intermedio.
+ * El generador MIPS los usa para escoger registros ($t o $f) e instrucciones de carga.
+ */
+public enum TipoIR {
+    ENTERO,
+    FLOTANTE,
+    CARACTER,
+    CADENA,
+    BOOLEANO;
+
+    /**
+     * Convierte el nombre de tipo que usa el parser ("int", "float", ...) a TipoIR.
+     * Los arreglos usan el tipo de sus elementos.
+     */
+    public static TipoIR desde(String tipo) {
+        if (tipo == null) {
+            return ENTERO;
+        }
+        if (tipo.startsWith("array_") || tipo.startsWith("matrix_")) {
+            tipo = tipo.substring(tipo.indexOf('_') + 1);
+        }
+        if (tipo.startsWith("float")) {
+            return FLOTANTE;
+        } else if (tipo.startsWith("char")) {
+            return CARACTER;
+        } else if (tipo.startsWith("string")) {
+            return CADENA;
+        } else if (tipo.startsWith("bool") || tipo.equals("true") || tipo.equals("false")) {
+            return BOOLEANO;
+        }
+        return ENTERO;
+    }
+
+    public boolean esFlotante() {
+        return this == FLOTANTE;
+    }
+}
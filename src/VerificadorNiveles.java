@@ -0,0 +1,167 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prueba diferencial de los niveles de optimización: compila cada programa con -O0, -O1 y
+ * -O2, corre los tres .asm en SimuladorMIPS y compara la salida con la de -O0. Los programas
+ * son los .txt indicados (por defecto src/resources) más programas de GeneradorProgramas.
+ * Si junto a nombre.txt hay un nombre.entrada, cada lectura del programa consume una línea.
+ *
+ * Uso: java -cp "src;src/libs/*" VerificadorNiveles [-n programas] [-s semilla] [-l lineas] [-o directorio] [archivos|directorios...]
+ *
+ * Termina con código 1 si algún programa da salidas distintas o no corre en algún nivel.
+ * Los programas que no terminan con -O0 (como el ciclo infinito de ejemplo2) se omiten.
+ */
+public class VerificadorNiveles {
+
+    private static final String EXTENSION_ENTRADA = ".entrada";
+
+    /**
+     * Programa a verificar con su entrada estándar.
+     */
+    static class Caso {
+        final String nombre;
+        final String fuente;
+        final List<String> entrada;
+
+        Caso(String nombre, String fuente, List<String> entrada) {
+            this.nombre = nombre;
+            this.fuente = fuente;
+            this.entrada = entrada;
+        }
+    }
+
+    private final Path directorioSalida;
+    private int omitidos = 0;
+
+    public VerificadorNiveles(Path directorioSalida) {
+        this.directorioSalida = directorioSalida;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int generados = 20;
+        long semilla = 1;
+        int lineas = 200;
+        String salida = "src/output/verificador";
+        List<String> entradas = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-n") && i + 1 < args.length) {
+                generados = Math.max(0, Integer.parseInt(args[++i]));
+            } else if (args[i].equals("-s") && i + 1 < args.length) {
+                semilla = Long.parseLong(args[++i]);
+            } else if (args[i].equals("-l") && i + 1 < args.length) {
+                lineas = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-o") && i + 1 < args.length) {
+                salida = args[++i];
+            } else {
+                entradas.add(args[i]);
+            }
+        }
+        if (entradas.isEmpty()) {
+            entradas.add("src/resources");
+        }
+
+        List<Caso> casos = new ArrayList<>();
+        for (Path fuente : CompiladorLote.buscarFuentes(entradas)) {
+            String nombre = fuente.getFileName().toString();
+            String base = nombre.substring(0, nombre.length() - ".txt".length());
+            Path archivoEntrada = fuente.resolveSibling(base + EXTENSION_ENTRADA);
+            List<String> entrada = Files.exists(archivoEntrada)
+                    ? Files.readAllLines(archivoEntrada, StandardCharsets.UTF_8)
+                    : Collections.emptyList();
+            casos.add(new Caso(base, FileManager.readFile(fuente.toString()), entrada));
+        }
+        for (int k = 0; k < generados; k++) {
+            String fuente = new GeneradorProgramas(semilla + k).generar(lineas);
+            casos.add(new Caso("generado" + (semilla + k), fuente, Collections.emptyList()));
+        }
+
+        VerificadorNiveles verificador = new VerificadorNiveles(Paths.get(salida));
+        int fallidos = verificador.verificar(casos);
+        int omitidos = verificador.getOmitidos();
+        System.out.println((casos.size() - fallidos - omitidos) + " de " + casos.size()
+                + " programas dan la misma salida en todos los niveles (" + omitidos + " omitidos)");
+        if (fallidos > 0) {
+            System.out.println("Los .asm quedan en " + salida);
+            System.exit(1);
+        }
+    }
+
+    public int getOmitidos() {
+        return omitidos;
+    }
+
+    /**
+     * Verifica todos los casos, imprime una línea por cada uno y retorna cuántos fallaron.
+     */
+    public int verificar(List<Caso> casos) throws Exception {
+        Files.createDirectories(directorioSalida);
+        int fallidos = 0;
+        for (Caso caso : casos) {
+            String[] salidas = new String[Compiler.NIVEL_OPTIMIZACION_MAXIMO + 1];
+            salidas[0] = ejecutar(caso, 0);
+            // Sin una salida de referencia no hay con qué comparar (p. ej. un ciclo infinito)
+            if (salidas[0].startsWith("!")) {
+                System.out.println("OMITIDO " + caso.nombre + ": -O0 no terminó (" + salidas[0].substring(1) + ")");
+                omitidos++;
+                continue;
+            }
+            boolean correcto = true;
+            for (int nivel = 1; nivel < salidas.length; nivel++) {
+                salidas[nivel] = ejecutar(caso, nivel);
+                correcto &= salidas[nivel].equals(salidas[0]);
+            }
+            if (correcto) {
+                System.out.println("OK      " + caso.nombre + ": " + resumir(salidas[0]));
+            } else {
+                fallidos++;
+                System.out.println("FALLO   " + caso.nombre);
+                for (int nivel = 0; nivel < salidas.length; nivel++) {
+                    System.out.println("    -O" + nivel + ": " + resumir(salidas[nivel]));
+                }
+            }
+        }
+        return fallidos;
+    }
+
+    /**
+     * Compila el caso al nivel indicado y lo corre. Retorna la salida, o el error
+     * precedido de '!' si no compiló o no terminó.
+     */
+    private String ejecutar(Caso caso, int nivel) {
+        String base = directorioSalida.resolve(caso.nombre + "_O" + nivel).toString();
+        // Los println de depuración del parser no tienen que ver con la verificación
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Compiler compilador = new Compiler(caso.nombre + ".txt", base + ".asm", base + ".errors.log");
+            compilador.setCodigoFuente(caso.fuente);
+            compilador.setNivelOptimizacion(nivel);
+            compilador.compilar();
+        } catch (Exception e) {
+            return "!" + e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            System.setOut(consola);
+        }
+        try {
+            SimuladorMIPS simulador = new SimuladorMIPS(FileManager.readFile(base + ".asm"));
+            simulador.setEntrada(caso.entrada);
+            return simulador.ejecutar();
+        } catch (Exception e) {
+            return "!" + e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static String resumir(String salida) {
+        String una = salida.replace("\n", "\\n");
+        return una.length() > 80 ? una.substring(0, 77) + "..." : una;
+    }
+}
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Análisis de vivacidad de los temporales de una función, iterativo sobre el grafo de
+ * flujo con conjuntos de bits en arreglos long[].
+ *
+ * Los temporales de la función se numeran 0..cantidad-1 en orden de aparición y cada
+ * conjunto ocupa palabras longs consecutivos por bloque. Se recorren los bloques de atrás
+ * hacia adelante hasta que ningún conjunto cambia:
+ *   salida[b] = unión de entrada[s] de los sucesores
+ *   entrada[b] = usos[b] | (salida[b] & ~definiciones[b])
+ *
+ * Los usos son los que ve el generador MIPS: los argumentos (param) se leen recién en la
+ * llamada, así que un temporal pasado como argumento sigue vivo hasta el call.
+ * Las variables viven en memoria y no se analizan.
+ */
+public class Vivacidad {
+
+    // Tamaño máximo de cada conjunto (bloques * palabras); más allá calcular no hace nada
+    static final int MAX_PALABRAS = 1 << 20;
+
+    private GrafoFlujo grafo;
+    private List<Cuadruplo> codigo;
+    private int desde;
+
+    // Numeración local de los temporales de la función
+    private int[] indice = new int[0];   // por temporal del programa, -1 si no aparece
+    private int[] temporales = new int[64];
+    private int cantidad;
+    private int palabras;
+
+    // Conjuntos por bloque, palabras longs cada uno
+    private long[] usos = new long[0];
+    private long[] definiciones = new long[0];
+    private long[] entrada = new long[0];
+    private long[] salida = new long[0];
+
+    // Argumentos de cada llamada: primero en argumentos y cantidad, por posición - desde
+    private int[] primerArgumento = new int[0];
+    private int[] cantidadArgumentos = new int[0];
+    private int[] argumentos = new int[16];
+    private int[] pendientes = new int[16];
+
+    /**
+     * Calcula la vivacidad en la función del grafo ya construido.
+     * @return false si la función es demasiado grande para los conjuntos de bits
+     */
+    public boolean calcular(ProgramaIR programa, GrafoFlujo grafo) {
+        this.grafo = grafo;
+        this.codigo = grafo.codigo;
+        this.desde = grafo.desde;
+        numerar(programa, grafo.hasta);
+        palabras = (cantidad + 63) >>> 6;
+        long total = (long) grafo.getCantidadBloques() * palabras;
+        if (total > MAX_PALABRAS) {
+            return false;
+        }
+        preparar((int) total);
+        calcularBloques();
+        iterar();
+        return true;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public int getPalabras() {
+        return palabras;
+    }
+
+    /**
+     * Temporal del programa con el índice local dado
+     */
+    public int temporal(int i) {
+        return temporales[i];
+    }
+
+    /**
+     * Índice local del temporal, o -1 si no aparece en la función
+     */
+    public int indice(int temporal) {
+        return indice[temporal];
+    }
+
+    public boolean vivoAlEntrar(int bloque, int temporal) {
+        return contiene(entrada, bloque * palabras, indice[temporal]);
+    }
+
+    public boolean vivoAlSalir(int bloque, int temporal) {
+        return contiene(salida, bloque * palabras, indice[temporal]);
+    }
+
+    /**
+     * Copia en destino (palabras longs) el conjunto de temporales vivos al entrar al bloque
+     */
+    public void copiarEntrada(int bloque, long[] destino) {
+        System.arraycopy(entrada, bloque * palabras, destino, 0, palabras);
+    }
+
+    /**
+     * Copia en destino (palabras longs) el conjunto de temporales vivos al salir del bloque
+     */
+    public void copiarSalida(int bloque, long[] destino) {
+        System.arraycopy(salida, bloque * palabras, destino, 0, palabras);
+    }
+
+    /**
+     * Pasa el conjunto vivos de después del cuádruplo en la posición a antes de él:
+     * quita lo que define y agrega lo que lee. Recorriendo un bloque hacia atrás desde
+     * copiarSalida se obtienen los vivos en cada punto.
+     */
+    public void retroceder(int posicion, long[] vivos) {
+        int d = definicion(posicion);
+        if (d >= 0) {
+            int i = indice[d];
+            vivos[i >>> 6] &= ~(1L << i);
+        }
+        int n = cantidadUsos(posicion);
+        for (int k = 0; k < n; k++) {
+            int u = uso(posicion, k);
+            if (u >= 0) {
+                int i = indice[u];
+                vivos[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Temporal que escribe el cuádruplo de la posición, o -1
+     */
+    public int definicion(int posicion) {
+        Cuadruplo c = codigo.get(posicion);
+        switch (c.op) {
+            case GUARDAR_ARREGLO:
+            case SALTO_SI:
+            case SALTO_SI_FALSO:
+            case SALTO_TABLA:
+            case PARAMETRO:
+            case RETORNO:
+            case IMPRIMIR:
+                return -1;
+            default:
+                return Operando.esTemporal(c.resultado) ? Operando.valor(c.resultado) : -1;
+        }
+    }
+
+    /**
+     * Cantidad de operandos que lee el cuádruplo de la posición (ver uso)
+     */
+    public int cantidadUsos(int posicion) {
+        Cuadruplo c = codigo.get(posicion);
+        switch (c.op) {
+            case LLAMADA:
+                return cantidadArgumentos[posicion - desde];
+            case CARGAR_ARREGLO:
+            case COPIA:
+            case NOT:
+            case NEGATIVO:
+            case SALTO_SI:
+            case SALTO_SI_FALSO:
+            case SALTO_TABLA:
+            case RETORNO:
+            case IMPRIMIR:
+                return 1;
+            case GUARDAR_ARREGLO:
+                return 2;
+            default:
+                return c.op.esBinaria() ? 2 : 0;
+        }
+    }
+
+    /**
+     * Operando k que lee el cuádruplo de la posición, como temporal, o -1 si no es temporal
+     */
+    public int uso(int posicion, int k) {
+        Cuadruplo c = codigo.get(posicion);
+        long operando;
+        if (c.op == Operacion.LLAMADA) {
+            return argumentos[primerArgumento[posicion - desde] + k];
+        } else if (c.op == Operacion.CARGAR_ARREGLO) {
+            operando = c.arg2;
+        } else {
+            operando = k == 0 ? c.arg1 : c.arg2;
+        }
+        return Operando.esTemporal(operando) ? Operando.valor(operando) : -1;
+    }
+
+    private static boolean contiene(long[] conjunto, int base, int i) {
+        return i >= 0 && (conjunto[base + (i >>> 6)] & (1L << i)) != 0;
+    }
+
+    // Numera los temporales y agrupa los argumentos de cada llamada
+    private void numerar(ProgramaIR programa, int hasta) {
+        if (indice.length < programa.getCantidadTemporales()) {
+            indice = new int[programa.getCantidadTemporales()];
+            Arrays.fill(indice, -1);
+        } else {
+            for (int i = 0; i < cantidad; i++) {
+                indice[temporales[i]] = -1;
+            }
+        }
+        cantidad = 0;
+        if (primerArgumento.length < hasta - desde) {
+            primerArgumento = new int[hasta - desde];
+            cantidadArgumentos = new int[hasta - desde];
+        }
+
+        // Pila de argumentos pendientes; los de una llamada quedan contiguos al tope y al
+        // llegar a ella se copian a argumentos
+        int tope = 0;
+        int copiados = 0;
+        for (int i = desde; i < hasta; i++) {
+            Cuadruplo c = codigo.get(i);
+            numerarOperando(c.resultado);
+            numerarOperando(c.arg1);
+            numerarOperando(c.arg2);
+            if (c.op == Operacion.PARAMETRO) {
+                if (tope == pendientes.length) {
+                    pendientes = Arrays.copyOf(pendientes, tope * 2);
+                }
+                pendientes[tope++] = Operando.esTemporal(c.arg1) ? Operando.valor(c.arg1) : -1;
+            } else if (c.op == Operacion.LLAMADA) {
+                int n = Math.min(Operando.valor(c.arg2), tope);
+                tope -= n;
+                if (copiados + n > argumentos.length) {
+                    argumentos = Arrays.copyOf(argumentos, Math.max(copiados + n, 2 * argumentos.length));
+                }
+                System.arraycopy(pendientes, tope, argumentos, copiados, n);
+                primerArgumento[i - desde] = copiados;
+                cantidadArgumentos[i - desde] = n;
+                copiados += n;
+            }
+        }
+    }
+
+    private void numerarOperando(long operando) {
+        if (!Operando.esTemporal(operando)) {
+            return;
+        }
+        int t = Operando.valor(operando);
+        if (indice[t] < 0) {
+            indice[t] = cantidad;
+            if (cantidad == temporales.length) {
+                temporales = Arrays.copyOf(temporales, cantidad * 2);
+            }
+            temporales[cantidad++] = t;
+        }
+    }
+
+    private void preparar(int total) {
+        if (entrada.length < total) {
+            int n = Math.max(total, 2 * entrada.length);
+            usos = new long[n];
+            definiciones = new long[n];
+            entrada = new long[n];
+            salida = new long[n];
+        } else {
+            Arrays.fill(usos, 0, total, 0L);
+            Arrays.fill(definiciones, 0, total, 0L);
+            Arrays.fill(entrada, 0, total, 0L);
+            Arrays.fill(salida, 0, total, 0L);
+        }
+    }
+
+    // Usos expuestos hacia arriba y definiciones de cada bloque, recorriéndolo hacia atrás
+    private void calcularBloques() {
+        for (int b = 0; b < grafo.getCantidadBloques(); b++) {
+            int base = b * palabras;
+            for (int i = grafo.fin(b) - 1; i >= grafo.inicio(b); i--) {
+                int d = definicion(i);
+                if (d >= 0) {
+                    int k = indice[d];
+                    usos[base + (k >>> 6)] &= ~(1L << k);
+                    definiciones[base + (k >>> 6)] |= 1L << k;
+                }
+                int n = cantidadUsos(i);
+                for (int j = 0; j < n; j++) {
+                    int u = uso(i, j);
+                    if (u >= 0) {
+                        int k = indice[u];
+                        usos[base + (k >>> 6)] |= 1L << k;
+                    }
+                }
+            }
+        }
+    }
+
+    // Punto fijo; de atrás hacia adelante casi todo converge en una o dos pasadas
+    private void iterar() {
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int b = grafo.getCantidadBloques() - 1; b >= 0; b--) {
+                int base = b * palabras;
+                int n = grafo.cantidadSucesores(b);
+                for (int w = 0; w < palabras; w++) {
+                    long sale = 0L;
+                    for (int k = 0; k < n; k++) {
+                        sale |= entrada[grafo.sucesor(b, k) * palabras + w];
+                    }
+                    salida[base + w] = sale;
+                    long entra = usos[base + w] | (sale & ~definiciones[base + w]);
+                    if (entra != entrada[base + w]) {
+                        entrada[base + w] = entra;
+                        cambio = true;
+                    }
+                }
+            }
+        }
+    }
+}
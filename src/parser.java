@@ -6,9 +6,11 @@
 import java_cup.runtime.*;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.List;
 import java.util.HashSet;
+import java.util.ArrayDeque;
 import java_cup.runtime.XMLElement;
 
 /** CUP v0.11b 20160615 (GIT 4ac7450) generated parser.
@@ -34,7 +36,7 @@ public class parser extends java_cup.runtime.lr_parser {
   /** Production table. */
   protected static final short _production_table[][] = 
     unpackFromStrings(new String[] {
-    "\000\201\000\002\002\004\000\002\002\003\000\002\003" +
+    "\000\206\000\002\002\004\000\002\002\003\000\002\003" +
     "\004\000\002\003\002\000\002\004\004\000\002\004\003" +
     "\000\002\004\003\000\002\004\003\000\002\004\003\000" +
     "\002\057\004\000\002\005\003\000\002\005\003\000\002" +
@@ -47,33 +49,35 @@ public class parser extends java_cup.runtime.lr_parser {
     "\000\002\011\004\000\002\011\004\000\002\011\004\000" +
     "\002\011\004\000\002\011\004\000\002\011\003\000\002" +
     "\011\003\000\002\030\003\000\002\030\003\000\002\030" +
-    "\003\000\002\030\003\000\002\063\002\000\002\033\012" +
-    "\000\002\064\002\000\002\065\002\000\002\034\012\000" +
-    "\002\034\002\000\002\066\002\000\002\035\005\000\002" +
-    "\035\002\000\002\067\002\000\002\036\012\000\002\070" +
-    "\002\000\002\071\002\000\002\037\015\000\002\031\003" +
-    "\000\002\031\003\000\002\045\003\000\002\045\003\000" +
-    "\002\072\002\000\002\040\013\000\002\041\004\000\002" +
-    "\041\002\000\002\042\006\000\002\043\003\000\002\032" +
-    "\005\000\002\032\002\000\002\046\005\000\002\046\011" +
-    "\000\002\046\007\000\002\047\007\000\002\044\004\000" +
-    "\002\044\002\000\002\050\005\000\002\050\005\000\002" +
-    "\016\003\000\002\016\003\000\002\013\005\000\002\013" +
-    "\003\000\002\013\004\000\002\020\003\000\002\020\003" +
-    "\000\002\014\005\000\002\014\003\000\002\021\003\000" +
-    "\002\021\003\000\002\021\003\000\002\021\003\000\002" +
-    "\021\003\000\002\021\003\000\002\012\005\000\002\012" +
-    "\003\000\002\012\003\000\002\017\005\000\002\017\005" +
-    "\000\002\017\005\000\002\017\003\000\002\022\003\000" +
-    "\002\022\003\000\002\022\003\000\002\022\003\000\002" +
-    "\022\003\000\002\022\003\000\002\023\004\000\002\023" +
-    "\004\000\002\023\004\000\002\056\003\000\002\056\003" +
-    "\000\002\024\006\000\002\024\010\000\002\051\006\000" +
-    "\002\027\005\000\002\027\003\000\002\027\002\000\002" +
-    "\052\004\000\002\053\006\000\002\054\006\000\002\015" +
-    "\003\000\002\015\003\000\002\015\003\000\002\015\003" +
-    "\000\002\015\003\000\002\015\003\000\002\015\003\000" +
-    "\002\015\003\000\002\015\003\000\002\015\005" });
+    "\003\000\002\030\003\000\002\063\002\000\002\064\002" +
+    "\000\002\033\013\000\002\065\002\000\002\066\002\000" +
+    "\002\034\012\000\002\034\002\000\002\067\002\000\002" +
+    "\035\005\000\002\035\002\000\002\070\002\000\002\036" +
+    "\012\000\002\071\002\000\002\072\002\000\002\073\002" +
+    "\000\002\037\016\000\002\031\003\000\002\031\003\000" +
+    "\002\045\003\000\002\045\003\000\002\074\002\000\002" +
+    "\040\013\000\002\041\004\000\002\041\002\000\002\075" +
+    "\002\000\002\076\002\000\002\042\010\000\002\043\003" +
+    "\000\002\077\002\000\002\032\006\000\002\032\002\000" +
+    "\002\046\005\000\002\046\011\000\002\046\007\000\002" +
+    "\047\007\000\002\044\004\000\002\044\002\000\002\050" +
+    "\005\000\002\050\005\000\002\016\003\000\002\016\003" +
+    "\000\002\013\005\000\002\013\003\000\002\013\004\000" +
+    "\002\020\003\000\002\020\003\000\002\014\005\000\002" +
+    "\014\003\000\002\021\003\000\002\021\003\000\002\021" +
+    "\003\000\002\021\003\000\002\021\003\000\002\021\003" +
+    "\000\002\012\005\000\002\012\003\000\002\012\003\000" +
+    "\002\017\005\000\002\017\005\000\002\017\005\000\002" +
+    "\017\003\000\002\022\003\000\002\022\003\000\002\022" +
+    "\003\000\002\022\003\000\002\022\003\000\002\022\003" +
+    "\000\002\023\004\000\002\023\004\000\002\023\004\000" +
+    "\002\056\003\000\002\056\003\000\002\024\006\000\002" +
+    "\024\010\000\002\051\006\000\002\027\005\000\002\027" +
+    "\003\000\002\027\002\000\002\052\004\000\002\053\006" +
+    "\000\002\054\006\000\002\015\003\000\002\015\003\000" +
+    "\002\015\003\000\002\015\003\000\002\015\003\000\002" +
+    "\015\003\000\002\015\003\000\002\015\003\000\002\015" +
+    "\003\000\002\015\005" });
 
   /** Access to production table. */
   public short[][] production_table() {return _production_table;}
@@ -81,7 +85,7 @@ public class parser extends java_cup.runtime.lr_parser {
   /** Parse-action table. */
   protected static final short[][] _action_table = 
     unpackFromStrings(new String[] {
-    "\000\343\000\032\002\ufffe\021\ufffe\022\ufffe\023\ufffe\024" +
+    "\000\350\000\032\002\ufffe\021\ufffe\022\ufffe\023\ufffe\024" +
     "\ufffe\025\ufffe\035\ufffe\040\ufffe\041\ufffe\042\ufffe\043\ufffe" +
     "\076\ufffe\001\002\000\032\002\000\021\022\022\013\023" +
     "\020\024\010\025\021\035\015\040\011\041\017\042\027" +
@@ -94,7 +98,7 @@ public class parser extends java_cup.runtime.lr_parser {
     "\023\ufff9\024\ufff9\025\ufff9\035\ufff9\040\ufff9\041\ufff9\042" +
     "\ufff9\043\ufff9\076\ufff9\001\002\000\020\024\010\025\021" +
     "\035\015\040\011\041\017\042\027\043\025\001\002\000" +
-    "\004\037\321\001\002\000\004\037\ufff7\001\002\000\032" +
+    "\004\037\326\001\002\000\004\037\ufff7\001\002\000\032" +
     "\002\uffff\021\uffff\022\uffff\023\uffff\024\uffff\025\uffff\035" +
     "\uffff\040\uffff\041\uffff\042\uffff\043\uffff\076\uffff\001\002" +
     "\000\004\037\ufff5\001\002\000\004\072\145\001\002\000" +
@@ -114,162 +118,162 @@ public class parser extends java_cup.runtime.lr_parser {
     "\021\ufff8\022\ufff8\023\ufff8\024\ufff8\025\ufff8\035\ufff8\037" +
     "\ufff8\040\ufff8\041\ufff8\042\ufff8\043\ufff8\076\ufff8\101\ufff8" +
     "\001\002\000\004\037\034\001\002\000\006\057\035\075" +
-    "\uffb7\001\002\000\036\003\057\033\047\034\054\036\062" +
-    "\037\043\044\056\045\045\055\042\060\040\061\067\066" +
+    "\uffb2\001\002\000\036\003\057\033\047\034\054\036\062" +
+    "\037\044\044\056\045\045\055\042\060\040\061\067\066" +
     "\055\067\063\072\041\104\064\001\002\000\004\075\037" +
-    "\001\002\000\032\002\uffb9\021\uffb9\022\uffb9\023\uffb9\024" +
-    "\uffb9\025\uffb9\035\uffb9\040\uffb9\041\uffb9\042\uffb9\043\uffb9" +
-    "\076\uffb9\001\002\000\022\033\uff95\034\uff95\036\uff95\037" +
-    "\uff95\044\uff95\045\uff95\072\uff95\104\uff95\001\002\000\036" +
-    "\003\057\033\047\034\054\036\062\037\043\044\056\045" +
+    "\001\002\000\032\002\uffb4\021\uffb4\022\uffb4\023\uffb4\024" +
+    "\uffb4\025\uffb4\035\uffb4\040\uffb4\041\uffb4\042\uffb4\043\uffb4" +
+    "\076\uffb4\001\002\000\022\033\uff90\034\uff90\036\uff90\037" +
+    "\uff90\044\uff90\045\uff90\072\uff90\104\uff90\001\002\000\036" +
+    "\003\057\033\047\034\054\036\062\037\044\044\056\045" +
     "\045\055\042\060\040\061\067\066\055\067\063\072\041" +
     "\104\064\001\002\000\032\033\047\034\054\036\062\037" +
-    "\043\044\056\045\045\060\040\061\067\066\055\067\063" +
-    "\072\041\104\064\001\002\000\056\046\uff82\047\uff82\050" +
-    "\uff82\051\uff82\052\uff82\053\uff82\054\uff82\056\uff82\060\uff82" +
-    "\061\uff82\062\uff82\063\uff82\064\uff82\065\uff82\070\uff82\071" +
-    "\uff82\072\126\073\uff82\074\uff82\075\uff82\102\uff82\103\125" +
-    "\001\002\000\050\046\112\047\116\050\107\051\114\052" +
-    "\121\053\uffac\054\uffac\056\106\060\113\061\120\062\115" +
-    "\063\110\064\117\065\111\070\uffac\073\uffac\074\uffac\075" +
-    "\uffac\102\uffac\001\002\000\052\046\uff86\047\uff86\050\uff86" +
-    "\051\uff86\052\uff86\053\uff86\054\uff86\056\uff86\060\uff86\061" +
-    "\uff86\062\uff86\063\uff86\064\uff86\065\uff86\070\uff86\071\uff86" +
-    "\073\uff86\074\uff86\075\uff86\102\uff86\001\002\000\052\046" +
-    "\uff83\047\uff83\050\uff83\051\uff83\052\uff83\053\uff83\054\uff83" +
-    "\056\uff83\060\uff83\061\uff83\062\uff83\063\uff83\064\uff83\065" +
-    "\uff83\070\uff83\071\uff83\073\uff83\074\uff83\075\uff83\102\uff83" +
-    "\001\002\000\052\046\uff87\047\uff87\050\uff87\051\uff87\052" +
-    "\uff87\053\uff87\054\uff87\056\uff87\060\uff87\061\uff87\062\uff87" +
-    "\063\uff87\064\uff87\065\uff87\070\uff87\071\uff87\073\uff87\074" +
-    "\uff87\075\uff87\102\uff87\001\002\000\050\046\uff9f\047\uff9f" +
-    "\050\uff9f\051\uff9f\052\uff9f\053\uff9f\054\uff9f\056\uff9f\060" +
-    "\uff9f\061\uff9f\062\uff9f\063\uff9f\064\uff9f\065\uff9f\070\uff9f" +
-    "\073\uff9f\074\uff9f\075\uff9f\102\uff9f\001\002\000\050\046" +
-    "\uffa4\047\uffa4\050\uffa4\051\uffa4\052\uffa4\053\uffa4\054\uffa4" +
-    "\056\uffa4\060\uffa4\061\uffa4\062\100\063\101\064\077\065" +
-    "\uffa4\070\uffa4\073\uffa4\074\uffa4\075\uffa4\102\uffa4\001\002" +
-    "\000\052\046\uff84\047\uff84\050\uff84\051\uff84\052\uff84\053" +
-    "\uff84\054\uff84\056\uff84\060\uff84\061\uff84\062\uff84\063\uff84" +
-    "\064\uff84\065\uff84\070\uff84\071\uff84\073\uff84\074\uff84\075" +
-    "\uff84\102\uff84\001\002\000\004\075\uffb8\001\002\000\052" +
-    "\046\uff88\047\uff88\050\uff88\051\uff88\052\uff88\053\uff88\054" +
-    "\uff88\056\uff88\060\uff88\061\uff88\062\uff88\063\uff88\064\uff88" +
-    "\065\uff88\070\uff88\071\uff88\073\uff88\074\uff88\075\uff88\102" +
-    "\uff88\001\002\000\004\037\076\001\002\000\052\046\uff85" +
-    "\047\uff85\050\uff85\051\uff85\052\uff85\053\uff85\054\uff85\056" +
-    "\uff85\060\uff85\061\uff85\062\uff85\063\uff85\064\uff85\065\uff85" +
-    "\070\uff85\071\uff85\073\uff85\074\uff85\075\uff85\102\uff85\001" +
-    "\002\000\014\070\uffb3\073\uffb3\074\uffb3\075\uffb3\102\uffb3" +
-    "\001\002\000\050\046\uffa3\047\uffa3\050\uffa3\051\uffa3\052" +
-    "\uffa3\053\uffa3\054\uffa3\056\uffa3\060\uffa3\061\uffa3\062\uffa3" +
-    "\063\uffa3\064\uffa3\065\uffa3\070\uffa3\073\uffa3\074\uffa3\075" +
-    "\uffa3\102\uffa3\001\002\000\020\053\uffb1\054\uffb1\070\uffb1" +
-    "\073\uffb1\074\uffb1\075\uffb1\102\uffb1\001\002\000\052\046" +
-    "\uff8a\047\uff8a\050\uff8a\051\uff8a\052\uff8a\053\uff8a\054\uff8a" +
-    "\056\uff8a\060\uff8a\061\uff8a\062\uff8a\063\uff8a\064\uff8a\065" +
-    "\uff8a\070\uff8a\071\uff8a\073\uff8a\074\uff8a\075\uff8a\102\uff8a" +
-    "\001\002\000\004\037\075\001\002\000\052\046\uff89\047" +
-    "\uff89\050\uff89\051\uff89\052\uff89\053\uff89\054\uff89\056\uff89" +
-    "\060\uff89\061\uff89\062\uff89\063\uff89\064\uff89\065\uff89\070" +
-    "\uff89\071\uff89\073\uff89\074\uff89\075\uff89\102\uff89\001\002" +
-    "\000\022\033\047\034\054\036\062\037\043\044\056\045" +
+    "\044\044\056\045\045\060\040\061\067\066\055\067\063" +
+    "\072\041\104\064\001\002\000\050\046\126\047\132\050" +
+    "\123\051\130\052\135\053\uffa7\054\uffa7\056\121\060\127" +
+    "\061\134\062\131\063\124\064\133\065\125\070\uffa7\073" +
+    "\uffa7\074\uffa7\075\uffa7\102\uffa7\001\002\000\056\046\uff7d" +
+    "\047\uff7d\050\uff7d\051\uff7d\052\uff7d\053\uff7d\054\uff7d\056" +
+    "\uff7d\060\uff7d\061\uff7d\062\uff7d\063\uff7d\064\uff7d\065\uff7d" +
+    "\070\uff7d\071\uff7d\072\106\073\uff7d\074\uff7d\075\uff7d\102" +
+    "\uff7d\103\105\001\002\000\052\046\uff81\047\uff81\050\uff81" +
+    "\051\uff81\052\uff81\053\uff81\054\uff81\056\uff81\060\uff81\061" +
+    "\uff81\062\uff81\063\uff81\064\uff81\065\uff81\070\uff81\071\uff81" +
+    "\073\uff81\074\uff81\075\uff81\102\uff81\001\002\000\052\046" +
+    "\uff7e\047\uff7e\050\uff7e\051\uff7e\052\uff7e\053\uff7e\054\uff7e" +
+    "\056\uff7e\060\uff7e\061\uff7e\062\uff7e\063\uff7e\064\uff7e\065" +
+    "\uff7e\070\uff7e\071\uff7e\073\uff7e\074\uff7e\075\uff7e\102\uff7e" +
+    "\001\002\000\052\046\uff82\047\uff82\050\uff82\051\uff82\052" +
+    "\uff82\053\uff82\054\uff82\056\uff82\060\uff82\061\uff82\062\uff82" +
+    "\063\uff82\064\uff82\065\uff82\070\uff82\071\uff82\073\uff82\074" +
+    "\uff82\075\uff82\102\uff82\001\002\000\050\046\uff9a\047\uff9a" +
+    "\050\uff9a\051\uff9a\052\uff9a\053\uff9a\054\uff9a\056\uff9a\060" +
+    "\uff9a\061\uff9a\062\uff9a\063\uff9a\064\uff9a\065\uff9a\070\uff9a" +
+    "\073\uff9a\074\uff9a\075\uff9a\102\uff9a\001\002\000\050\046" +
+    "\uff9f\047\uff9f\050\uff9f\051\uff9f\052\uff9f\053\uff9f\054\uff9f" +
+    "\056\uff9f\060\uff9f\061\uff9f\062\100\063\101\064\077\065" +
+    "\uff9f\070\uff9f\073\uff9f\074\uff9f\075\uff9f\102\uff9f\001\002" +
+    "\000\052\046\uff7f\047\uff7f\050\uff7f\051\uff7f\052\uff7f\053" +
+    "\uff7f\054\uff7f\056\uff7f\060\uff7f\061\uff7f\062\uff7f\063\uff7f" +
+    "\064\uff7f\065\uff7f\070\uff7f\071\uff7f\073\uff7f\074\uff7f\075" +
+    "\uff7f\102\uff7f\001\002\000\004\075\uffb3\001\002\000\052" +
+    "\046\uff83\047\uff83\050\uff83\051\uff83\052\uff83\053\uff83\054" +
+    "\uff83\056\uff83\060\uff83\061\uff83\062\uff83\063\uff83\064\uff83" +
+    "\065\uff83\070\uff83\071\uff83\073\uff83\074\uff83\075\uff83\102" +
+    "\uff83\001\002\000\004\037\076\001\002\000\052\046\uff80" +
+    "\047\uff80\050\uff80\051\uff80\052\uff80\053\uff80\054\uff80\056" +
+    "\uff80\060\uff80\061\uff80\062\uff80\063\uff80\064\uff80\065\uff80" +
+    "\070\uff80\071\uff80\073\uff80\074\uff80\075\uff80\102\uff80\001" +
+    "\002\000\014\070\uffae\073\uffae\074\uffae\075\uffae\102\uffae" +
+    "\001\002\000\050\046\uff9e\047\uff9e\050\uff9e\051\uff9e\052" +
+    "\uff9e\053\uff9e\054\uff9e\056\uff9e\060\uff9e\061\uff9e\062\uff9e" +
+    "\063\uff9e\064\uff9e\065\uff9e\070\uff9e\073\uff9e\074\uff9e\075" +
+    "\uff9e\102\uff9e\001\002\000\020\053\uffac\054\uffac\070\uffac" +
+    "\073\uffac\074\uffac\075\uffac\102\uffac\001\002\000\052\046" +
+    "\uff85\047\uff85\050\uff85\051\uff85\052\uff85\053\uff85\054\uff85" +
+    "\056\uff85\060\uff85\061\uff85\062\uff85\063\uff85\064\uff85\065" +
+    "\uff85\070\uff85\071\uff85\073\uff85\074\uff85\075\uff85\102\uff85" +
+    "\001\002\000\004\037\075\001\002\000\052\046\uff84\047" +
+    "\uff84\050\uff84\051\uff84\052\uff84\053\uff84\054\uff84\056\uff84" +
+    "\060\uff84\061\uff84\062\uff84\063\uff84\064\uff84\065\uff84\070" +
+    "\uff84\071\uff84\073\uff84\074\uff84\075\uff84\102\uff84\001\002" +
+    "\000\022\033\047\034\054\036\062\037\044\044\056\045" +
     "\045\072\041\104\064\001\002\000\020\053\071\054\072" +
-    "\070\uffb4\073\uffb4\074\uffb4\075\uffb4\102\uffb4\001\002\000" +
-    "\022\033\uff94\034\uff94\036\uff94\037\uff94\044\uff94\045\uff94" +
-    "\072\uff94\104\uff94\001\002\000\032\033\047\034\054\036" +
-    "\062\037\043\044\056\045\045\060\040\061\067\066\055" +
-    "\067\063\072\041\104\064\001\002\000\032\033\uffae\034" +
-    "\uffae\036\uffae\037\uffae\044\uffae\045\uffae\060\uffae\061\uffae" +
-    "\066\uffae\067\uffae\072\uffae\104\uffae\001\002\000\032\033" +
-    "\uffaf\034\uffaf\036\uffaf\037\uffaf\044\uffaf\045\uffaf\060\uffaf" +
-    "\061\uffaf\066\uffaf\067\uffaf\072\uffaf\104\uffaf\001\002\000" +
-    "\020\053\uffb2\054\uffb2\070\uffb2\073\uffb2\074\uffb2\075\uffb2" +
-    "\102\uffb2\001\002\000\050\046\uff98\047\uff98\050\uff98\051" +
-    "\uff98\052\uff98\053\uff98\054\uff98\056\uff98\060\uff98\061\uff98" +
-    "\062\uff98\063\uff98\064\uff98\065\uff98\070\uff98\073\uff98\074" +
-    "\uff98\075\uff98\102\uff98\001\002\000\050\046\uff96\047\uff96" +
-    "\050\uff96\051\uff96\052\uff96\053\uff96\054\uff96\056\uff96\060" +
-    "\uff96\061\uff96\062\uff96\063\uff96\064\uff96\065\uff96\070\uff96" +
-    "\073\uff96\074\uff96\075\uff96\102\uff96\001\002\000\050\046" +
-    "\uff97\047\uff97\050\uff97\051\uff97\052\uff97\053\uff97\054\uff97" +
-    "\056\uff97\060\uff97\061\uff97\062\uff97\063\uff97\064\uff97\065" +
-    "\uff97\070\uff97\073\uff97\074\uff97\075\uff97\102\uff97\001\002" +
-    "\000\022\033\047\034\054\036\062\037\043\044\056\045" +
+    "\070\uffaf\073\uffaf\074\uffaf\075\uffaf\102\uffaf\001\002\000" +
+    "\022\033\uff8f\034\uff8f\036\uff8f\037\uff8f\044\uff8f\045\uff8f" +
+    "\072\uff8f\104\uff8f\001\002\000\032\033\047\034\054\036" +
+    "\062\037\044\044\056\045\045\060\040\061\067\066\055" +
+    "\067\063\072\041\104\064\001\002\000\032\033\uffa9\034" +
+    "\uffa9\036\uffa9\037\uffa9\044\uffa9\045\uffa9\060\uffa9\061\uffa9" +
+    "\066\uffa9\067\uffa9\072\uffa9\104\uffa9\001\002\000\032\033" +
+    "\uffaa\034\uffaa\036\uffaa\037\uffaa\044\uffaa\045\uffaa\060\uffaa" +
+    "\061\uffaa\066\uffaa\067\uffaa\072\uffaa\104\uffaa\001\002\000" +
+    "\020\053\uffad\054\uffad\070\uffad\073\uffad\074\uffad\075\uffad" +
+    "\102\uffad\001\002\000\050\046\uff93\047\uff93\050\uff93\051" +
+    "\uff93\052\uff93\053\uff93\054\uff93\056\uff93\060\uff93\061\uff93" +
+    "\062\uff93\063\uff93\064\uff93\065\uff93\070\uff93\073\uff93\074" +
+    "\uff93\075\uff93\102\uff93\001\002\000\050\046\uff91\047\uff91" +
+    "\050\uff91\051\uff91\052\uff91\053\uff91\054\uff91\056\uff91\060" +
+    "\uff91\061\uff91\062\uff91\063\uff91\064\uff91\065\uff91\070\uff91" +
+    "\073\uff91\074\uff91\075\uff91\102\uff91\001\002\000\050\046" +
+    "\uff92\047\uff92\050\uff92\051\uff92\052\uff92\053\uff92\054\uff92" +
+    "\056\uff92\060\uff92\061\uff92\062\uff92\063\uff92\064\uff92\065" +
+    "\uff92\070\uff92\073\uff92\074\uff92\075\uff92\102\uff92\001\002" +
+    "\000\022\033\047\034\054\036\062\037\044\044\056\045" +
     "\045\072\041\104\064\001\002\000\022\033\047\034\054" +
-    "\036\062\037\043\044\056\045\045\072\041\104\064\001" +
-    "\002\000\022\033\047\034\054\036\062\037\043\044\056" +
-    "\045\045\072\041\104\064\001\002\000\050\046\uffa1\047" +
-    "\uffa1\050\uffa1\051\uffa1\052\uffa1\053\uffa1\054\uffa1\056\uffa1" +
-    "\060\uffa1\061\uffa1\062\uffa1\063\uffa1\064\uffa1\065\uffa1\070" +
-    "\uffa1\073\uffa1\074\uffa1\075\uffa1\102\uffa1\001\002\000\050" +
-    "\046\uffa2\047\uffa2\050\uffa2\051\uffa2\052\uffa2\053\uffa2\054" +
-    "\uffa2\056\uffa2\060\uffa2\061\uffa2\062\uffa2\063\uffa2\064\uffa2" +
-    "\065\uffa2\070\uffa2\073\uffa2\074\uffa2\075\uffa2\102\uffa2\001" +
-    "\002\000\050\046\uffa0\047\uffa0\050\uffa0\051\uffa0\052\uffa0" +
-    "\053\uffa0\054\uffa0\056\uffa0\060\uffa0\061\uffa0\062\uffa0\063" +
-    "\uffa0\064\uffa0\065\uffa0\070\uffa0\073\uffa0\074\uffa0\075\uffa0" +
-    "\102\uffa0\001\002\000\022\033\047\034\054\036\062\037" +
-    "\043\044\056\045\045\072\041\104\064\001\002\000\032" +
-    "\033\uffa7\034\uffa7\036\uffa7\037\uffa7\044\uffa7\045\uffa7\060" +
-    "\uffa7\061\uffa7\066\uffa7\067\uffa7\072\uffa7\104\uffa7\001\002" +
-    "\000\032\033\uffa8\034\uffa8\036\uffa8\037\uffa8\044\uffa8\045" +
-    "\uffa8\060\uffa8\061\uffa8\066\uffa8\067\uffa8\072\uffa8\104\uffa8" +
-    "\001\002\000\022\033\uff9b\034\uff9b\036\uff9b\037\uff9b\044" +
-    "\uff9b\045\uff9b\072\uff9b\104\uff9b\001\002\000\022\033\uff99" +
-    "\034\uff99\036\uff99\037\uff99\044\uff99\045\uff99\072\uff99\104" +
-    "\uff99\001\002\000\032\033\uffaa\034\uffaa\036\uffaa\037\uffaa" +
-    "\044\uffaa\045\uffaa\060\uffaa\061\uffaa\066\uffaa\067\uffaa\072" +
-    "\uffaa\104\uffaa\001\002\000\022\033\uff9e\034\uff9e\036\uff9e" +
-    "\037\uff9e\044\uff9e\045\uff9e\072\uff9e\104\uff9e\001\002\000" +
-    "\032\033\uffa9\034\uffa9\036\uffa9\037\uffa9\044\uffa9\045\uffa9" +
-    "\060\uffa9\061\uffa9\066\uffa9\067\uffa9\072\uffa9\104\uffa9\001" +
-    "\002\000\022\033\uff9c\034\uff9c\036\uff9c\037\uff9c\044\uff9c" +
-    "\045\uff9c\072\uff9c\104\uff9c\001\002\000\032\033\uffab\034" +
-    "\uffab\036\uffab\037\uffab\044\uffab\045\uffab\060\uffab\061\uffab" +
-    "\066\uffab\067\uffab\072\uffab\104\uffab\001\002\000\022\033" +
-    "\uff9a\034\uff9a\036\uff9a\037\uff9a\044\uff9a\045\uff9a\072\uff9a" +
-    "\104\uff9a\001\002\000\022\033\uff9d\034\uff9d\036\uff9d\037" +
-    "\uff9d\044\uff9d\045\uff9d\072\uff9d\104\uff9d\001\002\000\032" +
-    "\033\uffa6\034\uffa6\036\uffa6\037\uffa6\044\uffa6\045\uffa6\060" +
-    "\uffa6\061\uffa6\066\uffa6\067\uffa6\072\uffa6\104\uffa6\001\002" +
-    "\000\032\033\047\034\054\036\062\037\043\044\056\045" +
-    "\045\060\040\061\067\066\055\067\063\072\041\104\064" +
-    "\001\002\000\034\053\uffad\054\uffad\060\113\061\120\062" +
-    "\115\063\110\064\117\065\111\070\uffad\073\uffad\074\uffad" +
-    "\075\uffad\102\uffad\001\002\000\050\046\uffa5\047\uffa5\050" +
-    "\uffa5\051\uffa5\052\uffa5\053\uffa5\054\uffa5\056\uffa5\060\uffa5" +
-    "\061\uffa5\062\100\063\101\064\077\065\uffa5\070\uffa5\073" +
-    "\uffa5\074\uffa5\075\uffa5\102\uffa5\001\002\000\036\003\057" +
-    "\033\047\034\054\036\062\037\043\044\056\045\045\055" +
-    "\042\060\040\061\067\066\055\067\063\072\041\104\064" +
-    "\001\002\000\042\003\057\033\047\034\054\036\062\037" +
-    "\043\044\056\045\045\055\042\060\040\061\067\066\055" +
-    "\067\063\070\uff8e\072\041\073\uff8e\104\064\001\002\000" +
-    "\006\070\131\073\132\001\002\000\006\070\uff8f\073\uff8f" +
-    "\001\002\000\036\003\057\033\047\034\054\036\062\037" +
-    "\043\044\056\045\045\055\042\060\040\061\067\066\055" +
-    "\067\063\072\041\104\064\001\002\000\052\046\uff91\047" +
-    "\uff91\050\uff91\051\uff91\052\uff91\053\uff91\054\uff91\056\uff91" +
-    "\060\uff91\061\uff91\062\uff91\063\uff91\064\uff91\065\uff91\070" +
-    "\uff91\071\uff91\073\uff91\074\uff91\075\uff91\102\uff91\001\002" +
-    "\000\006\070\uff90\073\uff90\001\002\000\006\070\136\102" +
-    "\135\001\002\000\054\046\uff93\047\uff93\050\uff93\051\uff93" +
-    "\052\uff93\053\uff93\054\uff93\056\uff93\057\uff93\060\uff93\061" +
-    "\uff93\062\uff93\063\uff93\064\uff93\065\uff93\070\uff93\071\uff93" +
-    "\073\uff93\074\uff93\075\uff93\102\uff93\001\002\000\036\003" +
-    "\057\033\047\034\054\036\062\037\043\044\056\045\045" +
+    "\036\062\037\044\044\056\045\045\072\041\104\064\001" +
+    "\002\000\022\033\047\034\054\036\062\037\044\044\056" +
+    "\045\045\072\041\104\064\001\002\000\050\046\uff9c\047" +
+    "\uff9c\050\uff9c\051\uff9c\052\uff9c\053\uff9c\054\uff9c\056\uff9c" +
+    "\060\uff9c\061\uff9c\062\uff9c\063\uff9c\064\uff9c\065\uff9c\070" +
+    "\uff9c\073\uff9c\074\uff9c\075\uff9c\102\uff9c\001\002\000\050" +
+    "\046\uff9d\047\uff9d\050\uff9d\051\uff9d\052\uff9d\053\uff9d\054" +
+    "\uff9d\056\uff9d\060\uff9d\061\uff9d\062\uff9d\063\uff9d\064\uff9d" +
+    "\065\uff9d\070\uff9d\073\uff9d\074\uff9d\075\uff9d\102\uff9d\001" +
+    "\002\000\050\046\uff9b\047\uff9b\050\uff9b\051\uff9b\052\uff9b" +
+    "\053\uff9b\054\uff9b\056\uff9b\060\uff9b\061\uff9b\062\uff9b\063" +
+    "\uff9b\064\uff9b\065\uff9b\070\uff9b\073\uff9b\074\uff9b\075\uff9b" +
+    "\102\uff9b\001\002\000\036\003\057\033\047\034\054\036" +
+    "\062\037\044\044\056\045\045\055\042\060\040\061\067" +
+    "\066\055\067\063\072\041\104\064\001\002\000\042\003" +
+    "\057\033\047\034\054\036\062\037\044\044\056\045\045" +
+    "\055\042\060\040\061\067\066\055\067\063\070\uff89\072" +
+    "\041\073\uff89\104\064\001\002\000\006\070\111\073\112" +
+    "\001\002\000\006\070\uff8a\073\uff8a\001\002\000\036\003" +
+    "\057\033\047\034\054\036\062\037\044\044\056\045\045" +
     "\055\042\060\040\061\067\066\055\067\063\072\041\104" +
-    "\064\001\002\000\004\102\140\001\002\000\054\046\uff92" +
-    "\047\uff92\050\uff92\051\uff92\052\uff92\053\uff92\054\uff92\056" +
-    "\uff92\057\uff92\060\uff92\061\uff92\062\uff92\063\uff92\064\uff92" +
-    "\065\uff92\070\uff92\071\uff92\073\uff92\074\uff92\075\uff92\102" +
-    "\uff92\001\002\000\020\053\uffb0\054\uffb0\070\uffb0\073\uffb0" +
-    "\074\uffb0\075\uffb0\102\uffb0\001\002\000\004\073\143\001" +
-    "\002\000\052\046\uff81\047\uff81\050\uff81\051\uff81\052\uff81" +
-    "\053\uff81\054\uff81\056\uff81\060\uff81\061\uff81\062\uff81\063" +
-    "\uff81\064\uff81\065\uff81\070\uff81\071\uff81\073\uff81\074\uff81" +
-    "\075\uff81\102\uff81\001\002\000\004\037\ufff1\001\002\000" +
+    "\064\001\002\000\052\046\uff8c\047\uff8c\050\uff8c\051\uff8c" +
+    "\052\uff8c\053\uff8c\054\uff8c\056\uff8c\060\uff8c\061\uff8c\062" +
+    "\uff8c\063\uff8c\064\uff8c\065\uff8c\070\uff8c\071\uff8c\073\uff8c" +
+    "\074\uff8c\075\uff8c\102\uff8c\001\002\000\006\070\uff8b\073" +
+    "\uff8b\001\002\000\006\070\116\102\115\001\002\000\054" +
+    "\046\uff8e\047\uff8e\050\uff8e\051\uff8e\052\uff8e\053\uff8e\054" +
+    "\uff8e\056\uff8e\057\uff8e\060\uff8e\061\uff8e\062\uff8e\063\uff8e" +
+    "\064\uff8e\065\uff8e\070\uff8e\071\uff8e\073\uff8e\074\uff8e\075" +
+    "\uff8e\102\uff8e\001\002\000\036\003\057\033\047\034\054" +
+    "\036\062\037\044\044\056\045\045\055\042\060\040\061" +
+    "\067\066\055\067\063\072\041\104\064\001\002\000\004" +
+    "\102\120\001\002\000\054\046\uff8d\047\uff8d\050\uff8d\051" +
+    "\uff8d\052\uff8d\053\uff8d\054\uff8d\056\uff8d\057\uff8d\060\uff8d" +
+    "\061\uff8d\062\uff8d\063\uff8d\064\uff8d\065\uff8d\070\uff8d\071" +
+    "\uff8d\073\uff8d\074\uff8d\075\uff8d\102\uff8d\001\002\000\032" +
+    "\033\uffa2\034\uffa2\036\uffa2\037\uffa2\044\uffa2\045\uffa2\060" +
+    "\uffa2\061\uffa2\066\uffa2\067\uffa2\072\uffa2\104\uffa2\001\002" +
+    "\000\022\033\047\034\054\036\062\037\044\044\056\045" +
+    "\045\072\041\104\064\001\002\000\032\033\uffa3\034\uffa3" +
+    "\036\uffa3\037\uffa3\044\uffa3\045\uffa3\060\uffa3\061\uffa3\066" +
+    "\uffa3\067\uffa3\072\uffa3\104\uffa3\001\002\000\022\033\uff96" +
+    "\034\uff96\036\uff96\037\uff96\044\uff96\045\uff96\072\uff96\104" +
+    "\uff96\001\002\000\022\033\uff94\034\uff94\036\uff94\037\uff94" +
+    "\044\uff94\045\uff94\072\uff94\104\uff94\001\002\000\032\033" +
+    "\uffa5\034\uffa5\036\uffa5\037\uffa5\044\uffa5\045\uffa5\060\uffa5" +
+    "\061\uffa5\066\uffa5\067\uffa5\072\uffa5\104\uffa5\001\002\000" +
+    "\022\033\uff99\034\uff99\036\uff99\037\uff99\044\uff99\045\uff99" +
+    "\072\uff99\104\uff99\001\002\000\032\033\uffa4\034\uffa4\036" +
+    "\uffa4\037\uffa4\044\uffa4\045\uffa4\060\uffa4\061\uffa4\066\uffa4" +
+    "\067\uffa4\072\uffa4\104\uffa4\001\002\000\022\033\uff97\034" +
+    "\uff97\036\uff97\037\uff97\044\uff97\045\uff97\072\uff97\104\uff97" +
+    "\001\002\000\032\033\uffa6\034\uffa6\036\uffa6\037\uffa6\044" +
+    "\uffa6\045\uffa6\060\uffa6\061\uffa6\066\uffa6\067\uffa6\072\uffa6" +
+    "\104\uffa6\001\002\000\022\033\uff95\034\uff95\036\uff95\037" +
+    "\uff95\044\uff95\045\uff95\072\uff95\104\uff95\001\002\000\022" +
+    "\033\uff98\034\uff98\036\uff98\037\uff98\044\uff98\045\uff98\072" +
+    "\uff98\104\uff98\001\002\000\032\033\uffa1\034\uffa1\036\uffa1" +
+    "\037\uffa1\044\uffa1\045\uffa1\060\uffa1\061\uffa1\066\uffa1\067" +
+    "\uffa1\072\uffa1\104\uffa1\001\002\000\032\033\047\034\054" +
+    "\036\062\037\044\044\056\045\045\060\040\061\067\066" +
+    "\055\067\063\072\041\104\064\001\002\000\034\053\uffa8" +
+    "\054\uffa8\060\127\061\134\062\131\063\124\064\133\065" +
+    "\125\070\uffa8\073\uffa8\074\uffa8\075\uffa8\102\uffa8\001\002" +
+    "\000\050\046\uffa0\047\uffa0\050\uffa0\051\uffa0\052\uffa0\053" +
+    "\uffa0\054\uffa0\056\uffa0\060\uffa0\061\uffa0\062\100\063\101" +
+    "\064\077\065\uffa0\070\uffa0\073\uffa0\074\uffa0\075\uffa0\102" +
+    "\uffa0\001\002\000\020\053\uffab\054\uffab\070\uffab\073\uffab" +
+    "\074\uffab\075\uffab\102\uffab\001\002\000\004\073\143\001" +
+    "\002\000\052\046\uff7c\047\uff7c\050\uff7c\051\uff7c\052\uff7c" +
+    "\053\uff7c\054\uff7c\056\uff7c\060\uff7c\061\uff7c\062\uff7c\063" +
+    "\uff7c\064\uff7c\065\uff7c\070\uff7c\071\uff7c\073\uff7c\074\uff7c" +
+    "\075\uff7c\102\uff7c\001\002\000\004\037\ufff1\001\002\000" +
     "\004\073\146\001\002\000\004\100\uffe9\001\002\000\004" +
     "\100\150\001\002\000\050\003\uffe5\004\uffe5\007\uffe5\011" +
     "\uffe5\012\uffe5\014\uffe5\016\uffe5\017\uffe5\020\uffe5\024\uffe5" +
@@ -277,7 +281,7 @@ public class parser extends java_cup.runtime.lr_parser {
     "\uffe5\076\uffe5\101\uffe5\001\002\000\032\002\uffe8\021\uffe8" +
     "\022\uffe8\023\uffe8\024\uffe8\025\uffe8\035\uffe8\040\uffe8\041" +
     "\uffe8\042\uffe8\043\uffe8\076\uffe8\001\002\000\050\003\175" +
-    "\004\162\007\166\011\203\012\161\014\172\016\156\017" +
+    "\004\162\007\164\011\203\012\161\014\172\016\156\017" +
     "\155\020\160\024\010\025\021\035\015\037\157\040\011" +
     "\041\017\042\027\043\025\076\024\101\153\001\002\000" +
     "\072\002\uffe7\003\uffe7\004\uffe7\005\uffe7\006\uffe7\007\uffe7" +
@@ -288,16 +292,16 @@ public class parser extends java_cup.runtime.lr_parser {
     "\007\uffe4\011\uffe4\012\uffe4\013\uffe4\014\uffe4\015\uffe4\016" +
     "\uffe4\017\uffe4\020\uffe4\024\uffe4\025\uffe4\035\uffe4\037\uffe4" +
     "\040\uffe4\041\uffe4\042\uffe4\043\uffe4\076\uffe4\101\uffe4\001" +
-    "\002\000\004\072\316\001\002\000\036\003\057\033\047" +
-    "\034\054\036\062\037\043\044\056\045\045\055\042\060" +
+    "\002\000\004\072\323\001\002\000\036\003\057\033\047" +
+    "\034\054\036\062\037\044\044\056\045\045\055\042\060" +
     "\040\061\067\066\055\067\063\072\041\104\064\001\002" +
-    "\000\010\057\227\072\126\103\125\001\002\000\004\072" +
-    "\312\001\002\000\004\072\271\001\002\000\004\072\247" +
-    "\001\002\000\004\075\246\001\002\000\054\003\uffd9\004" +
-    "\uffd9\007\uffd9\011\uffd9\012\uffd9\013\uffd9\014\uffd9\015\uffd9" +
-    "\016\uffd9\017\uffd9\020\uffd9\024\uffd9\025\uffd9\035\uffd9\037" +
-    "\uffd9\040\uffd9\041\uffd9\042\uffd9\043\uffd9\076\uffd9\101\uffd9" +
-    "\001\002\000\004\057\225\001\002\000\004\100\uffcd\001" +
+    "\000\010\057\230\072\106\103\105\001\002\000\004\072" +
+    "\317\001\002\000\004\072\273\001\002\000\004\072\250" +
+    "\001\002\000\004\075\247\001\002\000\004\100\uffcc\001" +
+    "\002\000\004\057\226\001\002\000\054\003\uffd9\004\uffd9" +
+    "\007\uffd9\011\uffd9\012\uffd9\013\uffd9\014\uffd9\015\uffd9\016" +
+    "\uffd9\017\uffd9\020\uffd9\024\uffd9\025\uffd9\035\uffd9\037\uffd9" +
+    "\040\uffd9\041\uffd9\042\uffd9\043\uffd9\076\uffd9\101\uffd9\001" +
     "\002\000\054\003\uffe6\004\uffe6\007\uffe6\011\uffe6\012\uffe6" +
     "\013\uffe6\014\uffe6\015\uffe6\016\uffe6\017\uffe6\020\uffe6\024" +
     "\uffe6\025\uffe6\035\uffe6\037\uffe6\040\uffe6\041\uffe6\042\uffe6" +
@@ -305,8 +309,8 @@ public class parser extends java_cup.runtime.lr_parser {
     "\uffd7\007\uffd7\011\uffd7\012\uffd7\013\uffd7\014\uffd7\015\uffd7" +
     "\016\uffd7\017\uffd7\020\uffd7\024\uffd7\025\uffd7\035\uffd7\037" +
     "\uffd7\040\uffd7\041\uffd7\042\uffd7\043\uffd7\076\uffd7\101\uffd7" +
-    "\001\002\000\004\075\236\001\002\000\004\075\235\001" +
-    "\002\000\004\075\234\001\002\000\004\075\233\001\002" +
+    "\001\002\000\004\075\237\001\002\000\004\075\236\001" +
+    "\002\000\004\075\235\001\002\000\004\075\234\001\002" +
     "\000\054\003\uffdb\004\uffdb\007\uffdb\011\uffdb\012\uffdb\013" +
     "\uffdb\014\uffdb\015\uffdb\016\uffdb\017\uffdb\020\uffdb\024\uffdb" +
     "\025\uffdb\035\uffdb\037\uffdb\040\uffdb\041\uffdb\042\uffdb\043" +
@@ -314,162 +318,177 @@ public class parser extends java_cup.runtime.lr_parser {
     "\007\uffdc\011\uffdc\012\uffdc\013\uffdc\014\uffdc\015\uffdc\016" +
     "\uffdc\017\uffdc\020\uffdc\024\uffdc\025\uffdc\035\uffdc\037\uffdc" +
     "\040\uffdc\041\uffdc\042\uffdc\043\uffdc\076\uffdc\101\uffdc\001" +
-    "\002\000\004\075\232\001\002\000\054\003\uffda\004\uffda" +
+    "\002\000\004\075\233\001\002\000\054\003\uffda\004\uffda" +
     "\007\uffda\011\uffda\012\uffda\013\uffda\014\uffda\015\uffda\016" +
     "\uffda\017\uffda\020\uffda\024\uffda\025\uffda\035\uffda\037\uffda" +
     "\040\uffda\041\uffda\042\uffda\043\uffda\076\uffda\101\uffda\001" +
     "\002\000\054\003\uffd8\004\uffd8\007\uffd8\011\uffd8\012\uffd8" +
     "\013\uffd8\014\uffd8\015\uffd8\016\uffd8\017\uffd8\020\uffd8\024" +
     "\uffd8\025\uffd8\035\uffd8\037\uffd8\040\uffd8\041\uffd8\042\uffd8" +
-    "\043\uffd8\076\uffd8\101\uffd8\001\002\000\004\075\231\001" +
+    "\043\uffd8\076\uffd8\101\uffd8\001\002\000\004\075\232\001" +
     "\002\000\004\072\204\001\002\000\022\024\010\025\021" +
     "\035\015\037\207\040\011\041\017\042\027\043\025\001" +
-    "\002\000\004\075\uffc8\001\002\000\004\075\uffc7\001\002" +
-    "\000\006\057\227\103\125\001\002\000\004\075\211\001" +
-    "\002\000\036\003\057\033\047\034\054\036\062\037\043" +
+    "\002\000\004\075\uffc6\001\002\000\004\075\uffc5\001\002" +
+    "\000\006\057\230\103\105\001\002\000\004\075\211\001" +
+    "\002\000\036\003\uffca\033\uffca\034\uffca\036\uffca\037\uffca" +
+    "\044\uffca\045\uffca\055\uffca\060\uffca\061\uffca\066\uffca\067" +
+    "\uffca\072\uffca\104\uffca\001\002\000\036\003\057\033\047" +
+    "\034\054\036\062\037\044\044\056\045\045\055\042\060" +
+    "\040\061\067\066\055\067\063\072\041\104\064\001\002" +
+    "\000\004\075\uffc9\001\002\000\004\075\215\001\002\000" +
+    "\036\003\057\033\047\034\054\036\062\037\216\044\056" +
+    "\045\045\055\042\060\040\061\067\066\055\067\063\072" +
+    "\041\104\064\001\002\000\046\046\uff7d\047\uff7d\050\uff7d" +
+    "\051\uff7d\052\uff7d\053\uff7d\054\uff7d\056\uff7d\057\230\060" +
+    "\uff7d\061\uff7d\062\uff7d\063\uff7d\064\uff7d\065\uff7d\072\106" +
+    "\073\uff7d\103\105\001\002\000\004\073\uffc3\001\002\000" +
+    "\042\046\uff7e\047\uff7e\050\uff7e\051\uff7e\052\uff7e\053\uff7e" +
+    "\054\uff7e\056\uff7e\057\226\060\uff7e\061\uff7e\062\uff7e\063" +
+    "\uff7e\064\uff7e\065\uff7e\073\uff7e\001\002\000\004\073\223" +
+    "\001\002\000\004\073\uffc4\001\002\000\004\100\uffc8\001" +
+    "\002\000\004\100\150\001\002\000\054\003\uffc7\004\uffc7" +
+    "\007\uffc7\011\uffc7\012\uffc7\013\uffc7\014\uffc7\015\uffc7\016" +
+    "\uffc7\017\uffc7\020\uffc7\024\uffc7\025\uffc7\035\uffc7\037\uffc7" +
+    "\040\uffc7\041\uffc7\042\uffc7\043\uffc7\076\uffc7\101\uffc7\001" +
+    "\002\000\036\003\057\033\047\034\054\036\062\037\044" +
     "\044\056\045\045\055\042\060\040\061\067\066\055\067" +
-    "\063\072\041\104\064\001\002\000\004\075\uffcb\001\002" +
-    "\000\004\075\214\001\002\000\036\003\057\033\047\034" +
-    "\054\036\062\037\215\044\056\045\045\055\042\060\040" +
-    "\061\067\066\055\067\063\072\041\104\064\001\002\000" +
-    "\046\046\uff82\047\uff82\050\uff82\051\uff82\052\uff82\053\uff82" +
-    "\054\uff82\056\uff82\057\227\060\uff82\061\uff82\062\uff82\063" +
-    "\uff82\064\uff82\065\uff82\072\126\073\uff82\103\125\001\002" +
-    "\000\004\073\uffc5\001\002\000\042\046\uff83\047\uff83\050" +
-    "\uff83\051\uff83\052\uff83\053\uff83\054\uff83\056\uff83\057\225" +
-    "\060\uff83\061\uff83\062\uff83\063\uff83\064\uff83\065\uff83\073" +
-    "\uff83\001\002\000\004\073\222\001\002\000\004\073\uffc6" +
-    "\001\002\000\004\100\uffca\001\002\000\004\100\150\001" +
-    "\002\000\054\003\uffc9\004\uffc9\007\uffc9\011\uffc9\012\uffc9" +
-    "\013\uffc9\014\uffc9\015\uffc9\016\uffc9\017\uffc9\020\uffc9\024" +
-    "\uffc9\025\uffc9\035\uffc9\037\uffc9\040\uffc9\041\uffc9\042\uffc9" +
-    "\043\uffc9\076\uffc9\101\uffc9\001\002\000\036\003\057\033" +
-    "\047\034\054\036\062\037\043\044\056\045\045\055\042" +
-    "\060\040\061\067\066\055\067\063\072\041\104\064\001" +
-    "\002\000\006\073\uffb5\075\uffb5\001\002\000\036\003\057" +
-    "\033\047\034\054\036\062\037\043\044\056\045\045\055" +
-    "\042\060\040\061\067\066\055\067\063\072\041\104\064" +
-    "\001\002\000\006\073\uffb6\075\uffb6\001\002\000\054\003" +
-    "\uffe3\004\uffe3\007\uffe3\011\uffe3\012\uffe3\013\uffe3\014\uffe3" +
-    "\015\uffe3\016\uffe3\017\uffe3\020\uffe3\024\uffe3\025\uffe3\035" +
-    "\uffe3\037\uffe3\040\uffe3\041\uffe3\042\uffe3\043\uffe3\076\uffe3" +
-    "\101\uffe3\001\002\000\054\003\uffe1\004\uffe1\007\uffe1\011" +
-    "\uffe1\012\uffe1\013\uffe1\014\uffe1\015\uffe1\016\uffe1\017\uffe1" +
-    "\020\uffe1\024\uffe1\025\uffe1\035\uffe1\037\uffe1\040\uffe1\041" +
-    "\uffe1\042\uffe1\043\uffe1\076\uffe1\101\uffe1\001\002\000\054" +
-    "\003\uffe0\004\uffe0\007\uffe0\011\uffe0\012\uffe0\013\uffe0\014" +
-    "\uffe0\015\uffe0\016\uffe0\017\uffe0\020\uffe0\024\uffe0\025\uffe0" +
-    "\035\uffe0\037\uffe0\040\uffe0\041\uffe0\042\uffe0\043\uffe0\076" +
-    "\uffe0\101\uffe0\001\002\000\054\003\uffdf\004\uffdf\007\uffdf" +
-    "\011\uffdf\012\uffdf\013\uffdf\014\uffdf\015\uffdf\016\uffdf\017" +
-    "\uffdf\020\uffdf\024\uffdf\025\uffdf\035\uffdf\037\uffdf\040\uffdf" +
-    "\041\uffdf\042\uffdf\043\uffdf\076\uffdf\101\uffdf\001\002\000" +
-    "\054\003\uffde\004\uffde\007\uffde\011\uffde\012\uffde\013\uffde" +
-    "\014\uffde\015\uffde\016\uffde\017\uffde\020\uffde\024\uffde\025" +
-    "\uffde\035\uffde\037\uffde\040\uffde\041\uffde\042\uffde\043\uffde" +
-    "\076\uffde\101\uffde\001\002\000\054\003\uffdd\004\uffdd\007" +
-    "\uffdd\011\uffdd\012\uffdd\013\uffdd\014\uffdd\015\uffdd\016\uffdd" +
-    "\017\uffdd\020\uffdd\024\uffdd\025\uffdd\035\uffdd\037\uffdd\040" +
-    "\uffdd\041\uffdd\042\uffdd\043\uffdd\076\uffdd\101\uffdd\001\002" +
-    "\000\004\100\150\001\002\000\004\010\241\001\002\000" +
-    "\004\072\242\001\002\000\036\003\057\033\047\034\054" +
-    "\036\062\037\043\044\056\045\045\055\042\060\040\061" +
-    "\067\066\055\067\063\072\041\104\064\001\002\000\004" +
-    "\073\244\001\002\000\004\075\245\001\002\000\054\003" +
-    "\uffcc\004\uffcc\007\uffcc\011\uffcc\012\uffcc\013\uffcc\014\uffcc" +
-    "\015\uffcc\016\uffcc\017\uffcc\020\uffcc\024\uffcc\025\uffcc\035" +
-    "\uffcc\037\uffcc\040\uffcc\041\uffcc\042\uffcc\043\uffcc\076\uffcc" +
-    "\101\uffcc\001\002\000\054\003\uffe2\004\uffe2\007\uffe2\011" +
-    "\uffe2\012\uffe2\013\uffe2\014\uffe2\015\uffe2\016\uffe2\017\uffe2" +
-    "\020\uffe2\024\uffe2\025\uffe2\035\uffe2\037\uffe2\040\uffe2\041" +
-    "\uffe2\042\uffe2\043\uffe2\076\uffe2\101\uffe2\001\002\000\036" +
-    "\003\057\033\047\034\054\036\062\037\043\044\056\045" +
+    "\063\072\041\104\064\001\002\000\006\073\uffb0\075\uffb0" +
+    "\001\002\000\036\003\057\033\047\034\054\036\062\037" +
+    "\044\044\056\045\045\055\042\060\040\061\067\066\055" +
+    "\067\063\072\041\104\064\001\002\000\006\073\uffb1\075" +
+    "\uffb1\001\002\000\054\003\uffe3\004\uffe3\007\uffe3\011\uffe3" +
+    "\012\uffe3\013\uffe3\014\uffe3\015\uffe3\016\uffe3\017\uffe3\020" +
+    "\uffe3\024\uffe3\025\uffe3\035\uffe3\037\uffe3\040\uffe3\041\uffe3" +
+    "\042\uffe3\043\uffe3\076\uffe3\101\uffe3\001\002\000\054\003" +
+    "\uffe1\004\uffe1\007\uffe1\011\uffe1\012\uffe1\013\uffe1\014\uffe1" +
+    "\015\uffe1\016\uffe1\017\uffe1\020\uffe1\024\uffe1\025\uffe1\035" +
+    "\uffe1\037\uffe1\040\uffe1\041\uffe1\042\uffe1\043\uffe1\076\uffe1" +
+    "\101\uffe1\001\002\000\054\003\uffe0\004\uffe0\007\uffe0\011" +
+    "\uffe0\012\uffe0\013\uffe0\014\uffe0\015\uffe0\016\uffe0\017\uffe0" +
+    "\020\uffe0\024\uffe0\025\uffe0\035\uffe0\037\uffe0\040\uffe0\041" +
+    "\uffe0\042\uffe0\043\uffe0\076\uffe0\101\uffe0\001\002\000\054" +
+    "\003\uffdf\004\uffdf\007\uffdf\011\uffdf\012\uffdf\013\uffdf\014" +
+    "\uffdf\015\uffdf\016\uffdf\017\uffdf\020\uffdf\024\uffdf\025\uffdf" +
+    "\035\uffdf\037\uffdf\040\uffdf\041\uffdf\042\uffdf\043\uffdf\076" +
+    "\uffdf\101\uffdf\001\002\000\054\003\uffde\004\uffde\007\uffde" +
+    "\011\uffde\012\uffde\013\uffde\014\uffde\015\uffde\016\uffde\017" +
+    "\uffde\020\uffde\024\uffde\025\uffde\035\uffde\037\uffde\040\uffde" +
+    "\041\uffde\042\uffde\043\uffde\076\uffde\101\uffde\001\002\000" +
+    "\054\003\uffdd\004\uffdd\007\uffdd\011\uffdd\012\uffdd\013\uffdd" +
+    "\014\uffdd\015\uffdd\016\uffdd\017\uffdd\020\uffdd\024\uffdd\025" +
+    "\uffdd\035\uffdd\037\uffdd\040\uffdd\041\uffdd\042\uffdd\043\uffdd" +
+    "\076\uffdd\101\uffdd\001\002\000\004\100\150\001\002\000" +
+    "\004\010\242\001\002\000\004\072\243\001\002\000\036" +
+    "\003\057\033\047\034\054\036\062\037\044\044\056\045" +
     "\045\055\042\060\040\061\067\066\055\067\063\072\041" +
-    "\104\064\001\002\000\004\073\251\001\002\000\004\100" +
-    "\uffd6\001\002\000\004\100\150\001\002\000\060\003\uffd1" +
-    "\004\uffd1\005\254\006\uffd1\007\uffd1\011\uffd1\012\uffd1\013" +
-    "\uffd1\014\uffd1\015\uffd1\016\uffd1\017\uffd1\020\uffd1\024\uffd1" +
-    "\025\uffd1\035\uffd1\037\uffd1\040\uffd1\041\uffd1\042\uffd1\043" +
-    "\uffd1\076\uffd1\101\uffd1\001\002\000\004\072\262\001\002" +
-    "\000\056\003\uffce\004\uffce\006\257\007\uffce\011\uffce\012" +
-    "\uffce\013\uffce\014\uffce\015\uffce\016\uffce\017\uffce\020\uffce" +
-    "\024\uffce\025\uffce\035\uffce\037\uffce\040\uffce\041\uffce\042" +
-    "\uffce\043\uffce\076\uffce\101\uffce\001\002\000\054\003\uffd5" +
-    "\004\uffd5\007\uffd5\011\uffd5\012\uffd5\013\uffd5\014\uffd5\015" +
-    "\uffd5\016\uffd5\017\uffd5\020\uffd5\024\uffd5\025\uffd5\035\uffd5" +
-    "\037\uffd5\040\uffd5\041\uffd5\042\uffd5\043\uffd5\076\uffd5\101" +
-    "\uffd5\001\002\000\004\100\uffd0\001\002\000\004\100\150" +
-    "\001\002\000\054\003\uffcf\004\uffcf\007\uffcf\011\uffcf\012" +
-    "\uffcf\013\uffcf\014\uffcf\015\uffcf\016\uffcf\017\uffcf\020\uffcf" +
-    "\024\uffcf\025\uffcf\035\uffcf\037\uffcf\040\uffcf\041\uffcf\042" +
-    "\uffcf\043\uffcf\076\uffcf\101\uffcf\001\002\000\036\003\057" +
-    "\033\047\034\054\036\062\037\043\044\056\045\045\055" +
-    "\042\060\040\061\067\066\055\067\063\072\041\104\064" +
-    "\001\002\000\004\073\264\001\002\000\004\100\uffd4\001" +
-    "\002\000\004\100\150\001\002\000\060\003\uffd3\004\uffd3" +
-    "\005\uffd3\006\uffd3\007\uffd3\011\uffd3\012\uffd3\013\uffd3\014" +
-    "\uffd3\015\uffd3\016\uffd3\017\uffd3\020\uffd3\024\uffd3\025\uffd3" +
-    "\035\uffd3\037\uffd3\040\uffd3\041\uffd3\042\uffd3\043\uffd3\076" +
-    "\uffd3\101\uffd3\001\002\000\060\003\uffd1\004\uffd1\005\254" +
+    "\104\064\001\002\000\004\073\245\001\002\000\004\075" +
+    "\246\001\002\000\054\003\uffcb\004\uffcb\007\uffcb\011\uffcb" +
+    "\012\uffcb\013\uffcb\014\uffcb\015\uffcb\016\uffcb\017\uffcb\020" +
+    "\uffcb\024\uffcb\025\uffcb\035\uffcb\037\uffcb\040\uffcb\041\uffcb" +
+    "\042\uffcb\043\uffcb\076\uffcb\101\uffcb\001\002\000\054\003" +
+    "\uffe2\004\uffe2\007\uffe2\011\uffe2\012\uffe2\013\uffe2\014\uffe2" +
+    "\015\uffe2\016\uffe2\017\uffe2\020\uffe2\024\uffe2\025\uffe2\035" +
+    "\uffe2\037\uffe2\040\uffe2\041\uffe2\042\uffe2\043\uffe2\076\uffe2" +
+    "\101\uffe2\001\002\000\036\003\057\033\047\034\054\036" +
+    "\062\037\044\044\056\045\045\055\042\060\040\061\067" +
+    "\066\055\067\063\072\041\104\064\001\002\000\004\073" +
+    "\252\001\002\000\004\100\uffd6\001\002\000\004\100\150" +
+    "\001\002\000\060\003\uffd5\004\uffd5\005\uffd5\006\uffd5\007" +
+    "\uffd5\011\uffd5\012\uffd5\013\uffd5\014\uffd5\015\uffd5\016\uffd5" +
+    "\017\uffd5\020\uffd5\024\uffd5\025\uffd5\035\uffd5\037\uffd5\040" +
+    "\uffd5\041\uffd5\042\uffd5\043\uffd5\076\uffd5\101\uffd5\001\002" +
+    "\000\060\003\uffd0\004\uffd0\005\257\006\uffd0\007\uffd0\011" +
+    "\uffd0\012\uffd0\013\uffd0\014\uffd0\015\uffd0\016\uffd0\017\uffd0" +
+    "\020\uffd0\024\uffd0\025\uffd0\035\uffd0\037\uffd0\040\uffd0\041" +
+    "\uffd0\042\uffd0\043\uffd0\076\uffd0\101\uffd0\001\002\000\056" +
+    "\003\uffcd\004\uffcd\006\270\007\uffcd\011\uffcd\012\uffcd\013" +
+    "\uffcd\014\uffcd\015\uffcd\016\uffcd\017\uffcd\020\uffcd\024\uffcd" +
+    "\025\uffcd\035\uffcd\037\uffcd\040\uffcd\041\uffcd\042\uffcd\043" +
+    "\uffcd\076\uffcd\101\uffcd\001\002\000\004\072\260\001\002" +
+    "\000\036\003\057\033\047\034\054\036\062\037\044\044" +
+    "\056\045\045\055\042\060\040\061\067\066\055\067\063" +
+    "\072\041\104\064\001\002\000\004\073\262\001\002\000" +
+    "\004\100\uffd3\001\002\000\004\100\150\001\002\000\060" +
+    "\003\uffd2\004\uffd2\005\uffd2\006\uffd2\007\uffd2\011\uffd2\012" +
+    "\uffd2\013\uffd2\014\uffd2\015\uffd2\016\uffd2\017\uffd2\020\uffd2" +
+    "\024\uffd2\025\uffd2\035\uffd2\037\uffd2\040\uffd2\041\uffd2\042" +
+    "\uffd2\043\uffd2\076\uffd2\101\uffd2\001\002\000\060\003\uffd0" +
+    "\004\uffd0\005\257\006\uffd0\007\uffd0\011\uffd0\012\uffd0\013" +
+    "\uffd0\014\uffd0\015\uffd0\016\uffd0\017\uffd0\020\uffd0\024\uffd0" +
+    "\025\uffd0\035\uffd0\037\uffd0\040\uffd0\041\uffd0\042\uffd0\043" +
+    "\uffd0\076\uffd0\101\uffd0\001\002\000\056\003\uffd1\004\uffd1" +
     "\006\uffd1\007\uffd1\011\uffd1\012\uffd1\013\uffd1\014\uffd1\015" +
     "\uffd1\016\uffd1\017\uffd1\020\uffd1\024\uffd1\025\uffd1\035\uffd1" +
     "\037\uffd1\040\uffd1\041\uffd1\042\uffd1\043\uffd1\076\uffd1\101" +
-    "\uffd1\001\002\000\056\003\uffd2\004\uffd2\006\uffd2\007\uffd2" +
-    "\011\uffd2\012\uffd2\013\uffd2\014\uffd2\015\uffd2\016\uffd2\017" +
-    "\uffd2\020\uffd2\024\uffd2\025\uffd2\035\uffd2\037\uffd2\040\uffd2" +
-    "\041\uffd2\042\uffd2\043\uffd2\076\uffd2\101\uffd2\001\002\000" +
-    "\036\003\057\033\047\034\054\036\062\037\043\044\056" +
-    "\045\045\055\042\060\040\061\067\066\055\067\063\072" +
-    "\041\104\064\001\002\000\004\073\273\001\002\000\004" +
-    "\100\274\001\002\000\010\013\uffc4\015\uffc4\101\uffc4\001" +
-    "\002\000\010\013\uffc1\015\uffc1\101\uffc1\001\002\000\010" +
-    "\013\302\015\277\101\uffbd\001\002\000\004\071\310\001" +
-    "\002\000\004\101\307\001\002\000\010\013\uffc2\015\uffc2" +
-    "\101\uffc2\001\002\000\022\033\047\034\054\036\062\037" +
-    "\043\044\056\045\045\072\041\104\064\001\002\000\004" +
-    "\071\305\001\002\000\004\071\uffbf\001\002\000\054\003" +
-    "\uffe5\004\uffe5\007\uffe5\011\uffe5\012\uffe5\013\uffe5\014\uffe5" +
-    "\015\uffe5\016\uffe5\017\uffe5\020\uffe5\024\uffe5\025\uffe5\035" +
-    "\uffe5\037\uffe5\040\uffe5\041\uffe5\042\uffe5\043\uffe5\076\uffe5" +
-    "\101\uffe5\001\002\000\054\003\175\004\162\007\166\011" +
-    "\203\012\161\013\uffc0\014\172\015\uffc0\016\156\017\155" +
-    "\020\160\024\010\025\021\035\015\037\157\040\011\041" +
-    "\017\042\027\043\025\076\024\101\uffc0\001\002\000\054" +
-    "\003\uffc3\004\uffc3\007\uffc3\011\uffc3\012\uffc3\013\uffc3\014" +
-    "\uffc3\015\uffc3\016\uffc3\017\uffc3\020\uffc3\024\uffc3\025\uffc3" +
-    "\035\uffc3\037\uffc3\040\uffc3\041\uffc3\042\uffc3\043\uffc3\076" +
-    "\uffc3\101\uffc3\001\002\000\050\003\uffe5\004\uffe5\007\uffe5" +
-    "\011\uffe5\012\uffe5\014\uffe5\016\uffe5\017\uffe5\020\uffe5\024" +
-    "\uffe5\025\uffe5\035\uffe5\037\uffe5\040\uffe5\041\uffe5\042\uffe5" +
-    "\043\uffe5\076\uffe5\101\uffe5\001\002\000\050\003\175\004" +
-    "\162\007\166\011\203\012\161\014\172\016\156\017\155" +
-    "\020\160\024\010\025\021\035\015\037\157\040\011\041" +
-    "\017\042\027\043\025\076\024\101\uffbe\001\002\000\036" +
-    "\003\057\033\047\034\054\036\062\037\043\044\056\045" +
-    "\045\055\042\060\040\061\067\066\055\067\063\072\041" +
-    "\104\064\001\002\000\004\073\314\001\002\000\004\075" +
-    "\uff8b\001\002\000\004\075\uff8d\001\002\000\004\037\317" +
-    "\001\002\000\004\073\320\001\002\000\004\075\uff8c\001" +
-    "\002\000\010\057\035\074\322\075\uffb7\001\002\000\036" +
-    "\003\057\033\047\034\054\036\062\037\043\044\056\045" +
+    "\uffd1\001\002\000\054\003\uffd4\004\uffd4\007\uffd4\011\uffd4" +
+    "\012\uffd4\013\uffd4\014\uffd4\015\uffd4\016\uffd4\017\uffd4\020" +
+    "\uffd4\024\uffd4\025\uffd4\035\uffd4\037\uffd4\040\uffd4\041\uffd4" +
+    "\042\uffd4\043\uffd4\076\uffd4\101\uffd4\001\002\000\004\100" +
+    "\uffcf\001\002\000\004\100\150\001\002\000\054\003\uffce" +
+    "\004\uffce\007\uffce\011\uffce\012\uffce\013\uffce\014\uffce\015" +
+    "\uffce\016\uffce\017\uffce\020\uffce\024\uffce\025\uffce\035\uffce" +
+    "\037\uffce\040\uffce\041\uffce\042\uffce\043\uffce\076\uffce\101" +
+    "\uffce\001\002\000\036\003\057\033\047\034\054\036\062" +
+    "\037\044\044\056\045\045\055\042\060\040\061\067\066" +
+    "\055\067\063\072\041\104\064\001\002\000\004\073\275" +
+    "\001\002\000\004\100\276\001\002\000\010\013\uffc2\015" +
+    "\uffc2\101\uffc2\001\002\000\010\013\uffbf\015\uffbf\101\uffbf" +
+    "\001\002\000\010\013\304\015\301\101\uffb8\001\002\000" +
+    "\004\071\314\001\002\000\004\101\313\001\002\000\010" +
+    "\013\uffc0\015\uffc0\101\uffc0\001\002\000\022\033\uffbe\034" +
+    "\uffbe\036\uffbe\037\uffbe\044\uffbe\045\uffbe\072\uffbe\104\uffbe" +
+    "\001\002\000\022\033\047\034\054\036\062\037\044\044" +
+    "\056\045\045\072\041\104\064\001\002\000\004\071\310" +
+    "\001\002\000\004\071\uffbb\001\002\000\054\003\uffbd\004" +
+    "\uffbd\007\uffbd\011\uffbd\012\uffbd\013\uffbd\014\uffbd\015\uffbd" +
+    "\016\uffbd\017\uffbd\020\uffbd\024\uffbd\025\uffbd\035\uffbd\037" +
+    "\uffbd\040\uffbd\041\uffbd\042\uffbd\043\uffbd\076\uffbd\101\uffbd" +
+    "\001\002\000\054\003\uffe5\004\uffe5\007\uffe5\011\uffe5\012" +
+    "\uffe5\013\uffe5\014\uffe5\015\uffe5\016\uffe5\017\uffe5\020\uffe5" +
+    "\024\uffe5\025\uffe5\035\uffe5\037\uffe5\040\uffe5\041\uffe5\042" +
+    "\uffe5\043\uffe5\076\uffe5\101\uffe5\001\002\000\054\003\175" +
+    "\004\162\007\164\011\203\012\161\013\uffbc\014\172\015" +
+    "\uffbc\016\156\017\155\020\160\024\010\025\021\035\015" +
+    "\037\157\040\011\041\017\042\027\043\025\076\024\101" +
+    "\uffbc\001\002\000\054\003\uffc1\004\uffc1\007\uffc1\011\uffc1" +
+    "\012\uffc1\013\uffc1\014\uffc1\015\uffc1\016\uffc1\017\uffc1\020" +
+    "\uffc1\024\uffc1\025\uffc1\035\uffc1\037\uffc1\040\uffc1\041\uffc1" +
+    "\042\uffc1\043\uffc1\076\uffc1\101\uffc1\001\002\000\050\003" +
+    "\uffba\004\uffba\007\uffba\011\uffba\012\uffba\014\uffba\016\uffba" +
+    "\017\uffba\020\uffba\024\uffba\025\uffba\035\uffba\037\uffba\040" +
+    "\uffba\041\uffba\042\uffba\043\uffba\076\uffba\101\uffba\001\002" +
+    "\000\050\003\uffe5\004\uffe5\007\uffe5\011\uffe5\012\uffe5\014" +
+    "\uffe5\016\uffe5\017\uffe5\020\uffe5\024\uffe5\025\uffe5\035\uffe5" +
+    "\037\uffe5\040\uffe5\041\uffe5\042\uffe5\043\uffe5\076\uffe5\101" +
+    "\uffe5\001\002\000\050\003\175\004\162\007\164\011\203" +
+    "\012\161\014\172\016\156\017\155\020\160\024\010\025" +
+    "\021\035\015\037\157\040\011\041\017\042\027\043\025" +
+    "\076\024\101\uffb9\001\002\000\036\003\057\033\047\034" +
+    "\054\036\062\037\044\044\056\045\045\055\042\060\040" +
+    "\061\067\066\055\067\063\072\041\104\064\001\002\000" +
+    "\004\073\321\001\002\000\004\075\uff86\001\002\000\004" +
+    "\075\uff88\001\002\000\004\037\324\001\002\000\004\073" +
+    "\325\001\002\000\004\075\uff87\001\002\000\010\057\035" +
+    "\074\327\075\uffb2\001\002\000\036\003\057\033\047\034" +
+    "\054\036\062\037\044\044\056\045\045\055\042\060\040" +
+    "\061\067\066\055\067\063\072\041\104\064\001\002\000" +
+    "\004\075\uffb7\001\002\000\004\074\332\001\002\000\040" +
+    "\003\057\033\047\034\054\036\062\037\044\044\056\045" +
     "\045\055\042\060\040\061\067\066\055\067\063\072\041" +
-    "\104\064\001\002\000\004\075\uffbc\001\002\000\004\074" +
-    "\325\001\002\000\040\003\057\033\047\034\054\036\062" +
-    "\037\043\044\056\045\045\055\042\060\040\061\067\066" +
-    "\055\067\063\072\041\075\uffba\104\064\001\002\000\004" +
-    "\074\327\001\002\000\004\075\uffbb\001\002\000\004\037" +
-    "\331\001\002\000\004\072\332\001\002\000\024\024\ufff0" +
-    "\025\ufff0\035\ufff0\040\ufff0\041\ufff0\042\ufff0\043\ufff0\070" +
-    "\ufff0\073\ufff0\001\002\000\024\024\010\025\021\035\015" +
-    "\040\011\041\017\042\027\043\025\070\uffeb\073\uffeb\001" +
-    "\002\000\006\070\uffec\073\uffec\001\002\000\004\037\344" +
-    "\001\002\000\006\070\337\073\340\001\002\000\020\024" +
-    "\010\025\021\035\015\040\011\041\017\042\027\043\025" +
-    "\001\002\000\004\100\uffef\001\002\000\004\100\150\001" +
-    "\002\000\032\002\uffee\021\uffee\022\uffee\023\uffee\024\uffee" +
-    "\025\uffee\035\uffee\040\uffee\041\uffee\042\uffee\043\uffee\076" +
-    "\uffee\001\002\000\006\070\uffed\073\uffed\001\002\000\006" +
-    "\070\uffea\073\uffea\001\002\000\004\037\ufff2\001\002" });
+    "\075\uffb5\104\064\001\002\000\004\074\334\001\002\000" +
+    "\004\075\uffb6\001\002\000\004\037\336\001\002\000\004" +
+    "\072\337\001\002\000\024\024\ufff0\025\ufff0\035\ufff0\040" +
+    "\ufff0\041\ufff0\042\ufff0\043\ufff0\070\ufff0\073\ufff0\001\002" +
+    "\000\024\024\010\025\021\035\015\040\011\041\017\042" +
+    "\027\043\025\070\uffeb\073\uffeb\001\002\000\006\070\uffec" +
+    "\073\uffec\001\002\000\004\037\351\001\002\000\006\070" +
+    "\344\073\345\001\002\000\020\024\010\025\021\035\015" +
+    "\040\011\041\017\042\027\043\025\001\002\000\004\100" +
+    "\uffef\001\002\000\004\100\150\001\002\000\032\002\uffee" +
+    "\021\uffee\022\uffee\023\uffee\024\uffee\025\uffee\035\uffee\040" +
+    "\uffee\041\uffee\042\uffee\043\uffee\076\uffee\001\002\000\006" +
+    "\070\uffed\073\uffed\001\002\000\006\070\uffea\073\uffea\001" +
+    "\002\000\004\037\ufff2\001\002" });
 
   /** Access to parse-action table. */
   public short[][] action_table() {return _action_table;}
@@ -477,127 +496,129 @@ public class parser extends java_cup.runtime.lr_parser {
   /** <code>reduce_goto</code> table. */
   protected static final short[][] _reduce_table = 
     unpackFromStrings(new String[] {
-    "\000\343\000\006\002\004\003\003\001\001\000\020\004" +
+    "\000\350\000\006\002\004\003\003\001\001\000\020\004" +
     "\015\005\013\006\011\046\025\047\006\055\027\057\022" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\004\005\344\001\001\000\002\001\001\000\002" +
-    "\001\001\000\004\005\327\001\001\000\002\001\001\000" +
+    "\001\000\004\005\351\001\001\000\002\001\001\000\002" +
+    "\001\001\000\004\005\334\001\001\000\002\001\001\000" +
     "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
     "\001\001\000\004\005\143\001\001\000\004\005\032\001" +
     "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
     "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
     "\002\001\001\000\002\001\001\000\002\001\001\000\004" +
-    "\044\035\001\001\000\026\012\043\013\065\014\060\015" +
+    "\044\035\001\001\000\026\012\042\013\065\014\060\015" +
     "\047\016\052\017\050\023\057\024\045\051\051\056\064" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\026\012\043\013\065\014\060\015\047\016\141" +
+    "\001\000\026\012\042\013\065\014\060\015\047\016\141" +
     "\017\050\023\057\024\045\051\051\056\064\001\001\000" +
-    "\022\012\043\014\140\015\047\017\050\023\057\024\045" +
-    "\051\051\056\064\001\001\000\002\001\001\000\006\021" +
-    "\121\022\104\001\001\000\002\001\001\000\002\001\001" +
+    "\022\012\042\014\140\015\047\017\050\023\057\024\045" +
+    "\051\051\056\064\001\001\000\006\021\135\022\121\001" +
+    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
     "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
     "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
     "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
     "\000\002\001\001\000\010\015\073\024\045\051\051\001" +
     "\001\000\004\020\067\001\001\000\002\001\001\000\022" +
-    "\012\043\014\072\015\047\017\050\023\057\024\045\051" +
+    "\012\042\014\072\015\047\017\050\023\057\024\045\051" +
     "\051\056\064\001\001\000\002\001\001\000\002\001\001" +
     "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
     "\002\001\001\000\010\015\103\024\045\051\051\001\001" +
     "\000\010\015\102\024\045\051\051\001\001\000\010\015" +
     "\101\024\045\051\051\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\012\015\047\017\123\024" +
-    "\045\051\051\001\001\000\002\001\001\000\002\001\001" +
+    "\001\001\000\002\001\001\000\026\012\042\013\065\014" +
+    "\060\015\047\016\113\017\050\023\057\024\045\051\051" +
+    "\056\064\001\001\000\030\012\042\013\065\014\060\015" +
+    "\047\016\107\017\050\023\057\024\045\027\106\051\051" +
+    "\056\064\001\001\000\002\001\001\000\002\001\001\000" +
+    "\026\012\042\013\065\014\060\015\047\016\112\017\050" +
+    "\023\057\024\045\051\051\056\064\001\001\000\002\001" +
+    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
+    "\000\026\012\042\013\065\014\060\015\047\016\116\017" +
+    "\050\023\057\024\045\051\051\056\064\001\001\000\002" +
+    "\001\001\000\002\001\001\000\002\001\001\000\012\015" +
+    "\047\017\137\024\045\051\051\001\001\000\002\001\001" +
     "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
     "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\020\012\122\015\047\017\050\023\057\024\045" +
-    "\051\051\056\064\001\001\000\004\022\104\001\001\000" +
-    "\002\001\001\000\026\012\043\013\065\014\060\015\047" +
-    "\016\133\017\050\023\057\024\045\051\051\056\064\001" +
-    "\001\000\030\012\043\013\065\014\060\015\047\016\127" +
-    "\017\050\023\057\024\045\027\126\051\051\056\064\001" +
-    "\001\000\002\001\001\000\002\001\001\000\026\012\043" +
-    "\013\065\014\060\015\047\016\132\017\050\023\057\024" +
-    "\045\051\051\056\064\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\002\001\001\000\026\012" +
-    "\043\013\065\014\060\015\047\016\136\017\050\023\057" +
-    "\024\045\051\051\056\064\001\001\000\002\001\001\000" +
+    "\001\000\020\012\136\015\047\017\050\023\057\024\045" +
+    "\051\051\056\064\001\001\000\004\022\121\001\001\000" +
     "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
     "\001\001\000\002\001\001\000\002\001\001\000\004\062" +
     "\146\001\001\000\004\007\150\001\001\000\004\010\151" +
     "\001\001\000\002\001\001\000\040\005\013\011\166\024" +
-    "\164\030\153\033\177\036\163\037\200\040\167\046\201" +
+    "\164\030\153\033\177\036\165\037\200\040\167\046\201" +
     "\050\162\051\170\052\176\053\173\054\172\057\175\001" +
     "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\026\012\043\013\065\014\060\015\047\016\314\017" +
+    "\000\026\012\042\013\065\014\060\015\047\016\321\017" +
     "\050\023\057\024\045\051\051\056\064\001\001\000\002" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\004\067\236\001\001\000\002\001\001\000\002\001" +
+    "\001\000\002\001\001\000\004\070\237\001\001\000\002" +
+    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
     "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
     "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
     "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
     "\001\001\000\002\001\001\000\014\005\013\024\164\031" +
     "\207\046\204\050\205\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\002\001\001\000\026\012" +
-    "\043\013\065\014\060\015\047\016\211\017\050\023\057" +
-    "\024\045\051\051\056\064\001\001\000\004\070\212\001" +
-    "\001\000\002\001\001\000\032\012\043\013\065\014\060" +
-    "\015\047\016\220\017\050\023\057\024\216\045\217\050" +
-    "\215\051\051\056\064\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\004\071\222\001\001\000\004\007\223\001\001" +
-    "\000\002\001\001\000\026\012\043\013\065\014\060\015" +
-    "\047\016\225\017\050\023\057\024\045\051\051\056\064" +
-    "\001\001\000\002\001\001\000\026\012\043\013\065\014" +
-    "\060\015\047\016\227\017\050\023\057\024\045\051\051" +
-    "\056\064\001\001\000\002\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\004\007\237\001\001\000" +
-    "\002\001\001\000\002\001\001\000\026\012\043\013\065" +
-    "\014\060\015\047\016\242\017\050\023\057\024\045\051" +
-    "\051\056\064\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\026\012\043\013" +
-    "\065\014\060\015\047\016\247\017\050\023\057\024\045" +
-    "\051\051\056\064\001\001\000\002\001\001\000\004\063" +
-    "\251\001\001\000\004\007\252\001\001\000\004\034\254" +
-    "\001\001\000\002\001\001\000\004\035\255\001\001\000" +
-    "\002\001\001\000\004\066\257\001\001\000\004\007\260" +
-    "\001\001\000\002\001\001\000\026\012\043\013\065\014" +
-    "\060\015\047\016\262\017\050\023\057\024\045\051\051" +
-    "\056\064\001\001\000\002\001\001\000\004\064\264\001" +
-    "\001\000\004\007\265\001\001\000\004\065\266\001\001" +
-    "\000\004\034\267\001\001\000\002\001\001\000\026\012" +
-    "\043\013\065\014\060\015\047\016\271\017\050\023\057" +
+    "\001\001\000\002\001\001\000\002\001\001\000\004\071" +
+    "\211\001\001\000\026\012\042\013\065\014\060\015\047" +
+    "\016\212\017\050\023\057\024\045\051\051\056\064\001" +
+    "\001\000\004\072\213\001\001\000\002\001\001\000\032" +
+    "\012\042\013\065\014\060\015\047\016\221\017\050\023" +
+    "\057\024\217\045\220\050\216\051\051\056\064\001\001" +
+    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
+    "\002\001\001\000\002\001\001\000\004\073\223\001\001" +
+    "\000\004\007\224\001\001\000\002\001\001\000\026\012" +
+    "\042\013\065\014\060\015\047\016\226\017\050\023\057" +
     "\024\045\051\051\056\064\001\001\000\002\001\001\000" +
-    "\002\001\001\000\004\072\274\001\001\000\004\041\275" +
-    "\001\001\000\006\032\277\042\300\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\012\015\303" +
-    "\024\045\043\302\051\051\001\001\000\002\001\001\000" +
-    "\002\001\001\000\004\010\305\001\001\000\040\005\013" +
-    "\011\166\024\164\030\153\033\177\036\163\037\200\040" +
-    "\167\046\201\050\162\051\170\052\176\053\173\054\172" +
-    "\057\175\001\001\000\002\001\001\000\004\010\310\001" +
-    "\001\000\040\005\013\011\166\024\164\030\153\033\177" +
-    "\036\163\037\200\040\167\046\201\050\162\051\170\052" +
-    "\176\053\173\054\172\057\175\001\001\000\026\012\043" +
-    "\013\065\014\060\015\047\016\312\017\050\023\057\024" +
-    "\045\051\051\056\064\001\001\000\002\001\001\000\002" +
+    "\026\012\042\013\065\014\060\015\047\016\230\017\050" +
+    "\023\057\024\045\051\051\056\064\001\001\000\002\001" +
+    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
+    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
+    "\004\007\240\001\001\000\002\001\001\000\002\001\001" +
+    "\000\026\012\042\013\065\014\060\015\047\016\243\017" +
+    "\050\023\057\024\045\051\051\056\064\001\001\000\002" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\004\044\322\001\001\000\026" +
-    "\012\043\013\065\014\060\015\047\016\323\017\050\023" +
+    "\001\000\026\012\042\013\065\014\060\015\047\016\250" +
+    "\017\050\023\057\024\045\051\051\056\064\001\001\000" +
+    "\002\001\001\000\004\063\252\001\001\000\004\007\253" +
+    "\001\001\000\004\064\254\001\001\000\004\034\255\001" +
+    "\001\000\004\035\266\001\001\000\002\001\001\000\026" +
+    "\012\042\013\065\014\060\015\047\016\260\017\050\023" +
     "\057\024\045\051\051\056\064\001\001\000\002\001\001" +
-    "\000\002\001\001\000\026\012\043\013\065\014\060\015" +
-    "\047\016\325\017\050\023\057\024\045\051\051\056\064" +
+    "\000\004\065\262\001\001\000\004\007\263\001\001\000" +
+    "\004\066\264\001\001\000\004\034\265\001\001\000\002" +
+    "\001\001\000\002\001\001\000\004\067\270\001\001\000" +
+    "\004\007\271\001\001\000\002\001\001\000\026\012\042" +
+    "\013\065\014\060\015\047\016\273\017\050\023\057\024" +
+    "\045\051\051\056\064\001\001\000\002\001\001\000\002" +
+    "\001\001\000\004\074\276\001\001\000\004\041\277\001" +
+    "\001\000\006\032\301\042\302\001\001\000\002\001\001" +
+    "\000\002\001\001\000\002\001\001\000\004\075\304\001" +
+    "\001\000\012\015\306\024\045\043\305\051\051\001\001" +
+    "\000\002\001\001\000\002\001\001\000\004\076\310\001" +
+    "\001\000\004\010\311\001\001\000\040\005\013\011\166" +
+    "\024\164\030\153\033\177\036\165\037\200\040\167\046" +
+    "\201\050\162\051\170\052\176\053\173\054\172\057\175" +
+    "\001\001\000\002\001\001\000\004\077\314\001\001\000" +
+    "\004\010\315\001\001\000\040\005\013\011\166\024\164" +
+    "\030\153\033\177\036\165\037\200\040\167\046\201\050" +
+    "\162\051\170\052\176\053\173\054\172\057\175\001\001" +
+    "\000\026\012\042\013\065\014\060\015\047\016\317\017" +
+    "\050\023\057\024\045\051\051\056\064\001\001\000\002" +
     "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\004\060\332\001\001\000\010" +
-    "\005\334\025\335\026\333\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\006\005\334\026\342" +
-    "\001\001\000\004\061\340\001\001\000\004\007\341\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001" });
+    "\001\000\002\001\001\000\002\001\001\000\004\044\327" +
+    "\001\001\000\026\012\042\013\065\014\060\015\047\016" +
+    "\330\017\050\023\057\024\045\051\051\056\064\001\001" +
+    "\000\002\001\001\000\002\001\001\000\026\012\042\013" +
+    "\065\014\060\015\047\016\332\017\050\023\057\024\045" +
+    "\051\051\056\064\001\001\000\002\001\001\000\002\001" +
+    "\001\000\002\001\001\000\002\001\001\000\004\060\337" +
+    "\001\001\000\010\005\341\025\342\026\340\001\001\000" +
+    "\002\001\001\000\002\001\001\000\002\001\001\000\006" +
+    "\005\341\026\347\001\001\000\004\061\345\001\001\000" +
+    "\004\007\346\001\001\000\002\001\001\000\002\001\001" +
+    "\000\002\001\001\000\002\001\001" });
 
   /** Access to <code>reduce_goto</code> table. */
   public short[][] reduce_table() {return _reduce_table;}
@@ -658,13 +679,209 @@ public class parser extends java_cup.runtime.lr_parser {
     HashSet<String> caseValues = null; //Guarda los case del switch para evitar repetidos
     Map<String, String> tiposCI = new HashMap<>();
     String tipoStr ;
-    List<String> listaGlobal = new ArrayList<>();
-    String resultExpr;
-    String condFor;
     
 
-    // ...existing code...
-    ArrayList<String> codigoIntermedio = new ArrayList<>();
+    // Código intermedio en forma de cuádruplos
+    ProgramaIR programaIR = new ProgramaIR();
+
+    // Si es true, el código intermedio se vuelca a rutaCodigoIntermedio (solo depuración)
+    private boolean volcarCodigoIntermedio = false;
+    private String rutaCodigoIntermedio = "src/output/codigo3D.txt";
+
+    public void setVolcarCodigoIntermedio(boolean volcar) {
+        this.volcarCodigoIntermedio = volcar;
+    }
+
+    public void setRutaCodigoIntermedio(String ruta) {
+        this.rutaCodigoIntermedio = ruta;
+    }
+
+    // Devuelve el código intermedio generado para entregarlo directamente al generador MIPS
+    public ProgramaIR getCodigoIntermedio() {
+        return programaIR;
+    }
+
+    // Valor de una expresión: la descripción que usa la verificación de tipos
+    // (tiposCI, "expr_rel", ...) y el operando del código intermedio donde queda el resultado
+    static class ValorExpr {
+        final String descripcion;
+        final long lugar;
+        Integer constante = null;             // Valor si la expresión es un literal entero
+        long arreglo = Operando.VACIO;        // Para accesos a arreglo: variable y desplazamiento
+        long desplazamiento = Operando.VACIO;
+
+        ValorExpr(String descripcion, long lugar) {
+            this.descripcion = descripcion;
+            this.lugar = lugar;
+        }
+
+        public String toString() {
+            return descripcion;
+        }
+    }
+
+    // Etiquetas de los if en construcción: {siguiente condición, fin del if}
+    ArrayDeque<int[]> pilaIf = new ArrayDeque<>();
+    // Etiquetas de los do-while en construcción: {inicio, fin}
+    ArrayDeque<int[]> pilaDoWhile = new ArrayDeque<>();
+    // Destino de los break: fin del ciclo o switch más interno
+    ArrayDeque<Integer> pilaBreak = new ArrayDeque<>();
+
+    // Ciclo for en construcción. El incremento se parsea antes del cuerpo,
+    // así que se extrae del código y se vuelve a colocar después del cuerpo.
+    static class ContextoFor {
+        int condicion;
+        int fin;
+        int inicioIncremento;
+        ArrayList<Cuadruplo> incremento;
+    }
+    ArrayDeque<ContextoFor> pilaFor = new ArrayDeque<>();
+
+    // Switch en construcción. Los cuerpos de los case se emiten en orden y el
+    // despacho (tabla, búsqueda o comparaciones contra cada valor) se coloca al final.
+    static class ContextoSwitch {
+        long valor;
+        int despacho;
+        int fin;
+        int porDefecto = -1;
+        int inicioValor;
+        ArrayList<Cuadruplo> codigoValores = new ArrayList<>();
+        ArrayList<Long> valores = new ArrayList<>();
+        ArrayList<Integer> etiquetas = new ArrayList<>();
+        // Estado del switch que lo contiene, se restaura al cerrar uno anidado
+        String tipoAnterior;
+        HashSet<String> casesAnteriores;
+    }
+    ArrayDeque<ContextoSwitch> pilaSwitch = new ArrayDeque<>();
+
+    // Despacho de un switch con todos los case enteros: tabla de saltos si hay al menos
+    // MIN_CASOS_DESPACHO valores y ocupan bastante de su rango, búsqueda binaria si hay
+    // muchos pero dispersos y cadena de comparaciones si son pocos
+    static final int MIN_CASOS_DESPACHO = 4;
+    static final int MAX_RANGO_TABLA = 1024;
+    // Porcentaje mínimo del rango [menor, mayor] que deben ocupar los case para usar tabla
+    static final int DENSIDAD_TABLA = 40;
+    // Tramos de hasta este tamaño se resuelven con comparaciones en la búsqueda binaria
+    static final int HOJA_ARBOL = 3;
+
+    // Emite el despacho de un switch; retorna false si el valor es flotante o algún case
+    // no es un entero constante
+    boolean emitirDespachoEntero(ContextoSwitch sw, int otro) {
+        // Valores distintos ordenados; con case repetidos gana el primero, como en la cadena
+        if (programaIR.tipoDe(sw.valor).esFlotante()) {
+            return false;
+        }
+        ArrayList<long[]> casos = new ArrayList<>();
+        HashSet<Integer> vistos = new HashSet<>();
+        for (int i = 0; i < sw.valores.size(); i++) {
+            long v = sw.valores.get(i);
+            if (!Operando.esEntero(v)) {
+                return false;
+            }
+            if (vistos.add(Operando.valor(v))) {
+                casos.add(new long[] {Operando.valor(v), sw.etiquetas.get(i)});
+            }
+        }
+        if (casos.size() < MIN_CASOS_DESPACHO) {
+            return false;
+        }
+        casos.sort((a, b) -> Long.compare(a[0], b[0]));
+        long rango = casos.get(casos.size() - 1)[0] - casos.get(0)[0] + 1;
+        if (rango <= MAX_RANGO_TABLA && casos.size() * 100L >= rango * DENSIDAD_TABLA) {
+            ProgramaIR.TablaSaltos tabla = new ProgramaIR.TablaSaltos();
+            tabla.minimo = (int) casos.get(0)[0];
+            tabla.etiquetas = new int[(int) rango];
+            tabla.porDefecto = otro;
+            Arrays.fill(tabla.etiquetas, otro);
+            for (long[] caso : casos) {
+                tabla.etiquetas[(int) (caso[0] - tabla.minimo)] = (int) caso[1];
+            }
+            int id = programaIR.agregarTabla(tabla);
+            programaIR.emitir(Operacion.SALTO_TABLA, Operando.VACIO, sw.valor, Operando.entero(id));
+        } else {
+            emitirBusqueda(sw.valor, casos, 0, casos.size(), otro);
+        }
+        return true;
+    }
+
+    // Búsqueda binaria sobre casos[desde, hasta), ordenados por valor
+    void emitirBusqueda(long valor, ArrayList<long[]> casos, int desde, int hasta, int otro) {
+        if (hasta - desde <= HOJA_ARBOL) {
+            for (int i = desde; i < hasta; i++) {
+                ValorExpr igual = emitirTemporal(null, Operacion.IGUAL, valor, Operando.entero((int) casos.get(i)[0]), TipoIR.BOOLEANO);
+                programaIR.emitir(Operacion.SALTO_SI, Operando.VACIO, igual.lugar, Operando.etiqueta((int) casos.get(i)[1]));
+            }
+            programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(otro), Operando.VACIO);
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        int menores = programaIR.nuevaEtiqueta("BUSQUEDA_switch_");
+        ValorExpr menor = emitirTemporal(null, Operacion.MENOR, valor, Operando.entero((int) casos.get(medio)[0]), TipoIR.BOOLEANO);
+        programaIR.emitir(Operacion.SALTO_SI, Operando.VACIO, menor.lugar, Operando.etiqueta(menores));
+        emitirBusqueda(valor, casos, medio, hasta, otro);
+        programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(menores), Operando.VACIO);
+        emitirBusqueda(valor, casos, desde, medio, otro);
+    }
+
+    // Operando donde queda el resultado de una expresión, las expresiones con error valen 0
+    long lugarDe(Object valor) {
+        if (valor instanceof ValorExpr) {
+            return ((ValorExpr) valor).lugar;
+        }
+        return Operando.entero(0);
+    }
+
+    // Operando de una variable en el código intermedio
+    long variableIR(String nombre) {
+        int id = programaIR.buscarVariable(nombre);
+        if (id < 0) {
+            // Variable no declarada (el error semántico ya se reportó)
+            id = programaIR.declararVariable(nombre, TipoIR.ENTERO, 0, 0);
+        }
+        return Operando.variable(id);
+    }
+
+    // Crea un temporal, emite temporal = arg1 op arg2 y retorna su valor
+    ValorExpr emitirTemporal(String descripcion, Operacion op, long arg1, long arg2, TipoIR tipo) {
+        int temp = programaIR.nuevoTemporal(tipo);
+        long lugar = Operando.temporal(temp);
+        programaIR.emitir(op, lugar, arg1, arg2);
+        return new ValorExpr(descripcion != null ? descripcion : "t" + temp, lugar);
+    }
+
+    // Emite una operación binaria entre dos expresiones
+    ValorExpr emitirBinaria(String descripcion, Operacion op, Object izq, Object der) {
+        long a = lugarDe(izq);
+        long b = lugarDe(der);
+        TipoIR tipo;
+        if (op.esRelacional() || op == Operacion.AND || op == Operacion.OR) {
+            tipo = TipoIR.BOOLEANO;
+        } else if (programaIR.tipoDe(a).esFlotante() || programaIR.tipoDe(b).esFlotante()) {
+            tipo = TipoIR.FLOTANTE;
+        } else {
+            tipo = TipoIR.ENTERO;
+        }
+        return emitirTemporal(descripcion, op, a, b, tipo);
+    }
+
+    // Emite el cálculo del desplazamiento en bytes de un elemento de arreglo (indice * 4)
+    long desplazamientoArreglo(long indice) {
+        return emitirTemporal(null, Operacion.MULTIPLICACION, indice, Operando.entero(4), TipoIR.ENTERO).lugar;
+    }
+
+    // Tamaño de una dimensión de arreglo, debe ser un literal entero
+    int dimensionConstante(Object dimension) {
+        if (dimension instanceof ValorExpr && ((ValorExpr) dimension).constante != null) {
+            return ((ValorExpr) dimension).constante;
+        }
+        report_SemanticError("La dimensión del arreglo debe ser un literal entero", null);
+        return 1;
+    }
+
+    // Etiqueta de salida del break actual, -1 si no hay ciclo ni switch abierto
+    int destinoBreak() {
+        return pilaBreak.isEmpty() ? -1 : pilaBreak.peek();
+    }
     
     // Variables para manejo de errores
     public int errorCount = 0;
@@ -675,11 +892,8 @@ public class parser extends java_cup.runtime.lr_parser {
         this.errorHandler = handler;
     }
 
-    // Tabla de símbolos: scope -> lista de tipos de variables
-    HashMap<String, ArrayList<String>> SymbolTable = new HashMap<>();
-    
-    // Scope actual
-    String currentScope = "global";
+    // Tabla de símbolos con ámbitos encadenados
+    TablaSimbolos tablaSimbolos = new TablaSimbolos();
     int scopeCounter = 0;
 
 
@@ -699,83 +913,65 @@ public class parser extends java_cup.runtime.lr_parser {
     
     // Método para validar si una variable ya existe en el scope actual
     public boolean isVariableDeclared(String varName) {
-        if (!SymbolTable.containsKey(currentScope)) {
-            return false;
-        }
-        
-        ArrayList<String> variables = SymbolTable.get(currentScope);
-        for (String var : variables) {
-            if (var.startsWith(varName + ":")) {
-                return true;
-            }
-        }
-        return false;
+        return tablaSimbolos.buscarEnActual(varName) != null;
+    }
+
+    // Una declaración choca con el scope actual o con el global
+    private boolean yaDeclarado(String nombre) {
+        return isVariableDeclared(nombre) || tablaSimbolos.buscarGlobal(nombre) != null;
     }
     
     // Método para agregar una variable a la tabla de símbolos
     public void addToSymbolTable(String varName, String varType) {
-        if (variableExists(varName)) {
-            report_SemanticError("Variable '" + varName + "' ya ha sido declarada en el scope '" + currentScope + "'", null);
+        if (yaDeclarado(varName)) {
+            report_SemanticError("Variable '" + varName + "' ya ha sido declarada en el scope '" + tablaSimbolos.getAmbitoActual() + "'", null);
             return;
         }
         
-        if (!SymbolTable.containsKey(currentScope)) {
-            SymbolTable.put(currentScope, new ArrayList<>());
+        tablaSimbolos.declararVariable(varName, varType);
+        System.out.println("Variable agregada: " + varName + ":" + varType + " en scope: " + tablaSimbolos.getAmbitoActual());
+    }
+
+    // Método para agregar un parámetro al scope de la función actual
+    public void addParameterToSymbolTable(String paramName, String paramType) {
+        if (yaDeclarado(paramName)) {
+            report_SemanticError("Variable '" + paramName + "' ya ha sido declarada en el scope '" + tablaSimbolos.getAmbitoActual() + "'", null);
+            return;
         }
-        
-        SymbolTable.get(currentScope).add(varName + ":" + varType);
-        System.out.println("Variable agregada: " + varName + ":" + varType + " en scope: " + currentScope);
+
+        tablaSimbolos.declararParametro(paramName, paramType);
+        System.out.println("Parámetro agregado: " + paramName + ":" + paramType + " en scope: " + tablaSimbolos.getAmbitoActual());
+    }
+
+    // Método para agregar una variable global sin importar el scope actual
+    public void addGlobalToSymbolTable(String varName, String varType) {
+        if (tablaSimbolos.buscarGlobal(varName) != null) {
+            report_SemanticError("Variable '" + varName + "' ya ha sido declarada en el scope 'global'", null);
+            return;
+        }
+
+        tablaSimbolos.declararGlobal(varName, varType);
+        System.out.println("Variable agregada: " + varName + ":" + varType + " en scope: global");
     }
     
-    // Método para agregar una función a la tabla de símbolos
-    public void addFunctionToSymbolTable(String funcName, String returnType, ArrayList<String> parameters) {
-        if (variableExists(funcName)) {
+    // Método para agregar una función a la tabla de símbolos (siempre en el scope global)
+    public void addFunctionToSymbolTable(String funcName, String returnType, List<String> parameterTypes) {
+        if (tablaSimbolos.buscarGlobal(funcName) != null) {
             report_SemanticError("Función '" + funcName + "' ya ha sido declarada", null);
             return;
         }
         
-        if (!SymbolTable.containsKey(currentScope)) {
-            SymbolTable.put(currentScope, new ArrayList<>());
-        }
-        
-        StringBuilder funcSignature = new StringBuilder();
-        funcSignature.append(funcName).append(":function(");
-        
-        for (int i = 0; i < parameters.size(); i++) {
-            funcSignature.append(parameters.get(i));
-            if (i < parameters.size() - 1) {
-                funcSignature.append(",");
-            }
-        }
-        
-        funcSignature.append(")->").append(returnType);
-        
-        SymbolTable.get(currentScope).add(funcSignature.toString());
-        System.out.println("Función agregada: " + funcSignature.toString() + " en scope: " + currentScope);
+        TablaSimbolos.Simbolo funcion = tablaSimbolos.declararFuncion(funcName, returnType, parameterTypes);
+        System.out.println("Función agregada: " + funcion + " en scope: global");
     }
 
     //Obtiene los parametros de una funcion en base a su nombre
     public ArrayList<String> getTiposParametrosFuncion(String nombreFuncion) {
-        for (Map.Entry<String, ArrayList<String>> entry : SymbolTable.entrySet()) {
-            for (String simbolo : entry.getValue()) {
-                if (simbolo.startsWith(nombreFuncion + ":function(")) {
-                    int inicio = simbolo.indexOf('(') + 1;
-                    int fin = simbolo.indexOf(')');
-                    String params = simbolo.substring(inicio, fin);
-                    
-                    ArrayList<String> tipos = new ArrayList<>();
-                    if (!params.isEmpty()) {
-                        String[] partes = params.split(",");
-                        for (String p : partes) {
-                            String[] tipoNombre = p.split("_"); // ejemplo: int_a
-                            tipos.add(tipoNombre[0].trim());
-                        }
-                    }
-                    return tipos;
-                }
-            }
+        TablaSimbolos.Simbolo funcion = tablaSimbolos.buscarFuncion(nombreFuncion);
+        if (funcion == null) {
+            return new ArrayList<>(); // no encontrada
         }
-        return new ArrayList<>(); // no encontrada, o sin parámetros
+        return new ArrayList<>(funcion.getTiposParametros());
     }
 
     //Obtiene el tipo de cada parametro de una funcion
@@ -792,22 +988,7 @@ public class parser extends java_cup.runtime.lr_parser {
     
     // Método para validar si una variable existe en cualquier scope accesible
     public boolean variableExists(String varName) {
-        // Buscar en scope actual
-        if (isVariableDeclared(varName)) {
-            return true;
-        }
-        
-        // Buscar en scope global
-        if (!currentScope.equals("global") && SymbolTable.containsKey("global")) {
-            ArrayList<String> globalVars = SymbolTable.get("global");
-            for (String var : globalVars) {
-                if (var.startsWith(varName + ":")) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        return tablaSimbolos.buscar(varName) != null;
     }
 
     //Quita las dimensiones de un array
@@ -817,15 +998,7 @@ public class parser extends java_cup.runtime.lr_parser {
     
     // Método para validar si una función existe
     public boolean functionExists(String funcName) {
-        if (SymbolTable.containsKey("global")) {
-            ArrayList<String> globalItems = SymbolTable.get("global");
-            for (String item : globalItems) {
-                if (item.startsWith(funcName + ":function")) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return tablaSimbolos.buscarFuncion(funcName) != null;
     }
 
     //Valida que dos tipos (string, char) sean iguales
@@ -843,56 +1016,39 @@ public class parser extends java_cup.runtime.lr_parser {
 
 
     public String getTipoVariable(String varName) {
-    // Buscar en el scope actual
-        if (SymbolTable.containsKey(currentScope)) {
-            for (String entry : SymbolTable.get(currentScope)) {
-                if (entry.startsWith(varName + ":")) {
-                    return entry.split(":")[1];
-                }
-            }
+        // Buscar desde el scope actual hacia el global
+        TablaSimbolos.Simbolo simbolo = tablaSimbolos.buscar(varName);
+        if (simbolo == null || simbolo.esFuncion()) {
+            return "error";
         }
-
-    // Si no está en el scope actual, buscar en global
-        if (!currentScope.equals("global") && SymbolTable.containsKey("global")) {
-            for (String entry : SymbolTable.get("global")) {
-                if (entry.startsWith(varName + ":") && !entry.contains("function")) {
-                    return entry.split(":")[1];
-                }
-            }
-        }
-
-        // Si no se encuentra
-        return "error";
+        return simbolo.getTipo();
     }
 
     
-    // Método para entrar en un nuevo scope
+    // Método para entrar en un nuevo scope, anidado en el actual
     public void enterScope(String scopeName) {
-        currentScope = scopeName;
-        if (!SymbolTable.containsKey(currentScope)) {
-            SymbolTable.put(currentScope, new ArrayList<>());
-        }
-        System.out.println("Entrando al scope: " + currentScope);
+        tablaSimbolos.abrirAmbito(scopeName);
+        System.out.println("Entrando al scope: " + scopeName);
     }
     
-    // Método para salir del scope actual
+    // Método para salir del scope actual y volver al que lo contiene
     public void exitScope() {
-        System.out.println("Saliendo del scope: " + currentScope);
-        currentScope = "global";
+        System.out.println("Saliendo del scope: " + tablaSimbolos.getAmbitoActual());
+        tablaSimbolos.cerrarAmbito();
     }
     
     // Método para generar un scope único para bloques anónimos
     public String generateUniqueScope() {
-        return currentScope + "_block_" + (++scopeCounter);
+        return tablaSimbolos.getAmbitoActual() + "_block_" + (++scopeCounter);
     }
     
     // Método para imprimir la tabla de símbolos (debug)
     public void printSymbolTable() {
         System.out.println("\n=== TABLA DE SÍMBOLOS ===");
-        for (String scope : SymbolTable.keySet()) {
-            System.out.println("Scope: " + scope);
-            for (String symbol : SymbolTable.get(scope)) {
-                System.out.println("  " + symbol);
+        for (TablaSimbolos.Ambito ambito : tablaSimbolos.getAmbitos()) {
+            System.out.println("Scope: " + ambito.getNombre());
+            for (TablaSimbolos.Simbolo simbolo : ambito.getSimbolos()) {
+                System.out.println("  " + simbolo);
             }
         }
         System.out.println("========================\n");
@@ -973,12 +1129,11 @@ public class parser extends java_cup.runtime.lr_parser {
     public void guardarCodigoIntermedio() {
         try {
             // Ruta relativa desde donde se ejecuta el parser
-            String ruta = "src/output";
-            java.io.File dir = new java.io.File(ruta);
+            java.io.File file = new java.io.File(rutaCodigoIntermedio);
+            java.io.File dir = file.getAbsoluteFile().getParentFile();
             if (!dir.exists()) dir.mkdirs();
-            java.io.File file = new java.io.File(dir, "codigo3D.txt");
             java.io.PrintWriter writer = new java.io.PrintWriter(file, "UTF-8");
-            for (String linea : codigoIntermedio) {
+            for (String linea : programaIR.getLineas()) {
                 writer.println(linea);
             }
             writer.close();
@@ -1015,17 +1170,8 @@ public class parser extends java_cup.runtime.lr_parser {
     }
     
     public String getTipoFuncion(String nombreFuncion) {
-        for (Map.Entry<String, ArrayList<String>> entry : SymbolTable.entrySet()) {
-            for (String simbolo : entry.getValue()) {
-                if (simbolo.startsWith(nombreFuncion + ":function(")) {
-                    int indiceFlecha = simbolo.indexOf(")->");
-                    if (indiceFlecha != -1) {
-                        return simbolo.substring(indiceFlecha + 3);
-                    }
-                }
-            }
-        }
-        return null;
+        TablaSimbolos.Simbolo funcion = tablaSimbolos.buscarFuncion(nombreFuncion);
+        return (funcion != null) ? funcion.getTipo() : null;
     }
     public String symbl_name_from_id(int id) {
         return (id >= 0 && id < sym.terminalNames.length) ? 
@@ -1053,35 +1199,6 @@ public class parser extends java_cup.runtime.lr_parser {
             }
         }
     }
-    // Contadores para etiquetas únicas en el código intermedio
-    int asigCounter = 0;
-    int ifCounter = 0;
-    int forCounter = 0;
-    int whileCounter = 0;
-    int doWhileCounter = 0;
-    int switchCounter = 0;
-    int caseCounter = 0;
-    int funcCounter = 0;
-    int llamadaCounter = 0;
-    int lecturaCounter = 0;
-    int escrituraCounter = 0;
-    int declaracionCounter = 0;
-    int temporalCounter = 0;
-
-    //Variables globales para etiquetas y expresiones
-    String exprSwitchActual = null; // Guarda la expresión actual del switch -
-    String parser_etiquetaIf = null;
-    String parser_etiquetaElif = null;
-    String parser_etiquetaElse = null;
-    String etiquetaFuncionActual = null;
-    String etiquetaIfActual = null;
-    String etiquetaElifActual = null;
-    String etiquetaElseActual = null;
-    String etiquetaForActual = null;
-    String etiquetaDoWhileActual = null;
-    String etiquetaSwitchActual = null;
-    String etiquetaCaseActual = null;
-    String etiquetaReturnActual = null;
 
 
 /** Cup generated class to encapsulate user supplied action code.*/
@@ -1144,14 +1261,16 @@ class CUP$parser$actions {
                 RESULT = "programa";
                 System.out.println("Programa parseado correctamente");
                 printSymbolTable();
-                // Imprimir código intermedio
-                System.out.println("=== CÓDIGO INTERMEDIO ===\n");
-                for (String line : codigoIntermedio) {
-                    System.out.println(line);
+                programaIR.cerrar();
+                // El volcado del código intermedio es solo un artefacto de depuración
+                if (volcarCodigoIntermedio) {
+                    System.out.println("=== CÓDIGO INTERMEDIO ===\n");
+                    for (String line : programaIR.getLineas()) {
+                        System.out.println(line);
+                    }
+                    System.out.println("\n=========================\n");
+                    guardarCodigoIntermedio();
                 }
-                System.out.println("\n=========================\n");
-                //Guardar codigo intermedio
-                guardarCodigoIntermedio();
             
               CUP$parser$result = parser.getSymbolFactory().newSymbol("programa",0, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
@@ -1336,10 +1455,8 @@ class CUP$parser$actions {
                    report_error("Identificador nulo en declaración de función", cur_token);
                }
                tipoFuncionActual = tipoStr;
-               String oldScope = currentScope;
                enterScope(nombreStr);
-               etiquetaFuncionActual = "funcion_" + (++funcCounter);
-               codigoIntermedio.add("INICIO_" + etiquetaFuncionActual + ": " + tipoStr + " " + nombreStr + "()");
+               programaIR.abrirFuncion(nombreStr, TipoIR.desde(tipoStr));
            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$0",46, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
@@ -1359,21 +1476,15 @@ class CUP$parser$actions {
 		int paramsright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
 		Object params = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 
-               ArrayList<String> paramList = new ArrayList<>();
-               String paramsStr = (params != null) ? params.toString() : "sin_parametros";
-               if (params != null && !paramsStr.equals("sin_parametros")) {
-                   String[] paramArray = paramsStr.split(",");
-                   for (String param : paramArray) {
-                       paramList.add(param.trim());
-                   }
-               }
-               currentScope = "global";
+               // Los parámetros ya están en el scope de la función
+               List<String> paramList = tablaSimbolos.tiposParametrosActuales();
                addFunctionToSymbolTable(
                    (nombre != null) ? nombre.toString() : "null",
                    tipoStr,
                    paramList
                );
-               currentScope = (nombre != null) ? nombre.toString() : "null";
+               long funcion = Operando.funcion(programaIR.getFuncionActual());
+               programaIR.emitir(Operacion.FUNCION, Operando.VACIO, funcion, Operando.entero(paramList.size()));
            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$1",47, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
@@ -1401,8 +1512,8 @@ class CUP$parser$actions {
                tipoFuncionActual = null;
                exitScope();
                String nombreStr = (nombre != null) ? nombre.toString() : "null";
-               codigoIntermedio.add("FIN_" + etiquetaFuncionActual + ": " + nombreStr + ":");
-               etiquetaFuncionActual = null;
+               programaIR.emitir(Operacion.FIN_FUNCION, Operando.VACIO, Operando.funcion(programaIR.getFuncionActual()), Operando.VACIO);
+               programaIR.cerrarFuncion();
                RESULT = "funcion_" + nombreStr;
            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("funcion",43, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-8)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -1464,7 +1575,8 @@ class CUP$parser$actions {
 		Object nombre = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
                 // Agregar parámetro a la tabla de símbolos del scope actual
-                addToSymbolTable(nombre.toString(), tipo.toString());
+                addParameterToSymbolTable(nombre.toString(), tipo.toString());
+                programaIR.declararParametro(nombre.toString(), TipoIR.desde(tipo.toString()));
                 RESULT = tipo + "_" + nombre;
             
               CUP$parser$result = parser.getSymbolFactory().newSymbol("parametro",20, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -1481,9 +1593,10 @@ class CUP$parser$actions {
                    } else {
                        mainDefined = true;
                        enterScope("main");
-                       //Generación de código intermedio
-                       codigoIntermedio.add("INICIO_main: ");
                    }
+                   //Generación de código intermedio
+                   int funcion = programaIR.abrirFuncion("main", TipoIR.ENTERO);
+                   programaIR.emitir(Operacion.FUNCION, Operando.VACIO, Operando.funcion(funcion), Operando.entero(0));
                
               CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$2",48, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
@@ -1501,7 +1614,8 @@ class CUP$parser$actions {
 		
                    exitScope();
                    //Generación de código intermedio
-                   codigoIntermedio.add("FIN_main: ");
+                   programaIR.emitir(Operacion.FIN_FUNCION, Operando.VACIO, Operando.funcion(programaIR.getFuncionActual()), Operando.VACIO);
+                   programaIR.cerrarFuncion();
                    RESULT = "main";
                
               CUP$parser$result = parser.getSymbolFactory().newSymbol("funcion_main",4, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -1620,7 +1734,12 @@ class CUP$parser$actions {
           case 35: // sentencia ::= BREAK FINLINEA 
             {
               Object RESULT =null;
-		 RESULT = "break"; 
+		
+                if (destinoBreak() >= 0) {
+                    programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(destinoBreak()), Operando.VACIO);
+                }
+                RESULT = "break";
+            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("sentencia",7, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -1721,32 +1840,53 @@ class CUP$parser$actions {
                   report_error("Condición nula en if", cur_token);
                   RESULT = "if_error";
               } else {
-                    if (!cond.equals("expr_rel")) {
+                    if (!cond.toString().equals("expr_rel")) {
                         report_error("La condición del 'if' debe ser de tipo 'expr_rel' (bool), no '" + cond + "'", cur_token);
                         RESULT = "if_error";
                     }
                   String newScope = generateUniqueScope();
                   enterScope(newScope);
-                  etiquetaIfActual = "if_" + (++ifCounter);
-                  codigoIntermedio.add("INICIO_" + etiquetaIfActual + ": if (" + resultExpr + ") goto " + etiquetaIfActual + "_true;");
               }
+              // Si la condición es falsa se salta a la siguiente condición (elif/else) o al final
+              int[] etiquetasIf = { programaIR.nuevaEtiqueta("Sig_if_"), programaIR.nuevaEtiqueta("Fin_if_") };
+              pilaIf.push(etiquetasIf);
+              programaIR.emitir(Operacion.SALTO_SI_FALSO, Operando.VACIO, lugarDe(cond), Operando.etiqueta(etiquetasIf[0]));
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$3",49, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 44: // if_stmt ::= IF ESH_IZ exprPrin EZH_DE NT$3 bloque elif_list else_stmt 
+          case 44: // NT$4 ::= 
+            {
+              Object RESULT =(Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
+		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).right;
+		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
+		int bleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
+		int bright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
+		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
+
+              int[] etiquetasIf = pilaIf.peek();
+              programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(etiquetasIf[1]), Operando.VACIO);
+              programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiquetasIf[0]), Operando.VACIO);
+          
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$4",50, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+            }
+          return CUP$parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 45: // if_stmt ::= IF ESH_IZ exprPrin EZH_DE NT$3 bloque NT$4 elif_list else_stmt 
             {
               Object RESULT =null;
-              // propagate RESULT from NT$3
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
-		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).left;
-		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).right;
-		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-5)).value;
-		int bleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
-		int bright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).right;
-		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+              // propagate RESULT from NT$4
+                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).left;
+		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).right;
+		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-6)).value;
+		int bleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
+		int bright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).right;
+		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
 		int elleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
 		int elright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
 		Object el = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
@@ -1755,16 +1895,16 @@ class CUP$parser$actions {
 		Object es = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
               exitScope();
-              codigoIntermedio.add("Fin_" + etiquetaIfActual + ":");
-              etiquetaIfActual = null;
+              int[] etiquetasIf = pilaIf.pop();
+              programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiquetasIf[1]), Operando.VACIO);
               RESULT = "if";
           
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("if_stmt",25, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-7)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("if_stmt",25, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-8)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 45: // NT$4 ::= 
+          case 46: // NT$5 ::= 
             {
               Object RESULT =null;
 		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
@@ -1776,22 +1916,23 @@ class CUP$parser$actions {
                     RESULT = "elif_error";
                 } else  {
                     String type = tiposCI.getOrDefault(cond.toString(), "desconocido");
-                     if (!cond.equals("expr_rel")) {
+                     if (!cond.toString().equals("expr_rel")) {
                         report_error("La condición del 'elif' debe ser de tipo 'expr_rel' (bool), no '" + cond + "'", cur_token);
                         RESULT = "elif_error";
                     }
                     String newScope = generateUniqueScope();
                     enterScope(newScope);
-                    etiquetaElifActual = "elif_" + (++ifCounter);
-                    codigoIntermedio.add("INICIO_" + etiquetaElifActual + ": if (" + resultExpr + ") goto " + etiquetaElifActual + "_true;");
                 }
+                int[] etiquetasIf = pilaIf.peek();
+                etiquetasIf[0] = programaIR.nuevaEtiqueta("Sig_elif_");
+                programaIR.emitir(Operacion.SALTO_SI_FALSO, Operando.VACIO, lugarDe(cond), Operando.etiqueta(etiquetasIf[0]));
             
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$4",50, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$5",51, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 46: // NT$5 ::= 
+          case 47: // NT$6 ::= 
             {
               Object RESULT =(Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
@@ -1802,18 +1943,19 @@ class CUP$parser$actions {
 		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 
                 exitScope();
-                codigoIntermedio.add("FIN_elif_" + etiquetaElifActual + ":");
-                etiquetaElifActual = null;
+                int[] etiquetasIf = pilaIf.peek();
+                programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(etiquetasIf[1]), Operando.VACIO);
+                programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiquetasIf[0]), Operando.VACIO);
             
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$5",51, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$6",52, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 47: // elif_list ::= ELIF ESH_IZ exprPrin EZH_DE NT$4 bloque NT$5 elif_list 
+          case 48: // elif_list ::= ELIF ESH_IZ exprPrin EZH_DE NT$5 bloque NT$6 elif_list 
             {
               Object RESULT =null;
-              // propagate RESULT from NT$5
+              // propagate RESULT from NT$6
                 RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).left;
 		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).right;
@@ -1830,7 +1972,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 48: // elif_list ::= 
+          case 49: // elif_list ::= 
             {
               Object RESULT =null;
 		 RESULT = "sin_elif"; 
@@ -1839,32 +1981,28 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 49: // NT$6 ::= 
+          case 50: // NT$7 ::= 
             {
               Object RESULT =null;
 
                 String newScope = generateUniqueScope();
                 enterScope(newScope);
-                etiquetaElseActual = "else_" + (++ifCounter);
-                codigoIntermedio.add("INICIO_" + etiquetaElseActual + ":");
             
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$6",52, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$7",53, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 50: // else_stmt ::= ELSE NT$6 bloque 
+          case 51: // else_stmt ::= ELSE NT$7 bloque 
             {
               Object RESULT =null;
-              // propagate RESULT from NT$6
+              // propagate RESULT from NT$7
                 RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 		int bleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int bright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
                 exitScope();
-                codigoIntermedio.add("FIN_else_" + etiquetaElseActual + ":");
-                etiquetaElseActual = null;
                 RESULT = "else";
             
               CUP$parser$result = parser.getSymbolFactory().newSymbol("else_stmt",27, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -1872,7 +2010,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 51: // else_stmt ::= 
+          case 52: // else_stmt ::= 
             {
               Object RESULT =null;
 		 RESULT = "sin_else"; 
@@ -1881,24 +2019,26 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 52: // NT$7 ::= 
+          case 53: // NT$8 ::= 
             {
               Object RESULT =null;
 
                String newScope = generateUniqueScope();
                enterScope(newScope);
-               etiquetaDoWhileActual = "do_while_" + (++doWhileCounter);
-               codigoIntermedio.add("INICIO_" + etiquetaDoWhileActual + ":");
+               int[] etiquetasDo = { programaIR.nuevaEtiqueta("INICIO_do_while_"), programaIR.nuevaEtiqueta("FIN_do_while_") };
+               pilaDoWhile.push(etiquetasDo);
+               pilaBreak.push(etiquetasDo[1]);
+               programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiquetasDo[0]), Operando.VACIO);
            
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$7",53, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$8",54, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 53: // do_while ::= DO NT$7 bloque WHILE ESH_IZ exprPrin EZH_DE FINLINEA 
+          case 54: // do_while ::= DO NT$8 bloque WHILE ESH_IZ exprPrin EZH_DE FINLINEA 
             {
               Object RESULT =null;
-              // propagate RESULT from NT$7
+              // propagate RESULT from NT$8
                 RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-6)).value;
 		int bleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).left;
 		int bright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).right;
@@ -1907,53 +2047,72 @@ class CUP$parser$actions {
 		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).right;
 		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
 		
+               int[] etiquetasDo = pilaDoWhile.pop();
+               pilaBreak.pop();
                 String type = tiposCI.getOrDefault(cond.toString(), "desconocido");
                if (cond == null) {
                    report_error("Condición nula en do-while", cur_token);
                    exitScope();
-                   etiquetaDoWhileActual = null;
                    RESULT = "while_error";
-               } else if (!cond.equals("expr_rel")) {
+               } else if (!cond.toString().equals("expr_rel")) {
                    report_error("La condición del 'while' debe ser de tipo 'expr_rel' (bool), no '" + cond + "'", cur_token);
                    exitScope();
-                   etiquetaDoWhileActual = null;
                    RESULT = "while_error";
                } else {
                    exitScope();
-                   codigoIntermedio.add("CONDICION_do_while_ (" + resultExpr + ") goto INICIO_" + etiquetaDoWhileActual + ";");
-                   codigoIntermedio.add("FIN_do_while_" + etiquetaDoWhileActual + ":");
-                   etiquetaDoWhileActual = null;
                    RESULT = "do_while";
                }
+               programaIR.emitir(Operacion.SALTO_SI, Operando.VACIO, lugarDe(cond), Operando.etiqueta(etiquetasDo[0]));
+               programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiquetasDo[1]), Operando.VACIO);
            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("do_while",28, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-7)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 54: // NT$8 ::= 
+          case 55: // NT$9 ::= 
             {
               Object RESULT =null;
-		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
-		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).right;
-		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
+		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
+		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+
+                ContextoFor ciclo = new ContextoFor();
+                ciclo.condicion = programaIR.nuevaEtiqueta("INICIO_for_");
+                ciclo.fin = programaIR.nuevaEtiqueta("FIN_for_");
+                pilaFor.push(ciclo);
+                programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(ciclo.condicion), Operando.VACIO);
+            
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$9",55, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+            }
+          return CUP$parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 56: // NT$10 ::= 
+            {
+              Object RESULT =(Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
+		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).right;
+		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
 		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 
-                condFor = resultExpr;
+                ContextoFor ciclo = pilaFor.peek();
+                programaIR.emitir(Operacion.SALTO_SI_FALSO, Operando.VACIO, lugarDe(cond), Operando.etiqueta(ciclo.fin));
+                ciclo.inicioIncremento = programaIR.marca();
             
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$8",54, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$10",56, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 55: // NT$9 ::= 
+          case 57: // NT$11 ::= 
             {
               Object RESULT =(Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
-		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).left;
-		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).right;
-		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-6)).value;
+		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-7)).left;
+		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-7)).right;
+		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-7)).value;
 		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left;
 		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).right;
 		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-4)).value;
@@ -1961,34 +2120,36 @@ class CUP$parser$actions {
 		int incright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
 		Object inc = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 
+               // El incremento se ejecuta después del cuerpo
+               ContextoFor ciclo = pilaFor.peek();
+               ciclo.incremento = programaIR.extraer(ciclo.inicioIncremento);
+               pilaBreak.push(ciclo.fin);
                if (cond == null) {
                    report_error("Condición nula en for", cur_token);
                    RESULT = "for_error";
                } else {
                    String newScope = generateUniqueScope();
                    enterScope(newScope);
-                   etiquetaForActual = "for_" + (++forCounter);
                    String type = tiposCI.getOrDefault(cond.toString(), "desconocido");
-                   if (!type.equals("int") && !cond.equals("expr_rel")) {
+                   if (!type.equals("int") && !cond.toString().equals("expr_rel")) {
                         report_error("La segunda condición del 'for' debe ser de tipo 'expr_rel' (bool), no '" + cond + "'", cur_token);
                         RESULT = "for_error";
                    }
-                   codigoIntermedio.add("INICIO_" + etiquetaForActual + ": if (" + condFor + ") goto " + etiquetaForActual + "_true;");
                }
            
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$9",55, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$11",57, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 56: // for_stmt ::= FOR ESH_IZ init_for FINLINEA exprPrin NT$8 FINLINEA end_for EZH_DE NT$9 bloque 
+          case 58: // for_stmt ::= FOR ESH_IZ init_for FINLINEA NT$9 exprPrin NT$10 FINLINEA end_for EZH_DE NT$11 bloque 
             {
               Object RESULT =null;
-              // propagate RESULT from NT$9
+              // propagate RESULT from NT$11
                 RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-8)).left;
-		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-8)).right;
-		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-8)).value;
+		int initleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-9)).left;
+		int initright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-9)).right;
+		Object init = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-9)).value;
 		int condleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).left;
 		int condright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).right;
 		Object cond = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-6)).value;
@@ -2000,16 +2161,19 @@ class CUP$parser$actions {
 		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
                exitScope();
-               codigoIntermedio.add("INCREMENTO_for_ (" + resultExpr + ")");
-               etiquetaForActual = null;
+               ContextoFor ciclo = pilaFor.pop();
+               pilaBreak.pop();
+               programaIR.agregar(ciclo.incremento);
+               programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(ciclo.condicion), Operando.VACIO);
+               programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(ciclo.fin), Operando.VACIO);
                RESULT = "for";
            
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("for_stmt",29, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-10)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("for_stmt",29, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-11)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 57: // init_for ::= declaracion_var 
+          case 59: // init_for ::= declaracion_var 
             {
               Object RESULT =null;
 		int dvleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2021,7 +2185,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 58: // init_for ::= asignacion 
+          case 60: // init_for ::= asignacion 
             {
               Object RESULT =null;
 		int aleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2033,7 +2197,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 59: // end_for ::= exprPrin 
+          case 61: // end_for ::= exprPrin 
             {
               Object RESULT =null;
 		int epleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2045,7 +2209,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 60: // end_for ::= asignacion 
+          case 62: // end_for ::= asignacion 
             {
               Object RESULT =null;
 		int aleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2057,7 +2221,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 61: // NT$10 ::= 
+          case 63: // NT$12 ::= 
             {
               Object RESULT =null;
 		int exprleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2065,28 +2229,35 @@ class CUP$parser$actions {
 		Object expr = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
 
                   String exprStr = tiposCI.getOrDefault(expr.toString(), "desconocido");
+                  ContextoSwitch sw = new ContextoSwitch();
+                  sw.tipoAnterior = tipoSwitchActual;
+                  sw.casesAnteriores = caseValues;
                   if (expr == null) {
                       report_error("Expresión nula en switch", cur_token);
                       RESULT = "error";
                   } else {
                       tipoSwitchActual = exprStr;
-                      exprSwitchActual = expr.toString();
                       String newScope = generateUniqueScope();
                       enterScope(newScope);
                       caseValues = new HashSet<>();
-                      etiquetaSwitchActual = "switch_" + (++switchCounter);
-                      codigoIntermedio.add("INICIO_" + etiquetaSwitchActual + ": switch (" + expr.toString() + "):");
                   }
+                  // Primero se saltan los cuerpos de los case hasta el despacho, que va al final
+                  sw.valor = lugarDe(expr);
+                  sw.despacho = programaIR.nuevaEtiqueta("DESPACHO_switch_");
+                  sw.fin = programaIR.nuevaEtiqueta("FIN_switch_");
+                  pilaSwitch.push(sw);
+                  pilaBreak.push(sw.fin);
+                  programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(sw.despacho), Operando.VACIO);
               
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$10",56, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$12",58, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 62: // switch_stmt ::= SWITCH ESH_IZ exprPrin EZH_DE INIT_BLOC NT$10 case_list default_case END_BLOC 
+          case 64: // switch_stmt ::= SWITCH ESH_IZ exprPrin EZH_DE INIT_BLOC NT$12 case_list default_case END_BLOC 
             {
               Object RESULT =null;
-              // propagate RESULT from NT$10
+              // propagate RESULT from NT$12
                 RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
 		int exprleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).left;
 		int exprright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).right;
@@ -2098,11 +2269,23 @@ class CUP$parser$actions {
 		int dcright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
 		Object dc = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 		
-                  tipoSwitchActual = null;
-                  caseValues = null;
+                  ContextoSwitch sw = pilaSwitch.pop();
+                  tipoSwitchActual = sw.tipoAnterior;
+                  caseValues = sw.casesAnteriores;
                   exitScope();
-                  codigoIntermedio.add("FIN_switch_" + etiquetaSwitchActual + ":"); 
-                  etiquetaSwitchActual = null;
+                  pilaBreak.pop();
+                  programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(sw.fin), Operando.VACIO);
+                  programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(sw.despacho), Operando.VACIO);
+                  programaIR.agregar(sw.codigoValores);
+                  int otro = sw.porDefecto >= 0 ? sw.porDefecto : sw.fin;
+                  if (!emitirDespachoEntero(sw, otro)) {
+                      for (int i = 0; i < sw.valores.size(); i++) {
+                          ValorExpr igual = emitirTemporal(null, Operacion.IGUAL, sw.valor, sw.valores.get(i), TipoIR.BOOLEANO);
+                          programaIR.emitir(Operacion.SALTO_SI, Operando.VACIO, igual.lugar, Operando.etiqueta(sw.etiquetas.get(i)));
+                      }
+                      programaIR.emitir(Operacion.SALTO, Operando.VACIO, Operando.etiqueta(otro), Operando.VACIO);
+                  }
+                  programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(sw.fin), Operando.VACIO);
                   RESULT = "switch";
               
               CUP$parser$result = parser.getSymbolFactory().newSymbol("switch_stmt",30, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-8)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2110,7 +2293,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 63: // case_list ::= case_list case_item 
+          case 65: // case_list ::= case_list case_item 
             {
               Object RESULT =null;
 		int clleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
@@ -2125,7 +2308,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 64: // case_list ::= 
+          case 66: // case_list ::= 
             {
               Object RESULT =null;
 		 RESULT = "sin_cases"; 
@@ -2134,12 +2317,50 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 65: // case_item ::= CASE case_value DOSPUNTOS sentencias 
+          case 67: // NT$13 ::= 
             {
               Object RESULT =null;
-		int cvleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
-		int cvright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).right;
-		Object cv = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+
+                pilaSwitch.peek().inicioValor = programaIR.marca();
+            
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$13",59, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+            }
+          return CUP$parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 68: // NT$14 ::= 
+            {
+              Object RESULT =(Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+		int cvleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
+		int cvright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
+		Object cv = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+
+                // El cálculo del valor se mueve al despacho del switch
+                ContextoSwitch sw = pilaSwitch.peek();
+                sw.codigoValores.addAll(programaIR.extraer(sw.inicioValor));
+                ValorExpr valorCase = (cv instanceof ValorExpr) ? (ValorExpr) cv : null;
+                long valor = lugarDe(cv);
+                if (valorCase != null && valorCase.constante != null) {
+                    valor = Operando.entero(valorCase.constante);
+                }
+                int etiquetaCase = programaIR.nuevaEtiqueta("CASE_");
+                sw.valores.add(valor);
+                sw.etiquetas.add(etiquetaCase);
+                programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(etiquetaCase), Operando.VACIO);
+            
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$14",60, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+            }
+          return CUP$parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 69: // case_item ::= CASE NT$13 case_value DOSPUNTOS NT$14 sentencias 
+            {
+              Object RESULT =null;
+              // propagate RESULT from NT$14
+                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int cvleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
+		int cvright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).right;
+		Object cv = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-3)).value;
 		int sleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object s = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
@@ -2158,19 +2379,15 @@ class CUP$parser$actions {
                     } else {
                         caseValues.add(valor);
                     }
-                    etiquetaCaseActual = "case_" + (++caseCounter);
-                    codigoIntermedio.add("INIT_CASE_" + etiquetaCaseActual + ": if (" + exprSwitchActual + " == " + cv + ") goto " + etiquetaCaseActual + "_true;");
-                    codigoIntermedio.add("FIN_CASE_" + etiquetaCaseActual + ":");
-                    etiquetaCaseActual = null;
                     RESULT = "case";
                 }
             
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("case_item",32, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("case_item",32, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 66: // case_value ::= factor 
+          case 70: // case_value ::= factor 
             {
               Object RESULT =null;
 		int fleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2182,19 +2399,34 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 67: // default_case ::= DEFAULT DOSPUNTOS sentencias 
+          case 71: // NT$15 ::= 
             {
               Object RESULT =null;
+
+                   ContextoSwitch sw = pilaSwitch.peek();
+                   sw.porDefecto = programaIR.nuevaEtiqueta("DEFAULT_");
+                   programaIR.emitir(Operacion.ETIQUETA, Operando.VACIO, Operando.etiqueta(sw.porDefecto), Operando.VACIO);
+               
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("NT$15",61, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+            }
+          return CUP$parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 72: // default_case ::= DEFAULT DOSPUNTOS NT$15 sentencias 
+            {
+              Object RESULT =null;
+              // propagate RESULT from NT$15
+                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 		int sleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int sright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object s = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		 RESULT = "default"; 
-              CUP$parser$result = parser.getSymbolFactory().newSymbol("default_case",24, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
+              CUP$parser$result = parser.getSymbolFactory().newSymbol("default_case",24, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 68: // default_case ::= 
+          case 73: // default_case ::= 
             {
               Object RESULT =null;
 		 RESULT = "sin_default"; 
@@ -2203,7 +2435,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 69: // declaracion_var ::= tipo_dato IDENTIFIER declaracion_init 
+          case 74: // declaracion_var ::= tipo_dato IDENTIFIER declaracion_init 
             {
               Object RESULT =null;
 		int tipoleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2234,9 +2466,10 @@ class CUP$parser$actions {
                         }
 
                         addToSymbolTable(nombre.toString(), tipoDeclarado);
-                        etiquetaReturnActual = "declaracion_" + (++asigCounter);
-                        codigoIntermedio.add(etiquetaReturnActual + ": " + nombre.toString() + " = " + (init != null ? init.toString() : "0") + ";");
-                        etiquetaReturnActual = null;
+                        int variable = programaIR.declararVariable(nombre.toString(), TipoIR.desde(tipoDeclarado), 0, 0);
+                        if (init instanceof ValorExpr) {
+                            programaIR.emitir(Operacion.COPIA, Operando.variable(variable), lugarDe(init), Operando.VACIO);
+                        }
                         RESULT = "declaracion_" + nombre;
                     }
                   
@@ -2245,7 +2478,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 70: // declaracion_var ::= tipo_dato IDENTIFIER PIPE exprPrin PIPE exprPrin PIPE 
+          case 75: // declaracion_var ::= tipo_dato IDENTIFIER PIPE exprPrin PIPE exprPrin PIPE 
             {
               Object RESULT =null;
 		int tipoleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)).left;
@@ -2279,10 +2512,9 @@ class CUP$parser$actions {
                           }
                           String arrayType = tipo + "[" + type1 + "][" + type2 + "]";
                           addToSymbolTable(nombre.toString(), arrayType);
-                          arrayType = tipo + "[" + dim1 + "][" + dim2 + "]";
-                          etiquetaReturnActual = "declaracion_array_" + (++asigCounter);
-                          codigoIntermedio.add(etiquetaReturnActual + ": " + nombre.toString() + " = new " + arrayType + ":");
-                          etiquetaReturnActual = null;
+                          int filas = dimensionConstante(dim1);
+                          int columnas = dimensionConstante(dim2);
+                          programaIR.declararVariable(nombre.toString(), TipoIR.desde(tipo.toString()), filas * columnas, columnas);
                           RESULT = "declaracion_array_" + nombre;
                       }
                   
@@ -2291,7 +2523,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 71: // declaracion_var ::= tipo_dato IDENTIFIER PIPE exprPrin PIPE 
+          case 76: // declaracion_var ::= tipo_dato IDENTIFIER PIPE exprPrin PIPE 
             {
               Object RESULT =null;
 		int tipoleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left;
@@ -2321,10 +2553,7 @@ class CUP$parser$actions {
                           }
                           String arrayType = tipo + "[" + type1 + "]";
                           addToSymbolTable(nombre.toString(), arrayType);
-                          arrayType = tipo + "[" + dim1 + "]";
-                          etiquetaReturnActual = "declaracion_array_" + (++asigCounter);
-                          codigoIntermedio.add(etiquetaReturnActual + ": " + nombre.toString() + " = new " + arrayType + ":");
-                          etiquetaReturnActual = null;
+                          programaIR.declararVariable(nombre.toString(), TipoIR.desde(tipo.toString()), dimensionConstante(dim1), 0);
                           RESULT = "declaracion_array_" + nombre;
                       }
                   
@@ -2333,7 +2562,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 72: // declaracion_global ::= GLOBAL tipo_dato IDENTIFIER declaracion_init FINLINEA 
+          case 77: // declaracion_global ::= GLOBAL tipo_dato IDENTIFIER declaracion_init FINLINEA 
             {
               Object RESULT =null;
 		int tipoleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
@@ -2354,13 +2583,11 @@ class CUP$parser$actions {
                         report_SemanticError("No se puede asignar un valor de tipo '" + tipoInicializado + "' a una variable de tipo '" + tipoDeclarado + "'", cur_token);
                     }
 
-                    String oldScope = currentScope;
-                    currentScope = "global";
-                    addToSymbolTable(nombre.toString(), tipoDeclarado);
-                    currentScope = oldScope;
-                    etiquetaReturnActual = "declaracion_global_" + (++asigCounter);
-                    codigoIntermedio.add(etiquetaReturnActual + ": " + nombre.toString() + " = " + (init != null ? init.toString() : "0") + ":");
-                    etiquetaReturnActual = null;
+                    addGlobalToSymbolTable(nombre.toString(), tipoDeclarado);
+                    int variable = programaIR.declararVariable(nombre.toString(), TipoIR.desde(tipoDeclarado), 0, 0);
+                    if (init instanceof ValorExpr) {
+                        programaIR.emitir(Operacion.COPIA, Operando.variable(variable), lugarDe(init), Operando.VACIO);
+                    }
                     RESULT = "declaracion_global_" + nombre;
                 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("declaracion_global",37, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2368,7 +2595,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 73: // declaracion_init ::= ASIGNA exprPrin 
+          case 78: // declaracion_init ::= ASIGNA exprPrin 
             {
               Object RESULT =null;
 		int exprleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2380,7 +2607,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 74: // declaracion_init ::= 
+          case 79: // declaracion_init ::= 
             {
               Object RESULT =null;
 		 RESULT = "sin_inicializar"; 
@@ -2389,7 +2616,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 75: // asignacion ::= IDENTIFIER ASIGNA exprPrin 
+          case 80: // asignacion ::= IDENTIFIER ASIGNA exprPrin 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2411,9 +2638,7 @@ class CUP$parser$actions {
                                       "' a una variable de tipo '" + tipoVar + "'", cur_token);
                      }
                  }
-                 etiquetaReturnActual = "asig_" + (++asigCounter);
-                 codigoIntermedio.add(etiquetaReturnActual + ": " + nombre + " = " + expr.toString() + ";");
-                 etiquetaReturnActual = null;
+                 programaIR.emitir(Operacion.COPIA, variableIR(nombre.toString()), lugarDe(expr), Operando.VACIO);
                  RESULT = expr;
              
               CUP$parser$result = parser.getSymbolFactory().newSymbol("asignacion",38, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2421,7 +2646,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 76: // asignacion ::= accesoArreglo ASIGNA exprPrin 
+          case 81: // asignacion ::= accesoArreglo ASIGNA exprPrin 
             {
               Object RESULT =null;
 		int accleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2443,9 +2668,10 @@ class CUP$parser$actions {
                                               "' al elemento del arreglo de tipo '" + tipoBase + "'", cur_token);
                      }
                  }
-                 etiquetaReturnActual = "asig_array_" + (++asigCounter);
-                 codigoIntermedio.add(etiquetaReturnActual + ": " + acc.toString() + " = " + expr.toString() + ";");
-                 etiquetaReturnActual = null;
+                 if (acc instanceof ValorExpr) {
+                     ValorExpr elemento = (ValorExpr) acc;
+                     programaIR.emitir(Operacion.GUARDAR_ARREGLO, elemento.arreglo, elemento.desplazamiento, lugarDe(expr));
+                 }
                  RESULT = expr;
              
               CUP$parser$result = parser.getSymbolFactory().newSymbol("asignacion",38, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2453,7 +2679,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 77: // exprPrin ::= exprLog 
+          case 82: // exprPrin ::= exprLog 
             {
               Object RESULT =null;
 		int elleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2465,7 +2691,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 78: // exprPrin ::= error 
+          case 83: // exprPrin ::= error 
             {
               Object RESULT =null;
 		
@@ -2477,7 +2703,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 79: // exprLog ::= exprLog operadorLog exprRel 
+          case 84: // exprLog ::= exprLog operadorLog exprRel 
             {
               Object RESULT =null;
 		int elleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2490,17 +2716,14 @@ class CUP$parser$actions {
 		int erright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object er = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-              String temp = "t" + (++temporalCounter);
-              codigoIntermedio.add(temp + " = " + el + " " + op + " " + er + ";");
-              resultExpr = temp ;
-              RESULT = "expr_log";
+              RESULT = emitirBinaria("expr_log", Operacion.desdeOperador(op.toString()), el, er);
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("exprLog",9, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 80: // exprLog ::= exprRel 
+          case 85: // exprLog ::= exprRel 
             {
               Object RESULT =null;
 		int erleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2512,23 +2735,21 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 81: // exprLog ::= NEGACION exprRel 
+          case 86: // exprLog ::= NEGACION exprRel 
             {
               Object RESULT =null;
 		int erleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int erright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object er = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-              String temp = "t" + (++temporalCounter);
-              codigoIntermedio.add(temp + " = !" + er + ";");
-              RESULT = "negacion";
+              RESULT = emitirTemporal("negacion", Operacion.NOT, lugarDe(er), Operando.VACIO, TipoIR.BOOLEANO);
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("exprLog",9, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 82: // operadorLog ::= DISYUNCION 
+          case 87: // operadorLog ::= DISYUNCION 
             {
               Object RESULT =null;
 		 RESULT = "||"; 
@@ -2537,7 +2758,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 83: // operadorLog ::= CONJUNCION 
+          case 88: // operadorLog ::= CONJUNCION 
             {
               Object RESULT =null;
 		 RESULT = "&&"; 
@@ -2546,7 +2767,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 84: // exprRel ::= exprArit operadorRel exprArit 
+          case 89: // exprRel ::= exprArit operadorRel exprArit 
             {
               Object RESULT =null;
 		int ea1left = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2559,17 +2780,14 @@ class CUP$parser$actions {
 		int ea2right = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object ea2 = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-              String temp = "t" + (++temporalCounter);
-              codigoIntermedio.add(temp + " = " + ea1 + " " + op + " " + ea2 + ";");
-              resultExpr = temp ;
-              RESULT = "expr_rel";
+              RESULT = emitirBinaria("expr_rel", Operacion.desdeOperador(op.toString()), ea1, ea2);
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("exprRel",10, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 85: // exprRel ::= exprArit 
+          case 90: // exprRel ::= exprArit 
             {
               Object RESULT =null;
 		int ealeft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2581,7 +2799,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 86: // operadorRel ::= MAYOR 
+          case 91: // operadorRel ::= MAYOR 
             {
               Object RESULT =null;
 		 RESULT = ">"; 
@@ -2590,7 +2808,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 87: // operadorRel ::= MENOR 
+          case 92: // operadorRel ::= MENOR 
             {
               Object RESULT =null;
 		 RESULT = "<"; 
@@ -2599,7 +2817,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 88: // operadorRel ::= MAYORIGUAL 
+          case 93: // operadorRel ::= MAYORIGUAL 
             {
               Object RESULT =null;
 		 RESULT = ">="; 
@@ -2608,7 +2826,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 89: // operadorRel ::= MENORIGUAL 
+          case 94: // operadorRel ::= MENORIGUAL 
             {
               Object RESULT =null;
 		 RESULT = "<="; 
@@ -2617,7 +2835,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 90: // operadorRel ::= COMPARACION 
+          case 95: // operadorRel ::= COMPARACION 
             {
               Object RESULT =null;
 		 RESULT = "=="; 
@@ -2626,7 +2844,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 91: // operadorRel ::= DIFERENTE 
+          case 96: // operadorRel ::= DIFERENTE 
             {
               Object RESULT =null;
 		 RESULT = "!="; 
@@ -2635,7 +2853,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 92: // exprArit ::= exprArit operadorArit termino 
+          case 97: // exprArit ::= exprArit operadorArit termino 
             {
               Object RESULT =null;
 		int ealeft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2648,17 +2866,14 @@ class CUP$parser$actions {
 		int tright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object t = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		 
-               String temp = "t" + (++temporalCounter);
-               codigoIntermedio.add(temp + " = " + ea + " " + op + " " + t + ";");
-               resultExpr = temp;
-               RESULT = "expr_arit"; 
+               RESULT = emitirBinaria("expr_arit", Operacion.desdeOperador(op.toString()), ea, t);
            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("exprArit",8, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 93: // exprArit ::= termino 
+          case 98: // exprArit ::= termino 
             {
               Object RESULT =null;
 		int tleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2670,7 +2885,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 94: // exprArit ::= operandoUnario 
+          case 99: // exprArit ::= operandoUnario 
             {
               Object RESULT =null;
 		int ouleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2682,7 +2897,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 95: // termino ::= termino MULTIPLICA factor 
+          case 100: // termino ::= termino MULTIPLICA factor 
             {
               Object RESULT =null;
 		int tleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2692,16 +2907,14 @@ class CUP$parser$actions {
 		int fright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object f = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-              String temp = "t" + (++temporalCounter);
-              codigoIntermedio.add(temp + " = " + t + " * " + f + ";");
-              RESULT = "mult";
+              RESULT = emitirBinaria("mult", Operacion.MULTIPLICACION, t, f);
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("termino",13, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 96: // termino ::= termino DIVIDE factor 
+          case 101: // termino ::= termino DIVIDE factor 
             {
               Object RESULT =null;
 		int tleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2711,16 +2924,14 @@ class CUP$parser$actions {
 		int fright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object f = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-              String temp = "t" + (++temporalCounter);
-              codigoIntermedio.add(temp + " = " + t + " / " + f + ";");
-              RESULT = "div";
+              RESULT = emitirBinaria("div", Operacion.DIVISION, t, f);
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("termino",13, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 97: // termino ::= termino MODULO factor 
+          case 102: // termino ::= termino MODULO factor 
             {
               Object RESULT =null;
 		int tleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -2730,16 +2941,14 @@ class CUP$parser$actions {
 		int fright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object f = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-              String temp = "t" + (++temporalCounter);
-              codigoIntermedio.add(temp + " = " + t + " % " + f + ";");
-              RESULT = "mod";
+              RESULT = emitirBinaria("mod", Operacion.MODULO, t, f);
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("termino",13, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 98: // termino ::= factor 
+          case 103: // termino ::= factor 
             {
               Object RESULT =null;
 		int fleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2751,7 +2960,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 99: // operadorArit ::= SUMA 
+          case 104: // operadorArit ::= SUMA 
             {
               Object RESULT =null;
 		 RESULT = "+"; 
@@ -2760,7 +2969,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 100: // operadorArit ::= RESTA 
+          case 105: // operadorArit ::= RESTA 
             {
               Object RESULT =null;
 		 RESULT = "-"; 
@@ -2769,7 +2978,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 101: // operadorArit ::= MULTIPLICA 
+          case 106: // operadorArit ::= MULTIPLICA 
             {
               Object RESULT =null;
 		 RESULT = "*"; 
@@ -2778,7 +2987,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 102: // operadorArit ::= DIVIDE 
+          case 107: // operadorArit ::= DIVIDE 
             {
               Object RESULT =null;
 		 RESULT = "/"; 
@@ -2787,7 +2996,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 103: // operadorArit ::= MODULO 
+          case 108: // operadorArit ::= MODULO 
             {
               Object RESULT =null;
 		 RESULT = "%"; 
@@ -2796,7 +3005,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 104: // operadorArit ::= POTENCIA 
+          case 109: // operadorArit ::= POTENCIA 
             {
               Object RESULT =null;
 		 RESULT = "^"; 
@@ -2805,7 +3014,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 105: // operandoUnario ::= signo_unario factor 
+          case 110: // operandoUnario ::= signo_unario factor 
             {
               Object RESULT =null;
 		int signoleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
@@ -2814,13 +3023,20 @@ class CUP$parser$actions {
 		int fleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int fright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object f = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
-		 RESULT = "opUnario"; 
+		
+                     if (signo.toString().equals("-")) {
+                         long valor = lugarDe(f);
+                         RESULT = emitirTemporal("opUnario", Operacion.NEGATIVO, valor, Operando.VACIO, programaIR.tipoDe(valor));
+                     } else {
+                         RESULT = new ValorExpr("opUnario", lugarDe(f));
+                     }
+                 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("operandoUnario",17, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 106: // operandoUnario ::= INCREMENTO IDENTIFIER 
+          case 111: // operandoUnario ::= INCREMENTO IDENTIFIER 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2830,17 +3046,16 @@ class CUP$parser$actions {
                      if (!variableExists(nombre.toString())) {
                          report_SemanticError("Variable '" + nombre + "' no ha sido declarada", cur_token);
                      }
-                     etiquetaReturnActual = "incremento_" + (++asigCounter);
-                     codigoIntermedio.add(etiquetaReturnActual + ": " + nombre.toString() + " = " + nombre.toString() + " + 1;");
-                     etiquetaReturnActual = null;
-                     RESULT = "incremento";
+                     long variable = variableIR(nombre.toString());
+                     programaIR.emitir(Operacion.SUMA, variable, variable, Operando.entero(1));
+                     RESULT = new ValorExpr("incremento", variable);
                  
               CUP$parser$result = parser.getSymbolFactory().newSymbol("operandoUnario",17, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 107: // operandoUnario ::= DECREMENTO IDENTIFIER 
+          case 112: // operandoUnario ::= DECREMENTO IDENTIFIER 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -2850,17 +3065,16 @@ class CUP$parser$actions {
                      if (!variableExists(nombre.toString())) {
                          report_SemanticError("Variable '" + nombre + "' no ha sido declarada", cur_token);
                      }
-                     etiquetaReturnActual = "decremento_" + (++asigCounter);
-                     codigoIntermedio.add(etiquetaReturnActual + ": " + nombre.toString() + " = " + nombre.toString() + " - 1;");
-                     etiquetaReturnActual = null;
-                     RESULT = "decremento";
+                     long variable = variableIR(nombre.toString());
+                     programaIR.emitir(Operacion.RESTA, variable, variable, Operando.entero(1));
+                     RESULT = new ValorExpr("decremento", variable);
                  
               CUP$parser$result = parser.getSymbolFactory().newSymbol("operandoUnario",17, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 108: // signo_unario ::= SUMA 
+          case 113: // signo_unario ::= SUMA 
             {
               Object RESULT =null;
 		 RESULT = "+"; 
@@ -2869,7 +3083,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 109: // signo_unario ::= RESTA 
+          case 114: // signo_unario ::= RESTA 
             {
               Object RESULT =null;
 		 RESULT = "-"; 
@@ -2878,7 +3092,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 110: // accesoArreglo ::= IDENTIFIER BRACEIZQ exprPrin BRACEDER 
+          case 115: // accesoArreglo ::= IDENTIFIER BRACEIZQ exprPrin BRACEDER 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
@@ -2900,9 +3114,13 @@ class CUP$parser$actions {
                                 report_SemanticError("El índice del arreglo debe ser de tipo 'int', no '" + type + "'", cur_token);
                             }
                         }
-                        String temp = "t" + (++temporalCounter);
-                        codigoIntermedio.add(temp + " = " + nombre.toString() + "[" + idx + "];");
-                        RESULT = nombre.toString();
+                        long arreglo = variableIR(nombre.toString());
+                        long desplazamiento = desplazamientoArreglo(lugarDe(idx));
+                        ValorExpr elemento = emitirTemporal(nombre.toString(), Operacion.CARGAR_ARREGLO, arreglo, desplazamiento,
+                                                            programaIR.tipoDe(arreglo));
+                        elemento.arreglo = arreglo;
+                        elemento.desplazamiento = desplazamiento;
+                        RESULT = elemento;
                     }
                 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("accesoArreglo",18, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2910,7 +3128,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 111: // accesoArreglo ::= IDENTIFIER BRACEIZQ exprPrin COMA exprPrin BRACEDER 
+          case 116: // accesoArreglo ::= IDENTIFIER BRACEIZQ exprPrin COMA exprPrin BRACEDER 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).left;
@@ -2937,9 +3155,17 @@ class CUP$parser$actions {
                                                       + type1 + ", " + type2 + "]", cur_token);
                             }
                         }
-                        String temp = "t" + (++temporalCounter);
-                        codigoIntermedio.add(temp + " = " + nombre.toString() + "[" + idx1 + "][" + idx2 + "];");
-                        RESULT = nombre.toString();
+                        // Índice lineal = fila * columnas + columna
+                        long arreglo = variableIR(nombre.toString());
+                        int columnas = programaIR.getVariable(Operando.valor(arreglo)).columnas;
+                        ValorExpr fila = emitirTemporal(null, Operacion.MULTIPLICACION, lugarDe(idx1), Operando.entero(columnas), TipoIR.ENTERO);
+                        ValorExpr indice = emitirTemporal(null, Operacion.SUMA, fila.lugar, lugarDe(idx2), TipoIR.ENTERO);
+                        long desplazamiento = desplazamientoArreglo(indice.lugar);
+                        ValorExpr elemento = emitirTemporal(nombre.toString(), Operacion.CARGAR_ARREGLO, arreglo, desplazamiento,
+                                                            programaIR.tipoDe(arreglo));
+                        elemento.arreglo = arreglo;
+                        elemento.desplazamiento = desplazamiento;
+                        RESULT = elemento;
                     }
                 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("accesoArreglo",18, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2947,7 +3173,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 112: // llamada_funcion ::= IDENTIFIER ESH_IZ lista_expresiones EZH_DE 
+          case 117: // llamada_funcion ::= IDENTIFIER ESH_IZ lista_expresiones EZH_DE 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left;
@@ -2966,7 +3192,10 @@ class CUP$parser$actions {
                             report_SemanticError("Función '" + nombreFuncion + "' no ha sido declarada", cur_token);
                         } else {
                             ArrayList<String> tiposEsperados = getTiposParametrosFuncion(nombreFuncion);
-                            ArrayList<String> tiposRecibidos = (ArrayList<String>) args;
+                            ArrayList<String> tiposRecibidos = new ArrayList<>();
+                            for (Object arg : (List<Object>) args) {
+                                tiposRecibidos.add(tiposCI.getOrDefault(arg.toString(), "desconocido"));
+                            }
 
                             if (tiposEsperados.size() != tiposRecibidos.size()) {
                                 report_SemanticError("Cantidad de argumentos inválida para la función '" +
@@ -2986,11 +3215,14 @@ class CUP$parser$actions {
                         if (tipoFuncion == null) {
                             report_SemanticError("Función '" + nombreFuncion + "' no tiene tipo de retorno definido", cur_token);
                         }
-                        String temp = "t" + (++temporalCounter);
-                        String etiqueta = "llamada_" + (++llamadaCounter);
-                        codigoIntermedio.add(etiqueta + ": " + temp + " = call " + nombreFuncion + "(" + listaGlobal.toString() + ");");
-                        listaGlobal.clear();
-                        RESULT = temp;
+                        // Los argumentos se pasan justo antes de la llamada para soportar llamadas anidadas
+                        List<Object> argumentos = (List<Object>) args;
+                        for (Object arg : argumentos) {
+                            programaIR.emitir(Operacion.PARAMETRO, Operando.VACIO, lugarDe(arg), Operando.VACIO);
+                        }
+                        long funcion = Operando.funcion(programaIR.buscarFuncion(nombreFuncion));
+                        RESULT = emitirTemporal(null, Operacion.LLAMADA, funcion, Operando.entero(argumentos.size()),
+                                                TipoIR.desde(tipoFuncion));
                     }
                 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("llamada_funcion",39, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -2998,7 +3230,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 113: // lista_expresiones ::= lista_expresiones COMA exprPrin 
+          case 118: // lista_expresiones ::= lista_expresiones COMA exprPrin 
             {
               Object RESULT =null;
 		int leleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
@@ -3008,12 +3240,8 @@ class CUP$parser$actions {
 		int epright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object ep = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-                        String type = tiposCI.getOrDefault(ep.toString(), "desconocido");
-                        List<String> lista = (List<String>) le;
-
-                        listaGlobal.add(ep.toString());
-
-                        lista.add(type);  
+                        List<Object> lista = (List<Object>) le;
+                        lista.add(ep);
                         RESULT = lista;
                     
               CUP$parser$result = parser.getSymbolFactory().newSymbol("lista_expresiones",21, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -3021,18 +3249,15 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 114: // lista_expresiones ::= exprPrin 
+          case 119: // lista_expresiones ::= exprPrin 
             {
               Object RESULT =null;
 		int epleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int epright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object ep = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-                        String type = tiposCI.getOrDefault(ep.toString(), "desconocido");
-                        List<String> lista = new ArrayList<>();
-                        lista.add(type);
-                        
-                        listaGlobal.add(ep.toString());
+                        List<Object> lista = new ArrayList<>();
+                        lista.add(ep);
                         RESULT = lista;
                     
               CUP$parser$result = parser.getSymbolFactory().newSymbol("lista_expresiones",21, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -3040,18 +3265,18 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 115: // lista_expresiones ::= 
+          case 120: // lista_expresiones ::= 
             {
               Object RESULT =null;
 		
-                        RESULT = new ArrayList<String>();
+                        RESULT = new ArrayList<Object>();
                     
               CUP$parser$result = parser.getSymbolFactory().newSymbol("lista_expresiones",21, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 116: // retorno ::= RETURN exprPrin 
+          case 121: // retorno ::= RETURN exprPrin 
             {
               Object RESULT =null;
 		int valorleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -3063,9 +3288,7 @@ class CUP$parser$actions {
                if (!type.equals(tipoFuncionActual)) {
                    report_SemanticError("Tipo de retorno inválido. Se esperaba '" + tipoFuncionActual + "' pero se encontró '" + type + "'", cur_token);
                }
-               etiquetaReturnActual = "return_" + (++funcCounter);
-               codigoIntermedio.add(etiquetaReturnActual + ": return " + valor.toString() + ";");
-               etiquetaReturnActual = null;
+               programaIR.emitir(Operacion.RETORNO, Operando.VACIO, lugarDe(valor), Operando.VACIO);
                RESULT = "return_" + valor;
            
               CUP$parser$result = parser.getSymbolFactory().newSymbol("retorno",40, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -3073,7 +3296,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 117: // lectura ::= LEER ESH_IZ IDENTIFIER EZH_DE 
+          case 122: // lectura ::= LEER ESH_IZ IDENTIFIER EZH_DE 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
@@ -3083,9 +3306,7 @@ class CUP$parser$actions {
               if (!variableExists(nombre.toString()) || functionExists(nombre.toString())) {
                   report_SemanticError("Variable '" + nombre + "' no ha sido declarada", cur_token);
               }
-              etiquetaReturnActual = "leer_" + (++asigCounter);
-              codigoIntermedio.add(etiquetaReturnActual + ": leer " + nombre.toString() + ";");
-              etiquetaReturnActual = null;
+              programaIR.emitir(Operacion.LEER, variableIR(nombre.toString()), Operando.VACIO, Operando.VACIO);
               RESULT = "leer_" + nombre;
           
               CUP$parser$result = parser.getSymbolFactory().newSymbol("lectura",41, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -3093,16 +3314,14 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 118: // escritura ::= IMPRIMIR ESH_IZ exprPrin EZH_DE 
+          case 123: // escritura ::= IMPRIMIR ESH_IZ exprPrin EZH_DE 
             {
               Object RESULT =null;
 		int exprleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
 		int exprright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
 		Object expr = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
 		 
-                etiquetaReturnActual = "imprimir_" + (++asigCounter);
-                codigoIntermedio.add(etiquetaReturnActual + ": imprimir " + expr.toString() + ";");
-                etiquetaReturnActual = null;
+                programaIR.emitir(Operacion.IMPRIMIR, Operando.VACIO, lugarDe(expr), Operando.VACIO);
                 RESULT = "imprimir_" + expr;
             
               CUP$parser$result = parser.getSymbolFactory().newSymbol("escritura",42, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
@@ -3110,15 +3329,16 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 119: // factor ::= INTEGER_LITERAL 
+          case 124: // factor ::= INTEGER_LITERAL 
             {
               Object RESULT =null;
 		int illeft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int ilright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object il = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = " + il + ";");
+             int valor = Integer.parseInt(il.toString());
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, Operando.entero(valor), Operando.VACIO, TipoIR.ENTERO);
+             temp.constante = valor;
              tiposCI.put(temp.toString(),"int");
              RESULT = temp;
          
@@ -3127,15 +3347,15 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 120: // factor ::= FLOAT_LITERAL 
+          case 125: // factor ::= FLOAT_LITERAL 
             {
               Object RESULT =null;
 		int flleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int flright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object fl = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = " + fl + ";");
+             long valor = Operando.flotante(Float.parseFloat(fl.toString()));
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, valor, Operando.VACIO, TipoIR.FLOTANTE);
              tiposCI.put(temp.toString(),"float");
              RESULT = temp;
          
@@ -3144,15 +3364,17 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 121: // factor ::= CHAR_LITERAL 
+          case 126: // factor ::= CHAR_LITERAL 
             {
               Object RESULT =null;
 		int clleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int clright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object cl = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = " + cl + ";");
+             // El lexema incluye las comillas: 'a' o '\''
+             String lexema = (cl != null) ? cl.toString() : "' '";
+             long valor = Operando.entero(lexema.charAt(lexema.length() - 2));
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, valor, Operando.VACIO, TipoIR.CARACTER);
              tiposCI.put(temp.toString(),"char");
              RESULT = temp;
          
@@ -3161,15 +3383,15 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 122: // factor ::= STRING_LITERAL 
+          case 127: // factor ::= STRING_LITERAL 
             {
               Object RESULT =null;
 		int slleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
 		int slright = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).right;
 		Object sl = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
 		
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = " + sl + ";");
+             long valor = Operando.cadena(programaIR.agregarCadena(sl.toString()));
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, valor, Operando.VACIO, TipoIR.CADENA);
              tiposCI.put(temp.toString(),"string");
              RESULT = temp;
          
@@ -3178,12 +3400,11 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 123: // factor ::= TRUE 
+          case 128: // factor ::= TRUE 
             {
               Object RESULT =null;
 		
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = true;");
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, Operando.entero(1), Operando.VACIO, TipoIR.BOOLEANO);
              tiposCI.put(temp.toString(),"true");
              RESULT = temp;
          
@@ -3192,12 +3413,11 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 124: // factor ::= FALSE 
+          case 129: // factor ::= FALSE 
             {
               Object RESULT =null;
 		
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = false;");
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, Operando.entero(0), Operando.VACIO, TipoIR.BOOLEANO);
              tiposCI.put(temp.toString(),"false");
              RESULT = temp;
          
@@ -3206,7 +3426,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 125: // factor ::= llamada_funcion 
+          case 130: // factor ::= llamada_funcion 
             {
               Object RESULT =null;
 		int lfleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -3221,7 +3441,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 126: // factor ::= accesoArreglo 
+          case 131: // factor ::= accesoArreglo 
             {
               Object RESULT =null;
 		int aaleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -3233,8 +3453,7 @@ class CUP$parser$actions {
              }
              String tipoCompleto = getTipoVariable(aa.toString());
              String tipoBase = quitarDimensiones(tipoCompleto);
-             String temp = "t" + (++temporalCounter);
-             codigoIntermedio.add(temp + " = " + aa.toString() + ";");
+             ValorExpr temp = emitirTemporal(null, Operacion.COPIA, lugarDe(aa), Operando.VACIO, TipoIR.desde(tipoBase));
              tiposCI.put(temp.toString(),tipoBase);
              RESULT = temp;
          
@@ -3243,7 +3462,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 127: // factor ::= IDENTIFIER 
+          case 132: // factor ::= IDENTIFIER 
             {
               Object RESULT =null;
 		int nombreleft = ((java_cup.runtime.Symbol)CUP$parser$stack.peek()).left;
@@ -3254,8 +3473,8 @@ class CUP$parser$actions {
                  report_SemanticError("Variable '" + nombre + "' no ha sido declarada", cur_token);
                  RESULT = "error";
              } else {
-                 String temp = "t" + (++temporalCounter);
-                 codigoIntermedio.add(temp + " = " + nombre.toString() + ";");
+                 long variable = variableIR(nombre.toString());
+                 ValorExpr temp = emitirTemporal(null, Operacion.COPIA, variable, Operando.VACIO, programaIR.tipoDe(variable));
                  tiposCI.put(temp.toString(),getTipoVariable(nombre.toString()));
                  RESULT = temp;
              }
@@ -3265,7 +3484,7 @@ class CUP$parser$actions {
           return CUP$parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 128: // factor ::= ESH_IZ exprPrin EZH_DE 
+          case 133: // factor ::= ESH_IZ exprPrin EZH_DE 
             {
               Object RESULT =null;
 		int epleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;